@@ -0,0 +1,115 @@
+package com.julianw03.rcls.benchmarks;
+
+import com.julianw03.rcls.service.proxy.rewrite.StreamingAssetRewriter;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Rewriting one {@code hsw.js} for the hCaptcha proxy. REGEX is the former handler: decode, replace the hosts,
+ * strip the CSP meta tag with {@link String#replaceAll} and encode again. STREAMING is the
+ * {@link StreamingAssetRewriter} writing into a reused buffer.
+ * <p>
+ * Set {@code assetFile} to a captured {@code hsw.js}, otherwise a synthetic script of a similar size and host
+ * density is generated.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class AssetRewriteBenchmark {
+    private static final Pattern HOST_PATTERN      = Pattern.compile("((\\w{1,20})\\.)hcaptcha\\.com");
+    private static final String  REGEX_REPLACEMENT = "127.0.0.1:8080/hcaptcha-proxy/$2";
+
+    public enum Rewriter {
+        REGEX,
+        STREAMING
+    }
+
+    @Param({"REGEX", "STREAMING"})
+    public Rewriter rewriter;
+
+    @Param({""})
+    public String assetFile;
+
+    private byte[]                 asset;
+    private StreamingAssetRewriter streamingRewriter;
+    private ByteArrayOutputStream  output;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        asset = assetFile.isEmpty()
+                ? syntheticAsset(600 * 1024)
+                : Files.readAllBytes(Path.of(assetFile));
+        streamingRewriter = new StreamingAssetRewriter(
+                "127.0.0.1:8080/hcaptcha-proxy/",
+                true
+        );
+        output = new ByteArrayOutputStream(asset.length + 64 * 1024);
+    }
+
+    @Benchmark
+    public void rewrite(Blackhole blackhole) throws IOException {
+        switch (rewriter) {
+            case REGEX -> {
+                final String body = new String(
+                        asset,
+                        StandardCharsets.UTF_8
+                );
+                final String rewritten = HOST_PATTERN.matcher(body)
+                                                     .replaceAll(REGEX_REPLACEMENT)
+                                                     .replaceAll(
+                                                             "<meta http-equiv=\"Content-Security-Policy\"[^>]+>",
+                                                             ""
+                                                     );
+                blackhole.consume(rewritten.getBytes(StandardCharsets.UTF_8));
+            }
+            case STREAMING -> {
+                output.reset();
+                streamingRewriter.rewrite(
+                        new ByteArrayInputStream(asset),
+                        output
+                );
+                blackhole.consume(output.size());
+            }
+        }
+    }
+
+    /**
+     * Minified looking script with a host reference every few kilobytes and one CSP meta tag.
+     */
+    private static byte[] syntheticAsset(int size) {
+        final String[] subdomains = {"api", "imgs", "newassets", "api2", "js"};
+        final Random random = new Random(42);
+        final StringBuilder sb = new StringBuilder(size + 1_024);
+        sb.append("<meta http-equiv=\"Content-Security-Policy\" content=\"default-src 'self' https://*.hcaptcha.com\">");
+        while (sb.length() < size) {
+            for (int i = 0; i < 256; i++) {
+                sb.append((char) ('a' + random.nextInt(26)));
+                if (random.nextInt(8) == 0) {
+                    sb.append(random.nextBoolean()
+                            ? "(0,"
+                            : ";var _");
+                }
+            }
+            if (random.nextInt(16) == 0) {
+                sb.append("\"https://")
+                  .append(subdomains[random.nextInt(subdomains.length)])
+                  .append(".hcaptcha.com/")
+                  .append('"');
+            }
+        }
+        return sb.toString()
+                 .getBytes(StandardCharsets.UTF_8);
+    }
+}
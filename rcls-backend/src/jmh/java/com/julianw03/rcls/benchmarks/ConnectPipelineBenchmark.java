@@ -0,0 +1,293 @@
+package com.julianw03.rcls.benchmarks;
+
+import com.julianw03.rcls.config.mappings.ExecutionConfig;
+import com.julianw03.rcls.config.mappings.RiotClientServiceConfig;
+import com.julianw03.rcls.eventBus.impl.MultiChannelBusImpl;
+import com.julianw03.rcls.eventBus.model.Channel;
+import com.julianw03.rcls.eventBus.model.MultiChannelBus;
+import com.julianw03.rcls.eventBus.model.events.RCUConnectionEvent;
+import com.julianw03.rcls.model.RiotClientConnectionParameters;
+import com.julianw03.rcls.model.data.DataManager;
+import com.julianw03.rcls.model.data.routing.UriTemplate;
+import com.julianw03.rcls.service.riotclient.RiotClientService;
+import com.julianw03.rcls.service.riotclient.RiotClientServiceImpl;
+import com.julianw03.rcls.service.riotclient.connection.RiotClientConnectionStrategy;
+import com.julianw03.rcls.service.riotclient.connection.RiotClientEndpoints;
+import com.julianw03.rcls.service.riotclient.readiness.ConnectPhaseTimings;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.net.http.WebSocket;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Time from {@link RiotClientServiceImpl#connect()} until every DataManager holds its complete initial state, run
+ * through the actual connect pipeline and the actual initial fetches of {@link DataManager}.
+ * <p>
+ * Only the Riot Client is stubbed: its REST API is ready right away, the websocket handshake takes
+ * {@code handshakeMillis} and every initial fetch {@code fetchMillis}, in the range observed against a local
+ * Riot Client. Fully sequential, a connect takes {@code handshakeMillis + managers * fetchMillis}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 10)
+public class ConnectPipelineBenchmark {
+    private static final RiotClientConnectionParameters PARAMETERS = new RiotClientConnectionParameters(
+            "benchmark",
+            12345
+    );
+
+    @Param({"3", "6"})
+    public int managers;
+
+    @Param({"15"})
+    public long handshakeMillis;
+
+    @Param({"12"})
+    public long fetchMillis;
+
+    private MultiChannelBusImpl                     eventBus;
+    private RiotClientServiceImpl                   riotClientService;
+    private List<BenchmarkManager>                  dataManagers;
+    private final AtomicReference<CountDownLatch>   initialStates = new AtomicReference<>();
+    private final AtomicReference<CountDownLatch>   disconnected  = new AtomicReference<>();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        final RiotClientServiceConfig.ConnectionInitParameters connectionInit = new RiotClientServiceConfig.ConnectionInitParameters();
+        connectionInit.setRestConnectWaitForMaxMs(5_000);
+        final RiotClientServiceConfig.ConnectionStrategyParams connectionStrategy = new RiotClientServiceConfig.ConnectionStrategyParams();
+        connectionStrategy.setConnectTimeoutMs(5_000);
+        final RiotClientServiceConfig config = new RiotClientServiceConfig();
+        config.setConnectionInit(connectionInit);
+        config.setConnectionStrategy(connectionStrategy);
+
+        eventBus = new MultiChannelBusImpl();
+        eventBus.getFlux(
+                        Channel.RCU_CONNECTION_STATE,
+                        RCUConnectionEvent.class
+                )
+                .filter(event -> !event.getPayload())
+                .subscribe(event -> disconnected.get()
+                                                .countDown());
+        riotClientService = new RiotClientServiceImpl(
+                new StubConnectionStrategy(),
+                eventBus,
+                config,
+                new ExecutionConfig(),
+                new SimpleMeterRegistry(),
+                new ConnectPhaseTimings(),
+                new StubEndpoints()
+        );
+        riotClientService.startup();
+        dataManagers = new ArrayList<>();
+        for (int i = 0; i < managers; i++) {
+            final BenchmarkManager dataManager = new BenchmarkManager(
+                    riotClientService,
+                    eventBus,
+                    i
+            );
+            dataManager.startup();
+            dataManagers.add(dataManager);
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void prepareConnect() {
+        initialStates.set(new CountDownLatch(managers));
+        disconnected.set(new CountDownLatch(1));
+    }
+
+    @Benchmark
+    public void timeToFirstCompleteState() throws Exception {
+        riotClientService.connect();
+        initialStates.get()
+                     .await();
+    }
+
+    /**
+     * Waits until the disconnect reached the DataManagers, so that the next connect starts from scratch.
+     */
+    @TearDown(Level.Invocation)
+    public void disconnect() throws Exception {
+        riotClientService.disconnect();
+        disconnected.get()
+                    .await();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        dataManagers.forEach(DataManager::shutdown);
+        riotClientService.shutdown();
+    }
+
+    private static class StubConnectionStrategy implements RiotClientConnectionStrategy {
+        @Override
+        public RiotClientConnectionParameters connect() {
+            return PARAMETERS;
+        }
+
+        @Override
+        public void disconnect() {
+        }
+    }
+
+    private class StubEndpoints implements RiotClientEndpoints {
+        @Override
+        public CompletableFuture<Void> awaitRestReady(
+                RiotClientConnectionParameters parameters,
+                ConnectPhaseTimings timings
+        ) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        @Override
+        public CompletableFuture<WebSocket> openWebsocket(
+                RiotClientConnectionParameters parameters,
+                WebSocket.Listener listener
+        ) {
+            final StubWebSocket socket = new StubWebSocket(listener);
+            return CompletableFuture.supplyAsync(
+                    () -> {
+                        listener.onOpen(socket);
+                        return socket;
+                    },
+                    after(handshakeMillis)
+            );
+        }
+    }
+
+    /**
+     * Accepts everything and answers a close with a close.
+     */
+    private record StubWebSocket(WebSocket.Listener listener) implements WebSocket {
+        @Override
+        public CompletableFuture<WebSocket> sendText(
+                CharSequence data,
+                boolean last
+        ) {
+            return CompletableFuture.completedFuture(this);
+        }
+
+        @Override
+        public CompletableFuture<WebSocket> sendBinary(
+                ByteBuffer data,
+                boolean last
+        ) {
+            return CompletableFuture.completedFuture(this);
+        }
+
+        @Override
+        public CompletableFuture<WebSocket> sendPing(ByteBuffer message) {
+            return CompletableFuture.completedFuture(this);
+        }
+
+        @Override
+        public CompletableFuture<WebSocket> sendPong(ByteBuffer message) {
+            return CompletableFuture.completedFuture(this);
+        }
+
+        @Override
+        public CompletableFuture<WebSocket> sendClose(
+                int statusCode,
+                String reason
+        ) {
+            listener.onClose(
+                    this,
+                    statusCode,
+                    reason
+            );
+            return CompletableFuture.completedFuture(this);
+        }
+
+        @Override
+        public void request(long n) {
+        }
+
+        @Override
+        public String getSubprotocol() {
+            return "";
+        }
+
+        @Override
+        public boolean isOutputClosed() {
+            return false;
+        }
+
+        @Override
+        public boolean isInputClosed() {
+            return false;
+        }
+
+        @Override
+        public void abort() {
+        }
+    }
+
+    /**
+     * Fetches its initial state from a Riot Client that takes {@code fetchMillis} to answer.
+     */
+    private class BenchmarkManager extends DataManager<Integer> {
+        private final int     index;
+        private       Integer state;
+
+        private BenchmarkManager(
+                RiotClientService riotClientService,
+                MultiChannelBus eventBus,
+                int index
+        ) {
+            super(
+                    riotClientService,
+                    eventBus
+            );
+            this.index = index;
+        }
+
+        @Override
+        public List<UriTemplate> getUriTemplates() {
+            return List.of(UriTemplate.of("/benchmark/v1/manager-" + index));
+        }
+
+        @Override
+        protected CompletableFuture<Integer> doFetchInitialData() {
+            return CompletableFuture.supplyAsync(
+                    () -> index,
+                    after(fetchMillis)
+            );
+        }
+
+        @Override
+        protected void setState(Integer state) {
+            this.state = state;
+            initialStates.get()
+                         .countDown();
+        }
+
+        @Override
+        protected Integer getState() {
+            return state;
+        }
+
+        @Override
+        public void resetInternalState() {
+            this.state = null;
+        }
+    }
+
+    private static Executor after(long millis) {
+        return CompletableFuture.delayedExecutor(
+                millis,
+                TimeUnit.MILLISECONDS
+        );
+    }
+}
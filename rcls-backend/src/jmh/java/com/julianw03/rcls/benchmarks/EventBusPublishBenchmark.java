@@ -0,0 +1,65 @@
+package com.julianw03.rcls.benchmarks;
+
+import com.julianw03.rcls.config.mappings.EventBusConfig;
+import com.julianw03.rcls.eventBus.impl.MultiChannelBusImpl;
+import com.julianw03.rcls.eventBus.model.Channel;
+import com.julianw03.rcls.eventBus.model.OverflowPolicy;
+import com.julianw03.rcls.eventBus.model.events.RCUConnectionEvent;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import reactor.core.Disposable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Publish cost per event on a single channel with 1, 4 and 16 subscribers.
+ * Subscribers consume on the publishing thread, so the score includes fan-out to every cursor.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class EventBusPublishBenchmark {
+
+    @Param({"1", "4", "16"})
+    public int subscribers;
+
+    @Param({"DROP_OLDEST", "COALESCE", "BLOCK"})
+    public OverflowPolicy overflowPolicy;
+
+    private MultiChannelBusImpl eventBus;
+    private List<Disposable>    subscriptions;
+    private RCUConnectionEvent  event;
+
+    @Setup
+    public void setup(Blackhole blackhole) {
+        EventBusConfig config = new EventBusConfig();
+        config.getDefaults()
+              .setOverflowPolicy(overflowPolicy);
+        eventBus = new MultiChannelBusImpl(config);
+        event = new RCUConnectionEvent(
+                "benchmark",
+                true
+        );
+
+        subscriptions = new ArrayList<>();
+        for (int i = 0; i < subscribers; i++) {
+            subscriptions.add(eventBus.getFlux(Channel.RCU_PROXY)
+                                      .subscribe(blackhole::consume));
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        subscriptions.forEach(Disposable::dispose);
+    }
+
+    @Benchmark
+    public void publish() {
+        eventBus.publish(
+                Channel.RCU_PROXY,
+                event
+        );
+    }
+}
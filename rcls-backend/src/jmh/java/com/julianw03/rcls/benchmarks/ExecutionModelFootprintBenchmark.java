@@ -0,0 +1,133 @@
+package com.julianw03.rcls.benchmarks;
+
+import com.julianw03.rcls.Util.ExecutorUtils;
+import com.julianw03.rcls.config.mappings.ExecutionConfig;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Live threads and resident memory after the executors of RiotClientServiceImpl and ProcessServiceImpl
+ * went through a burst of blocking work (connect, REST probes, process kills) and settled down again.
+ * LEGACY recreates the three fixed pools of ten platform threads, VIRTUAL uses {@link ExecutorUtils}.
+ * The score is the time the burst took, the footprint is reported as the {@code liveThreads} and {@code rssKb} counters.
+ * RSS is read from /proc and reported as -1 where that is not available.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 10)
+public class ExecutionModelFootprintBenchmark {
+    private static final int  BLOCKING_TASKS = 64;
+    private static final long BLOCK_MILLIS   = 20;
+
+    public enum Model {
+        LEGACY,
+        VIRTUAL
+    }
+
+    @Param({"LEGACY", "VIRTUAL"})
+    public Model model;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Footprint {
+        public long liveThreads;
+        public long rssKb;
+    }
+
+    @Benchmark
+    public void startupAndIdle(Footprint footprint) throws InterruptedException {
+        final List<ExecutorService> executors = new ArrayList<>();
+        final List<ExecutorService> timers = new ArrayList<>();
+        createExecutors(
+                executors,
+                timers
+        );
+        final CountDownLatch done = new CountDownLatch(BLOCKING_TASKS);
+        for (int i = 0; i < BLOCKING_TASKS; i++) {
+            executors.get(i % executors.size())
+                     .execute(() -> {
+                         try {
+                             Thread.sleep(BLOCK_MILLIS);
+                         } catch (InterruptedException e) {
+                             Thread.currentThread()
+                                   .interrupt();
+                         }
+                         done.countDown();
+                     });
+        }
+        done.await();
+
+        footprint.liveThreads = ManagementFactory.getThreadMXBean()
+                                                 .getThreadCount();
+        footprint.rssKb = readRssKb();
+
+        executors.addAll(timers);
+        for (ExecutorService executor : executors) {
+            executor.shutdownNow();
+            executor.awaitTermination(
+                    1,
+                    TimeUnit.SECONDS
+            );
+        }
+    }
+
+    /**
+     * @param executors Receives the executors that run blocking work
+     * @param timers    Receives the executors that are only part of the footprint
+     */
+    private void createExecutors(
+            List<ExecutorService> executors,
+            List<ExecutorService> timers
+    ) {
+        switch (model) {
+            case LEGACY -> {
+                executors.add(Executors.newScheduledThreadPool(10));
+                executors.add(Executors.newFixedThreadPool(10));
+                executors.add(Executors.newScheduledThreadPool(10));
+            }
+            case VIRTUAL -> {
+                final ExecutionConfig config = new ExecutionConfig();
+                executors.add(ExecutorUtils.newBlockingExecutor(
+                        "riotclient",
+                        config
+                ));
+                executors.add(ExecutorUtils.newBlockingExecutor(
+                        "process-service",
+                        config
+                ));
+                timers.add(ExecutorUtils.newScheduler(
+                        "riotclient",
+                        config
+                ));
+            }
+        }
+    }
+
+    private static long readRssKb() {
+        try {
+            return Files.readAllLines(Path.of("/proc/self/status"))
+                        .stream()
+                        .filter(line -> line.startsWith("VmRSS:"))
+                        .findFirst()
+                        .map(line -> Long.parseLong(line.replaceAll(
+                                "\\D",
+                                ""
+                        )))
+                        .orElse(-1L);
+        } catch (IOException | RuntimeException e) {
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package com.julianw03.rcls.benchmarks;
+
+import com.julianw03.rcls.service.process.ProcessIndex;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * The process lookups of one process takeover connect (one per game, the Riot Client and Riot Client Services)
+ * against a synthetic process table. SCAN walks the table for every lookup, as ProcessServiceImpl used to,
+ * INDEXED answers all of them from one {@link ProcessIndex} snapshot.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class ProcessLookupBenchmark {
+    private static final List<String> EXECUTABLES = List.of(
+            "LeagueClient.exe",
+            "LoR.exe",
+            "VALORANT.exe",
+            "2XKO.exe",
+            "Riot Client.exe",
+            "RiotClientServices.exe"
+    );
+
+    public enum Lookup {
+        SCAN,
+        INDEXED
+    }
+
+    @Param({"SCAN", "INDEXED"})
+    public Lookup lookup;
+
+    @Param({"5000"})
+    public int processCount;
+
+    private List<ProcessHandle> processTable;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        processTable = new ArrayList<>(processCount);
+        for (int i = 0; i < processCount; i++) {
+            final String command = i % 1_000 == 0
+                    ? "C:\\Riot Games\\" + EXECUTABLES.get((i / 1_000) % EXECUTABLES.size())
+                    : "C:\\Windows\\System32\\svchost-" + i + ".exe";
+            processTable.add(new FakeProcessHandle(
+                    i,
+                    command
+            ));
+        }
+    }
+
+    @Benchmark
+    public void takeoverLookups(Blackhole blackhole) {
+        switch (lookup) {
+            case SCAN -> {
+                for (String executable : EXECUTABLES) {
+                    blackhole.consume(processTable.stream()
+                                                  .filter(processHandle -> processHandle.info()
+                                                                                        .command()
+                                                                                        .map(command -> command.endsWith(executable))
+                                                                                        .orElse(false))
+                                                  .toList());
+                }
+            }
+            case INDEXED -> {
+                // A fresh index per invocation, so the single walk is part of the measurement
+                final ProcessIndex index = new ProcessIndex(
+                        processTable::stream,
+                        () -> EXECUTABLES,
+                        Duration.ofSeconds(1)
+                );
+                for (String executable : EXECUTABLES) {
+                    blackhole.consume(index.find(executable));
+                }
+            }
+        }
+    }
+
+    /**
+     * Builds a new {@link ProcessHandle.Info} on every call, like the JDK does.
+     */
+    private record FakeProcessHandle(
+            long pid,
+            String command
+    ) implements ProcessHandle {
+        @Override
+        public Optional<ProcessHandle> parent() {
+            return Optional.empty();
+        }
+
+        @Override
+        public Stream<ProcessHandle> children() {
+            return Stream.empty();
+        }
+
+        @Override
+        public Stream<ProcessHandle> descendants() {
+            return Stream.empty();
+        }
+
+        @Override
+        public Info info() {
+            return new FakeInfo(command);
+        }
+
+        @Override
+        public CompletableFuture<ProcessHandle> onExit() {
+            return new CompletableFuture<>();
+        }
+
+        @Override
+        public boolean supportsNormalTermination() {
+            return true;
+        }
+
+        @Override
+        public boolean destroy() {
+            return false;
+        }
+
+        @Override
+        public boolean destroyForcibly() {
+            return false;
+        }
+
+        @Override
+        public boolean isAlive() {
+            return true;
+        }
+
+        @Override
+        public int compareTo(ProcessHandle other) {
+            return Long.compare(
+                    pid,
+                    other.pid()
+            );
+        }
+    }
+
+    private record FakeInfo(
+            String executable
+    ) implements ProcessHandle.Info {
+        @Override
+        public Optional<String> command() {
+            return Optional.of(executable);
+        }
+
+        @Override
+        public Optional<String> commandLine() {
+            return Optional.of(executable);
+        }
+
+        @Override
+        public Optional<String[]> arguments() {
+            return Optional.empty();
+        }
+
+        @Override
+        public Optional<Instant> startInstant() {
+            return Optional.empty();
+        }
+
+        @Override
+        public Optional<Duration> totalCpuDuration() {
+            return Optional.empty();
+        }
+
+        @Override
+        public Optional<String> user() {
+            return Optional.empty();
+        }
+    }
+}
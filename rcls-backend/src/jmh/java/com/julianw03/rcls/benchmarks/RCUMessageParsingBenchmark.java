@@ -0,0 +1,107 @@
+package com.julianw03.rcls.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.julianw03.rcls.model.RCUWebsocketMessage;
+import com.julianw03.rcls.service.riotclient.websocket.RCUMessageStreamParser;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the legacy ingest path ({@code StringBuffer} + {@code readTree} + {@code convertValue})
+ * against {@link RCUMessageStreamParser} for a patch-state frame delivered in websocket fragments.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class RCUMessageParsingBenchmark {
+
+    @Param({"256", "4096"})
+    public int fragmentSize;
+
+    /**
+     * Whether a consumer claims the message and reads its data, or it is dropped unrouted.
+     */
+    @Param({"true", "false"})
+    public boolean claimed;
+
+    private ObjectMapper           mapper;
+    private List<String>           fragments;
+    private RCUMessageStreamParser streamParser;
+
+    @Setup
+    public void setup() {
+        mapper = new ObjectMapper();
+        streamParser = new RCUMessageStreamParser(mapper);
+
+        final String frame = buildFrame();
+        fragments = new ArrayList<>();
+        for (int i = 0; i < frame.length(); i += fragmentSize) {
+            fragments.add(frame.substring(
+                    i,
+                    Math.min(frame.length(), i + fragmentSize)
+            ));
+        }
+    }
+
+    @Benchmark
+    public void legacy(Blackhole blackhole) throws Exception {
+        final StringBuffer stringBuffer = new StringBuffer();
+        for (String fragment : fragments) {
+            stringBuffer.append(fragment);
+        }
+        final String message = stringBuffer.toString();
+        ArrayNode messageNode = (ArrayNode) mapper.readTree(message);
+        RCUWebsocketMessage parsedMessage = mapper.convertValue(
+                messageNode.get(2),
+                RCUWebsocketMessage.class
+        );
+        if (claimed) {
+            blackhole.consume(parsedMessage.getData());
+        }
+        blackhole.consume(parsedMessage);
+    }
+
+    @Benchmark
+    public void streaming(Blackhole blackhole) throws Exception {
+        final int lastIndex = fragments.size() - 1;
+        for (int i = 0; i <= lastIndex; i++) {
+            streamParser.feed(
+                            fragments.get(i),
+                            i == lastIndex
+                    )
+                    .ifPresent(message -> {
+                        if (claimed) {
+                            blackhole.consume(message.getData());
+                        }
+                        blackhole.consume(message);
+                    });
+        }
+    }
+
+    private static String buildFrame() {
+        StringBuilder builder = new StringBuilder();
+        builder.append("[8,\"OnJsonApiEvent\",{\"data\":{");
+        for (int i = 0; i < 64; i++) {
+            if (i > 0) builder.append(',');
+            builder.append("\"patchline-")
+                   .append(i)
+                   .append("\":{\"id\":\"live-")
+                   .append(i)
+                   .append("\",\"productId\":\"valorant\",\"patchlineId\":\"live\",\"action\":\"Update\",")
+                   .append("\"progress\":{\"progress\":")
+                   .append(i * 1.5)
+                   .append(",\"bytesToDownload\":")
+                   .append(1_000_000L * i)
+                   .append(",\"bytesDownloaded\":")
+                   .append(500_000L * i)
+                   .append("},\"isUpToDate\":false,\"isUpdateAvailable\":true}");
+        }
+        builder.append("},\"eventType\":\"Update\",\"uri\":\"/patch-proxy/v1/active-updates\"}]");
+        return builder.toString();
+    }
+}
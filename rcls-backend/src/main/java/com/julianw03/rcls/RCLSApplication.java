@@ -6,7 +6,20 @@ import org.springframework.boot.autoconfigure.SpringBootApplication;
 
 @SpringBootApplication(scanBasePackages = {"com.julianw03.rcls"}, exclude = {org.springframework.boot.autoconfigure.security.servlet.UserDetailsServiceAutoConfiguration.class})
 public class RCLSApplication {
+    /**
+     * Read once by the JDK HttpClient when the first client is built, so it has to be in place before the context starts.
+     * A value passed on the command line takes precedence.
+     */
+    private static final String KEEPALIVE_TIMEOUT_PROPERTY = "jdk.httpclient.keepalive.timeout";
+    private static final String KEEPALIVE_TIMEOUT_SECONDS  = "60";
+
     public static void main(String[] args) {
+        if (System.getProperty(KEEPALIVE_TIMEOUT_PROPERTY) == null) {
+            System.setProperty(
+                    KEEPALIVE_TIMEOUT_PROPERTY,
+                    KEEPALIVE_TIMEOUT_SECONDS
+            );
+        }
         SpringApplication.run(
                 RCLSApplication.class,
                 args
@@ -0,0 +1,96 @@
+package com.julianw03.rcls.Util;
+
+import com.julianw03.rcls.config.mappings.ExecutionConfig;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+@Slf4j
+public final class ExecutorUtils {
+    private ExecutorUtils() {
+    }
+
+    /**
+     * An executor for work that spends most of its time waiting. Uses one virtual thread per task unless
+     * {@link ExecutionConfig#isVirtualThreads()} is disabled.
+     */
+    public static ExecutorService newBlockingExecutor(
+            String name,
+            ExecutionConfig config
+    ) {
+        if (config.isVirtualThreads()) {
+            return Executors.newThreadPerTaskExecutor(Thread.ofVirtual()
+                                                            .name(
+                                                                    name + "-",
+                                                                    0
+                                                            )
+                                                            .factory());
+        }
+        return Executors.newFixedThreadPool(
+                Math.max(
+                        1,
+                        config.getPlatformPoolSize()
+                ),
+                Thread.ofPlatform()
+                      .name(
+                              name + "-",
+                              0
+                      )
+                      .daemon(true)
+                      .factory()
+        );
+    }
+
+    /**
+     * A small scheduler for timers only. Scheduled tasks are expected to hand blocking work to a
+     * {@link #newBlockingExecutor blocking executor} instead of running it on the timer thread.
+     */
+    public static ScheduledExecutorService newScheduler(
+            String name,
+            ExecutionConfig config
+    ) {
+        return Executors.newScheduledThreadPool(
+                Math.max(
+                        1,
+                        config.getSchedulerThreads()
+                ),
+                Thread.ofPlatform()
+                      .name(
+                              name + "-timer-",
+                              0
+                      )
+                      .daemon(true)
+                      .factory()
+        );
+    }
+
+    /**
+     * Stops accepting tasks, waits up to {@code timeout} for running ones and interrupts whatever is left.
+     */
+    public static void shutdown(
+            ExecutorService executorService,
+            Duration timeout
+    ) {
+        executorService.shutdown();
+        try {
+            if (!executorService.awaitTermination(
+                    timeout.toMillis(),
+                    TimeUnit.MILLISECONDS
+            )) {
+                executorService.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            log.error(
+                    "Graceful shutdown failed",
+                    e
+            );
+            executorService.shutdownNow();
+            Thread.currentThread()
+                  .interrupt();
+        }
+    }
+}
@@ -1,13 +1,24 @@
 package com.julianw03.rcls.config;
 
+import com.julianw03.rcls.config.mappings.HCaptchaProxyConfig;
+import com.julianw03.rcls.service.proxy.ProxyUpstreamClient;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.web.client.RestTemplate;
 
 @Configuration
 public class ProxyConfig {
     @Bean
-    public RestTemplate restTemplate() {
-        return new RestTemplate();
+    public ProxyUpstreamClient proxyUpstreamClient(
+            @Autowired HCaptchaProxyConfig proxyConfig,
+            @Autowired ObjectProvider<MeterRegistry> meterRegistry
+    ) {
+        return new ProxyUpstreamClient(
+                proxyConfig.getUpstream(),
+                meterRegistry.getIfAvailable(SimpleMeterRegistry::new)
+        );
     }
 }
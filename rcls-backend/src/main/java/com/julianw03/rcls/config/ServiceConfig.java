@@ -1,10 +1,14 @@
 package com.julianw03.rcls.config;
 
+import com.julianw03.rcls.config.mappings.ExecutionConfig;
 import com.julianw03.rcls.config.mappings.OperatingSystemProviderConfig;
 import com.julianw03.rcls.config.mappings.PathProviderConfig;
 import com.julianw03.rcls.config.mappings.ProcessServiceConfig;
 import com.julianw03.rcls.config.mappings.RiotClientServiceConfig;
+import com.julianw03.rcls.eventBus.model.Channel;
 import com.julianw03.rcls.eventBus.model.MultiChannelBus;
+import com.julianw03.rcls.eventBus.model.events.LockfileChangedEvent;
+import com.julianw03.rcls.eventBus.model.events.ProcessLifecycleEvent;
 import com.julianw03.rcls.providers.os.OperatingSystemProvider;
 import com.julianw03.rcls.providers.paths.PathProvider;
 import com.julianw03.rcls.service.process.ProcessService;
@@ -15,11 +19,17 @@ import com.julianw03.rcls.service.riotclient.connection.ConnectionStrategy;
 import com.julianw03.rcls.service.riotclient.connection.LockfileConnectionStrategy;
 import com.julianw03.rcls.service.riotclient.connection.ProcessTakeoverConnectionStrategy;
 import com.julianw03.rcls.service.riotclient.connection.RiotClientConnectionStrategy;
+import com.julianw03.rcls.service.riotclient.readiness.ConnectPhaseTimings;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.time.Duration;
+
 @Slf4j
 @Configuration
 public class ServiceConfig {
@@ -45,14 +55,36 @@ public class ServiceConfig {
     RiotClientConnectionStrategy getRiotClientConnectionStrategy(
             @Autowired ProcessService processService,
             @Autowired PathProvider pathProvider,
-            @Autowired RiotClientServiceConfig riotClientServiceConfig
+            @Autowired RiotClientServiceConfig riotClientServiceConfig,
+            @Autowired MultiChannelBus eventBus,
+            @Autowired ConnectPhaseTimings connectPhaseTimings
     ) {
         ConnectionStrategy strategy = riotClientServiceConfig.getConnectionStrategy()
                                                              .getStrategy();
         final RiotClientConnectionStrategy connectionStrategy;
         switch (strategy) {
-            case LOCKFILE -> connectionStrategy = new LockfileConnectionStrategy(pathProvider);
-            case PROCESS_TAKEOVER -> connectionStrategy = new ProcessTakeoverConnectionStrategy(processService);
+            case LOCKFILE -> {
+                final LockfileConnectionStrategy lockfileStrategy = new LockfileConnectionStrategy(
+                        pathProvider,
+                        parameters -> eventBus.publish(
+                                Channel.RIOT_CLIENT_LOCKFILE,
+                                new LockfileChangedEvent(
+                                        "Lockfile",
+                                        parameters
+                                )
+                        )
+                );
+                // Started right away to notice a Riot Client that comes up before the first connect.
+                // The watcher is stopped through the inferred close() destroy method of this bean.
+                lockfileStrategy.startWatching();
+                connectionStrategy = lockfileStrategy;
+            }
+            case PROCESS_TAKEOVER -> connectionStrategy = new ProcessTakeoverConnectionStrategy(
+                    processService,
+                    connectPhaseTimings,
+                    Duration.ofMillis(riotClientServiceConfig.getConnectionStrategy()
+                                                             .getTakeoverDeadlineMs())
+            );
             default -> {
                 log.error("Unknown connection strategy: " + strategy);
                 throw new IllegalStateException("Unknown connection strategy: " + strategy);
@@ -64,12 +96,22 @@ public class ServiceConfig {
     @Bean
     public ProcessService getProcessService(
             @Autowired ProcessServiceConfig processServiceConfig,
-            @Autowired PathProvider pathProvider
+            @Autowired PathProvider pathProvider,
+            @Autowired ExecutionConfig executionConfig,
+            @Autowired MultiChannelBus eventBus
     ) {
         return new ProcessServiceImpl(
                 pathProvider,
                 ProcessHandle::allProcesses,
-                processServiceConfig
+                processServiceConfig,
+                executionConfig,
+                payload -> eventBus.publish(
+                        Channel.PROCESS_LIFECYCLE,
+                        new ProcessLifecycleEvent(
+                                "ProcessService",
+                                payload
+                        )
+                )
         );
     }
 
@@ -78,13 +120,19 @@ public class ServiceConfig {
     public RiotClientService getRiotclientService(
             @Autowired MultiChannelBus eventBus,
             @Autowired RiotClientServiceConfig riotClientServiceConfig,
-            @Autowired RiotClientConnectionStrategy connectionStrategy
+            @Autowired RiotClientConnectionStrategy connectionStrategy,
+            @Autowired ExecutionConfig executionConfig,
+            @Autowired ObjectProvider<MeterRegistry> meterRegistry,
+            @Autowired ConnectPhaseTimings connectPhaseTimings
     ) {
 
         RiotClientService riotClientService = new RiotClientServiceImpl(
                 connectionStrategy,
                 eventBus,
-                riotClientServiceConfig
+                riotClientServiceConfig,
+                executionConfig,
+                meterRegistry.getIfAvailable(SimpleMeterRegistry::new),
+                connectPhaseTimings
         );
         return riotClientService;
     }
@@ -0,0 +1,38 @@
+package com.julianw03.rcls.config.mappings;
+
+import com.julianw03.rcls.eventBus.model.Channel;
+import com.julianw03.rcls.eventBus.model.OverflowPolicy;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Optional;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "custom.configurations.event-bus")
+public class EventBusConfig {
+    private RingParameters               defaults = new RingParameters();
+    private Map<Channel, RingParameters> channels = new EnumMap<>(Channel.class);
+
+    public RingParameters forChannel(Channel channel) {
+        return Optional.ofNullable(channels.get(channel))
+                       .orElse(defaults);
+    }
+
+    @Data
+    public static class RingParameters {
+        /**
+         * Rounded up to the next power of two.
+         */
+        private int            ringSize       = 1024;
+        /**
+         * {@link OverflowPolicy#BLOCK} stalls every publisher of the channel behind its slowest subscriber,
+         * so it should only be chosen for channels whose subscribers can not afford to miss an event.
+         */
+        private OverflowPolicy overflowPolicy = OverflowPolicy.DROP_OLDEST;
+        private long           blockTimeoutMs = 100;
+    }
+}
@@ -0,0 +1,21 @@
+package com.julianw03.rcls.config.mappings;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "custom.configurations.execution")
+public class ExecutionConfig {
+    /**
+     * Run blocking work (connecting, HTTP calls, waiting on processes) on virtual threads.
+     * If disabled, a bounded pool of {@link #platformPoolSize} platform threads is used instead.
+     */
+    private boolean virtualThreads   = true;
+    private int     platformPoolSize = 10;
+    /**
+     * Threads per service that only fire timers and hand the actual work to the blocking executor.
+     */
+    private int     schedulerThreads = 1;
+}
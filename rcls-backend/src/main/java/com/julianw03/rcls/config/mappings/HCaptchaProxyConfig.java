@@ -0,0 +1,61 @@
+package com.julianw03.rcls.config.mappings;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "custom.configurations.proxy", ignoreInvalidFields = true)
+public class HCaptchaProxyConfig {
+    private Target    target    = new Target();
+    private Overrides overrides = new Overrides();
+    private Upstream  upstream  = new Upstream();
+    private Cache     cache     = new Cache();
+
+    @Data
+    public static class Target {
+        private String url;
+        /**
+         * Sends every request to this base URL instead, with the subdomain as the first path segment.
+         * Meant for local stub servers in tests and benchmarks.
+         */
+        private String overrideUrl;
+    }
+
+    @Data
+    public static class Upstream {
+        /**
+         * Upper bound for requests in flight to hCaptcha, a request counts until its response body is closed.
+         */
+        private int maxConcurrentRequests = 16;
+        private int acquireTimeoutMs      = 5_000;
+        private int connectTimeoutMs      = 5_000;
+        private int requestTimeoutMs      = 15_000;
+    }
+
+    @Data
+    public static class Overrides {
+        private String userAgent;
+    }
+
+    @Data
+    public static class Cache {
+        /**
+         * Upper bound for the rewritten assets held outside the heap, {@code 0} disables the cache.
+         */
+        private long maxBytes      = 16 * 1024 * 1024;
+        /**
+         * Used when upstream does not send a {@code max-age}.
+         */
+        private long defaultTtlMs  = 10 * 60 * 1_000;
+        /**
+         * Caps the {@code max-age} sent by upstream.
+         */
+        private long maxTtlMs      = 24 * 60 * 60 * 1_000;
+        /**
+         * Larger assets are still rewritten, but never cached.
+         */
+        private int  maxEntryBytes = 4 * 1024 * 1024;
+    }
+}
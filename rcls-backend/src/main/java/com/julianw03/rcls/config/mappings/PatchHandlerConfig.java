@@ -0,0 +1,20 @@
+package com.julianw03.rcls.config.mappings;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "custom.configurations.patch-handler")
+public class PatchHandlerConfig {
+    /**
+     * How many patchlines are requested from the Riot Client at the same time during the initial fetch.
+     */
+    private int  maxConcurrentFetches = 8;
+    private long productsTimeoutMs    = 5_000;
+    /**
+     * A patchline that takes longer is left out of the initial state, later updates still add it.
+     */
+    private long patchlineTimeoutMs   = 5_000;
+}
@@ -8,6 +8,18 @@ import org.springframework.stereotype.Component;
 @ConfigurationProperties(prefix = "custom.configurations.process-service", ignoreInvalidFields = true)
 public class ProcessServiceConfig {
     private SharedComponents sharedComponents;
+    /**
+     * How long one walk of the process table answers process lookups, {@code 0} walks it for every lookup.
+     */
+    private long             processIndexTtlMs  = 1_000;
+    /**
+     * How often running games are looked up, {@code 0} disables game lifecycle events.
+     */
+    private long             gameScanIntervalMs = 5_000;
+    /**
+     * How many lines of Riot Client Services output are kept.
+     */
+    private int              outputLogCapacity  = 1_000;
 
     @Data
     public static class SharedComponents {
@@ -11,17 +11,68 @@ import org.springframework.stereotype.Component;
 public class RiotClientServiceConfig {
     private ConnectionInitParameters connectionInit;
     private ConnectionStrategyParams connectionStrategy;
+    private TransportParameters      transport = new TransportParameters();
+    private DispatchParameters       dispatch  = new DispatchParameters();
+    private ReconnectParameters      reconnect = new ReconnectParameters();
 
     @Data
     public static class ConnectionStrategyParams {
         private ConnectionStrategy strategy;
         private int                connectTimeoutMs;
+        /**
+         * Shared by all process kills of a process takeover, should stay below {@link #connectTimeoutMs}.
+         */
+        private int                takeoverDeadlineMs = 5_000;
     }
 
     @Data
     public static class ConnectionInitParameters {
+        /**
+         * Upper bound for HTTP probes once the port accepts connections.
+         */
         private int restConnectAttempts;
+        /**
+         * Upper bound for the backoff between two probes.
+         */
         private int restConnectDelayMs;
         private int restConnectWaitForMaxMs;
+        private int initialProbeDelayMs = 10;
+        /**
+         * Upper bound for a single TCP connect while the port is not open yet.
+         */
+        private int portConnectTimeoutMs = 250;
+    }
+
+    @Data
+    public static class TransportParameters {
+        /**
+         * Upper bound for requests in flight, and with it for pooled connections to the Riot Client.
+         */
+        private int maxConcurrentRequests    = 8;
+        private int acquireTimeoutMs         = 5_000;
+        private int connectTimeoutMs         = 2_000;
+        private int requestTimeoutMs         = 5_000;
+        private int tlsSessionCacheSize      = 16;
+        private int tlsSessionTimeoutSeconds = 3_600;
+    }
+
+    @Data
+    public static class DispatchParameters {
+        /**
+         * Messages for the same URI always share a lane, so this bounds how many URIs are dispatched in parallel.
+         */
+        private int lanes        = 4;
+        private int laneCapacity = 1_024;
+    }
+
+    @Data
+    public static class ReconnectParameters {
+        private boolean enabled        = true;
+        private int     maxAttempts    = 8;
+        /**
+         * Base of the exponential backoff, the actual delay is drawn uniformly below it.
+         */
+        private int     initialDelayMs = 250;
+        private int     maxDelayMs     = 10_000;
     }
 }
@@ -0,0 +1,20 @@
+package com.julianw03.rcls.config.websocketPublisher;
+
+/**
+ * What happens when the outbound queue of a websocket session is full.
+ */
+public enum SlowConsumerPolicy {
+    /**
+     * Discard the queued messages and send the session a fresh snapshot instead.
+     */
+    DROP,
+    /**
+     * Replace a queued message for the same key (see {@link com.julianw03.rcls.service.websocketPublisher.EventCoalescer#coalescingKey}),
+     * otherwise behave like {@link #DROP}.
+     */
+    COALESCE,
+    /**
+     * Close the session. The client is expected to reconnect.
+     */
+    DISCONNECT
+}
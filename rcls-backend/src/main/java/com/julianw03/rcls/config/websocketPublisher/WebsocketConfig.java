@@ -8,5 +8,18 @@ import org.springframework.context.annotation.Configuration;
 @Data
 @ConfigurationProperties(prefix = "custom.configurations.publishing", ignoreInvalidFields = true)
 public class WebsocketConfig {
-    private WebsocketPublishingFormat publishingFormat = WebsocketPublishingFormat.RAW_JSON;
+    private WebsocketPublishingFormat publishingFormat   = WebsocketPublishingFormat.RAW_JSON;
+    /**
+     * Data manager events within this window are coalesced to the latest state per key. 0 disables coalescing.
+     */
+    private long                      coalesceWindowMs   = 16;
+    /**
+     * The maximum amount of messages that may be queued for a single session before the {@link #slowConsumerPolicy} kicks in.
+     */
+    private int                       sessionQueueSize   = 256;
+    private SlowConsumerPolicy        slowConsumerPolicy = SlowConsumerPolicy.COALESCE;
+    /**
+     * How many frames are kept to replay to clients that reconnect with {@code ?since=}.
+     */
+    private int                       journalSize        = 1024;
 }
@@ -1,6 +1,5 @@
 package com.julianw03.rcls.config.websocketPublisher;
 
-import com.julianw03.rcls.eventBus.model.MultiChannelBus;
 import com.julianw03.rcls.service.websocketPublisher.WebsocketPublisher;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Configuration;
@@ -15,10 +14,9 @@ public class WebsocketConfigurerConfig implements WebSocketConfigurer {
 
     @Autowired
     public WebsocketConfigurerConfig(
-            MultiChannelBus eventBus,
-            WebsocketConfig config
+            WebsocketPublisher websocketPublisher
     ) {
-        this.websocketPublisher = new WebsocketPublisher(eventBus, config);
+        this.websocketPublisher = websocketPublisher;
     }
 
     @Override
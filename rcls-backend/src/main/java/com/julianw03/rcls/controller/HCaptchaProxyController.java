@@ -1,27 +1,19 @@
 package com.julianw03.rcls.controller;
 
-import jakarta.annotation.PostConstruct;
+import com.julianw03.rcls.service.proxy.HCaptchaProxyService;
+import com.julianw03.rcls.service.proxy.ProxyRequest;
 import jakarta.servlet.http.HttpServletRequest;
-import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.http.*;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
 import org.springframework.util.MimeTypeUtils;
 import org.springframework.web.bind.annotation.*;
-import org.springframework.web.client.HttpClientErrorException;
-import org.springframework.web.client.RestTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.io.InputStream;
-import java.net.URI;
-import java.nio.charset.StandardCharsets;
-import java.util.Collections;
-import java.util.HashMap;
 import java.util.Map;
-import java.util.function.BiFunction;
-import java.util.regex.Pattern;
+import java.util.concurrent.CompletableFuture;
 
 @Slf4j
 @RestController
@@ -33,171 +25,10 @@ import java.util.regex.Pattern;
 })
 public class HCaptchaProxyController {
 
-    private static final String                                                                                     SUBDOMAIN_NONE = "RCLS-INTERNAL";
-    private static final HashMap<String, BiFunction<RequestObject, ResponseEntity<byte[]>, ResponseEntity<byte[]>>> handlerMap     = new HashMap<>();
-    private static final Pattern                                                                                    pattern        = Pattern.compile("((\\w{1,20})\\.)hcaptcha\\.com"); //For the sake of performance we limit the amount of chars in the subdomain
+    private final HCaptchaProxyService proxyService;
 
-    @Getter
-    protected static class RequestObject {
-        private final String              subdomain;
-        private final String              originalSubdomain;
-        private final String              path;
-        private final Map<String, String> query;
-        private final String              regexSubstitution;
-
-        public RequestObject(
-                String subdomain,
-                String path,
-                Map<String, String> query,
-                String regexSubstitution
-        ) {
-            this.originalSubdomain = subdomain;
-            this.subdomain = SUBDOMAIN_NONE.equals(subdomain)
-                    ? null
-                    : subdomain;
-            this.path = path;
-            this.query = query;
-            this.regexSubstitution = regexSubstitution;
-        }
-
-        public String getExternalUrl(String baseUrl) {
-            StringBuilder sb = new StringBuilder();
-            sb.append("https://");
-            if (subdomain != null) {
-                sb.append(subdomain)
-                  .append('.');
-            }
-            sb.append(baseUrl);
-            if (path != null) {
-                sb.append(path);
-            }
-            if (query != null) {
-                sb.append('?');
-                for (Map.Entry<String, String> entry : query.entrySet()) {
-                    sb.append(entry.getKey())
-                      .append('=')
-                      .append(entry.getValue())
-                      .append('&');
-                }
-                sb.deleteCharAt(sb.length() - 1);
-            }
-
-            return sb.toString();
-        }
-    }
-
-    static {
-        handlerMap.put(
-                SUBDOMAIN_NONE,
-                (originalRequest, originalResponse) -> {
-                    if (originalResponse.getBody() != null) {
-                        if (originalRequest.getPath()
-                                           .endsWith("api.js")) {
-                            String body = readStream(new ByteArrayInputStream(originalResponse.getBody()));
-                            String newResp = pattern.matcher(body)
-                                                    .replaceAll(originalRequest.getRegexSubstitution());
-
-                            HttpHeaders headers = new HttpHeaders();
-                            headers.putAll(originalResponse.getHeaders());
-                            headers.remove(HttpHeaders.CONTENT_LENGTH);
-
-                            return new ResponseEntity<>(
-                                    newResp.getBytes(StandardCharsets.UTF_8),
-                                    headers,
-                                    originalResponse.getStatusCode()
-                            );
-                        }
-                    }
-
-                    return originalResponse;
-                }
-        );
-        handlerMap.put(
-                "newassets",
-                (originalRequest, originalResponse) -> {
-                    if (originalResponse.getBody() != null) {
-                        HttpHeaders headers = new HttpHeaders(originalResponse.getHeaders());
-                        headers.remove(HttpHeaders.CONTENT_LENGTH);
-
-                        if (originalRequest.getPath()
-                                           .endsWith("hsw.js")) {
-                            String body = readStream(new ByteArrayInputStream(originalResponse.getBody()));
-                            String newResp = pattern.matcher(body)
-                                                    .replaceAll(originalRequest.getRegexSubstitution());
-                            newResp = newResp.replaceAll(
-                                    "<meta http-equiv=\"Content-Security-Policy\"[^>]+>",
-                                    ""
-                            );
-
-                            byte[] modifiedBody = newResp.getBytes(StandardCharsets.UTF_8);
-
-
-                            return new ResponseEntity<>(
-                                    modifiedBody,
-                                    headers,
-                                    originalResponse.getStatusCode()
-                            );
-                        } else if (originalRequest.getPath()
-                                                  .endsWith("hcaptcha.html")) {
-                            String body = readStream(new ByteArrayInputStream(originalResponse.getBody()));
-                            String newResp = pattern.matcher(body)
-                                                    .replaceAll(originalRequest.getRegexSubstitution());
-                            newResp = newResp.replaceAll(
-                                    "<meta http-equiv=\"Content-Security-Policy\"[^>]+>",
-                                    ""
-                            );
-
-                            byte[] modifiedBody = newResp.getBytes(StandardCharsets.UTF_8);
-
-                            return new ResponseEntity<>(
-                                    modifiedBody,
-                                    headers,
-                                    originalResponse.getStatusCode()
-                            );
-                        }
-
-
-                        return new ResponseEntity<>(
-                                originalResponse.getBody(),
-                                headers,
-                                originalResponse.getStatusCode()
-                        );
-                    }
-
-                    return originalResponse;
-                }
-        );
-    }
-
-    @Value("${custom.configurations.proxy.target.url}")
-    private String targetUrl;
-
-    @Value("${server.port}")
-    private String port;
-
-    @Value("${custom.configurations.proxy.overrides.user-agent}")
-    private String riotMagicUserAgent;
-
-    private String regexSubstitution;
-
-    private final RestTemplate restTemplate;
-
-
-    @PostConstruct
-    private void init() {
-        this.regexSubstitution = "127.0.0.1:" + port + "/hcaptcha-proxy/$2";
-        log.debug(
-                "Using regex substitution: {}",
-                regexSubstitution
-        );
-        log.debug(
-                "Will use \"{}\" as external User-Agent",
-                riotMagicUserAgent
-        );
-    }
-
-    public HCaptchaProxyController(RestTemplate restTemplate) {
-        this.restTemplate = restTemplate;
+    public HCaptchaProxyController(HCaptchaProxyService proxyService) {
+        this.proxyService = proxyService;
     }
 
     @RequestMapping(path = "/{subdomain}/{*path}", method = {
@@ -209,7 +40,7 @@ public class HCaptchaProxyController {
             RequestMethod.OPTIONS
     })
     @ResponseBody
-    public ResponseEntity<byte[]> proxyRequest(
+    public CompletableFuture<ResponseEntity<StreamingResponseBody>> proxyRequest(
             @PathVariable String subdomain,
             @PathVariable String path,
             @RequestParam Map<String, String> query,
@@ -217,108 +48,15 @@ public class HCaptchaProxyController {
             HttpMethod method,
             HttpServletRequest request
     ) throws IOException {
-
-        byte[] body = request.getInputStream()
-                             .readAllBytes();
-
-        RequestObject requestObject = new RequestObject(
-                subdomain,
-                path,
-                query,
-                regexSubstitution
-        );
-
-        String requestUrl = requestObject.getExternalUrl(targetUrl);
-
-        log.info(
-                "Proxying from /{}{} to {}",
-                subdomain,
-                path,
-                requestUrl
-        );
-
-        URI uri = URI.create(requestUrl);
-
-        HttpHeaders headers = new HttpHeaders();
-        headers.putAll(originalHeaders);
-        headers.remove(HttpHeaders.HOST);
-        headers.put(
-                HttpHeaders.USER_AGENT,
-                Collections.singletonList(riotMagicUserAgent)
+        return proxyService.proxy(
+                new ProxyRequest(
+                        subdomain,
+                        path,
+                        query
+                ),
+                originalHeaders,
+                method,
+                request
         );
-        headers.put(
-                HttpHeaders.ACCEPT_ENCODING,
-                Collections.emptyList()
-        );
-
-        HttpEntity<byte[]> entity = new HttpEntity<>(
-                body,
-                headers
-        );
-
-        try {
-            ResponseEntity<byte[]> response = restTemplate.exchange(
-                    uri,
-                    method,
-                    entity,
-                    byte[].class
-            );
-
-            ResponseEntity<byte[]> intermediateResponse = handlerMap
-                    .getOrDefault(
-                            requestObject.getOriginalSubdomain(),
-                            (p, resp) -> resp
-                    )
-                    .apply(
-                            requestObject,
-                            response
-                    );
-
-            HttpHeaders returnHeaders = new HttpHeaders();
-            returnHeaders.putAll(intermediateResponse.getHeaders());
-            returnHeaders.remove("Access-Control-Allow-Origin");
-
-            return new ResponseEntity<>(
-                    intermediateResponse.getBody(),
-                    returnHeaders,
-                    intermediateResponse.getStatusCode()
-            );
-        } catch (HttpClientErrorException e) {
-            log.warn(
-                    "Error while trying to access {} {}",
-                    method,
-                    uri
-            );
-            try {
-                return new ResponseEntity<>(
-                        e.getResponseBodyAsByteArray(),
-                        e.getResponseHeaders(),
-                        e.getStatusCode()
-                );
-            } catch (Exception ex) {
-            }
-        }
-
-        return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
-    }
-
-
-    private static String readStream(InputStream is) {
-        try {
-            ByteArrayOutputStream result = new ByteArrayOutputStream();
-            byte[] buffer = new byte[1024];
-            for (int length; (length = is.read(buffer)) != -1; ) {
-                result.write(
-                        buffer,
-                        0,
-                        length
-                );
-            }
-
-            return result.toString(StandardCharsets.UTF_8);
-        } catch (Exception e) {
-            e.printStackTrace();
-            return null;
-        }
     }
 }
@@ -15,6 +15,7 @@ import org.springframework.util.MimeTypeUtils;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 
 @Slf4j
@@ -48,12 +49,11 @@ public class LaunchController {
                     description = "Successfully launched the Riot Client UX"
             )
     })
-    public ResponseEntity<Void> launchRiotClientUx() throws ExecutionException {
-        launchV1ServiceImpl.launchRiotClientUx();
-
-        return ResponseEntity
-                .noContent()
-                .build();
+    public CompletableFuture<ResponseEntity<Void>> launchRiotClientUx() {
+        return launchV1ServiceImpl.launchRiotClientUx()
+                                  .thenApply(ignored -> ResponseEntity
+                                          .noContent()
+                                          .build());
     }
 
     @GetMapping(value = "/games", produces = MimeTypeUtils.APPLICATION_JSON_VALUE)
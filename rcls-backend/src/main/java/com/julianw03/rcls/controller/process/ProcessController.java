@@ -0,0 +1,51 @@
+package com.julianw03.rcls.controller.process;
+
+import com.julianw03.rcls.service.process.ProcessOutputLog;
+import com.julianw03.rcls.service.process.ProcessService;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * Not located under {@code /api/riotclient}, the output is most useful when connecting to the Riot Client failed.
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/process/v1")
+public class ProcessController {
+
+    private final ProcessService processService;
+
+    @Autowired
+    public ProcessController(
+            ProcessService processService
+    ) {
+        this.processService = processService;
+    }
+
+    @GetMapping(value = "/riotclientservices/output", produces = MimeTypeUtils.APPLICATION_JSON_VALUE)
+    @ApiResponses(value = {
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(
+                    responseCode = "200",
+                    description = "Returns the most recent stdout and stderr lines of the Riot Client Services instance started by RCLS, oldest first",
+                    content = @Content(
+                            mediaType = "application/json",
+                            array = @ArraySchema(schema = @Schema(implementation = ProcessOutputLog.Line.class))
+                    )
+            )
+    })
+    public ResponseEntity<List<ProcessOutputLog.Line>> getRiotClientServicesOutput(@RequestParam(defaultValue = "200") int limit) {
+        return ResponseEntity.ok(processService.getRiotClientServicesOutput(limit));
+    }
+}
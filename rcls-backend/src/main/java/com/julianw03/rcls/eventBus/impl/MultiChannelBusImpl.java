@@ -1,67 +1,103 @@
 package com.julianw03.rcls.eventBus.impl;
 
+import com.julianw03.rcls.config.mappings.EventBusConfig;
 import com.julianw03.rcls.eventBus.model.Channel;
 import com.julianw03.rcls.eventBus.model.MultiChannelBus;
 import com.julianw03.rcls.eventBus.model.events.SimpleEvent;
 import com.julianw03.rcls.service.BaseService;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Flux;
-import reactor.core.publisher.SignalType;
-import reactor.core.publisher.Sinks;
 
+import java.util.EnumMap;
+import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * Every channel is backed by its own {@link RingBufferChannel}. {@link Channel#ALL} is not published to separately,
+ * subscribing to it merges the rings of every channel instead.
+ */
 @Service
 @Slf4j
 public class MultiChannelBusImpl extends BaseService implements MultiChannelBus {
+    private static final String METRIC_NAME = "rcls.eventbus.dropped";
 
-    private final Map<Channel, Sinks.Many<SimpleEvent<?>>> channels = new ConcurrentHashMap<>();
+    private final Map<Channel, RingBufferChannel> channels = new EnumMap<>(Channel.class);
+    private final Flux<SimpleEvent<?>>            allView;
 
-    private Sinks.Many<SimpleEvent<?>> createNewSink(Channel channel) {
-        return Sinks.many()
-                    .multicast()
-                    .onBackpressureBuffer();
+    public MultiChannelBusImpl() {
+        this(new EventBusConfig());
     }
 
-    @Override
-    public <T extends SimpleEvent<?>> void publish(
-            Channel channel,
-            T event
+    public MultiChannelBusImpl(EventBusConfig config) {
+        this(
+                config,
+                new SimpleMeterRegistry()
+        );
+    }
+
+    @Autowired
+    public MultiChannelBusImpl(
+            EventBusConfig config,
+            ObjectProvider<MeterRegistry> meterRegistry
     ) {
-        if (channel == null || event == null) return;
-        emitInSinkSync(
-                channel,
-                event
+        this(
+                config,
+                meterRegistry.getIfAvailable(SimpleMeterRegistry::new)
         );
-        if (channel != Channel.ALL) {
-            emitInSinkSync(
-                    Channel.ALL,
-                    event
+    }
+
+    public MultiChannelBusImpl(
+            EventBusConfig config,
+            MeterRegistry meterRegistry
+    ) {
+        for (Channel channel : Channel.values()) {
+            final RingBufferChannel ring = new RingBufferChannel(
+                    channel,
+                    config.forChannel(channel)
+            );
+            channels.put(
+                    channel,
+                    ring
             );
+            FunctionCounter.builder(
+                                   METRIC_NAME,
+                                   ring,
+                                   RingBufferChannel::getDroppedEvents
+                           )
+                           .tag(
+                                   "channel",
+                                   channel.name()
+                           )
+                           .register(meterRegistry);
         }
+        final List<Flux<SimpleEvent<?>>> rings = channels.values()
+                                                         .stream()
+                                                         .map(RingBufferChannel::asFlux)
+                                                         .toList();
+        this.allView = Flux.merge(rings);
     }
 
-    // TODO: Maybe just build a custom adapter for this?
-    private void emitInSinkSync(
+    @Override
+    protected void shutdown() {
+        super.shutdown();
+        channels.values()
+                .forEach(RingBufferChannel::complete);
+    }
+
+    @Override
+    public <T extends SimpleEvent<?>> void publish(
             Channel channel,
-            SimpleEvent<?> event
+            T event
     ) {
-        final Sinks.Many<SimpleEvent<?>> sink = channels.computeIfAbsent(
-                channel,
-                this::createNewSink
-        );
-        synchronized (sink) {
-            sink.emitNext(
-                    event,
-                    (SignalType signalType, Sinks.EmitResult emitResult) -> {
-                        if (emitResult == Sinks.EmitResult.FAIL_ZERO_SUBSCRIBER) return false;
-                        log.warn("Failed to emit event {} on channel {}: {} ({})", event, channel, signalType, emitResult);
-                        return false;
-                    }
-            );
-        }
+        if (channel == null || event == null) return;
+        channels.get(channel)
+                .publish(event);
     }
 
     @Override
@@ -69,23 +105,25 @@ public class MultiChannelBusImpl extends BaseService implements MultiChannelBus
             Channel channel,
             Class<T> eventType
     ) {
-        return channels.computeIfAbsent(
-                               channel,
-                               this::createNewSink
-                       )
-                       .asFlux()
-                       .filter(eventType::isInstance)
-                       .map(eventType::cast);
+        return getFlux(channel)
+                .filter(eventType::isInstance)
+                .map(eventType::cast);
     }
 
     @Override
     public Flux<SimpleEvent<?>> getFlux(
             Channel channel
     ) {
-        return channels.computeIfAbsent(
-                               channel,
-                               this::createNewSink
-                       )
+        if (channel == Channel.ALL) return allView;
+        return channels.get(channel)
                        .asFlux();
     }
+
+    /**
+     * @return The amount of events that subscribers of the given channel skipped because they were lapped.
+     */
+    public long getDroppedEvents(Channel channel) {
+        return channels.get(channel)
+                       .getDroppedEvents();
+    }
 }
@@ -0,0 +1,308 @@
+package com.julianw03.rcls.eventBus.impl;
+
+import com.julianw03.rcls.config.mappings.EventBusConfig;
+import com.julianw03.rcls.eventBus.model.Channel;
+import com.julianw03.rcls.eventBus.model.OverflowPolicy;
+import com.julianw03.rcls.eventBus.model.events.SimpleEvent;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A preallocated ring of events for a single {@link Channel}, loosely modelled after the LMAX disruptor.
+ * <p>
+ * Publishers claim a sequence number, write the event into its slot and mark the slot as published.
+ * No lock is taken on the publishing path. Every subscriber owns a cursor into the ring and drains it
+ * on whichever thread signalled new events or new demand, so a slow subscriber only ever delays itself
+ * (unless the channel uses {@link OverflowPolicy#BLOCK}).
+ * <p>
+ * Events are only delivered to subscribers that were subscribed when the event was published, matching the
+ * previous multicast sink. Nothing is replayed, so once every cursor has passed a slot its event is released.
+ */
+@Slf4j
+class RingBufferChannel {
+    private static final long WRITING         = -2L;
+    private static final long CLEARING        = -3L;
+    private static final int  SPIN_ITERATIONS = 100;
+    private static final long PARK_NANOS      = TimeUnit.MICROSECONDS.toNanos(50);
+
+    private final Channel                              channel;
+    private final int                                  capacity;
+    private final int                                  mask;
+    private final OverflowPolicy                       overflowPolicy;
+    private final long                                 blockTimeoutNanos;
+    private final AtomicReferenceArray<SimpleEvent<?>> entries;
+    private final AtomicLongArray                      published;
+    private final AtomicLong                           claimed       = new AtomicLong(0);
+    /**
+     * Every slot below this sequence has been released, see {@link #releaseConsumed()}.
+     */
+    private final AtomicLong                           released      = new AtomicLong(0);
+    private final AtomicLong                           droppedEvents = new AtomicLong(0);
+    private final List<RingSubscription>               subscriptions = new CopyOnWriteArrayList<>();
+
+    RingBufferChannel(
+            Channel channel,
+            EventBusConfig.RingParameters parameters
+    ) {
+        this.channel = channel;
+        this.capacity = nextPowerOfTwo(Math.max(
+                2,
+                parameters.getRingSize()
+        ));
+        this.mask = capacity - 1;
+        this.overflowPolicy = parameters.getOverflowPolicy() == null ? OverflowPolicy.DROP_OLDEST : parameters.getOverflowPolicy();
+        this.blockTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(
+                0,
+                parameters.getBlockTimeoutMs()
+        ));
+        this.entries = new AtomicReferenceArray<>(capacity);
+        this.published = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            published.set(
+                    i,
+                    -1L
+            );
+        }
+    }
+
+    void publish(SimpleEvent<?> event) {
+        final long sequence = claimed.getAndIncrement();
+        if (overflowPolicy == OverflowPolicy.BLOCK) {
+            awaitCapacity(sequence);
+        }
+
+        final int index = (int) (sequence & mask);
+        // Readers re-check the slot after reading the entry, so marking it first tells them a write is in progress.
+        // A slot that is just being released is waited for, so that the release can not clear the new event.
+        long previous;
+        while ((previous = published.get(index)) == CLEARING || !published.compareAndSet(
+                index,
+                previous,
+                WRITING
+        )) {
+            Thread.onSpinWait();
+        }
+        entries.set(
+                index,
+                event
+        );
+        published.set(
+                index,
+                sequence
+        );
+
+        for (RingSubscription subscription : subscriptions) {
+            subscription.drain();
+        }
+        releaseConsumed();
+    }
+
+    /**
+     * Drops the references to events every subscriber has read, so that a large ring does not keep thousands of
+     * delivered events reachable until it wraps around. Whoever advances the bound clears the slots behind it.
+     */
+    private void releaseConsumed() {
+        while (true) {
+            final long from = released.get();
+            final long to = Math.min(
+                    claimed.get(),
+                    slowestReader()
+            );
+            if (to <= from) return;
+            if (!released.compareAndSet(
+                    from,
+                    to
+            )) continue;
+
+            for (long sequence = Math.max(
+                    from,
+                    to - capacity
+            ); sequence < to; sequence++) {
+                final int index = (int) (sequence & mask);
+                // Fails if the slot was already reused, or is not published yet, in which case it is left alone
+                if (published.compareAndSet(
+                        index,
+                        sequence,
+                        CLEARING
+                )) {
+                    entries.set(
+                            index,
+                            null
+                    );
+                    published.set(
+                            index,
+                            sequence
+                    );
+                }
+            }
+            return;
+        }
+    }
+
+    Flux<SimpleEvent<?>> asFlux() {
+        return Flux.create(
+                sink -> {
+                    final RingSubscription subscription = new RingSubscription(
+                            sink,
+                            claimed.get()
+                    );
+                    subscriptions.add(subscription);
+                    sink.onDispose(() -> subscriptions.remove(subscription));
+                    sink.onRequest(n -> subscription.drain());
+                },
+                FluxSink.OverflowStrategy.IGNORE
+        );
+    }
+
+    void complete() {
+        for (RingSubscription subscription : subscriptions) {
+            subscription.sink.complete();
+        }
+        subscriptions.clear();
+    }
+
+    long getDroppedEvents() {
+        return droppedEvents.get();
+    }
+
+    private void awaitCapacity(long sequence) {
+        final long wrapPoint = sequence - capacity;
+        if (wrapPoint < 0 || slowestCursor() > wrapPoint) return;
+
+        final long deadline = System.nanoTime() + blockTimeoutNanos;
+        int iterations = 0;
+        while (slowestCursor() <= wrapPoint) {
+            if (System.nanoTime() - deadline >= 0) {
+                // Stop waiting for the subscribers that are stuck, they will skip ahead once they drain again
+                for (RingSubscription subscription : subscriptions) {
+                    if (subscription.cursor <= wrapPoint) {
+                        subscription.lagging = true;
+                    }
+                }
+                log.warn(
+                        "Timed out waiting for subscribers on channel {}, overwriting unread events",
+                        channel
+                );
+                return;
+            }
+            if (iterations++ < SPIN_ITERATIONS) {
+                Thread.onSpinWait();
+            } else {
+                LockSupport.parkNanos(PARK_NANOS);
+            }
+        }
+    }
+
+    private long slowestCursor() {
+        long min = Long.MAX_VALUE;
+        for (RingSubscription subscription : subscriptions) {
+            if (subscription.lagging) continue;
+            min = Math.min(
+                    min,
+                    subscription.cursor
+            );
+        }
+        return min;
+    }
+
+    /**
+     * Unlike {@link #slowestCursor()} this includes lagging subscribers, they may still read the slots behind them.
+     */
+    private long slowestReader() {
+        long min = Long.MAX_VALUE;
+        for (RingSubscription subscription : subscriptions) {
+            min = Math.min(
+                    min,
+                    subscription.cursor
+            );
+        }
+        return min;
+    }
+
+    private static int nextPowerOfTwo(int value) {
+        final int highestBit = Integer.highestOneBit(value);
+        return highestBit == value ? value : highestBit << 1;
+    }
+
+    private class RingSubscription {
+        private final    FluxSink<SimpleEvent<?>> sink;
+        private final    AtomicInteger            wip = new AtomicInteger(0);
+        /**
+         * The next sequence this subscriber is going to read. Only written by the draining thread.
+         */
+        private volatile long                     cursor;
+        /**
+         * Set if a blocking publisher gave up waiting for this subscriber.
+         */
+        private volatile boolean                  lagging;
+
+        private RingSubscription(
+                FluxSink<SimpleEvent<?>> sink,
+                long cursor
+        ) {
+            this.sink = sink;
+            this.cursor = cursor;
+        }
+
+        private void drain() {
+            if (wip.getAndIncrement() != 0) return;
+            int missed = 1;
+            do {
+                while (!sink.isCancelled() && sink.requestedFromDownstream() > 0) {
+                    final long sequence = cursor;
+                    final int index = (int) (sequence & mask);
+                    final long available = published.get(index);
+                    if (available < sequence) {
+                        // Not published yet (or still being written)
+                        break;
+                    }
+                    if (available > sequence) {
+                        cursor = skipOverrun(sequence);
+                        continue;
+                    }
+                    final SimpleEvent<?> event = entries.get(index);
+                    if (published.get(index) != sequence) {
+                        // Overwritten while we were reading, the next iteration notices the overrun
+                        continue;
+                    }
+                    cursor = sequence + 1;
+                    sink.next(event);
+                }
+                if (lagging && cursor >= claimed.get()) {
+                    lagging = false;
+                }
+                missed = wip.addAndGet(-missed);
+            } while (missed != 0);
+            releaseConsumed();
+        }
+
+        private long skipOverrun(long sequence) {
+            final long newest = claimed.get() - 1;
+            final long next = switch (overflowPolicy) {
+                case COALESCE -> newest;
+                case null, default -> Math.max(
+                        sequence + 1,
+                        newest - capacity + 2
+                );
+            };
+            final long dropped = next - sequence;
+            droppedEvents.addAndGet(dropped);
+            log.debug(
+                    "Subscriber on channel {} was lapped, skipped {} events",
+                    channel,
+                    dropped
+            );
+            return next;
+        }
+    }
+}
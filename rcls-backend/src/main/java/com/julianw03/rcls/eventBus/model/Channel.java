@@ -4,5 +4,7 @@ public enum Channel {
     DATA_MANAGER,
     RCU_PROXY,
     RCU_CONNECTION_STATE,
+    RIOT_CLIENT_LOCKFILE,
+    PROCESS_LIFECYCLE,
     ALL
 }
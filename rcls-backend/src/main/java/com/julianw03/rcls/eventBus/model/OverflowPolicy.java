@@ -0,0 +1,22 @@
+package com.julianw03.rcls.eventBus.model;
+
+/**
+ * What happens when a subscriber falls so far behind that the ring buffer of a channel wraps around its cursor.
+ */
+public enum OverflowPolicy {
+    /**
+     * The publisher overwrites the oldest entries. The subscriber skips the events it missed and continues
+     * with the oldest event that is still available.
+     */
+    DROP_OLDEST,
+    /**
+     * The publisher overwrites the oldest entries. The subscriber jumps straight to the newest event,
+     * collapsing everything it missed into the latest state.
+     */
+    COALESCE,
+    /**
+     * The publisher waits for the slowest subscriber to free a slot, up to a configurable timeout.
+     * If the timeout expires the event is published anyway and the policy degrades to {@link #DROP_OLDEST}.
+     */
+    BLOCK
+}
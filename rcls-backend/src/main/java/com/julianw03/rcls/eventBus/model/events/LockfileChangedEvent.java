@@ -0,0 +1,19 @@
+package com.julianw03.rcls.eventBus.model.events;
+
+import com.julianw03.rcls.model.RiotClientConnectionParameters;
+
+/**
+ * Carries the auth secret, so it is only published on {@link com.julianw03.rcls.eventBus.model.Channel#RIOT_CLIENT_LOCKFILE},
+ * which is never forwarded to frontends.
+ */
+public class LockfileChangedEvent extends SimpleEvent<RiotClientConnectionParameters> {
+    public LockfileChangedEvent(
+            String source,
+            RiotClientConnectionParameters payload
+    ) {
+        super(
+                source,
+                payload
+        );
+    }
+}
@@ -0,0 +1,14 @@
+package com.julianw03.rcls.eventBus.model.events;
+
+public class MapDiffEvent<K, V> extends SimpleEvent<MapDiffPayload<K, V>> {
+
+    public MapDiffEvent(
+            String source,
+            MapDiffPayload<K, V> payload
+    ) {
+        super(
+                source,
+                payload
+        );
+    }
+}
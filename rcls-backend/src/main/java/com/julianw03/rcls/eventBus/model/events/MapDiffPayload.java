@@ -0,0 +1,6 @@
+package com.julianw03.rcls.eventBus.model.events;
+
+import java.util.Map;
+import java.util.Set;
+
+public record MapDiffPayload<K, V>(Map<K, V> upserted, Set<K> removed) {}
@@ -0,0 +1,13 @@
+package com.julianw03.rcls.eventBus.model.events;
+
+public class ProcessLifecycleEvent extends SimpleEvent<ProcessLifecyclePayload> {
+    public ProcessLifecycleEvent(
+            String source,
+            ProcessLifecyclePayload payload
+    ) {
+        super(
+                source,
+                payload
+        );
+    }
+}
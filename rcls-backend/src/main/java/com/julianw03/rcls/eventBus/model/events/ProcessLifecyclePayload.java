@@ -0,0 +1,19 @@
+package com.julianw03.rcls.eventBus.model.events;
+
+import com.julianw03.rcls.model.SupportedGame;
+
+/**
+ * @param game     Only set for {@link Target#GAME}
+ * @param exitCode Only set for {@link State#EXITED} processes that were started by RCLS itself
+ */
+public record ProcessLifecyclePayload(Target target, SupportedGame game, long pid, State state, Integer exitCode) {
+    public enum Target {
+        RIOT_CLIENT_SERVICES,
+        GAME
+    }
+
+    public enum State {
+        STARTED,
+        EXITED
+    }
+}
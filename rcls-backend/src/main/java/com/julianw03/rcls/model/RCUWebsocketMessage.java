@@ -1,27 +1,67 @@
 package com.julianw03.rcls.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.NullNode;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Optional;
+
 @Getter
 @NoArgsConstructor
 public class RCUWebsocketMessage {
+    /**
+     * Only used to build trees in {@link #getData()}, independent of whatever codec the buffered tokens came with.
+     */
+    private static final ObjectMapper TREE_CODEC = new ObjectMapper();
+
     @JsonProperty("eventType")
     private MessageType type;
     private String      uri;
     private JsonNode    data;
 
+    /**
+     * The still unbound tokens of {@link #data}, as captured by the streaming ingest path.
+     * The tree is only built once somebody actually asks for {@link #getData()}.
+     */
+    @JsonIgnore
+    @Getter(lombok.AccessLevel.NONE)
+    private TokenBuffer rawData;
+
+    /**
+     * Position of the message in the stream it was received on, {@code 0} if it did not come off a websocket.
+     * Increases monotonically across reconnects.
+     */
+    @JsonIgnore
+    private long sequence;
+
     public enum MessageType {
         @JsonProperty("Create")
-        CREATE,
+        CREATE("Create"),
         @JsonProperty("Update")
-        UPDATE,
+        UPDATE("Update"),
         @JsonProperty("Delete")
-        DELETE;
+        DELETE("Delete");
+
+        private final String eventType;
+
+        MessageType(String eventType) {
+            this.eventType = eventType;
+        }
 
-        MessageType() {
+        public static Optional<MessageType> fromEventType(String eventType) {
+            if (eventType == null) return Optional.empty();
+            for (MessageType type : values()) {
+                if (type.eventType.equals(eventType)) return Optional.of(type);
+            }
+            return Optional.empty();
         }
     }
 
@@ -34,4 +74,71 @@ public class RCUWebsocketMessage {
         this.uri = uri;
         this.data = data;
     }
+
+    public RCUWebsocketMessage(
+            MessageType type,
+            String uri,
+            TokenBuffer rawData
+    ) {
+        this(
+                type,
+                uri,
+                rawData,
+                0
+        );
+    }
+
+    public RCUWebsocketMessage(
+            MessageType type,
+            String uri,
+            TokenBuffer rawData,
+            long sequence
+    ) {
+        this.type = type;
+        this.uri = uri;
+        this.rawData = rawData;
+        this.sequence = sequence;
+    }
+
+    /**
+     * Materializes the data tree on first access. Messages that are never claimed by anyone
+     * therefore never pay for the tree.
+     */
+    public JsonNode getData() {
+        JsonNode node = this.data;
+        if (node != null || rawData == null) return node;
+        try (JsonParser parser = rawData.asParser(TREE_CODEC)) {
+            node = parser.readValueAsTree();
+        } catch (IOException e) {
+            throw new UncheckedIOException(
+                    "Failed to materialize buffered RCU message data for " + uri,
+                    e
+            );
+        }
+        node = Optional.ofNullable(node)
+                       .orElse(NullNode.getInstance());
+        this.data = node;
+        return node;
+    }
+
+    /**
+     * Binds the data straight from the buffered tokens into the target type, skipping the intermediate tree.
+     */
+    public <T> T readData(
+            ObjectMapper mapper,
+            Class<T> tClass
+    ) throws IOException {
+        if (rawData == null || this.data != null) {
+            return mapper.treeToValue(
+                    getData(),
+                    tClass
+            );
+        }
+        try (JsonParser parser = rawData.asParser(mapper)) {
+            return mapper.readValue(
+                    parser,
+                    tClass
+            );
+        }
+    }
 }
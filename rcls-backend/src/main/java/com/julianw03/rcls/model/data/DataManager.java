@@ -6,8 +6,10 @@ import com.julianw03.rcls.Util.Utils;
 import com.julianw03.rcls.eventBus.model.Channel;
 import com.julianw03.rcls.eventBus.model.MultiChannelBus;
 import com.julianw03.rcls.eventBus.model.events.RCUConnectionEvent;
-import com.julianw03.rcls.eventBus.model.events.RCUMessageEvent;
 import com.julianw03.rcls.model.RCUWebsocketMessage;
+import com.julianw03.rcls.model.data.routing.RCUMessageRouter;
+import com.julianw03.rcls.model.data.routing.UriTemplate;
+import com.julianw03.rcls.model.data.routing.UriVariables;
 import com.julianw03.rcls.service.BaseService;
 import com.julianw03.rcls.service.riotclient.RiotClientService;
 import lombok.extern.slf4j.Slf4j;
@@ -15,45 +17,138 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import reactor.core.Disposable;
-import reactor.core.publisher.Mono;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.atomic.AtomicBoolean;
-import java.util.regex.Matcher;
+import java.util.function.Function;
 
 /**
  * @param <T> The actual
  */
 
 public abstract class DataManager<T> extends BaseService {
+    /**
+     * Shared by all managers, so that their initial fetches run in parallel instead of one after another
+     * on the thread that delivered the {@link RCUConnectionEvent}.
+     */
+    private static final ExecutorService INITIAL_FETCH_EXECUTOR = Executors.newVirtualThreadPerTaskExecutor();
+
     protected final RiotClientService riotClientService;
     protected final MultiChannelBus   eventBus;
-    protected       Disposable        dataSubscription;
     private         Disposable        connectionStateSubscription;
     protected final ObjectMapper      objectMapper     = new ObjectMapper();
     protected final AtomicBoolean     initialFetchDone = new AtomicBoolean(false);
     protected final Logger            log              = LoggerFactory.getLogger(this.getClass());
+    private final   Object            syncLock         = new Object();
+    /**
+     * Non-null while an initial fetch is running, collects the messages that arrive in the meantime.
+     */
+    private         SyncBuffer        syncBuffer;
 
+    /**
+     * Fetches the initial state without blocking the caller. Messages that arrive while the fetch is running
+     * are buffered and replayed on top of the fetched state, except for those that were received before the fetch
+     * started and are therefore already part of it.
+     */
     public CompletableFuture<Void> setupInternalState() {
-        return doFetchInitialData().thenAccept(this::setState)
-                                   .thenRun(() -> {
-                                       if (!initialFetchDone.compareAndSet(
-                                               false,
-                                               true
-                                       )) {
-                                           log.warn(
-                                                   "Initial data fetch was already completed, but setupInternalState was called again. This might indicate a reconnect event."
-                                           );
-                                       } else {
-                                           log.info("Initial data fetch completed successfully.");
-                                       }
-                                   });
+        final SyncBuffer buffer = beginSync();
+        return CompletableFuture.supplyAsync(
+                                        this::doFetchInitialData,
+                                        INITIAL_FETCH_EXECUTOR
+                                )
+                                .thenCompose(Function.identity())
+                                .whenComplete((state, error) -> finishSync(
+                                        buffer,
+                                        state,
+                                        error
+                                ))
+                                .thenRun(() -> {
+                                    if (!buffer.applied) {
+                                        log.debug("Initial data fetch was superseded, discarding its result");
+                                        return;
+                                    }
+                                    if (!initialFetchDone.compareAndSet(
+                                            false,
+                                            true
+                                    )) {
+                                        log.info("Resynchronized retained state after a reconnect.");
+                                    } else {
+                                        log.info("Initial data fetch completed successfully.");
+                                    }
+                                });
     }
 
     protected abstract CompletableFuture<T> doFetchInitialData();
 
-    protected abstract Matcher getUriMatcher(String uri);
+    private SyncBuffer beginSync() {
+        synchronized (syncLock) {
+            // A sync that is still running is superseded, everything it buffered is older than the new fetch
+            this.syncBuffer = new SyncBuffer(riotClientService.getLastMessageSequence());
+            return this.syncBuffer;
+        }
+    }
+
+    private void finishSync(
+            SyncBuffer buffer,
+            T state,
+            Throwable error
+    ) {
+        synchronized (syncLock) {
+            if (this.syncBuffer != buffer) return;
+            this.syncBuffer = null;
+            if (error == null) {
+                setState(state);
+                buffer.applied = true;
+            } else {
+                log.warn(
+                        "Initial data fetch failed, applying {} buffered messages only",
+                        buffer.messages.size()
+                );
+            }
+            for (BufferedMessage message : buffer.messages) {
+                if (message.sequence() != 0 && message.sequence() <= buffer.startSequence) continue;
+                try {
+                    message.handler()
+                           .run();
+                } catch (RuntimeException e) {
+                    log.error(
+                            "Failed to replay buffered RCU message",
+                            e
+                    );
+                }
+            }
+        }
+    }
+
+    /**
+     * Runs the handler right away, or buffers it while an initial fetch is running.
+     */
+    private void handleOrBuffer(
+            long sequence,
+            Runnable handler
+    ) {
+        synchronized (syncLock) {
+            if (syncBuffer != null) {
+                syncBuffer.messages.add(new BufferedMessage(
+                        sequence,
+                        handler
+                ));
+                return;
+            }
+            handler.run();
+        }
+    }
+
+    /**
+     * The URIs this manager is interested in. Matching events are dispatched to it by the {@link RCUMessageRouter}
+     * through {@link #handleUpdate(RCUWebsocketMessage.MessageType, JsonNode, UriVariables)}.
+     */
+    public abstract List<UriTemplate> getUriTemplates();
 
     @Autowired
     protected DataManager(
@@ -67,24 +162,6 @@ public abstract class DataManager<T> extends BaseService {
     @Override
     public void startup() {
         super.startup();
-        log.trace(
-                "Registering RCU message listener for DataManager: {}",
-                this.getClass()
-                    .getSimpleName()
-        );
-        this.dataSubscription = eventBus.getFlux(
-                                                Channel.RCU_PROXY,
-                                                RCUMessageEvent.class
-                                        )
-                                        .concatMap(event -> Mono.fromRunnable(() -> onRCUMessage(event))
-                                                                .onErrorResume(err -> {
-                                                                    log.error(
-                                                                            "Failed to process RCU message in DataManager",
-                                                                            err
-                                                                    );
-                                                                    return Mono.empty(); // continue with next
-                                                                }))
-                                        .subscribe();
         this.connectionStateSubscription = eventBus.getFlux(
                                                            Channel.RCU_CONNECTION_STATE,
                                                            RCUConnectionEvent.class
@@ -111,17 +188,25 @@ public abstract class DataManager<T> extends BaseService {
                 this.getClass()
                     .getSimpleName()
         );
-        Optional.of(dataSubscription)
-                .ifPresent(Disposable::dispose);
-        Optional.of(connectionStateSubscription)
+        Optional.ofNullable(connectionStateSubscription)
                 .ifPresent(Disposable::dispose);
     }
 
-    protected abstract void handleUpdate(
+    /**
+     * Handles an event that matched one of {@link #getUriTemplates()}.
+     *
+     * @param uriVariables The path variables of the matched template
+     */
+    protected void handleUpdate(
             RCUWebsocketMessage.MessageType type,
             JsonNode data,
-            Matcher uriMatcher
-    );
+            UriVariables uriVariables
+    ) {
+        log.warn(
+                "Received RCU message with {}, but no handler is implemented",
+                uriVariables
+        );
+    }
 
     protected abstract void setState(T state);
 
@@ -136,6 +221,9 @@ public abstract class DataManager<T> extends BaseService {
     }
 
     public void reset() {
+        synchronized (syncLock) {
+            this.syncBuffer = null;
+        }
         initialFetchDone.set(false);
         resetInternalState();
     }
@@ -144,14 +232,17 @@ public abstract class DataManager<T> extends BaseService {
 
     protected abstract T getState();
 
-    public final void onRCUMessage(RCUMessageEvent event) {
-        RCUWebsocketMessage item = event.getPayload();
-        Matcher uriMatcher = getUriMatcher(item.getUri());
-        if (!uriMatcher.matches()) return;
-        handleUpdate(
-                item.getType(),
-                item.getData(),
-                uriMatcher
+    public final void onRoutedMessage(
+            RCUWebsocketMessage item,
+            UriVariables uriVariables
+    ) {
+        handleOrBuffer(
+                item.getSequence(),
+                () -> handleUpdate(
+                        item.getType(),
+                        item.getData(),
+                        uriVariables
+                )
         );
     }
 
@@ -165,4 +256,20 @@ public abstract class DataManager<T> extends BaseService {
                 tClass
         );
     }
+
+    private record BufferedMessage(
+            long sequence,
+            Runnable handler
+    ) {
+    }
+
+    private static class SyncBuffer {
+        private final long                  startSequence;
+        private final List<BufferedMessage> messages = new ArrayList<>();
+        private       boolean               applied;
+
+        private SyncBuffer(long startSequence) {
+            this.startSequence = startSequence;
+        }
+    }
 }
@@ -66,24 +66,35 @@ public abstract class MapDataManager<K, V, E> extends DataManager<Map<K, V>> imp
 
     @Override
     public void setState(Map<K, V> newState) {
-        if (Objects.equals(
-                newState,
-                map
-        )) {
+        final MapDiff<K, V> diff = MapDiff.between(
+                map,
+                newState == null ? Map.of() : newState,
+                true
+        );
+        if (diff.isEmpty()) {
             log.debug("New state is equal to the current state, skipping update");
             return;
         }
 
         log.debug("Updating internal map state");
-        final Map<K, V> prevMap = Map.copyOf(map);
+        applyDiff(diff);
+    }
 
-        this.map.clear();
-        this.map.putAll(newState);
+    private void applyDiff(MapDiff<K, V> diff) {
+        diff.removed()
+            .forEach(this.map::remove);
+        this.map.putAll(diff.added());
+        this.map.putAll(diff.changed());
 
-        this.onStateUpdated(
-                prevMap,
-                map
-        );
+        this.onStateDiff(diff);
+    }
+
+    /**
+     * Called after {@link #setState(Map)} or {@link #putAll(Map)} changed the map.
+     * Map managers receive this instead of {@link #onStateUpdated(Object, Object)}, so that the previous map never has to be copied.
+     */
+    protected void onStateDiff(MapDiff<K, V> diff) {
+        // This method can be overridden to handle bulk updates
     }
 
     @Override
@@ -178,13 +189,13 @@ public abstract class MapDataManager<K, V, E> extends DataManager<Map<K, V>> imp
             return;
         }
 
-        Map<K, V> prevMap = Map.copyOf(this.map);
-        this.map.putAll(m);
-
-        onStateUpdated(
-                prevMap,
-                this.map
+        final MapDiff<K, V> diff = MapDiff.between(
+                map,
+                m,
+                false
         );
+        if (diff.isEmpty()) return;
+        applyDiff(diff);
     }
 
     @Override
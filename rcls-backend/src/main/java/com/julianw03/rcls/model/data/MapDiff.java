@@ -0,0 +1,67 @@
+package com.julianw03.rcls.model.data;
+
+import java.util.*;
+
+/**
+ * The structural difference between two states of a {@link MapDataManager}.
+ *
+ * @param added   Keys that did not exist before, with their new value
+ * @param changed Keys whose value is no longer equal, with their new value
+ * @param removed Keys that no longer exist
+ */
+public record MapDiff<K, V>(
+        Map<K, V> added,
+        Map<K, V> changed,
+        Set<K> removed
+) {
+
+    /**
+     * Computes the diff in a single pass over {@code next} (and, if {@code includeRemovals} is set, one over {@code current}).
+     *
+     * @param includeRemovals Whether keys that are missing from {@code next} count as removed.
+     *                        Should be {@code false} if {@code next} is merged into {@code current} rather than replacing it.
+     */
+    public static <K, V> MapDiff<K, V> between(
+            Map<K, V> current,
+            Map<? extends K, ? extends V> next,
+            boolean includeRemovals
+    ) {
+        final Map<K, V> added = new HashMap<>();
+        final Map<K, V> changed = new HashMap<>();
+        for (Map.Entry<? extends K, ? extends V> entry : next.entrySet()) {
+            final V previousValue = current.get(entry.getKey());
+            if (previousValue == null) {
+                added.put(
+                        entry.getKey(),
+                        entry.getValue()
+                );
+            } else if (!Objects.equals(
+                    previousValue,
+                    entry.getValue()
+            )) {
+                changed.put(
+                        entry.getKey(),
+                        entry.getValue()
+                );
+            }
+        }
+
+        final Set<K> removed = new HashSet<>();
+        if (includeRemovals) {
+            for (K key : current.keySet()) {
+                if (!next.containsKey(key)) {
+                    removed.add(key);
+                }
+            }
+        }
+        return new MapDiff<>(
+                added,
+                changed,
+                removed
+        );
+    }
+
+    public boolean isEmpty() {
+        return added.isEmpty() && changed.isEmpty() && removed.isEmpty();
+    }
+}
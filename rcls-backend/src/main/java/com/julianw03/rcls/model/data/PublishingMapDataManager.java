@@ -4,6 +4,8 @@ import com.julianw03.rcls.eventBus.model.Channel;
 import com.julianw03.rcls.eventBus.model.MultiChannelBus;
 import com.julianw03.rcls.eventBus.model.events.KeyViewUpdatedEvent;
 import com.julianw03.rcls.eventBus.model.events.KeyViewUpdatedPayload;
+import com.julianw03.rcls.eventBus.model.events.MapDiffEvent;
+import com.julianw03.rcls.eventBus.model.events.MapDiffPayload;
 import com.julianw03.rcls.eventBus.model.events.ViewUpdatedEvent;
 import com.julianw03.rcls.eventBus.model.events.ViewUpdatedPayload;
 import com.julianw03.rcls.model.services.ServiceDTO;
@@ -11,11 +13,24 @@ import com.julianw03.rcls.model.services.ServiceSerializable;
 import com.julianw03.rcls.service.riotclient.RiotClientService;
 import org.jetbrains.annotations.Contract;
 
+import java.util.HashMap;
 import java.util.Map;
 import java.util.Objects;
-import java.util.stream.Collectors;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
 
-public abstract class PublishingMapDataManager<K, V, E extends ServiceSerializable, P extends ServiceDTO<E>> extends MapDataManager<K, V, E> {
+public abstract class PublishingMapDataManager<K, V, E extends ServiceSerializable, P extends ServiceDTO<E>> extends MapDataManager<K, V, E> implements PublishingViewSource {
+    protected static final long NO_FINGERPRINT = Long.MIN_VALUE;
+
+    /**
+     * The publishing view of every key, exactly as it was last sent out.
+     */
+    private final Map<K, P>    publishedViews        = new ConcurrentHashMap<>();
+    /**
+     * The {@link #fingerprint} of the value each entry of {@link #publishedViews} was built from.
+     */
+    private final Map<K, Long> publishedFingerprints = new ConcurrentHashMap<>();
 
     protected PublishingMapDataManager(
             RiotClientService riotClientService,
@@ -38,9 +53,22 @@ public abstract class PublishingMapDataManager<K, V, E extends ServiceSerializab
                 previousValue,
                 newValue
         );
+        final long newFingerprint = newValue == null ? NO_FINGERPRINT : fingerprint(newValue);
+        if (newFingerprint != NO_FINGERPRINT) {
+            final Long publishedFingerprint = publishedFingerprints.get(key);
+            if (publishedFingerprint != null && publishedFingerprint == newFingerprint) {
+                return;
+            }
+        }
+
         final P newPubValueView = mapPublishingValueView(newValue);
+        final P previousPubValueView = cachePublishedView(
+                key,
+                newValue == null ? null : newPubValueView,
+                newFingerprint
+        );
         if (Objects.equals(
-                mapPublishingValueView(previousValue),
+                previousPubValueView,
                 newPubValueView
         )) {
             return;
@@ -57,56 +85,135 @@ public abstract class PublishingMapDataManager<K, V, E extends ServiceSerializab
         );
     }
 
-    @Override
-    protected void onStateUpdated(
-            Map<K, V> previousState,
-            Map<K, V> newState
+    /**
+     * Optional cheap summary of everything in {@code value} that {@link #mapPublishingValueView} depends on.
+     * If two consecutive values of a key have the same fingerprint, the publishing view is not rebuilt at all.
+     * Use {@link #mixFingerprint(long, Object)} to combine fields.
+     *
+     * @return {@link #NO_FINGERPRINT} (the default) to always build and compare the publishing view
+     */
+    @Contract(pure = true)
+    protected long fingerprint(V value) {
+        return NO_FINGERPRINT;
+    }
+
+    protected static long mixFingerprint(
+            long fingerprint,
+            Object field
     ) {
-        super.onStateUpdated(
-                previousState,
-                newState
-        );
-        final Map<K, P> newPubView = mapPublishingView(newState);
-        if (Objects.equals(
-                mapPublishingView(previousState),
-                newPubView
-        )) {
+        final long mixed = (fingerprint ^ Objects.hashCode(field)) * 0x9E3779B97F4A7C15L;
+        // Keep the sentinel out of the value range
+        return mixed == NO_FINGERPRINT ? mixed + 1 : mixed;
+    }
+
+    /**
+     * Publishes only the keys whose publishing view actually changed. The full view is only sent while the
+     * initial fetch is still in progress, so that clients start from a complete state.
+     */
+    @Override
+    protected void onStateDiff(MapDiff<K, V> diff) {
+        super.onStateDiff(diff);
+
+        final Map<K, P> upserted = new HashMap<>();
+        final BiConsumer<K, V> collectUpsert = (key, value) -> {
+            final P view = mapPublishingValueView(value);
+            if (!Objects.equals(
+                    cachePublishedView(
+                            key,
+                            view,
+                            fingerprint(value)
+                    ),
+                    view
+            )) {
+                upserted.put(
+                        key,
+                        view
+                );
+            }
+        };
+        diff.added()
+            .forEach(collectUpsert);
+        diff.changed()
+            .forEach(collectUpsert);
+
+        final Set<K> removed = diff.removed();
+        removed.forEach(key -> cachePublishedView(
+                key,
+                null,
+                NO_FINGERPRINT
+        ));
+
+        if (!initialFetchDone.get()) {
+            publishFullView();
             return;
         }
+        if (upserted.isEmpty() && removed.isEmpty()) return;
+        eventBus.publish(
+                Channel.DATA_MANAGER,
+                new MapDiffEvent<>(
+                        getUri(),
+                        new MapDiffPayload<>(
+                                upserted,
+                                removed
+                        )
+                )
+        );
+    }
+
+    @Override
+    public void resetInternalState() {
+        super.resetInternalState();
+        publishedViews.clear();
+        publishedFingerprints.clear();
+        publishFullView();
+    }
+
+    private void publishFullView() {
         eventBus.publish(
                 Channel.DATA_MANAGER,
                 new ViewUpdatedEvent<>(
                         getUri(),
                         new ViewUpdatedPayload<>(
-                                newPubView
+                                Map.copyOf(publishedViews)
                         )
                 )
         );
     }
 
-    protected String getUri() {
+    /**
+     * @return The previously published view for the key
+     */
+    private P cachePublishedView(
+            K key,
+            P view,
+            long fingerprint
+    ) {
+        if (view == null || fingerprint == NO_FINGERPRINT) {
+            publishedFingerprints.remove(key);
+        } else {
+            publishedFingerprints.put(
+                    key,
+                    fingerprint
+            );
+        }
+        if (view == null) return publishedViews.remove(key);
+        return publishedViews.put(
+                key,
+                view
+        );
+    }
+
+    @Override
+    public String getUri() {
         return this.getClass()
                    .getSimpleName();
     }
 
-    @Contract(pure = true)
-    protected abstract P mapPublishingValueView(V state);
+    @Override
+    public Object getPublishingView() {
+        return Map.copyOf(publishedViews);
+    }
 
     @Contract(pure = true)
-    protected Map<K, P> mapPublishingView(Map<K, V> map) {
-        return map.entrySet()
-                  .stream()
-                  .map(entry -> {
-                      K key = entry.getKey();
-                      V value = entry.getValue();
-                      return Map.entry(
-                              key,
-                              mapPublishingValueView(value)
-                      );
-                  })
-                  .collect(Collectors.toMap(
-                          Map.Entry::getKey,
-                          Map.Entry::getValue
-                  ));
-    }
+    protected abstract P mapPublishingValueView(V state);
 }
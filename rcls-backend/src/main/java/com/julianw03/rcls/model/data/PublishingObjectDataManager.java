@@ -19,7 +19,7 @@ import java.util.Objects;
  *            Sealed classes do not work that well so having a separate DTO may be useful.
  *
  **/
-public abstract class PublishingObjectDataManager<T, V extends ServiceSerializable, P extends ServiceDTO<V>> extends ObjectDataManager<T, V> {
+public abstract class PublishingObjectDataManager<T, V extends ServiceSerializable, P extends ServiceDTO<V>> extends ObjectDataManager<T, V> implements PublishingViewSource {
     protected PublishingObjectDataManager(
             RiotClientService riotClientService,
             MultiChannelBus eventBus
@@ -59,8 +59,14 @@ public abstract class PublishingObjectDataManager<T, V extends ServiceSerializab
 
     protected abstract P mapPublishingView(T state);
 
-    protected String getUri() {
+    @Override
+    public String getUri() {
         return this.getClass()
                    .getSimpleName();
     }
+
+    @Override
+    public Object getPublishingView() {
+        return mapPublishingView(getState());
+    }
 }
@@ -0,0 +1,17 @@
+package com.julianw03.rcls.model.data;
+
+/**
+ * A data manager whose publishing view is streamed to websocket clients.
+ * Used to build the snapshot a client receives when it connects.
+ */
+public interface PublishingViewSource {
+    /**
+     * @return The identifier the manager publishes its events under.
+     */
+    String getUri();
+
+    /**
+     * @return The current publishing view, exactly as it would be sent in a {@link com.julianw03.rcls.eventBus.model.events.ViewUpdatedEvent}.
+     */
+    Object getPublishingView();
+}
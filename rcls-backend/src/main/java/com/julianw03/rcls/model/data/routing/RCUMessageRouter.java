@@ -0,0 +1,95 @@
+package com.julianw03.rcls.model.data.routing;
+
+import com.julianw03.rcls.eventBus.model.Channel;
+import com.julianw03.rcls.eventBus.model.MultiChannelBus;
+import com.julianw03.rcls.eventBus.model.events.RCUMessageEvent;
+import com.julianw03.rcls.model.RCUWebsocketMessage;
+import com.julianw03.rcls.model.data.DataManager;
+import com.julianw03.rcls.service.BaseService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Single subscriber to {@link Channel#RCU_PROXY} that hands every RCU event only to the {@link DataManager}s
+ * that registered a matching {@link UriTemplate}.
+ * <p>
+ * Events that no manager is interested in are dropped right here, so their {@code data} is never bound.
+ */
+@Slf4j
+@Component
+public class RCUMessageRouter extends BaseService {
+    private final MultiChannelBus               eventBus;
+    private final UriRouteIndex<DataManager<?>> routeIndex = new UriRouteIndex<>();
+    private       Disposable                    subscription;
+
+    public RCUMessageRouter(
+            MultiChannelBus eventBus,
+            ObjectProvider<DataManager<?>> dataManagers
+    ) {
+        this.eventBus = eventBus;
+        dataManagers.orderedStream()
+                    .forEach(this::register);
+    }
+
+    private void register(DataManager<?> dataManager) {
+        for (UriTemplate template : dataManager.getUriTemplates()) {
+            log.debug(
+                    "Routing {} to {}",
+                    template,
+                    dataManager.getClass()
+                               .getSimpleName()
+            );
+            routeIndex.register(
+                    template,
+                    dataManager
+            );
+        }
+    }
+
+    @Override
+    protected void startup() {
+        super.startup();
+        this.subscription = eventBus.getFlux(
+                                            Channel.RCU_PROXY,
+                                            RCUMessageEvent.class
+                                    )
+                                    .subscribe(this::route);
+    }
+
+    @Override
+    protected void shutdown() {
+        super.shutdown();
+        Optional.ofNullable(subscription)
+                .ifPresent(Disposable::dispose);
+    }
+
+    void route(RCUMessageEvent event) {
+        final RCUWebsocketMessage message = event.getPayload();
+        if (message == null) return;
+
+        final List<UriRouteIndex.Match<DataManager<?>>> matches = routeIndex.match(message.getUri());
+        for (UriRouteIndex.Match<DataManager<?>> match : matches) {
+            try {
+                match.handler()
+                     .onRoutedMessage(
+                             message,
+                             match.variables()
+                     );
+            } catch (Exception e) {
+                log.error(
+                        "Failed to process RCU message for {} in {}",
+                        match.template(),
+                        match.handler()
+                             .getClass()
+                             .getSimpleName(),
+                        e
+                );
+            }
+        }
+    }
+}
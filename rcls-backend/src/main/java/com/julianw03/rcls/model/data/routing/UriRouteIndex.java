@@ -0,0 +1,174 @@
+package com.julianw03.rcls.model.data.routing;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Segment trie over a set of {@link UriTemplate}s.
+ * <p>
+ * Static segments are shared between templates, so looking up a URI costs one walk along its segments
+ * no matter how many templates are registered. Literal segments take precedence over variables,
+ * but both branches are followed so that every matching template is reported.
+ * <p>
+ * Registration is not synchronized. Register all routes before the index is shared with other threads.
+ *
+ * @param <H> The type of the handler that is registered for a template
+ */
+public class UriRouteIndex<H> {
+    private final Node<H> root = new Node<>();
+    private       int     maxDepth;
+
+    public record Match<H>(
+            H handler,
+            UriTemplate template,
+            UriVariables variables
+    ) {
+    }
+
+    private record Route<H>(
+            UriTemplate template,
+            H handler
+    ) {
+    }
+
+    private static class Node<H> {
+        private final Map<String, Node<H>> literals = new LinkedHashMap<>();
+        private       Node<H>              variable;
+        private final List<Route<H>>       routes   = new ArrayList<>(1);
+    }
+
+    public void register(
+            UriTemplate template,
+            H handler
+    ) {
+        Node<H> node = root;
+        final List<String> segments = template.getSegments();
+        for (String segment : segments) {
+            if (UriTemplate.isVariable(segment)) {
+                if (node.variable == null) node.variable = new Node<>();
+                node = node.variable;
+            } else {
+                node = node.literals.computeIfAbsent(
+                        segment,
+                        s -> new Node<>()
+                );
+            }
+        }
+        node.routes.add(new Route<>(
+                template,
+                handler
+        ));
+        maxDepth = Math.max(
+                maxDepth,
+                segments.size()
+        );
+    }
+
+    /**
+     * @return All handlers whose template matches the given URI, or an empty list if nobody is interested in it.
+     */
+    public List<Match<H>> match(String uri) {
+        if (uri == null || uri.isEmpty() || uri.charAt(0) != '/') return List.of();
+        final int[] captures = new int[maxDepth * 2];
+        final List<Match<H>> matches = collect(
+                root,
+                uri,
+                1,
+                captures,
+                0,
+                null
+        );
+        return matches == null ? List.of() : Collections.unmodifiableList(matches);
+    }
+
+    private List<Match<H>> collect(
+            Node<H> node,
+            String uri,
+            int start,
+            int[] captures,
+            int captureCount,
+            List<Match<H>> matches
+    ) {
+        final int slash = uri.indexOf('/', start);
+        final int end = slash < 0 ? uri.length() : slash;
+        final boolean lastSegment = slash < 0;
+        final int length = end - start;
+
+        for (Map.Entry<String, Node<H>> entry : node.literals.entrySet()) {
+            final String literal = entry.getKey();
+            if (literal.length() != length || !uri.regionMatches(
+                    start,
+                    literal,
+                    0,
+                    length
+            )) continue;
+            matches = descend(
+                    entry.getValue(),
+                    uri,
+                    end,
+                    lastSegment,
+                    captures,
+                    captureCount,
+                    matches
+            );
+        }
+
+        if (node.variable != null && length > 0) {
+            captures[captureCount * 2] = start;
+            captures[captureCount * 2 + 1] = end;
+            matches = descend(
+                    node.variable,
+                    uri,
+                    end,
+                    lastSegment,
+                    captures,
+                    captureCount + 1,
+                    matches
+            );
+        }
+        return matches;
+    }
+
+    private List<Match<H>> descend(
+            Node<H> child,
+            String uri,
+            int end,
+            boolean lastSegment,
+            int[] captures,
+            int captureCount,
+            List<Match<H>> matches
+    ) {
+        if (!lastSegment) {
+            return collect(
+                    child,
+                    uri,
+                    end + 1,
+                    captures,
+                    captureCount,
+                    matches
+            );
+        }
+        if (child.routes.isEmpty()) return matches;
+        if (matches == null) matches = new ArrayList<>(1);
+
+        final String[] values = new String[captureCount];
+        for (int i = 0; i < captureCount; i++) {
+            values[i] = uri.substring(captures[i * 2], captures[i * 2 + 1]);
+        }
+        for (Route<H> route : child.routes) {
+            matches.add(new Match<>(
+                    route.handler(),
+                    route.template(),
+                    new UriVariables(
+                            route.template()
+                                 .getVariableNames(),
+                            values
+                    )
+            ));
+        }
+        return matches;
+    }
+}
@@ -0,0 +1,104 @@
+package com.julianw03.rcls.model.data.routing;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * A path template such as {@code /patch-proxy/v1/patch-states/products/{productId}/patchlines/{patchlineId}}.
+ * <p>
+ * Every {@code {name}} segment matches exactly one non-empty path segment, every other segment has to match literally.
+ * Templates are matched segment by segment through a {@link UriRouteIndex}, no regular expressions are involved.
+ */
+public final class UriTemplate {
+    private final String       template;
+    private final List<String> segments;
+    private final List<String> variableNames;
+
+    private UriTemplate(
+            String template,
+            List<String> segments,
+            List<String> variableNames
+    ) {
+        this.template = template;
+        this.segments = segments;
+        this.variableNames = variableNames;
+    }
+
+    public static UriTemplate of(String template) {
+        Objects.requireNonNull(template, "template must not be null");
+        if (!template.startsWith("/")) {
+            throw new IllegalArgumentException("A URI template has to start with '/': " + template);
+        }
+
+        final List<String> segments = new ArrayList<>();
+        final List<String> variableNames = new ArrayList<>();
+        for (String segment : UriTemplate.split(template)) {
+            if (isVariable(segment)) {
+                final String name = segment.substring(1, segment.length() - 1);
+                if (name.isEmpty() || variableNames.contains(name)) {
+                    throw new IllegalArgumentException("Invalid or duplicate variable \"" + name + "\" in URI template: " + template);
+                }
+                variableNames.add(name);
+            } else if (segment.indexOf('{') >= 0 || segment.indexOf('}') >= 0) {
+                throw new IllegalArgumentException("Variables have to span a whole segment in URI template: " + template);
+            }
+            segments.add(segment);
+        }
+
+        return new UriTemplate(
+                template,
+                Collections.unmodifiableList(segments),
+                Collections.unmodifiableList(variableNames)
+        );
+    }
+
+    /**
+     * Splits a path into its segments, ignoring the leading slash.
+     * {@code "/a/b"} results in {@code [a, b]}, {@code "/a/"} results in {@code [a, ""]}.
+     */
+    static List<String> split(String path) {
+        final List<String> parts = new ArrayList<>(8);
+        int start = path.startsWith("/") ? 1 : 0;
+        int end;
+        while ((end = path.indexOf('/', start)) >= 0) {
+            parts.add(path.substring(start, end));
+            start = end + 1;
+        }
+        parts.add(path.substring(start));
+        return parts;
+    }
+
+    static boolean isVariable(String segment) {
+        return segment.length() >= 2 && segment.charAt(0) == '{' && segment.charAt(segment.length() - 1) == '}';
+    }
+
+    List<String> getSegments() {
+        return segments;
+    }
+
+    public List<String> getVariableNames() {
+        return variableNames;
+    }
+
+    public String getTemplate() {
+        return template;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (!(o instanceof UriTemplate that)) return false;
+        return template.equals(that.template);
+    }
+
+    @Override
+    public int hashCode() {
+        return template.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return template;
+    }
+}
@@ -0,0 +1,59 @@
+package com.julianw03.rcls.model.data.routing;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * The path variables captured while routing a URI against a {@link UriTemplate}.
+ */
+public final class UriVariables {
+    private static final UriVariables EMPTY = new UriVariables(
+            List.of(),
+            new String[0]
+    );
+
+    private final List<String> names;
+    private final String[]     values;
+
+    UriVariables(
+            List<String> names,
+            String[] values
+    ) {
+        this.names = names;
+        this.values = values;
+    }
+
+    public static UriVariables empty() {
+        return EMPTY;
+    }
+
+    /**
+     * @return The value captured for the variable at the given position, in template order.
+     */
+    public String get(int index) {
+        return values[index];
+    }
+
+    public Optional<String> get(String name) {
+        final int index = names.indexOf(name);
+        if (index < 0) return Optional.empty();
+        return Optional.of(values[index]);
+    }
+
+    public int size() {
+        return values.length;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder builder = new StringBuilder("{");
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) builder.append(", ");
+            builder.append(names.get(i))
+                   .append('=')
+                   .append(values[i]);
+        }
+        return builder.append('}')
+                      .toString();
+    }
+}
@@ -0,0 +1,175 @@
+package com.julianw03.rcls.service.http;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpTimeoutException;
+import java.util.Collection;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * An {@link HttpClient} together with a bound for the requests it has in flight.
+ * <p>
+ * The JDK client has no pool size setting of its own, so callers take a permit before sending and give it back once
+ * they are done with the response. Waiting for a permit is limited by the acquire timeout, after which a
+ * {@link PoolExhaustedException} is thrown.
+ */
+public class BoundedHttpClient {
+    private static final Executor    PERMIT_WAITERS     = Executors.newVirtualThreadPerTaskExecutor();
+    /**
+     * Headers the {@link HttpClient} sets by itself and refuses to take from the caller.
+     */
+    private static final Set<String> RESTRICTED_HEADERS = Set.of(
+            "connection",
+            "content-length",
+            "expect",
+            "host",
+            "upgrade"
+    );
+
+    public static class PoolExhaustedException extends HttpTimeoutException {
+        private static final long serialVersionUID = 1L;
+
+        public PoolExhaustedException(String message) {
+            super(message);
+        }
+    }
+
+    private final HttpClient httpClient;
+    private final Semaphore  permits;
+    private final int        maxConcurrentRequests;
+    private final int        acquireTimeoutMs;
+
+    /**
+     * @param metricName Prefix of the {@code .in-flight} gauge that is registered for this client
+     */
+    public BoundedHttpClient(
+            HttpClient httpClient,
+            int maxConcurrentRequests,
+            int acquireTimeoutMs,
+            String metricName,
+            MeterRegistry meterRegistry
+    ) {
+        this.httpClient = httpClient;
+        this.maxConcurrentRequests = Math.max(
+                1,
+                maxConcurrentRequests
+        );
+        this.acquireTimeoutMs = acquireTimeoutMs;
+        this.permits = new Semaphore(
+                this.maxConcurrentRequests,
+                true
+        );
+
+        Gauge.builder(
+                     metricName + ".in-flight",
+                     permits,
+                     semaphore -> this.maxConcurrentRequests - semaphore.availablePermits()
+             )
+             .register(meterRegistry);
+    }
+
+    public HttpClient getHttpClient() {
+        return httpClient;
+    }
+
+    /**
+     * Blocks until a permit is free, at most for the acquire timeout.
+     */
+    public void acquire() throws PoolExhaustedException, InterruptedException {
+        if (!permits.tryAcquire(
+                acquireTimeoutMs,
+                TimeUnit.MILLISECONDS
+        )) {
+            throw new PoolExhaustedException("No request slot available after " + acquireTimeoutMs + "ms");
+        }
+    }
+
+    /**
+     * Like {@link #acquire}, but never blocks the caller. If no permit is free, the wait happens on a virtual thread.
+     */
+    public CompletableFuture<Void> acquireAsync() {
+        if (permits.tryAcquire()) return CompletableFuture.completedFuture(null);
+        return CompletableFuture.runAsync(
+                () -> {
+                    try {
+                        acquire();
+                    } catch (PoolExhaustedException e) {
+                        throw new CompletionException(e);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread()
+                              .interrupt();
+                        throw new CompletionException(e);
+                    }
+                },
+                PERMIT_WAITERS
+        );
+    }
+
+    public void release() {
+        permits.release();
+    }
+
+    /**
+     * @return The body, which gives back the permit of its request once it is closed. Closing it twice releases once.
+     */
+    public InputStream releasingOnClose(InputStream body) {
+        return new PermitReleasingInputStream(body);
+    }
+
+    /**
+     * Copies the headers onto the request, leaving out those the {@link HttpClient} refuses to take as well as
+     * {@code null} values, which it would reject.
+     */
+    public static void copyHeaders(
+            Map<String, ? extends Collection<String>> headers,
+            HttpRequest.Builder builder
+    ) {
+        headers.forEach((name, values) -> {
+            if (RESTRICTED_HEADERS.contains(name.toLowerCase(Locale.ROOT))) return;
+            values.forEach(value -> {
+                if (value == null) return;
+                builder.header(
+                        name,
+                        value
+                );
+            });
+        });
+    }
+
+    private class PermitReleasingInputStream extends FilterInputStream {
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private PermitReleasingInputStream(InputStream body) {
+            super(body);
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                super.close();
+            } finally {
+                if (released.compareAndSet(
+                        false,
+                        true
+                )) {
+                    permits.release();
+                }
+            }
+        }
+    }
+}
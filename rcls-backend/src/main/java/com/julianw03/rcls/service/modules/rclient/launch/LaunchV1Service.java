@@ -5,10 +5,11 @@ import com.julianw03.rcls.model.SupportedGame;
 import com.julianw03.rcls.service.process.NoSuchProcessException;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 
 public interface LaunchV1Service {
-    void launchRiotClientUx() throws ExecutionException;
+    CompletableFuture<Void> launchRiotClientUx();
     void hideRiotClientUx() throws ExecutionException;
 
     List<String> getOperatingSystemSupportedGames(SupportedGame.ResolveStrategy resolveStrategy);
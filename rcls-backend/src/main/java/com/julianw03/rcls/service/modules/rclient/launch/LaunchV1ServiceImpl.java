@@ -19,6 +19,7 @@ import org.springframework.stereotype.Service;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 
 @Service
@@ -39,24 +40,17 @@ public class LaunchV1ServiceImpl implements LaunchV1Service {
         this.authenticationManager = rsoAuthenticationManager;
     }
 
-    public void launchRiotClientUx() throws ExecutionException {
-        InternalApiResponse response = riotClientService.request(
-                HttpMethod.POST,
-                "/riot-client-lifecycle/v1/show",
-                null
-        );
-
-        switch (response) {
-            case InternalApiResponse.ApiError error -> {
-                throw new ExecutionException(error.getError());
-            }
-            case InternalApiResponse.InternalException exception -> {
-                throw new ExecutionException(exception.getException());
-            }
-            default -> {
-                return;
-            }
-        }
+    public CompletableFuture<Void> launchRiotClientUx() {
+        return riotClientService.requestAsync(
+                                        HttpMethod.POST,
+                                        "/riot-client-lifecycle/v1/show",
+                                        null
+                                )
+                                .thenCompose(response -> switch (response) {
+                                    case InternalApiResponse.ApiError error -> CompletableFuture.<Void>failedFuture(new ExecutionException(error.getError()));
+                                    case InternalApiResponse.InternalException exception -> CompletableFuture.<Void>failedFuture(new ExecutionException(exception.getException()));
+                                    default -> CompletableFuture.<Void>completedFuture(null);
+                                });
     }
 
     public void hideRiotClientUx() throws ExecutionException {
@@ -7,6 +7,8 @@ import com.julianw03.rcls.generated.api.CoreSdkApi;
 import com.julianw03.rcls.generated.model.*;
 import com.julianw03.rcls.model.RCUWebsocketMessage;
 import com.julianw03.rcls.model.data.PublishingObjectDataManager;
+import com.julianw03.rcls.model.data.routing.UriTemplate;
+import com.julianw03.rcls.model.data.routing.UriVariables;
 import com.julianw03.rcls.service.modules.rclient.login.model.AuthenticationStateDTO;
 import com.julianw03.rcls.service.modules.rclient.login.model.HCaptchaDTO;
 import com.julianw03.rcls.service.modules.rclient.login.model.LoginStatusDTO;
@@ -15,14 +17,13 @@ import com.julianw03.rcls.service.modules.rclient.login.model.auth.*;
 import com.julianw03.rcls.service.riotclient.RiotClientService;
 import org.springframework.stereotype.Component;
 
+import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 @Component
 public class RsoAuthenticationManager extends PublishingObjectDataManager<RsoAuthenticatorV1AuthenticationResponse, AuthenticationState, AuthenticationStateDTO> {
-    private static final Pattern RSO_AUTHENTICATOR_V1_AUTHENTICATION_PATTERN = Pattern.compile("^/rso-authenticator/v1/authentication$");
+    private static final UriTemplate RSO_AUTHENTICATOR_V1_AUTHENTICATION_TEMPLATE = UriTemplate.of("/rso-authenticator/v1/authentication");
 
     public RsoAuthenticationManager(
             RiotClientService riotClientService,
@@ -164,15 +165,15 @@ public class RsoAuthenticationManager extends PublishingObjectDataManager<RsoAut
     }
 
     @Override
-    protected Matcher getUriMatcher(String uri) {
-        return RSO_AUTHENTICATOR_V1_AUTHENTICATION_PATTERN.matcher(uri);
+    public List<UriTemplate> getUriTemplates() {
+        return List.of(RSO_AUTHENTICATOR_V1_AUTHENTICATION_TEMPLATE);
     }
 
     @Override
     protected void handleUpdate(
             RCUWebsocketMessage.MessageType type,
             JsonNode data,
-            Matcher uriMatcher
+            UriVariables uriVariables
     ) {
 
         switch (type) {
@@ -1,6 +1,7 @@
 package com.julianw03.rcls.service.modules.rclient.patchHandler;
 
 import com.fasterxml.jackson.databind.JsonNode;
+import com.julianw03.rcls.config.mappings.PatchHandlerConfig;
 import com.julianw03.rcls.eventBus.model.MultiChannelBus;
 import com.julianw03.rcls.generated.api.PluginPatchProxyApi;
 import com.julianw03.rcls.generated.api.PluginRnetProductRegistryApi;
@@ -8,6 +9,8 @@ import com.julianw03.rcls.generated.model.*;
 import com.julianw03.rcls.model.RCUWebsocketMessage;
 import com.julianw03.rcls.model.SupportedGame;
 import com.julianw03.rcls.model.data.PublishingMapDataManager;
+import com.julianw03.rcls.model.data.routing.UriTemplate;
+import com.julianw03.rcls.model.data.routing.UriVariables;
 import com.julianw03.rcls.service.modules.rclient.patchHandler.model.CompositePatchlineKey;
 import com.julianw03.rcls.service.modules.rclient.patchHandler.model.PatchStateDTO;
 import com.julianw03.rcls.service.modules.rclient.patchHandler.model.states.*;
@@ -15,25 +18,27 @@ import com.julianw03.rcls.service.riotclient.RiotClientService;
 import org.springframework.stereotype.Component;
 
 import java.util.*;
-import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.TimeUnit;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
-import java.util.stream.Collectors;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicReference;
 
 @Component
 public class PatchHandlerManager extends PublishingMapDataManager<CompositePatchlineKey, PatchProxyPatchingResource, PatchState, PatchStateDTO> {
 
-    private static final Pattern PATCH_PROXY_PATTERN = Pattern.compile("^/patch-proxy/v1/patch-states/products/(\\w+)/patchlines/(\\w+)$");
+    private static final UriTemplate PATCH_PROXY_TEMPLATE = UriTemplate.of("/patch-proxy/v1/patch-states/products/{productId}/patchlines/{patchlineId}");
+
+    private final PatchHandlerConfig            config;
+    private final AtomicReference<InitialFetch> runningFetch = new AtomicReference<>();
 
     public PatchHandlerManager(
             RiotClientService riotClientService,
-            MultiChannelBus eventBus
+            MultiChannelBus eventBus,
+            PatchHandlerConfig config
     ) {
         super(
                 riotClientService,
                 eventBus
         );
+        this.config = config;
     }
 
     @Override
@@ -41,6 +46,86 @@ public class PatchHandlerManager extends PublishingMapDataManager<CompositePatch
         return PatchStateDTO.map(mapValueView(state));
     }
 
+    /**
+     * Covers exactly the fields {@link #mapValueView} reads, so that progress ticks that do not change
+     * the published state are discarded before any view is built.
+     */
+    @Override
+    protected long fingerprint(PatchProxyPatchingResource value) {
+        long fingerprint = mixFingerprint(
+                0,
+                value.getCombinedPatchState()
+        );
+        fingerprint = mixFingerprint(
+                fingerprint,
+                value.getUserCancelledPatching()
+        );
+        final PatchProxyPatchStatus status = value.getPatchStatus();
+        if (status == null) return fingerprint;
+        fingerprint = mixFingerprint(
+                fingerprint,
+                status.getState()
+        );
+        final PatchProxyProgress progress = status.getProgress();
+        if (progress == null) return fingerprint;
+        fingerprint = mixFingerprint(
+                fingerprint,
+                progress.getProgress()
+        );
+
+        final var update = progress.getUpdate();
+        if (update != null) {
+            fingerprint = mixFingerprint(
+                    fingerprint,
+                    update.getBytesToDownload()
+            );
+            fingerprint = mixFingerprint(
+                    fingerprint,
+                    update.getBytesToRead()
+            );
+            fingerprint = mixFingerprint(
+                    fingerprint,
+                    update.getBytesToWrite()
+            );
+            fingerprint = mixFingerprint(
+                    fingerprint,
+                    update.getDownloadedBytes()
+            );
+            fingerprint = mixFingerprint(
+                    fingerprint,
+                    update.getReadBytes()
+            );
+            fingerprint = mixFingerprint(
+                    fingerprint,
+                    update.getStage()
+            );
+            fingerprint = mixFingerprint(
+                    fingerprint,
+                    update.getWrittenBytes()
+            );
+        }
+        final var repair = progress.getRepair();
+        if (repair != null) {
+            fingerprint = mixFingerprint(
+                    fingerprint,
+                    repair.getBytesToRepair()
+            );
+            fingerprint = mixFingerprint(
+                    fingerprint,
+                    repair.getFilesToRepair()
+            );
+            fingerprint = mixFingerprint(
+                    fingerprint,
+                    repair.getRepairedBytes()
+            );
+            fingerprint = mixFingerprint(
+                    fingerprint,
+                    repair.getRepairedFiles()
+            );
+        }
+        return fingerprint;
+    }
+
     @Override
     protected PatchState mapValueView(PatchProxyPatchingResource value) {
         if (value == null) return new UnknownState();
@@ -124,48 +209,40 @@ public class PatchHandlerManager extends PublishingMapDataManager<CompositePatch
     @Override
     protected CompletableFuture<Map<CompositePatchlineKey, PatchProxyPatchingResource>> doFetchInitialData() {
         log.info("Fetching initial data...");
-        return CompletableFuture.supplyAsync(this::getProducts)
-                                .orTimeout(
-                                        5,
-                                        TimeUnit.SECONDS
-                                )
-                                .thenApply(products -> {
-                                    final Map<String, Set<String>> productMap = products.stream()
-                                                                                        .collect((Collectors.toMap(
-                                                                                                RnetProductRegistryProductV4::getId,
-                                                                                                product -> product.getPatchlines()
-                                                                                                                  .stream()
-                                                                                                                  .filter(Objects::nonNull)
-                                                                                                                  .filter(patchline -> {
-                                                                                                                      final String platform = patchline.getPlatform();
-                                                                                                                      return Optional.ofNullable(patchline.getAvailablePlatforms())
-                                                                                                                                     .map(availablePlatforms -> availablePlatforms.contains(platform))
-                                                                                                                                     .orElse(false);
-                                                                                                                  })
-                                                                                                                  .map(RnetProductRegistryPatchline::getId)
-                                                                                                                  .collect(Collectors.toSet())
-                                                                                        )));
-
-
-                                    return productMap.entrySet()
-                                                     .parallelStream()
-                                                     .flatMap(entry -> SupportedGame.ResolveStrategy.RIOT_INTERNAL_NAME.resolve(entry.getKey())
-                                                                                                                       .stream()
-                                                                                                                       .flatMap(supportedGame -> entry.getValue()
-                                                                                                                                                      .stream()
-                                                                                                                                                      .map(patchlineId -> byPatchlineIdAndSupportedGame(
-                                                                                                                                                              patchlineId,
-                                                                                                                                                              supportedGame
-                                                                                                                                                      ))
-                                                                                                                                                      .filter(Objects::nonNull)
-                                                                                                                       )
-                                                     )
-                                                     .collect(Collectors.toMap(
-                                                             data -> data.key,
-                                                             data -> data.resource
-                                                     ));
-
-                                });
+        final InitialFetch fetch = new InitialFetch();
+        Optional.ofNullable(runningFetch.getAndSet(fetch))
+                .ifPresent(InitialFetch::cancel);
+        return fetch.start();
+    }
+
+    @Override
+    public void resetInternalState() {
+        // The RCU went away, nothing the running fetch still returns can be trusted
+        Optional.ofNullable(runningFetch.getAndSet(null))
+                .ifPresent(InitialFetch::cancel);
+        super.resetInternalState();
+    }
+
+    private static List<CompositePatchlineKey> toPatchlineKeys(List<RnetProductRegistryProductV4> products) {
+        return products.stream()
+                       .flatMap(product -> SupportedGame.ResolveStrategy.RIOT_INTERNAL_NAME.resolve(product.getId())
+                                                                                            .stream()
+                                                                                            .flatMap(supportedGame -> product.getPatchlines()
+                                                                                                                             .stream()
+                                                                                                                             .filter(Objects::nonNull)
+                                                                                                                             .filter(patchline -> {
+                                                                                                                                 final String platform = patchline.getPlatform();
+                                                                                                                                 return Optional.ofNullable(patchline.getAvailablePlatforms())
+                                                                                                                                                .map(availablePlatforms -> availablePlatforms.contains(platform))
+                                                                                                                                                .orElse(false);
+                                                                                                                             })
+                                                                                                                             .map(RnetProductRegistryPatchline::getId)
+                                                                                                                             .distinct()
+                                                                                                                             .map(patchlineId -> new CompositePatchlineKey(
+                                                                                                                                     supportedGame,
+                                                                                                                                     patchlineId
+                                                                                                                             ))))
+                       .toList();
     }
 
     private List<RnetProductRegistryProductV4> getProducts() {
@@ -208,45 +285,28 @@ public class PatchHandlerManager extends PublishingMapDataManager<CompositePatch
     }
 
 
-    private CollectablePatchData byPatchlineIdAndSupportedGame(
-            String patchlineId,
-            SupportedGame game
-    ) {
-        CompositePatchlineKey key = new CompositePatchlineKey(
-                game,
-                patchlineId
-        );
-
-        return handleInitialDataFetch(key)
-                .map(resource -> new CollectablePatchData(
-                        key,
-                        resource
-                ))
-                .orElse(null);
-    }
-
     @Override
-    protected Matcher getUriMatcher(String uri) {
-        return PATCH_PROXY_PATTERN.matcher(uri);
+    public List<UriTemplate> getUriTemplates() {
+        return List.of(PATCH_PROXY_TEMPLATE);
     }
 
     @Override
     protected void handleUpdate(
             RCUWebsocketMessage.MessageType type,
             JsonNode data,
-            Matcher uriMatcher
+            UriVariables uriVariables
     ) {
 
-        if (uriMatcher.groupCount() < 2) {
+        if (uriVariables.size() < 2) {
             log.warn(
-                    "URI matcher did not match expected groups: {}",
-                    uriMatcher
+                    "URI did not contain the expected variables: {}",
+                    uriVariables
             );
             return;
         }
 
-        final String productId = uriMatcher.group(1);
-        final String patchlineId = uriMatcher.group(2);
+        final String productId = uriVariables.get(0);
+        final String patchlineId = uriVariables.get(1);
 
         Optional<SupportedGame> optGame = SupportedGame.ResolveStrategy.RIOT_INTERNAL_NAME.resolve(productId);
 
@@ -300,7 +360,143 @@ public class PatchHandlerManager extends PublishingMapDataManager<CompositePatch
         }
     }
 
+    /**
+     * A single run of the initial fetch. The patchlines are requested on virtual threads, at most
+     * {@link PatchHandlerConfig#getMaxConcurrentFetches()} at a time, and each one is put into the map as soon as it arrives.
+     * Cancelling interrupts every request that is still running and discards whatever they return.
+     */
+    private class InitialFetch {
+        private final ExecutorService                                                           executor = Executors.newVirtualThreadPerTaskExecutor();
+        private final Semaphore                                                                 permits  = new Semaphore(Math.max(
+                1,
+                config.getMaxConcurrentFetches()
+        ));
+        private final Map<CompositePatchlineKey, PatchProxyPatchingResource>                    fetched  = new ConcurrentHashMap<>();
+        private final CompletableFuture<Map<CompositePatchlineKey, PatchProxyPatchingResource>> result   = new CompletableFuture<>();
+        private       boolean                                                                   cancelled;
+
+        private CompletableFuture<Map<CompositePatchlineKey, PatchProxyPatchingResource>> start() {
+            CompletableFuture.supplyAsync(
+                                     PatchHandlerManager.this::getProducts,
+                                     executor
+                             )
+                             .orTimeout(
+                                     config.getProductsTimeoutMs(),
+                                     TimeUnit.MILLISECONDS
+                             )
+                             .thenApplyAsync(
+                                     this::fetchPatchlines,
+                                     executor
+                             )
+                             .thenCompose(pending -> CompletableFuture.allOf(pending.toArray(CompletableFuture[]::new)))
+                             .whenComplete((ignored, err) -> {
+                                 executor.shutdown();
+                                 runningFetch.compareAndSet(
+                                         this,
+                                         null
+                                 );
+                                 if (err != null) {
+                                     result.completeExceptionally(err);
+                                 } else {
+                                     result.complete(Map.copyOf(fetched));
+                                 }
+                             });
+            return result;
+        }
+
+        /**
+         * Runs on the fetch executor and blocks there while all permits are taken.
+         */
+        private List<CompletableFuture<Void>> fetchPatchlines(List<RnetProductRegistryProductV4> products) {
+            final List<CompositePatchlineKey> keys = toPatchlineKeys(products);
+            log.debug(
+                    "Fetching {} patchlines",
+                    keys.size()
+            );
+            final List<CompletableFuture<Void>> pending = new ArrayList<>(keys.size());
+            for (CompositePatchlineKey key : keys) {
+                try {
+                    permits.acquire();
+                } catch (InterruptedException e) {
+                    Thread.currentThread()
+                          .interrupt();
+                    throw new CancellationException("Initial fetch was cancelled");
+                }
+                pending.add(fetchPatchline(key).handle((resource, err) -> {
+                    if (err != null) {
+                        log.warn(
+                                "Fetching initial patch proxy data for key {} failed: {}",
+                                key,
+                                err.toString()
+                        );
+                        return null;
+                    }
+                    resource.ifPresent(value -> accept(
+                            key,
+                            value
+                    ));
+                    return null;
+                }));
+            }
+            return pending;
+        }
+
+        /**
+         * Requests a single patchline, holding one of the permits taken in {@link #fetchPatchlines}. The permit is given
+         * back as soon as the request either completes or runs into {@link PatchHandlerConfig#getPatchlineTimeoutMs()}, in which case the
+         * request is interrupted as well.
+         */
+        private CompletableFuture<Optional<PatchProxyPatchingResource>> fetchPatchline(CompositePatchlineKey key) {
+            final CompletableFuture<Optional<PatchProxyPatchingResource>> outcome = new CompletableFuture<>();
+            final Future<?> request;
+            try {
+                request = executor.submit(() -> {
+                    try {
+                        outcome.complete(handleInitialDataFetch(key));
+                    } catch (Throwable t) {
+                        outcome.completeExceptionally(t);
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                permits.release();
+                return CompletableFuture.failedFuture(e);
+            }
+            return outcome.orTimeout(
+                                  config.getPatchlineTimeoutMs(),
+                                  TimeUnit.MILLISECONDS
+                          )
+                          .whenComplete((ignored, err) -> {
+                              permits.release();
+                              if (err != null) {
+                                  request.cancel(true);
+                              }
+                          });
+        }
+
+        private synchronized void accept(
+                CompositePatchlineKey key,
+                PatchProxyPatchingResource resource
+        ) {
+            if (cancelled) return;
+            fetched.put(
+                    key,
+                    resource
+            );
+            put(
+                    key,
+                    resource
+            );
+        }
 
-    private record CollectablePatchData(CompositePatchlineKey key, PatchProxyPatchingResource resource) {
+        private synchronized void cancel() {
+            if (cancelled) return;
+            cancelled = true;
+            executor.shutdownNow();
+            result.cancel(false);
+            log.info(
+                    "Cancelled initial fetch after {} patchlines",
+                    fetched.size()
+            );
+        }
     }
 }
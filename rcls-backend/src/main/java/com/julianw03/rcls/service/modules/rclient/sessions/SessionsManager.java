@@ -6,18 +6,19 @@ import com.julianw03.rcls.generated.api.CoreSdkApi;
 import com.julianw03.rcls.generated.model.ProductSessionSession;
 import com.julianw03.rcls.model.RCUWebsocketMessage;
 import com.julianw03.rcls.model.data.MapDataManager;
+import com.julianw03.rcls.model.data.routing.UriTemplate;
+import com.julianw03.rcls.model.data.routing.UriVariables;
 import com.julianw03.rcls.service.riotclient.RiotClientService;
 import org.springframework.stereotype.Component;
 
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 @Component
 public class SessionsManager extends MapDataManager<String, ProductSessionSession, ProductSessionSession> {
-    private static final Pattern lolProductSessionPattern = Pattern.compile("^/product-session/v1/sessions/([\\w-_]{0,50})$");
+    private static final UriTemplate PRODUCT_SESSION_TEMPLATE = UriTemplate.of("/product-session/v1/sessions/{sessionId}");
 
     public SessionsManager(
             RiotClientService riotClientService,
@@ -62,18 +63,18 @@ public class SessionsManager extends MapDataManager<String, ProductSessionSessio
     }
 
     @Override
-    protected Matcher getUriMatcher(String uri) {
-        return lolProductSessionPattern.matcher(uri);
+    public List<UriTemplate> getUriTemplates() {
+        return List.of(PRODUCT_SESSION_TEMPLATE);
     }
 
     @Override
     protected void handleUpdate(
             RCUWebsocketMessage.MessageType type,
             JsonNode data,
-            Matcher uriMatcher
+            UriVariables uriVariables
     ) {
 
-        final String sessionId = uriMatcher.group(1);
+        final String sessionId = uriVariables.get(0);
 
         switch (type) {
             case CREATE, UPDATE -> {
@@ -7,4 +7,8 @@ public class UserMediaConfig {
     private MediaType mediaType;
     private String contentType;
     private String fileName;
+    /**
+     * Hex encoded SHA-256 of the background, served as its ETag. Absent in configs written by older versions.
+     */
+    private String contentHash;
 }
@@ -3,6 +3,7 @@ package com.julianw03.rcls.service.modules.standalone.userMedia;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ProblemDetail;
@@ -18,6 +19,12 @@ import java.util.Optional;
 @RestController
 @RequestMapping("/api/rcls/media/v1")
 public class UserMediaController {
+    /**
+     * The URL keeps pointing at whatever background is current, so it is always revalidated, which costs a
+     * {@code 304} as long as the background did not change.
+     */
+    private static final CacheControl BACKGROUND_CACHE_CONTROL = CacheControl.noCache()
+                                                                           .cachePrivate();
 
     private final UserMediaService userMediaService;
 
@@ -56,6 +63,10 @@ public class UserMediaController {
         return ResponseEntity.of(Optional.ofNullable(videoResource).map(UserMediaConfig::getMediaType));
     }
 
+    /**
+     * Streams the background from disk. Range requests (video seeking) and conditional requests are answered by
+     * Spring MVC itself, from the ETag and Last-Modified headers set here.
+     */
     @GetMapping("/background")
     public ResponseEntity<Resource> loadCurrentBackground() {
         UserMediaRessource videoResource;
@@ -82,16 +93,12 @@ public class UserMediaController {
             ).build();
         }
 
-        final Resource resource = videoResource.getResource();
-        final String contentType = videoResource.getContentType();
-
-        try {
-            return ResponseEntity.ok()
-                    .header(HttpHeaders.CONTENT_TYPE, contentType)
-                    .body(resource);
-        } catch (Exception e) {
-        }
-        return ResponseEntity.notFound().build();
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_TYPE, videoResource.getContentType())
+                .eTag(videoResource.getVersion())
+                .lastModified(videoResource.getLastModified())
+                .cacheControl(BACKGROUND_CACHE_CONTROL)
+                .body(videoResource.getResource());
     }
 
     @PostMapping("/background")
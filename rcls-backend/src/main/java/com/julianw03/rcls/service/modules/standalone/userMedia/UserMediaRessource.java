@@ -3,8 +3,15 @@ package com.julianw03.rcls.service.modules.standalone.userMedia;
 import lombok.Data;
 import org.springframework.core.io.Resource;
 
+import java.time.Instant;
+
 @Data
 public class UserMediaRessource {
     private Resource resource;
     private String contentType;
+    /**
+     * Changes whenever the background is replaced, served as the (unquoted) ETag.
+     */
+    private String version;
+    private Instant lastModified;
 }
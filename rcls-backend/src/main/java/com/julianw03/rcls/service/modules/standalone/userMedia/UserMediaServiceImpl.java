@@ -4,17 +4,23 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.julianw03.rcls.providers.paths.PathProvider;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.FileSystemResource;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -22,6 +28,11 @@ import java.util.regex.Pattern;
 @Service
 public class UserMediaServiceImpl extends UserMediaService {
     private static final Pattern MEDIA_TYPE_PATTERN = Pattern.compile("^[a-zA-Z0-9]+/([a-zA-Z0-9\\-+.]+)$");
+    private static final String  CONFIG_FILE_NAME   = "config.json";
+    private static final String  BACKGROUND_PREFIX  = "background";
+    private static final String  UPLOAD_PREFIX      = "upload-";
+    private static final String  CONFIG_PREFIX      = "config-";
+    private static final String  TEMP_SUFFIX        = ".tmp";
     private final PathProvider pathProvider;
     private final ObjectMapper mapper;
     private Path basePath;
@@ -62,8 +73,27 @@ public class UserMediaServiceImpl extends UserMediaService {
 
 
         this.basePath = rootConfigPath.normalize();
+        deleteLeftoverUploads();
     }
 
+    /**
+     * Temporary files of uploads that were interrupted by a crash, nothing can be uploading yet during startup.
+     */
+    private void deleteLeftoverUploads() {
+        File[] files = basePath.toFile().listFiles((dir, name) -> name.endsWith(TEMP_SUFFIX) && (name.startsWith(UPLOAD_PREFIX) || name.startsWith(CONFIG_PREFIX)));
+        if (files == null) return;
+        for (File file : files) {
+            if (!file.delete()) {
+                log.warn("Could not delete leftover upload {}", file.getName());
+            }
+        }
+    }
+
+    /**
+     * Streams the upload into a temporary file and only then moves it into place. Every background is stored under
+     * a name derived from its content, so the file that is currently being served is never overwritten, and
+     * {@code config.json} is replaced last, which makes the new background visible in a single atomic step.
+     */
     @Override
     void storeFile(MultipartFile file) throws UnsupportedFileTypeException, IOException {
         if (basePath == null) {
@@ -82,41 +112,92 @@ public class UserMediaServiceImpl extends UserMediaService {
         String extension = matcher.group(1);
         MediaType contentMediaType = MediaType.fromExtension(extension).orElseThrow(() -> new UnsupportedFileTypeException("The file type is not supported"));
 
-        UserMediaConfig newConfig = new UserMediaConfig();
-        newConfig.setMediaType(contentMediaType);
-        newConfig.setContentType(contentType);
-        newConfig.setFileName("background." + extension);
+        log.debug("File info: {} {}", file.getName(), file.getContentType());
 
-        Path configPath = basePath.resolve("config.json");
-        try (FileOutputStream fos = new FileOutputStream(configPath.toFile())) {
-            fos.write(mapper.writeValueAsBytes(newConfig));
-        } catch (Exception e) {
+        final Path uploadPath = Files.createTempFile(basePath, UPLOAD_PREFIX, TEMP_SUFFIX);
+        try {
+            final MessageDigest digest = newContentDigest();
+            try (InputStream inputStream = new DigestInputStream(file.getInputStream(), digest)) {
+                Files.copy(inputStream, uploadPath, StandardCopyOption.REPLACE_EXISTING);
+            } catch (IOException e) {
+                log.error("Failed to write file", e);
+                throw new IOException("Failed to write file", e);
+            }
+            final String contentHash = HexFormat.of().formatHex(digest.digest());
+
+            UserMediaConfig newConfig = new UserMediaConfig();
+            newConfig.setMediaType(contentMediaType);
+            newConfig.setContentType(contentType);
+            newConfig.setFileName(BACKGROUND_PREFIX + "-" + contentHash.substring(0, 16) + "." + extension);
+            newConfig.setContentHash(contentHash);
+
+            commit(uploadPath, newConfig);
+        } finally {
+            Files.deleteIfExists(uploadPath);
+        }
+    }
+
+    /**
+     * Uploads are streamed concurrently, but moved into place one at a time, so that the cleanup of one upload
+     * can never remove the file another one has just committed.
+     */
+    private synchronized void commit(Path uploadPath, UserMediaConfig newConfig) throws IOException {
+        final Path savePath = resolveEnsureNoPathTraversal(basePath, newConfig.getFileName());
+        if (!Files.exists(savePath)) {
+            Files.move(uploadPath, savePath, StandardCopyOption.ATOMIC_MOVE);
+        }
+
+        final Path configUploadPath = Files.createTempFile(basePath, CONFIG_PREFIX, TEMP_SUFFIX);
+        try {
+            Files.write(configUploadPath, mapper.writeValueAsBytes(newConfig));
+            Files.move(configUploadPath, basePath.resolve(CONFIG_FILE_NAME), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
             log.error("Failed to write config file", e);
             throw new IOException("Failed to write config file", e);
+        } finally {
+            Files.deleteIfExists(configUploadPath);
         }
 
-        log.info("File info: {} {}", file.getName(), file.getContentType());
+        deleteBackgroundsExcept(savePath.getFileName().toString());
+    }
 
-        Path savePath = basePath.resolve(newConfig.getFileName());
-        try (FileOutputStream fos = new FileOutputStream(savePath.toFile())) {
-            fos.write(file.getBytes());
-        } catch (Exception e) {
-            log.error("Failed to write file", e);
+    /**
+     * Best effort, a background that is still being served may not be deletable on every platform. It is retried
+     * on the next upload.
+     */
+    private void deleteBackgroundsExcept(String currentFileName) {
+        File[] files = basePath.toFile().listFiles((dir, name) -> name.startsWith(BACKGROUND_PREFIX) && !name.equals(currentFileName));
+        if (files == null) return;
+        for (File file : files) {
+            try {
+                Files.deleteIfExists(file.toPath());
+            } catch (IOException e) {
+                log.warn("Could not delete previous background {}", file.getName(), e);
+            }
+        }
+    }
+
+    private static MessageDigest newContentDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            // Every Java platform is required to support SHA-256
+            throw new IllegalStateException(e);
         }
     }
 
     @Override
     UserMediaConfig loadConfig() throws IOException {
-        Path configPath = basePath.resolve("config.json");
-        File configFile = configPath.toFile();
-        if (!configFile.exists() || !configFile.isFile()) {
+        Path configPath = basePath.resolve(CONFIG_FILE_NAME);
+        if (!Files.isRegularFile(configPath)) {
             log.error("The config file does not exist or is not a file");
             return null;
         }
 
         UserMediaConfig config;
-        try (FileInputStream fis = new FileInputStream(configFile)) {
-            config = mapper.readValue(fis, UserMediaConfig.class);
+        // Read through NIO, which unlike FileInputStream does not keep the file from being replaced on Windows
+        try (InputStream inputStream = Files.newInputStream(configPath)) {
+            config = mapper.readValue(inputStream, UserMediaConfig.class);
             if (config == null) {
                 log.error("The config file is invalid");
                 return null;
@@ -128,12 +209,12 @@ public class UserMediaServiceImpl extends UserMediaService {
         return config;
     }
 
-    public void resetBackground() throws IOException {
+    public synchronized void resetBackground() throws IOException {
         if (basePath == null) {
             return;
         }
 
-        Path configPath = basePath.resolve("config.json");
+        Path configPath = basePath.resolve(CONFIG_FILE_NAME);
         File configFile = configPath.toFile();
         if (configFile.exists() && configFile.isFile()) {
             if (!configFile.delete()) {
@@ -142,7 +223,7 @@ public class UserMediaServiceImpl extends UserMediaService {
             }
         }
 
-        File[] files = basePath.toFile().listFiles((dir, name) -> name.startsWith("background."));
+        File[] files = basePath.toFile().listFiles((dir, name) -> name.startsWith(BACKGROUND_PREFIX));
         if (files != null) {
             for (File file : files) {
                 if (file.exists() && file.isFile()) {
@@ -158,25 +239,41 @@ public class UserMediaServiceImpl extends UserMediaService {
     @Override
     public UserMediaRessource loadCurrentBackground() throws IllegalArgumentException, IOException {
         UserMediaConfig config = loadConfig();
+        if (config == null) {
+            return null;
+        }
         Path savePath = resolveEnsureNoPathTraversal(basePath, config.getFileName());
-        log.info("Loading background from {}", savePath);
-        File saveFile = savePath.toFile();
+        log.debug("Loading background from {}", savePath);
 
-        if (!saveFile.exists() || !saveFile.isFile()) {
-            log.error("The background file does not exist or is not a file");
+        final BasicFileAttributes attributes;
+        try {
+            attributes = Files.readAttributes(savePath, BasicFileAttributes.class);
+        } catch (NoSuchFileException e) {
+            log.error("The background file does not exist");
             return null;
         }
-
-        try (FileInputStream fis = new FileInputStream(saveFile)) {
-            byte[] data = fis.readAllBytes();
-            ByteArrayResource resource = new ByteArrayResource(data);
-            UserMediaRessource res = new UserMediaRessource();
-            res.setContentType(config.getContentType());
-            res.setResource(resource);
-            return res;
-        } catch (Exception e) {
-            throw new IOException("Failed to load background from " + savePath, e);
+        if (!attributes.isRegularFile()) {
+            log.error("The background file is not a file");
+            return null;
         }
+
+        // The file is streamed by the message converters, which also serve byte ranges of it
+        UserMediaRessource res = new UserMediaRessource();
+        res.setContentType(config.getContentType());
+        res.setResource(new FileSystemResource(savePath));
+        res.setVersion(config.getContentHash() != null
+                ? config.getContentHash()
+                : versionOf(attributes));
+        res.setLastModified(attributes.lastModifiedTime().toInstant());
+        return res;
+    }
+
+    /**
+     * For backgrounds stored before the content hash was recorded. Derived from size and modification time, like
+     * most static file servers do, so that the file never has to be read to answer a conditional request.
+     */
+    private static String versionOf(BasicFileAttributes attributes) {
+        return Long.toHexString(attributes.size()) + "-" + Long.toHexString(attributes.lastModifiedTime().toMillis());
     }
 
     private Path resolveEnsureNoPathTraversal(Path basePath, String relativePath) {
@@ -0,0 +1,131 @@
+package com.julianw03.rcls.service.process;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * A snapshot of the process table, indexed by the executable suffixes RCLS is interested in.
+ * <p>
+ * Resolving the command of a process is a system call per process, so walking the whole table is
+ * expensive. The snapshot is built with a single walk and answers every lookup until it is older than
+ * the TTL or {@link #invalidate() invalidated}. A TTL of zero disables caching and scans on every lookup.
+ * <p>
+ * Handles served from a cached snapshot are checked for {@link ProcessHandle#isAlive() liveness},
+ * handles from a snapshot that was just taken are returned as they are.
+ */
+@Slf4j
+public class ProcessIndex {
+    private final Supplier<Stream<ProcessHandle>> processHandleSupplier;
+    private final Supplier<Collection<String>>    executableSuffixes;
+    private final long                            ttlNanos;
+    private volatile Snapshot                     snapshot;
+
+    public ProcessIndex(
+            Supplier<Stream<ProcessHandle>> processHandleSupplier,
+            Supplier<Collection<String>> executableSuffixes,
+            Duration ttl
+    ) {
+        this.processHandleSupplier = processHandleSupplier;
+        this.executableSuffixes = executableSuffixes;
+        this.ttlNanos = Math.max(
+                0,
+                ttl.toNanos()
+        );
+    }
+
+    /**
+     * @return The processes whose command ends with the given suffix, in the order the process table listed them
+     */
+    public List<ProcessHandle> find(String executableSuffix) {
+        final Snapshot current = this.snapshot;
+        if (current != null && !current.isExpired(ttlNanos) && current.covers(executableSuffix)) {
+            return current.lookup(executableSuffix)
+                          .stream()
+                          .filter(ProcessHandle::isAlive)
+                          .toList();
+        }
+        return refresh(executableSuffix).lookup(executableSuffix);
+    }
+
+    /**
+     * Drops the current snapshot, the next lookup walks the process table again.
+     * Called whenever RCLS itself started or killed a process.
+     */
+    public void invalidate() {
+        this.snapshot = null;
+    }
+
+    private synchronized Snapshot refresh(String executableSuffix) {
+        final Snapshot current = this.snapshot;
+        // Another thread may have refreshed while this one was waiting for the lock
+        if (ttlNanos > 0 && current != null && !current.isExpired(ttlNanos) && current.covers(executableSuffix)) {
+            return current;
+        }
+
+        final Set<String> suffixes = new LinkedHashSet<>();
+        executableSuffixes.get()
+                          .stream()
+                          .filter(suffix -> suffix != null && !suffix.isBlank())
+                          .forEach(suffixes::add);
+        suffixes.add(executableSuffix);
+
+        final long start = System.nanoTime();
+        final Map<String, List<ProcessHandle>> bySuffix = new HashMap<>();
+        try (Stream<ProcessHandle> processes = processHandleSupplier.get()) {
+            processes.forEach(processHandle -> {
+                final Optional<String> command = processHandle.info()
+                                                              .command();
+                if (command.isEmpty()) return;
+                for (String suffix : suffixes) {
+                    if (command.get()
+                               .endsWith(suffix)) {
+                        bySuffix.computeIfAbsent(
+                                        suffix,
+                                        s -> new ArrayList<>()
+                                )
+                                .add(processHandle);
+                    }
+                }
+            });
+        }
+        final Snapshot fresh = new Snapshot(
+                System.nanoTime(),
+                suffixes,
+                bySuffix
+        );
+        log.trace(
+                "Indexed processes for {} executables in {} microseconds",
+                suffixes.size(),
+                (fresh.takenAtNanos() - start) / 1_000
+        );
+        if (ttlNanos > 0) {
+            this.snapshot = fresh;
+        }
+        return fresh;
+    }
+
+    private record Snapshot(
+            long takenAtNanos,
+            Set<String> suffixes,
+            Map<String, List<ProcessHandle>> bySuffix
+    ) {
+        private boolean isExpired(long ttlNanos) {
+            return System.nanoTime() - takenAtNanos >= ttlNanos;
+        }
+
+        private boolean covers(String suffix) {
+            return suffixes.contains(suffix);
+        }
+
+        private List<ProcessHandle> lookup(String suffix) {
+            return bySuffix.getOrDefault(
+                    suffix,
+                    List.of()
+            );
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package com.julianw03.rcls.service.process;
+
+import com.julianw03.rcls.Util.ExecutorUtils;
+import com.julianw03.rcls.config.mappings.ExecutionConfig;
+import com.julianw03.rcls.eventBus.model.events.ProcessLifecyclePayload;
+import com.julianw03.rcls.model.SupportedGame;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Reports when Riot Client Services and the supported games start and exit.
+ * <p>
+ * Exits are observed through {@link ProcessHandle#onExit()} instead of polling {@link ProcessHandle#isAlive()}.
+ * Riot Client Services is watched from the moment RCLS starts it, its stdout and stderr are kept in
+ * an {@link ProcessOutputLog}. Games are started by the Riot Client, so a periodic lookup through the
+ * {@link ProcessIndex} discovers them and every discovered game is watched until it exits.
+ */
+@Slf4j
+public class ProcessLifecycleMonitor {
+    private final Consumer<ProcessLifecyclePayload>       listener;
+    private final ProcessIndex                            processIndex;
+    private final Supplier<Map<SupportedGame, String>>    gameExecutables;
+    private final ProcessOutputLog                        riotClientServicesOutput;
+    private final Duration                                gameScanInterval;
+    private final ExecutionConfig                         executionConfig;
+    private final Map<Long, SupportedGame>                watchedGames;
+    private       ScheduledExecutorService                scheduler;
+
+    public ProcessLifecycleMonitor(
+            Consumer<ProcessLifecyclePayload> listener,
+            ProcessIndex processIndex,
+            Supplier<Map<SupportedGame, String>> gameExecutables,
+            int outputLogCapacity,
+            Duration gameScanInterval,
+            ExecutionConfig executionConfig
+    ) {
+        this.listener = listener;
+        this.processIndex = processIndex;
+        this.gameExecutables = gameExecutables;
+        this.riotClientServicesOutput = new ProcessOutputLog(outputLogCapacity);
+        this.gameScanInterval = gameScanInterval;
+        this.executionConfig = executionConfig;
+        this.watchedGames = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Starts the periodic game lookup, a non-positive interval only watches Riot Client Services.
+     */
+    public synchronized void start() {
+        if (scheduler != null || gameScanInterval.isZero() || gameScanInterval.isNegative()) return;
+        scheduler = ExecutorUtils.newScheduler(
+                "process-monitor",
+                executionConfig
+        );
+        scheduler.scheduleWithFixedDelay(
+                this::scanGames,
+                0,
+                gameScanInterval.toMillis(),
+                TimeUnit.MILLISECONDS
+        );
+    }
+
+    public synchronized void close() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+        watchedGames.clear();
+    }
+
+    public ProcessOutputLog getRiotClientServicesOutput() {
+        return riotClientServicesOutput;
+    }
+
+    public void watchRiotClientServices(Process process) {
+        final long pid = process.pid();
+        riotClientServicesOutput.reset(pid);
+        riotClientServicesOutput.pump(
+                pid,
+                process.getInputStream(),
+                ProcessOutputLog.Stream.STDOUT,
+                "rcs-stdout-" + pid
+        );
+        riotClientServicesOutput.pump(
+                pid,
+                process.getErrorStream(),
+                ProcessOutputLog.Stream.STDERR,
+                "rcs-stderr-" + pid
+        );
+        publish(new ProcessLifecyclePayload(
+                ProcessLifecyclePayload.Target.RIOT_CLIENT_SERVICES,
+                null,
+                pid,
+                ProcessLifecyclePayload.State.STARTED,
+                null
+        ));
+        process.onExit()
+               .thenAccept(exited -> {
+                   log.info(
+                           "Riot Client Services ({}) exited with code {}",
+                           pid,
+                           exited.exitValue()
+                   );
+                   processIndex.invalidate();
+                   publish(new ProcessLifecyclePayload(
+                           ProcessLifecyclePayload.Target.RIOT_CLIENT_SERVICES,
+                           null,
+                           pid,
+                           ProcessLifecyclePayload.State.EXITED,
+                           exited.exitValue()
+                   ));
+               });
+    }
+
+    /**
+     * Watches a game process until it exits, handles that are already watched are ignored.
+     */
+    public void watchGame(
+            SupportedGame game,
+            ProcessHandle processHandle
+    ) {
+        final long pid = processHandle.pid();
+        if (watchedGames.putIfAbsent(
+                pid,
+                game
+        ) != null) return;
+
+        publish(new ProcessLifecyclePayload(
+                ProcessLifecyclePayload.Target.GAME,
+                game,
+                pid,
+                ProcessLifecyclePayload.State.STARTED,
+                null
+        ));
+        processHandle.onExit()
+                     .thenRun(() -> {
+                         watchedGames.remove(pid);
+                         processIndex.invalidate();
+                         // The exit code of a process RCLS did not start is not available
+                         publish(new ProcessLifecyclePayload(
+                                 ProcessLifecyclePayload.Target.GAME,
+                                 game,
+                                 pid,
+                                 ProcessLifecyclePayload.State.EXITED,
+                                 null
+                         ));
+                     });
+    }
+
+    private void scanGames() {
+        try {
+            final Map<SupportedGame, String> executables = gameExecutables.get();
+            if (executables == null) return;
+            executables.forEach((game, executable) -> {
+                if (executable == null || executable.isBlank()) return;
+                processIndex.find(executable)
+                            .forEach(processHandle -> watchGame(
+                                    game,
+                                    processHandle
+                            ));
+            });
+        } catch (Exception e) {
+            log.warn(
+                    "Failed to look up game processes",
+                    e
+            );
+        }
+    }
+
+    private void publish(ProcessLifecyclePayload payload) {
+        try {
+            listener.accept(payload);
+        } catch (Exception e) {
+            log.warn(
+                    "Process lifecycle listener threw on {}",
+                    payload,
+                    e
+            );
+        }
+    }
+}
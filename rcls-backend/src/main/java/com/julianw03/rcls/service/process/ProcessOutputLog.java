@@ -0,0 +1,133 @@
+package com.julianw03.rcls.service.process;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Keeps the most recent lines a process wrote to stdout and stderr. Once full, every new line overwrites the oldest one.
+ * <p>
+ * The log belongs to one process at a time, see {@link #reset(long)}. Lines of previous processes that are still being
+ * pumped are dropped.
+ */
+@Slf4j
+public class ProcessOutputLog {
+
+    public enum Stream {
+        STDOUT,
+        STDERR
+    }
+
+    public record Line(Instant timestamp, Stream stream, String text) {
+    }
+
+    private final Line[] ring;
+    private       long   written;
+    private       long   pid = -1;
+
+    public ProcessOutputLog(int capacity) {
+        this.ring = new Line[Math.max(
+                1,
+                capacity
+        )];
+    }
+
+    /**
+     * Drains the stream on a virtual thread until the process closes it. Draining is required anyway,
+     * a process whose pipe buffer is full blocks on its next write.
+     */
+    public void pump(
+            long pid,
+            InputStream inputStream,
+            Stream stream,
+            String threadName
+    ) {
+        Thread.ofVirtual()
+              .name(threadName)
+              .start(() -> {
+                  try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                          inputStream,
+                          StandardCharsets.UTF_8
+                  ))) {
+                      String text;
+                      while ((text = reader.readLine()) != null) {
+                          append(
+                                  pid,
+                                  new Line(
+                                          Instant.now(),
+                                          stream,
+                                          text
+                                  )
+                          );
+                      }
+                  } catch (IOException e) {
+                      log.debug(
+                              "Stopped reading {}: {}",
+                              stream,
+                              e.toString()
+                      );
+                  }
+              });
+    }
+
+    /**
+     * Appends the line only if the log still belongs to the process with the given pid.
+     */
+    public synchronized void append(
+            long pid,
+            Line line
+    ) {
+        if (this.pid != pid) return;
+        append(line);
+    }
+
+    public synchronized void append(Line line) {
+        ring[(int) (written % ring.length)] = line;
+        written++;
+    }
+
+    /**
+     * @return Up to {@code limit} of the most recent lines, oldest first
+     */
+    public synchronized List<Line> tail(int limit) {
+        final int count = (int) Math.min(
+                Math.min(
+                        written,
+                        ring.length
+                ),
+                Math.max(
+                        0,
+                        limit
+                )
+        );
+        final List<Line> lines = new ArrayList<>(count);
+        for (long i = written - count; i < written; i++) {
+            lines.add(ring[(int) (i % ring.length)]);
+        }
+        return lines;
+    }
+
+    /**
+     * Clears the log and hands it to the process with the given pid.
+     */
+    public synchronized void reset(long pid) {
+        clear();
+        this.pid = pid;
+    }
+
+    public synchronized void clear() {
+        Arrays.fill(
+                ring,
+                null
+        );
+        written = 0;
+    }
+}
@@ -11,6 +11,17 @@ public interface ProcessService {
     void killRiotClientServices() throws NoSuchProcessException, FailFastException;
     void killRiotClientProcess() throws NoSuchProcessException, FailFastException;
 
+    /**
+     * @return {@code true} if the Riot Client Services instance started by {@link #startRiotClientServices} is still alive
+     */
+    boolean isRiotClientServicesRunning();
+
+    /**
+     * @return Up to {@code limit} of the most recent stdout and stderr lines of the Riot Client Services instance
+     * started by {@link #startRiotClientServices}, oldest first
+     */
+    List<ProcessOutputLog.Line> getRiotClientServicesOutput(int limit);
+
     List<SupportedGame> getSupportedGames();
 
     void killGameProcess(SupportedGame supportedGame) throws NoSuchProcessException, FailFastException, UnsupportedOperationException;
@@ -3,10 +3,13 @@ package com.julianw03.rcls.service.process;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.julianw03.rcls.Util.ExecutorUtils;
 import com.julianw03.rcls.Util.FutureUtils;
+import com.julianw03.rcls.config.mappings.ExecutionConfig;
 import com.julianw03.rcls.config.mappings.PathProviderConfig;
 import com.julianw03.rcls.config.mappings.ProcessServiceConfig;
 import com.julianw03.rcls.controller.FailFastException;
+import com.julianw03.rcls.eventBus.model.events.ProcessLifecyclePayload;
 import com.julianw03.rcls.model.RiotClientConnectionParameters;
 import com.julianw03.rcls.model.SupportedGame;
 import com.julianw03.rcls.providers.paths.PathProvider;
@@ -20,12 +23,11 @@ import java.io.InputStreamReader;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.util.Arrays;
-import java.util.Comparator;
-import java.util.List;
-import java.util.Optional;
+import java.time.Duration;
+import java.util.*;
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Supplier;
 import java.util.stream.Stream;
@@ -36,8 +38,10 @@ public class ProcessServiceImpl extends BaseService implements ProcessService {
     protected final ProcessServiceConfig            config;
     protected final PathProvider                    pathProvider;
     protected final Supplier<Stream<ProcessHandle>> processHandleSupplier;
-    protected final ScheduledExecutorService        executorService;
+    protected final ExecutorService                 executorService;
     protected final AtomicReference<Process>        currentRCSProcess;
+    protected final ProcessIndex                    processIndex;
+    protected final ProcessLifecycleMonitor         lifecycleMonitor;
     protected       Path                            rcsPath;
     private final   ObjectMapper                    mapper;
 
@@ -45,20 +49,88 @@ public class ProcessServiceImpl extends BaseService implements ProcessService {
             PathProvider pathProvider,
             Supplier<Stream<ProcessHandle>> processHandleSupplier,
             ProcessServiceConfig config
+    ) {
+        this(
+                pathProvider,
+                processHandleSupplier,
+                config,
+                new ExecutionConfig()
+        );
+    }
+
+    public ProcessServiceImpl(
+            PathProvider pathProvider,
+            Supplier<Stream<ProcessHandle>> processHandleSupplier,
+            ProcessServiceConfig config,
+            ExecutionConfig executionConfig
+    ) {
+        this(
+                pathProvider,
+                processHandleSupplier,
+                config,
+                executionConfig,
+                payload -> {
+                }
+        );
+    }
+
+    public ProcessServiceImpl(
+            PathProvider pathProvider,
+            Supplier<Stream<ProcessHandle>> processHandleSupplier,
+            ProcessServiceConfig config,
+            ExecutionConfig executionConfig,
+            Consumer<ProcessLifecyclePayload> lifecycleListener
     ) {
         this.config = config;
         this.processHandleSupplier = processHandleSupplier;
         this.pathProvider = pathProvider;
-        this.executorService = Executors.newScheduledThreadPool(10);
+        this.executorService = ExecutorUtils.newBlockingExecutor(
+                "process-service",
+                executionConfig
+        );
         this.mapper = new ObjectMapper();
         this.currentRCSProcess = new AtomicReference<>();
+        // Both only capture the path provider, this must not escape before the constructor has finished
+        this.processIndex = new ProcessIndex(
+                processHandleSupplier,
+                () -> getIndexedExecutableNames(executablesOf(pathProvider)),
+                Duration.ofMillis(config.getProcessIndexTtlMs())
+        );
+        this.lifecycleMonitor = new ProcessLifecycleMonitor(
+                lifecycleListener,
+                processIndex,
+                () -> Optional.ofNullable(executablesOf(pathProvider))
+                              .map(PathProviderConfig.PathEntries.Executables::getGameExecutables)
+                              .orElse(null),
+                config.getOutputLogCapacity(),
+                Duration.ofMillis(config.getGameScanIntervalMs()),
+                executionConfig
+        );
     }
 
     protected PathProviderConfig.PathEntries.Executables getOsExecutableNames() {
+        return executablesOf(pathProvider);
+    }
+
+    private static PathProviderConfig.PathEntries.Executables executablesOf(PathProvider pathProvider) {
         return pathProvider.get()
                            .getExecutables();
     }
 
+    /**
+     * Every executable a lookup may ask for, so that a single walk of the process table answers all of them.
+     */
+    private static Collection<String> getIndexedExecutableNames(PathProviderConfig.PathEntries.Executables executables) {
+        if (executables == null) return List.of();
+        final List<String> names = new ArrayList<>();
+        Optional.ofNullable(executables.getGameExecutables())
+                .map(Map::values)
+                .ifPresent(names::addAll);
+        names.add(executables.getRiotClient());
+        names.add(executables.getRiotClientServices());
+        return names;
+    }
+
     @Override
     public final void startup() {
         log.info("Startup called");
@@ -68,6 +140,7 @@ public class ProcessServiceImpl extends BaseService implements ProcessService {
                 "Riot Client Services executable path: {}",
                 rcsPath
         );
+        lifecycleMonitor.start();
         doStartup();
         long end = System.currentTimeMillis();
         log.info(
@@ -87,24 +160,13 @@ public class ProcessServiceImpl extends BaseService implements ProcessService {
                     e
             );
         }
+        lifecycleMonitor.close();
         Optional.ofNullable(currentRCSProcess.getAndSet(null))
                 .ifPresent(Process::destroyForcibly);
-        executorService.shutdown();
-        try {
-            if (!executorService.awaitTermination(
-                    800,
-                    TimeUnit.MILLISECONDS
-            )) {
-                executorService.shutdownNow();
-            }
-        } catch (InterruptedException e) {
-            log.error(
-                    "Graceful shutdown failed",
-                    e
-            );
-            executorService.shutdownNow();
-        }
-        executorService.shutdown();
+        ExecutorUtils.shutdown(
+                executorService,
+                Duration.ofMillis(800)
+        );
         long end = System.currentTimeMillis();
         log.info(
                 "Shutdown succeeded after {}ms",
@@ -219,6 +281,8 @@ public class ProcessServiceImpl extends BaseService implements ProcessService {
         log.info("No previous process found, starting new one");
         Process process = pb.start();
         currentRCSProcess.set(process);
+        processIndex.invalidate();
+        lifecycleMonitor.watchRiotClientServices(process);
         log.info(
                 "Started Riot Client Services with PID: {}",
                 process.pid()
@@ -243,6 +307,12 @@ public class ProcessServiceImpl extends BaseService implements ProcessService {
         }
     }
 
+    @Override
+    public boolean isRiotClientServicesRunning() {
+        final Process process = currentRCSProcess.get();
+        return process != null && process.isAlive();
+    }
+
     @Override
     public void killRiotClientServices() throws FailFastException, NoSuchProcessException {
         try {
@@ -290,16 +360,13 @@ public class ProcessServiceImpl extends BaseService implements ProcessService {
         return getExecutableName((PathProviderConfig.PathEntries.Executables::getRiotClientServices))
                 .thenComposeAsync(
                         FutureUtils.wrapIntoExceptionFunction(executableIdentifier -> {
-                            List<CompletableFuture<Void>> futures = processHandleSupplier.get()
-                                                                                         .filter(processHandle -> processHandle.info()
-                                                                                                                               .command()
-                                                                                                                               .map(command -> command.endsWith(executableIdentifier))
-                                                                                                                               .orElse(false))
-                                                                                         .limit(1)
-                                                                                         .map(this::killProcess)
-                                                                                         .toList();
+                            List<CompletableFuture<Void>> futures = processIndex.find(executableIdentifier)
+                                                                                .stream()
+                                                                                .limit(1)
+                                                                                .map(this::killProcess)
+                                                                                .toList();
                             if (futures.isEmpty()) {
-                                CompletableFuture.failedFuture(new NoSuchProcessException("No running Riot Client Services process found"));
+                                return CompletableFuture.failedFuture(new NoSuchProcessException("No running Riot Client Services process found"));
                             }
 
                             return CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]));
@@ -313,13 +380,10 @@ public class ProcessServiceImpl extends BaseService implements ProcessService {
                                                      .get(game))
                 .thenComposeAsync(
                         FutureUtils.wrapIntoExceptionFunction(executableIdentifier -> {
-                            List<CompletableFuture<Void>> futures = processHandleSupplier.get()
-                                                                                         .filter(processHandle -> processHandle.info()
-                                                                                                                               .command()
-                                                                                                                               .map(command -> command.endsWith(executableIdentifier))
-                                                                                                                               .orElse(false))
-                                                                                         .map(this::killProcess)
-                                                                                         .toList();
+                            List<CompletableFuture<Void>> futures = processIndex.find(executableIdentifier)
+                                                                                .stream()
+                                                                                .map(this::killProcess)
+                                                                                .toList();
 
                             if (futures.isEmpty()) {
                                 return CompletableFuture.failedFuture(new NoSuchProcessException(
@@ -357,19 +421,22 @@ public class ProcessServiceImpl extends BaseService implements ProcessService {
     public CompletableFuture<Void> killRiotClientProcessAsync() {
         return getExecutableName(PathProviderConfig.PathEntries.Executables::getRiotClient)
                 .thenCompose(executableIdentifier -> {
-                    CompletableFuture<?>[] futures = processHandleSupplier.get()
-                                                                          .filter(processHandle -> processHandle.info()
-                                                                                                                .command()
-                                                                                                                .map(command -> command.endsWith(executableIdentifier))
-                                                                                                                .orElse(false))
-                                                                          .sorted(Comparator.comparingLong(ProcessHandle::pid))
-                                                                          .limit(1)
-                                                                          .map(this::killProcess)
-                                                                          .toArray(CompletableFuture[]::new);
+                    CompletableFuture<?>[] futures = processIndex.find(executableIdentifier)
+                                                                 .stream()
+                                                                 .sorted(Comparator.comparingLong(ProcessHandle::pid))
+                                                                 .limit(1)
+                                                                 .map(this::killProcess)
+                                                                 .toArray(CompletableFuture[]::new);
                     return CompletableFuture.allOf(futures);
                 });
     }
 
+    @Override
+    public List<ProcessOutputLog.Line> getRiotClientServicesOutput(int limit) {
+        return lifecycleMonitor.getRiotClientServicesOutput()
+                               .tail(limit);
+    }
+
     @Override
     public List<SupportedGame> getSupportedGames() {
         return Arrays.stream(SupportedGame.values())
@@ -428,6 +495,7 @@ public class ProcessServiceImpl extends BaseService implements ProcessService {
                                                                  .thenRun(() -> log.info(
                                                                          "Process {} killed successfully",
                                                                          processHandle.pid()
-                                                                 )));
+                                                                 )))
+                            .whenComplete((ignored, ex) -> processIndex.invalidate());
     }
 }
@@ -0,0 +1,441 @@
+package com.julianw03.rcls.service.proxy;
+
+import com.julianw03.rcls.config.mappings.HCaptchaProxyConfig;
+import com.julianw03.rcls.service.proxy.rewrite.StreamingAssetRewriter;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.*;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Forwards the requests of the captcha widget to hCaptcha.
+ * <p>
+ * Responses that are passed on unchanged are streamed from upstream to the client. The few assets that have to be
+ * rewritten so that the widget keeps talking to the proxy are buffered, rewritten once and then served from the
+ * {@link ProxyResponseCache} until upstream says they are outdated.
+ * <p>
+ * Upstream is called through the {@link ProxyUpstreamClient}, so the servlet thread is released while hCaptcha answers.
+ */
+@Slf4j
+@Service
+public class HCaptchaProxyService {
+    private static final Pattern     MAX_AGE_PATTERN    = Pattern.compile("max-age=(\\d+)");
+    /**
+     * Buffering and rewriting an asset blocks on the upstream body, which must not happen on the threads of the
+     * {@link java.net.http.HttpClient}.
+     */
+    private static final Executor    REWRITE_EXECUTOR   = Executors.newVirtualThreadPerTaskExecutor();
+    private static final Set<String> HOP_BY_HOP_HEADERS = Set.of(
+            HttpHeaders.CONNECTION,
+            "Keep-Alive",
+            "Proxy-Connection",
+            HttpHeaders.TE,
+            HttpHeaders.TRAILER,
+            HttpHeaders.TRANSFER_ENCODING,
+            HttpHeaders.UPGRADE
+    );
+
+    private final HCaptchaProxyConfig      config;
+    private final ProxyUpstreamClient      upstreamClient;
+    private final ProxyResponseCache       cache;
+    /**
+     * Points {@code *.hcaptcha.com} at the proxy.
+     */
+    private final StreamingAssetRewriter   hostRewriter;
+    /**
+     * Additionally strips the Content-Security-Policy meta tag, which would block the rewritten hosts.
+     */
+    private final StreamingAssetRewriter   assetRewriter;
+
+    public HCaptchaProxyService(
+            HCaptchaProxyConfig config,
+            ProxyUpstreamClient upstreamClient,
+            @Value("${server.port}") String port
+    ) {
+        this.config = config;
+        this.upstreamClient = upstreamClient;
+        this.cache = new ProxyResponseCache(
+                config.getCache()
+                      .getMaxBytes(),
+                config.getCache()
+                      .getMaxEntryBytes()
+        );
+        final String hostReplacement = "127.0.0.1:" + port + "/hcaptcha-proxy/";
+        this.hostRewriter = new StreamingAssetRewriter(
+                hostReplacement,
+                false
+        );
+        this.assetRewriter = new StreamingAssetRewriter(
+                hostReplacement,
+                true
+        );
+        log.debug(
+                "Rewriting hCaptcha hosts to {}",
+                hostReplacement
+        );
+        log.debug(
+                "Will use \"{}\" as external User-Agent",
+                config.getOverrides()
+                      .getUserAgent()
+        );
+    }
+
+    public CompletableFuture<ResponseEntity<StreamingResponseBody>> proxy(
+            ProxyRequest proxyRequest,
+            HttpHeaders originalHeaders,
+            HttpMethod method,
+            HttpServletRequest request
+    ) throws IOException {
+        final URI uri = upstreamUri(proxyRequest);
+        log.info(
+                "Proxying from /{}{} to {}",
+                proxyRequest.getOriginalSubdomain(),
+                proxyRequest.getPath(),
+                uri
+        );
+
+        final HttpHeaders headers = upstreamHeaders(originalHeaders);
+        final Optional<StreamingAssetRewriter> rewriter = rewriterFor(proxyRequest);
+        if (rewriter.isPresent()) {
+            return proxyRewritten(
+                    proxyRequest,
+                    uri,
+                    method,
+                    headers,
+                    request,
+                    rewriter.get()
+            );
+        }
+        return upstreamClient.send(
+                                     uri,
+                                     method,
+                                     headers,
+                                     bodyOf(request)
+                             )
+                             .thenApply(this::passThrough);
+    }
+
+    private URI upstreamUri(ProxyRequest proxyRequest) {
+        final HCaptchaProxyConfig.Target target = config.getTarget();
+        final String overrideUrl = target.getOverrideUrl();
+        if (overrideUrl != null && !overrideUrl.isBlank()) {
+            return URI.create(proxyRequest.getOverrideUrl(overrideUrl));
+        }
+        return URI.create(proxyRequest.getExternalUrl(target.getUrl()));
+    }
+
+    private Optional<StreamingAssetRewriter> rewriterFor(ProxyRequest proxyRequest) {
+        final String path = proxyRequest.getPath();
+        if (path == null) return Optional.empty();
+        return switch (proxyRequest.getOriginalSubdomain()) {
+            case ProxyRequest.SUBDOMAIN_NONE -> path.endsWith("api.js")
+                    ? Optional.of(hostRewriter)
+                    : Optional.empty();
+            case "newassets" -> path.endsWith("hsw.js") || path.endsWith("hcaptcha.html")
+                    ? Optional.of(assetRewriter)
+                    : Optional.empty();
+            default -> Optional.empty();
+        };
+    }
+
+    private ResponseEntity<StreamingResponseBody> passThrough(ProxyUpstreamClient.UpstreamResponse response) {
+        final HttpStatusCode status = HttpStatusCode.valueOf(response.status());
+        final HttpHeaders responseHeaders = downstreamHeaders(response.headers());
+        if (status.isSameCodeAs(HttpStatus.NOT_MODIFIED) || status.isSameCodeAs(HttpStatus.NO_CONTENT)) {
+            closeQuietly(response);
+            return ResponseEntity.status(status)
+                                 .headers(responseHeaders)
+                                 .build();
+        }
+        return streamBody(
+                response,
+                status,
+                responseHeaders,
+                InputStream::transferTo
+        );
+    }
+
+    private CompletableFuture<ResponseEntity<StreamingResponseBody>> proxyRewritten(
+            ProxyRequest proxyRequest,
+            URI uri,
+            HttpMethod method,
+            HttpHeaders headers,
+            HttpServletRequest request,
+            StreamingAssetRewriter rewriter
+    ) throws IOException {
+        final ProxyResponseCache.Key key = proxyRequest.toCacheKey();
+        final boolean cacheable = HttpMethod.GET.equals(method);
+        final List<String> clientEtags = headers.getIfNoneMatch();
+        final ProxyResponseCache.Entry cached = cacheable
+                ? cache.get(key)
+                       .orElse(null)
+                : null;
+        if (cached != null && cached.isFresh()) {
+            log.debug(
+                    "Serving {} from the proxy cache",
+                    key
+            );
+            return CompletableFuture.completedFuture(serve(
+                    cached,
+                    clientEtags
+            ));
+        }
+
+        // The client validates against the ETag of the rewritten body, which upstream does not know
+        headers.remove(HttpHeaders.IF_NONE_MATCH);
+        headers.remove(HttpHeaders.IF_MODIFIED_SINCE);
+        if (cached != null) {
+            headers.setIfNoneMatch(cached.upstreamEtag());
+        }
+
+        return upstreamClient.send(
+                                     uri,
+                                     method,
+                                     headers,
+                                     bodyOf(request)
+                             )
+                             .thenApplyAsync(
+                                     response -> {
+                                         try {
+                                             return rewrite(
+                                                     response,
+                                                     key,
+                                                     cacheable,
+                                                     cached,
+                                                     clientEtags,
+                                                     rewriter
+                                             );
+                                         } catch (IOException e) {
+                                             throw new UncheckedIOException(e);
+                                         }
+                                     },
+                                     REWRITE_EXECUTOR
+                             );
+    }
+
+    private ResponseEntity<StreamingResponseBody> rewrite(
+            ProxyUpstreamClient.UpstreamResponse response,
+            ProxyResponseCache.Key key,
+            boolean cacheable,
+            ProxyResponseCache.Entry cached,
+            List<String> clientEtags,
+            StreamingAssetRewriter rewriter
+    ) throws IOException {
+        try {
+            final HttpStatusCode status = HttpStatusCode.valueOf(response.status());
+            if (cached != null && status.isSameCodeAs(HttpStatus.NOT_MODIFIED)) {
+                response.close();
+                log.debug(
+                        "Upstream confirmed the cached {}",
+                        key
+                );
+                return serve(
+                        cache.revalidated(
+                                key,
+                                cached,
+                                ttlOf(response.headers()).orElse(Duration.ZERO)
+                        ),
+                        clientEtags
+                );
+            }
+
+            final HttpHeaders responseHeaders = downstreamHeaders(response.headers());
+            responseHeaders.remove(HttpHeaders.CONTENT_LENGTH);
+            if (!status.is2xxSuccessful()) {
+                return streamBody(
+                        response,
+                        status,
+                        responseHeaders,
+                        InputStream::transferTo
+                );
+            }
+
+            responseHeaders.remove(HttpHeaders.ETAG);
+            final Optional<Duration> ttl = cacheable
+                    ? ttlOf(response.headers())
+                    : Optional.empty();
+            // A body that is already too large for the cache upstream is not buffered just to be dropped afterwards
+            final long contentLength = response.headers()
+                                               .getContentLength();
+            if (ttl.isEmpty() || !cache.fits(contentLength)) {
+                return streamBody(
+                        response,
+                        status,
+                        responseHeaders,
+                        rewriter::rewrite
+                );
+            }
+
+            final ByteArrayOutputStream rewritten = new ByteArrayOutputStream((int) Math.max(
+                    0,
+                    contentLength
+            ));
+            try (response) {
+                rewriter.rewrite(
+                        response.body(),
+                        rewritten
+                );
+            }
+            return serve(
+                    cache.put(
+                            key,
+                            status.value(),
+                            responseHeaders,
+                            response.headers()
+                                    .getETag(),
+                            rewritten.toByteArray(),
+                            ttl.get()
+                    ),
+                    clientEtags
+            );
+        } catch (IOException | RuntimeException e) {
+            closeQuietly(response);
+            throw e;
+        }
+    }
+
+    /**
+     * Hands the upstream body to the client without buffering it, the response is closed once it has been written.
+     */
+    private static ResponseEntity<StreamingResponseBody> streamBody(
+            ProxyUpstreamClient.UpstreamResponse response,
+            HttpStatusCode status,
+            HttpHeaders headers,
+            BodyWriter bodyWriter
+    ) {
+        return ResponseEntity.status(status)
+                             .headers(headers)
+                             .body(outputStream -> {
+                                 try (response) {
+                                     bodyWriter.write(
+                                             response.body(),
+                                             outputStream
+                                     );
+                                 }
+                             });
+    }
+
+    private ResponseEntity<StreamingResponseBody> serve(
+            ProxyResponseCache.Entry entry,
+            List<String> clientEtags
+    ) {
+        final HttpHeaders headers = new HttpHeaders();
+        headers.putAll(entry.headers());
+        headers.setETag(entry.etag());
+        if (clientEtags.contains(entry.etag()) || clientEtags.contains("*")) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                                 .headers(headers)
+                                 .build();
+        }
+        headers.setContentLength(entry.size());
+        return ResponseEntity.status(entry.status())
+                             .headers(headers)
+                             .body(entry::writeTo);
+    }
+
+    /**
+     * @return How long a response may be served from the cache, empty if it must not be cached at all
+     */
+    private Optional<Duration> ttlOf(HttpHeaders responseHeaders) {
+        final HCaptchaProxyConfig.Cache cacheConfig = config.getCache();
+        final String cacheControl = responseHeaders.getCacheControl();
+        long ttlMs = cacheConfig.getDefaultTtlMs();
+        if (cacheControl != null) {
+            if (cacheControl.contains("no-store")) return Optional.empty();
+            final Matcher maxAge = MAX_AGE_PATTERN.matcher(cacheControl);
+            if (cacheControl.contains("no-cache")) {
+                ttlMs = 0;
+            } else if (maxAge.find()) {
+                ttlMs = Long.parseLong(maxAge.group(1)) * 1_000;
+            }
+        }
+        return Optional.of(Duration.ofMillis(Math.min(
+                ttlMs,
+                cacheConfig.getMaxTtlMs()
+        )));
+    }
+
+    /**
+     * Streams the request body upstream. A known length is kept, so that upstream does not get a chunked body.
+     */
+    private static HttpRequest.BodyPublisher bodyOf(HttpServletRequest request) throws IOException {
+        final long contentLength = request.getContentLengthLong();
+        if (contentLength <= 0 && request.getHeader(HttpHeaders.TRANSFER_ENCODING) == null) {
+            return HttpRequest.BodyPublishers.noBody();
+        }
+        final InputStream body = request.getInputStream();
+        final HttpRequest.BodyPublisher publisher = HttpRequest.BodyPublishers.ofInputStream(() -> body);
+        if (contentLength <= 0) return publisher;
+        return HttpRequest.BodyPublishers.fromPublisher(
+                publisher,
+                contentLength
+        );
+    }
+
+    private static void closeQuietly(ProxyUpstreamClient.UpstreamResponse response) {
+        try {
+            response.close();
+        } catch (IOException e) {
+            log.debug(
+                    "Failed to close upstream response",
+                    e
+            );
+        }
+    }
+
+    private HttpHeaders upstreamHeaders(HttpHeaders originalHeaders) {
+        final HttpHeaders headers = new HttpHeaders();
+        headers.putAll(originalHeaders);
+        headers.remove(HttpHeaders.HOST);
+        HOP_BY_HOP_HEADERS.forEach(headers::remove);
+        final String userAgent = config.getOverrides()
+                                       .getUserAgent();
+        if (userAgent != null) {
+            headers.put(
+                    HttpHeaders.USER_AGENT,
+                    Collections.singletonList(userAgent)
+            );
+        }
+        headers.put(
+                HttpHeaders.ACCEPT_ENCODING,
+                Collections.emptyList()
+        );
+        return headers;
+    }
+
+    @FunctionalInterface
+    private interface BodyWriter {
+        void write(
+                InputStream inputStream,
+                OutputStream outputStream
+        ) throws IOException;
+    }
+
+    private static HttpHeaders downstreamHeaders(HttpHeaders upstreamHeaders) {
+        final HttpHeaders headers = new HttpHeaders();
+        headers.putAll(upstreamHeaders);
+        HOP_BY_HOP_HEADERS.forEach(headers::remove);
+        headers.remove(HttpHeaders.ACCESS_CONTROL_ALLOW_ORIGIN);
+        return headers;
+    }
+}
@@ -0,0 +1,84 @@
+package com.julianw03.rcls.service.proxy;
+
+import lombok.Getter;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+@Getter
+public class ProxyRequest {
+    public static final String SUBDOMAIN_NONE = "RCLS-INTERNAL";
+
+    private final String              subdomain;
+    private final String              originalSubdomain;
+    private final String              path;
+    private final Map<String, String> query;
+
+    public ProxyRequest(
+            String subdomain,
+            String path,
+            Map<String, String> query
+    ) {
+        this.originalSubdomain = subdomain;
+        this.subdomain = SUBDOMAIN_NONE.equals(subdomain)
+                ? null
+                : subdomain;
+        this.path = path;
+        this.query = query;
+    }
+
+    public String getExternalUrl(String baseUrl) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("https://");
+        if (subdomain != null) {
+            sb.append(subdomain)
+              .append('.');
+        }
+        sb.append(baseUrl);
+        appendPathAndQuery(sb);
+        return sb.toString();
+    }
+
+    /**
+     * @param overrideUrl Including the scheme, the subdomain becomes the first path segment
+     */
+    public String getOverrideUrl(String overrideUrl) {
+        StringBuilder sb = new StringBuilder(overrideUrl);
+        if (sb.charAt(sb.length() - 1) == '/') {
+            sb.deleteCharAt(sb.length() - 1);
+        }
+        sb.append('/')
+          .append(originalSubdomain);
+        appendPathAndQuery(sb);
+        return sb.toString();
+    }
+
+    private void appendPathAndQuery(StringBuilder sb) {
+        if (path != null) {
+            sb.append(path);
+        }
+        if (query != null && !query.isEmpty()) {
+            sb.append('?');
+            for (Map.Entry<String, String> entry : query.entrySet()) {
+                sb.append(entry.getKey())
+                  .append('=')
+                  .append(entry.getValue())
+                  .append('&');
+            }
+            sb.deleteCharAt(sb.length() - 1);
+        }
+    }
+
+    /**
+     * The query is part of the key, assets are versioned through it.
+     */
+    public ProxyResponseCache.Key toCacheKey() {
+        return new ProxyResponseCache.Key(
+                originalSubdomain,
+                path,
+                query == null
+                        ? ""
+                        : new TreeMap<>(query).toString()
+        );
+    }
+}
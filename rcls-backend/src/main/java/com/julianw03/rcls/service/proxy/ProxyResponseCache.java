@@ -0,0 +1,202 @@
+package com.julianw03.rcls.service.proxy;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.time.Duration;
+import java.util.*;
+import java.util.zip.CRC32C;
+
+/**
+ * Holds rewritten proxy responses in direct buffers, so that large assets like {@code hsw.js} neither sit in the
+ * heap nor have to be fetched and rewritten again for every captcha.
+ * <p>
+ * The cache is bounded by the total size of the bodies it holds and evicts the least recently used entries first.
+ * An entry is fresh for its TTL. Stale entries that carry an upstream {@code ETag} are kept, so that they can be
+ * revalidated with a conditional request. Stale entries without one are dropped on access.
+ */
+@Slf4j
+public class ProxyResponseCache {
+
+    public record Key(String subdomain, String path, String query) {
+    }
+
+    /**
+     * @param etag         Identifies the rewritten body, served to clients
+     * @param upstreamEtag Identifies the original body, used to revalidate with upstream. May be {@code null}
+     */
+    public record Entry(
+            int status,
+            HttpHeaders headers,
+            String etag,
+            String upstreamEtag,
+            ByteBuffer body,
+            long expiresAtNanos
+    ) {
+        public boolean isFresh() {
+            return System.nanoTime() - expiresAtNanos < 0;
+        }
+
+        public int size() {
+            return body.capacity();
+        }
+
+        public void writeTo(OutputStream outputStream) throws IOException {
+            Channels.newChannel(outputStream)
+                    .write(body.duplicate());
+        }
+    }
+
+    private final LinkedHashMap<Key, Entry> entries;
+    private final long                      maxBytes;
+    private final int                       maxEntryBytes;
+    private       long                      usedBytes;
+
+    public ProxyResponseCache(
+            long maxBytes,
+            int maxEntryBytes
+    ) {
+        this.entries = new LinkedHashMap<>(
+                16,
+                0.75f,
+                true
+        );
+        this.maxBytes = Math.max(
+                0,
+                maxBytes
+        );
+        this.maxEntryBytes = maxEntryBytes;
+    }
+
+    public synchronized Optional<Entry> get(Key key) {
+        final Entry entry = entries.get(key);
+        if (entry == null) return Optional.empty();
+        if (!entry.isFresh() && entry.upstreamEtag() == null) {
+            remove(key);
+            return Optional.empty();
+        }
+        return Optional.of(entry);
+    }
+
+    /**
+     * Copies the body out of the heap and stores it. Bodies that do not fit are not stored, but the returned
+     * entry can still be served straight from the given array.
+     */
+    public Entry put(
+            Key key,
+            int status,
+            HttpHeaders headers,
+            String upstreamEtag,
+            byte[] body,
+            Duration ttl
+    ) {
+        final boolean cacheable = fits(body.length);
+        // Bodies that are not cached are served once and then dropped, copying them out of the heap gains nothing
+        final ByteBuffer buffer = cacheable
+                ? ByteBuffer.allocateDirect(body.length)
+                            .put(body)
+                            .flip()
+                            .asReadOnlyBuffer()
+                : ByteBuffer.wrap(body)
+                            .asReadOnlyBuffer();
+        final Entry entry = new Entry(
+                status,
+                HttpHeaders.readOnlyHttpHeaders(headers),
+                etagOf(body),
+                upstreamEtag,
+                buffer,
+                System.nanoTime() + ttl.toNanos()
+        );
+        if (!cacheable) {
+            log.debug(
+                    "Not caching {}, {} bytes exceed the cache limits",
+                    key,
+                    body.length
+            );
+            return entry;
+        }
+
+        synchronized (this) {
+            remove(key);
+            entries.put(
+                    key,
+                    entry
+            );
+            usedBytes += entry.size();
+            evict();
+        }
+        return entry;
+    }
+
+    /**
+     * Upstream confirmed that the entry is still current, so it is fresh for another TTL.
+     */
+    public synchronized Entry revalidated(
+            Key key,
+            Entry entry,
+            Duration ttl
+    ) {
+        final Entry refreshed = new Entry(
+                entry.status(),
+                entry.headers(),
+                entry.etag(),
+                entry.upstreamEtag(),
+                entry.body(),
+                System.nanoTime() + ttl.toNanos()
+        );
+        entries.replace(
+                key,
+                entry,
+                refreshed
+        );
+        return refreshed;
+    }
+
+    /**
+     * @return Whether a body of the given size could be stored at all
+     */
+    public boolean fits(long bodyBytes) {
+        return bodyBytes <= maxEntryBytes && bodyBytes <= maxBytes;
+    }
+
+    public synchronized long getUsedBytes() {
+        return usedBytes;
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        usedBytes = 0;
+    }
+
+    private void remove(Key key) {
+        final Entry removed = entries.remove(key);
+        if (removed != null) {
+            usedBytes -= removed.size();
+        }
+    }
+
+    private void evict() {
+        final Iterator<Map.Entry<Key, Entry>> iterator = entries.entrySet()
+                                                                .iterator();
+        while (usedBytes > maxBytes && iterator.hasNext()) {
+            final Map.Entry<Key, Entry> eldest = iterator.next();
+            usedBytes -= eldest.getValue()
+                               .size();
+            iterator.remove();
+            log.debug(
+                    "Evicted {} from the proxy cache",
+                    eldest.getKey()
+            );
+        }
+    }
+
+    private static String etagOf(byte[] body) {
+        final CRC32C checksum = new CRC32C();
+        checksum.update(body);
+        return "\"rcls-" + Long.toHexString(checksum.getValue()) + "-" + Integer.toHexString(body.length) + "\"";
+    }
+}
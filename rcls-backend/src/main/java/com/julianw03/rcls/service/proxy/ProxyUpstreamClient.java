@@ -0,0 +1,160 @@
+package com.julianw03.rcls.service.proxy;
+
+import com.julianw03.rcls.config.mappings.HCaptchaProxyConfig;
+import com.julianw03.rcls.service.http.BoundedHttpClient;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The shared HTTP client of the hCaptcha proxy.
+ * <p>
+ * Requests are sent asynchronously, so no servlet thread waits for hCaptcha, and over HTTP/2 where upstream offers it,
+ * so the parallel asset requests of the widget share one connection per host. The number of requests in flight is
+ * bounded by a {@link BoundedHttpClient}, a request holds its permit until its response body has been closed.
+ */
+public class ProxyUpstreamClient {
+    private static final String METRIC_NAME = "rcls.proxy.upstream";
+
+    public record UpstreamResponse(
+            int status,
+            HttpHeaders headers,
+            InputStream body
+    ) implements Closeable {
+        @Override
+        public void close() throws IOException {
+            body.close();
+        }
+    }
+
+    private final BoundedHttpClient            client;
+    private final HCaptchaProxyConfig.Upstream parameters;
+    private final MeterRegistry                meterRegistry;
+
+    public ProxyUpstreamClient(
+            HCaptchaProxyConfig.Upstream parameters,
+            MeterRegistry meterRegistry
+    ) {
+        this.parameters = parameters;
+        this.meterRegistry = meterRegistry;
+        // Redirects are followed like the former HttpURLConnection based client did
+        this.client = new BoundedHttpClient(
+                HttpClient.newBuilder()
+                          .version(HttpClient.Version.HTTP_2)
+                          .followRedirects(HttpClient.Redirect.NORMAL)
+                          .connectTimeout(Duration.ofMillis(parameters.getConnectTimeoutMs()))
+                          .build(),
+                parameters.getMaxConcurrentRequests(),
+                parameters.getAcquireTimeoutMs(),
+                METRIC_NAME,
+                meterRegistry
+        );
+    }
+
+    /**
+     * Completes once the response headers have arrived. The caller has to close the returned response.
+     */
+    public CompletableFuture<UpstreamResponse> send(
+            URI uri,
+            HttpMethod method,
+            HttpHeaders headers,
+            HttpRequest.BodyPublisher body
+    ) {
+        final HttpRequest.Builder builder = HttpRequest.newBuilder(uri)
+                                                       .timeout(Duration.ofMillis(parameters.getRequestTimeoutMs()))
+                                                       .method(
+                                                               method.name(),
+                                                               body
+                                                       );
+        BoundedHttpClient.copyHeaders(
+                headers,
+                builder
+        );
+        final HttpRequest request = builder.build();
+
+        return client.acquireAsync()
+                     .whenComplete((ignored, err) -> {
+                         if (err != null && err.getCause() instanceof BoundedHttpClient.PoolExhaustedException) {
+                             record(
+                                     request.method(),
+                                     "POOL_EXHAUSTED",
+                                     0
+                             );
+                         }
+                     })
+                     .thenCompose(ignored -> sendAcquired(request));
+    }
+
+    private CompletableFuture<UpstreamResponse> sendAcquired(HttpRequest request) {
+        final long start = System.nanoTime();
+        final CompletableFuture<HttpResponse<InputStream>> response;
+        try {
+            response = client.getHttpClient()
+                             .sendAsync(
+                                     request,
+                                     HttpResponse.BodyHandlers.ofInputStream()
+                             );
+        } catch (RuntimeException e) {
+            client.release();
+            throw e;
+        }
+        return response.handle((result, err) -> {
+            record(
+                    request.method(),
+                    result == null
+                            ? "IO_ERROR"
+                            : String.valueOf(result.statusCode()),
+                    System.nanoTime() - start
+            );
+            if (err != null) {
+                client.release();
+                throw err instanceof CompletionException completionException
+                        ? completionException
+                        : new CompletionException(err);
+            }
+            final HttpHeaders responseHeaders = new HttpHeaders();
+            result.headers()
+                  .map()
+                  .forEach(responseHeaders::addAll);
+            return new UpstreamResponse(
+                    result.statusCode(),
+                    responseHeaders,
+                    client.releasingOnClose(result.body())
+            );
+        });
+    }
+
+    private void record(
+            String method,
+            String outcome,
+            long durationNanos
+    ) {
+        Timer.builder(METRIC_NAME)
+             .tag(
+                     "method",
+                     method
+             )
+             .tag(
+                     "outcome",
+                     outcome
+             )
+             .register(meterRegistry)
+             .record(
+                     durationNanos,
+                     TimeUnit.NANOSECONDS
+             );
+    }
+}
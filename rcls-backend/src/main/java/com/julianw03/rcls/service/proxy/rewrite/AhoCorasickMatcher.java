@@ -0,0 +1,118 @@
+package com.julianw03.rcls.service.proxy.rewrite;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Queue;
+
+/**
+ * A byte level Aho-Corasick automaton, compiled into a full transition table so that every input byte costs a
+ * single array lookup no matter how many patterns there are.
+ * <p>
+ * The matcher itself is immutable and can be shared, callers keep their current state themselves.
+ * If several patterns end at the same byte only the longest one is reported.
+ */
+public final class AhoCorasickMatcher {
+    public static final int NO_MATCH = -1;
+
+    private final int[][] transitions;
+    private final int[]   matches;
+    private final int[]   patternLengths;
+
+    public AhoCorasickMatcher(List<byte[]> patterns) {
+        final List<int[]> gotoTable = new ArrayList<>();
+        final List<Integer> output = new ArrayList<>();
+        gotoTable.add(emptyRow());
+        output.add(NO_MATCH);
+
+        this.patternLengths = new int[patterns.size()];
+        for (int index = 0; index < patterns.size(); index++) {
+            final byte[] pattern = patterns.get(index);
+            if (pattern.length == 0) throw new IllegalArgumentException("Patterns must not be empty");
+            patternLengths[index] = pattern.length;
+
+            int state = 0;
+            for (byte b : pattern) {
+                final int symbol = b & 0xFF;
+                if (gotoTable.get(state)[symbol] == NO_MATCH) {
+                    gotoTable.get(state)[symbol] = gotoTable.size();
+                    gotoTable.add(emptyRow());
+                    output.add(NO_MATCH);
+                }
+                state = gotoTable.get(state)[symbol];
+            }
+            output.set(
+                    state,
+                    index
+            );
+        }
+
+        final int stateCount = gotoTable.size();
+        this.transitions = new int[stateCount][];
+        this.matches = new int[stateCount];
+        final int[] failure = new int[stateCount];
+
+        // Breadth first, so that the failure state of every state is complete before it is used
+        final Queue<Integer> queue = new ArrayDeque<>();
+        transitions[0] = gotoTable.get(0)
+                                  .clone();
+        matches[0] = NO_MATCH;
+        for (int symbol = 0; symbol < 256; symbol++) {
+            if (transitions[0][symbol] == NO_MATCH) {
+                transitions[0][symbol] = 0;
+            } else {
+                queue.add(transitions[0][symbol]);
+            }
+        }
+        while (!queue.isEmpty()) {
+            final int state = queue.poll();
+            final int[] row = gotoTable.get(state)
+                                       .clone();
+            final int fallback = failure[state];
+            for (int symbol = 0; symbol < 256; symbol++) {
+                if (row[symbol] == NO_MATCH) {
+                    row[symbol] = transitions[fallback][symbol];
+                } else {
+                    failure[row[symbol]] = transitions[fallback][symbol];
+                    queue.add(row[symbol]);
+                }
+            }
+            transitions[state] = row;
+            matches[state] = output.get(state) != NO_MATCH
+                    ? output.get(state)
+                    : matches[fallback];
+        }
+    }
+
+    public int initialState() {
+        return 0;
+    }
+
+    public int next(
+            int state,
+            byte b
+    ) {
+        return transitions[state][b & 0xFF];
+    }
+
+    /**
+     * @return The index of the pattern that ends in the given state, or {@link #NO_MATCH}
+     */
+    public int match(int state) {
+        return matches[state];
+    }
+
+    public int patternLength(int pattern) {
+        return patternLengths[pattern];
+    }
+
+    private static int[] emptyRow() {
+        final int[] row = new int[256];
+        Arrays.fill(
+                row,
+                NO_MATCH
+        );
+        return row;
+    }
+}
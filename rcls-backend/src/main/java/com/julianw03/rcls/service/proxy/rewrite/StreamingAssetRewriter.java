@@ -0,0 +1,238 @@
+package com.julianw03.rcls.service.proxy.rewrite;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Rewrites hCaptcha assets in a single pass over their bytes, without decoding them.
+ * <p>
+ * Produces the same output as running {@code ((\w{1,20})\.)hcaptcha\.com} &rarr; {@code <replacement>$2} and then
+ * stripping {@code <meta http-equiv="Content-Security-Policy"[^>]+>} over the decoded text. Both patterns are ASCII,
+ * so no byte of a multibyte UTF-8 sequence can ever be part of a match.
+ * <p>
+ * Both literals are found by one {@link AhoCorasickMatcher}. Only a short tail of the output is held back, so that a
+ * host match can still look at the subdomain in front of it, and a meta tag is held back until its closing
+ * {@code >} proves that it has to be stripped.
+ */
+public class StreamingAssetRewriter {
+    private static final byte[]             HOST                 = "hcaptcha.com".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[]             CSP_META             = "<meta http-equiv=\"Content-Security-Policy\"".getBytes(StandardCharsets.US_ASCII);
+    private static final int                HOST_PATTERN         = 0;
+    private static final int                CSP_META_PATTERN     = 1;
+    private static final int                MAX_SUBDOMAIN_LENGTH = 20;
+    private static final int                CHUNK_SIZE           = 8 * 1024;
+    /**
+     * A host match looks back at most at the subdomain, its dot and the host itself. A meta tag is only
+     * recognized once its whole prefix has been read, which must still be pending by then.
+     */
+    private static final int                RETAINED_TAIL        = Math.max(
+            MAX_SUBDOMAIN_LENGTH + 1 + HOST.length,
+            CSP_META.length
+    );
+    private static final AhoCorasickMatcher HOST_MATCHER         = new AhoCorasickMatcher(List.of(HOST));
+    private static final AhoCorasickMatcher HOST_AND_CSP_MATCHER = new AhoCorasickMatcher(List.of(
+            HOST,
+            CSP_META
+    ));
+
+    private final byte[]             hostReplacement;
+    private final boolean            stripCspMeta;
+    private final AhoCorasickMatcher matcher;
+
+    /**
+     * @param hostReplacement Replaces {@code <subdomain>.hcaptcha.com}, the subdomain is appended to it
+     */
+    public StreamingAssetRewriter(
+            String hostReplacement,
+            boolean stripCspMeta
+    ) {
+        this.hostReplacement = hostReplacement.getBytes(StandardCharsets.UTF_8);
+        this.stripCspMeta = stripCspMeta;
+        this.matcher = stripCspMeta
+                ? HOST_AND_CSP_MATCHER
+                : HOST_MATCHER;
+    }
+
+    public void rewrite(
+            InputStream inputStream,
+            OutputStream outputStream
+    ) throws IOException {
+        final Pass pass = new Pass(outputStream);
+        final byte[] chunk = new byte[CHUNK_SIZE];
+        for (int read; (read = inputStream.read(chunk)) != -1; ) {
+            for (int i = 0; i < read; i++) {
+                pass.accept(chunk[i]);
+            }
+            pass.flush(false);
+        }
+        pass.flush(true);
+    }
+
+    public byte[] rewrite(byte[] body) {
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream(body.length);
+        try {
+            rewrite(
+                    new ByteArrayInputStream(body),
+                    outputStream
+            );
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return outputStream.toByteArray();
+    }
+
+    private static boolean isWordCharacter(byte b) {
+        return (b >= 'a' && b <= 'z') || (b >= 'A' && b <= 'Z') || (b >= '0' && b <= '9') || b == '_';
+    }
+
+    /**
+     * The state of rewriting one body. Positions are indices into {@link #pending}, the output that has not
+     * been written yet.
+     */
+    private class Pass {
+        private final OutputStream outputStream;
+        private       byte[]       pending       = new byte[2 * CHUNK_SIZE];
+        private       int          length        = 0;
+        /**
+         * Output before this position was produced by a replacement or must not be looked at otherwise.
+         */
+        private       int          protectedUpTo = 0;
+        /**
+         * Start of the meta tag that is currently held back, {@code -1} if there is none.
+         */
+        private       int          tagStart      = -1;
+        private       int          state;
+
+        private Pass(OutputStream outputStream) {
+            this.outputStream = outputStream;
+            this.state = matcher.initialState();
+        }
+
+        private void accept(byte b) {
+            append(b);
+            state = matcher.next(
+                    state,
+                    b
+            );
+            if (tagStart >= 0 && b == '>') {
+                closeTag();
+                return;
+            }
+            switch (matcher.match(state)) {
+                case HOST_PATTERN -> replaceHost();
+                case CSP_META_PATTERN -> {
+                    if (stripCspMeta && tagStart < 0) {
+                        tagStart = length - CSP_META.length;
+                    }
+                }
+                default -> {
+                }
+            }
+        }
+
+        private void replaceHost() {
+            final int dot = length - HOST.length - 1;
+            if (dot < protectedUpTo || pending[dot] != '.') return;
+
+            int subdomainStart = dot;
+            while (subdomainStart > protectedUpTo && dot - subdomainStart < MAX_SUBDOMAIN_LENGTH && isWordCharacter(pending[subdomainStart - 1])) {
+                subdomainStart--;
+            }
+            if (subdomainStart == dot) return;
+
+            final byte[] subdomain = Arrays.copyOfRange(
+                    pending,
+                    subdomainStart,
+                    dot
+            );
+            length = subdomainStart;
+            append(hostReplacement);
+            append(subdomain);
+            protectedUpTo = length;
+        }
+
+        private void closeTag() {
+            // [^>]+ needs at least one byte between the attribute name and the closing bracket
+            if (length - 1 > tagStart + CSP_META.length) {
+                length = tagStart;
+                protectedUpTo = tagStart;
+            }
+            tagStart = -1;
+        }
+
+        /**
+         * Writes everything that can no longer change. A meta tag that is never closed is not stripped.
+         */
+        private void flush(boolean endOfInput) throws IOException {
+            final int writable;
+            if (endOfInput) {
+                writable = length;
+            } else if (tagStart >= 0) {
+                writable = Math.min(
+                        tagStart,
+                        length - RETAINED_TAIL
+                );
+            } else {
+                writable = length - RETAINED_TAIL;
+            }
+            if (writable <= 0) return;
+
+            outputStream.write(
+                    pending,
+                    0,
+                    writable
+            );
+            System.arraycopy(
+                    pending,
+                    writable,
+                    pending,
+                    0,
+                    length - writable
+            );
+            length -= writable;
+            protectedUpTo = Math.max(
+                    0,
+                    protectedUpTo - writable
+            );
+            if (tagStart >= 0) {
+                tagStart -= writable;
+            }
+        }
+
+        private void append(byte b) {
+            ensureCapacity(1);
+            pending[length++] = b;
+        }
+
+        private void append(byte[] bytes) {
+            ensureCapacity(bytes.length);
+            System.arraycopy(
+                    bytes,
+                    0,
+                    pending,
+                    length,
+                    bytes.length
+            );
+            length += bytes.length;
+        }
+
+        private void ensureCapacity(int additional) {
+            if (length + additional > pending.length) {
+                pending = Arrays.copyOf(
+                        pending,
+                        Math.max(
+                                pending.length * 2,
+                                length + additional
+                        )
+                );
+            }
+        }
+    }
+}
@@ -6,5 +6,9 @@ public enum ConnectionState {
     WAITING_FOR_REST_READY,
     WAITING_FOR_WEBSOCKET_CONNECTION,
     CONNECTED,
+    /**
+     * The connection was lost unexpectedly and is being re-established, DataManagers keep their state meanwhile.
+     */
+    RECONNECTING,
     NOT_FOUND_IDLE;
 }
@@ -8,6 +8,7 @@ import org.springframework.http.HttpMethod;
 
 import java.net.http.HttpResponse;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 
 public abstract class RiotClientService extends BaseService {
@@ -36,4 +37,22 @@ public abstract class RiotClientService extends BaseService {
     public abstract <T> Optional<HttpResponse<T>> request(HttpMethod method, String relativePath, Object body, Class<T> responseClass);
 
     public abstract InternalApiResponse request(HttpMethod method, String relativePath, Object body);
+
+    /**
+     * Like {@link #request(HttpMethod, String, Object)}, but never blocks the calling thread.
+     * The future never completes exceptionally, failures are reported as {@link InternalApiResponse.InternalException}.
+     */
+    public abstract CompletableFuture<InternalApiResponse> requestAsync(HttpMethod method, String relativePath, Object body);
+
+    /**
+     * Sends the request without blocking the calling thread and binds the response body to {@code responseClass}.
+     * The future completes exceptionally if not connected or if the Riot Client responds with an error status.
+     */
+    public abstract <T> CompletableFuture<T> requestAsync(HttpMethod method, String relativePath, Object body, Class<T> responseClass);
+
+    /**
+     * @return The {@link com.julianw03.rcls.model.RCUWebsocketMessage#getSequence() sequence} of the last message received so far,
+     * {@code 0} if none was received yet
+     */
+    public abstract long getLastMessageSequence();
 }
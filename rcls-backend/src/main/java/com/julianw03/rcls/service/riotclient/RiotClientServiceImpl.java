@@ -1,15 +1,21 @@
 package com.julianw03.rcls.service.riotclient;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.NullNode;
+import com.julianw03.rcls.Util.ExecutorUtils;
 import com.julianw03.rcls.Util.ServletUtils;
 import com.julianw03.rcls.Util.Utils;
+import com.julianw03.rcls.config.mappings.ExecutionConfig;
 import com.julianw03.rcls.config.mappings.RiotClientServiceConfig;
 import com.julianw03.rcls.controller.FailFastException;
 import com.julianw03.rcls.eventBus.model.Channel;
 import com.julianw03.rcls.eventBus.model.MultiChannelBus;
+import com.julianw03.rcls.eventBus.model.events.LockfileChangedEvent;
+import com.julianw03.rcls.eventBus.model.events.ProcessLifecycleEvent;
+import com.julianw03.rcls.eventBus.model.events.ProcessLifecyclePayload;
 import com.julianw03.rcls.eventBus.model.events.RCUConnectionEvent;
 import com.julianw03.rcls.eventBus.model.events.RCUMessageEvent;
 import com.julianw03.rcls.generated.ApiClient;
@@ -18,95 +24,210 @@ import com.julianw03.rcls.model.RiotClientConnectionParameters;
 import com.julianw03.rcls.service.riotclient.api.InternalApiResponse;
 import com.julianw03.rcls.service.riotclient.api.RiotClientError;
 import com.julianw03.rcls.service.riotclient.connection.RiotClientConnectionStrategy;
+import com.julianw03.rcls.service.riotclient.connection.RiotClientEndpoints;
+import com.julianw03.rcls.service.riotclient.readiness.ConnectPhaseTimings;
+import com.julianw03.rcls.service.riotclient.readiness.RestReadinessProbe;
 import com.julianw03.rcls.service.riotclient.ssl.RiotSSLContext;
-import feign.Client;
+import com.julianw03.rcls.service.riotclient.websocket.RCUMessageDispatcher;
+import com.julianw03.rcls.service.riotclient.websocket.RCUMessageStreamParser;
+import com.julianw03.rcls.service.riotclient.transport.RiotClientTransport;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.openapitools.jackson.nullable.JsonNullableModule;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
+import reactor.core.Disposable;
 
-import javax.net.ssl.HttpsURLConnection;
-import javax.net.ssl.SSLContext;
 import java.io.IOException;
 import java.net.URI;
-import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.net.http.WebSocket;
 import java.security.SecureRandom;
 import java.time.Duration;
-import java.time.temporal.ChronoUnit;
 import java.util.Base64;
 import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.*;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 
 
 public class RiotClientServiceImpl extends RiotClientService {
 
-    private static final Logger log = LoggerFactory.getLogger(RiotClientServiceImpl.class);
+    private static final Logger log    = LoggerFactory.getLogger(RiotClientServiceImpl.class);
+    private static final long   NO_PID = -1;
 
     private final RiotClientServiceConfig                            config;
     private final RiotClientConnectionStrategy                       connectionStrategy;
     private final MultiChannelBus                                    eventBus;
-    private final ScheduledExecutorService                           futureExecutorService;
-    private final ExecutorService                                    messageExecutorService;
+    /**
+     * Only fires timers, the scheduled work itself is handed to {@link #blockingExecutor}.
+     */
+    private final ScheduledExecutorService                           scheduler;
+    private final ExecutorService                                    blockingExecutor;
+    private final RCUMessageDispatcher                               messageDispatcher;
+    private final RiotClientEndpoints                                endpoints;
+    private final ConnectPhaseTimings                                connectPhaseTimings;
     private final AtomicReference<ConnectionState>                   connectionStateRef;
+    /**
+     * Shared by the parsers of all sockets, so that message sequences never restart on a reconnect.
+     */
+    private final AtomicLong                                         messageSequence;
+    private final AtomicReference<PendingReconnect>                  pendingReconnect;
+    /**
+     * The Riot Client Services instance RCLS started last, {@link #NO_PID} if there is none.
+     */
+    private final AtomicLong                                         riotClientServicesPid;
     private       RiotClientConnectionParameters                     parameters;
+    /**
+     * {@code https://127.0.0.1:<port>} of the current connection. Request paths are appended as they are, not resolved.
+     */
+    private       URI                                                baseUri;
     private       ApiClient                                          apiClient;
     private final Map<Class<? extends ApiClient.Api>, ApiClient.Api> apiClientMap;
 
-    private final SSLContext sslContext;
-    private final HttpClient httpClient;
+    private final RiotClientTransport transport;
+
+    private Disposable messageLogSubscription;
+    private Disposable lockfileSubscription;
+    private Disposable processLifecycleSubscription;
 
     private final ObjectMapper mapper;
 
+    /**
+     * Assigned as soon as the socket opens, guarded by {@code this}, so that no close can slip in before it is known.
+     */
     private WebSocket socket;
 
 
     public RiotClientServiceImpl(
             RiotClientConnectionStrategy connectionStrategy,
             MultiChannelBus eventBus,
-            RiotClientServiceConfig config
+            RiotClientServiceConfig config,
+            ExecutionConfig executionConfig,
+            MeterRegistry meterRegistry,
+            ConnectPhaseTimings connectPhaseTimings
+    ) {
+        this(
+                connectionStrategy,
+                eventBus,
+                config,
+                executionConfig,
+                meterRegistry,
+                connectPhaseTimings,
+                null
+        );
+    }
+
+    /**
+     * @param endpoints Replaces the REST readiness probe and the websocket of the actual Riot Client,
+     *                  {@code null} to talk to the actual Riot Client
+     */
+    public RiotClientServiceImpl(
+            RiotClientConnectionStrategy connectionStrategy,
+            MultiChannelBus eventBus,
+            RiotClientServiceConfig config,
+            ExecutionConfig executionConfig,
+            MeterRegistry meterRegistry,
+            ConnectPhaseTimings connectPhaseTimings,
+            RiotClientEndpoints endpoints
+    ) {
+        this(
+                connectionStrategy,
+                eventBus,
+                config,
+                executionConfig,
+                meterRegistry,
+                connectPhaseTimings,
+                endpoints,
+                null
+        );
+    }
+
+    /**
+     * @param endpoints Replaces the REST readiness probe and the websocket of the actual Riot Client,
+     *                  {@code null} to talk to the actual Riot Client
+     * @param transport Replaces the transport REST requests are sent through, {@code null} to create one that
+     *                  trusts the certificate of the actual Riot Client
+     */
+    public RiotClientServiceImpl(
+            RiotClientConnectionStrategy connectionStrategy,
+            MultiChannelBus eventBus,
+            RiotClientServiceConfig config,
+            ExecutionConfig executionConfig,
+            MeterRegistry meterRegistry,
+            ConnectPhaseTimings connectPhaseTimings,
+            RiotClientEndpoints endpoints,
+            RiotClientTransport transport
     ) {
         this.eventBus = eventBus;
         this.config = config;
+        this.connectPhaseTimings = connectPhaseTimings;
         this.connectionStateRef = new AtomicReference<>(ConnectionState.DISCONNECTED);
+        this.messageSequence = new AtomicLong();
+        this.pendingReconnect = new AtomicReference<>();
+        this.riotClientServicesPid = new AtomicLong(NO_PID);
         this.connectionStrategy = connectionStrategy;
         this.apiClientMap = new ConcurrentHashMap<>();
         this.mapper = new ObjectMapper();
         mapper.registerModule(new JsonNullableModule());
-        this.futureExecutorService = Executors.newScheduledThreadPool(10);
-        this.messageExecutorService = Executors.newFixedThreadPool(10);
+        this.scheduler = ExecutorUtils.newScheduler(
+                "riotclient",
+                executionConfig
+        );
+        this.blockingExecutor = ExecutorUtils.newBlockingExecutor(
+                "riotclient",
+                executionConfig
+        );
+        this.messageDispatcher = new RCUMessageDispatcher(
+                config.getDispatch()
+                      .getLanes(),
+                config.getDispatch()
+                      .getLaneCapacity(),
+                message -> eventBus.publish(
+                        Channel.RCU_PROXY,
+                        new RCUMessageEvent(
+                                "",
+                                message
+                        )
+                ),
+                meterRegistry
+        );
+        this.transport = transport != null
+                ? transport
+                : createTransport(
+                config.getTransport(),
+                meterRegistry
+        );
+        this.endpoints = endpoints != null
+                ? endpoints
+                : new LiveEndpoints(new RestReadinessProbe(
+                this.transport,
+                scheduler,
+                blockingExecutor,
+                config.getConnectionInit()
+        ));
+    }
+
+    private static RiotClientTransport createTransport(
+            RiotClientServiceConfig.TransportParameters parameters,
+            MeterRegistry meterRegistry
+    ) {
         try {
-            this.sslContext = RiotSSLContext.create();
+            return new RiotClientTransport(
+                    RiotSSLContext.create(),
+                    parameters,
+                    meterRegistry
+            );
         } catch (Exception e) {
             throw new RuntimeException(
                     "Failed to create Riot SSL Context",
                     e
             );
         }
-        this.httpClient = HttpClient.newBuilder()
-                                    .version(HttpClient.Version.HTTP_2)
-                                    .sslContext(sslContext)
-                                    .build();
-        eventBus.getFlux(Channel.RCU_PROXY)
-                .filter(RCUMessageEvent.class::isInstance)
-                .cast(RCUMessageEvent.class)
-                .doOnNext(event -> {
-                    final RCUWebsocketMessage message = event.getPayload();
-                    log.debug(
-                            "{} - {}: {}",
-                            message.getType(),
-                            message.getUri(),
-                            message.getData()
-                    );
-                })
-                .subscribe();
     }
 
     @Override
@@ -127,6 +248,24 @@ public class RiotClientServiceImpl extends RiotClientService {
         )) {
             throw new IllegalStateException("Cannot connect while already connected or connecting");
         }
+        establish(
+                connectionStrategy::connect,
+                ConnectionState.DISCONNECTED
+        );
+    }
+
+    /**
+     * Runs the connect pipeline from {@link ConnectionState#WAITING_FOR_PROCESS} up to {@link ConnectionState#CONNECTED}.
+     *
+     * @param parametersSupplier Resolves the parameters, runs on the {@link #blockingExecutor}
+     * @param failureState       The state to fall back to if any phase fails. Only a fall back to
+     *                           {@link ConnectionState#DISCONNECTED} is announced to the DataManagers.
+     */
+    private void establish(
+            Callable<RiotClientConnectionParameters> parametersSupplier,
+            ConnectionState failureState
+    ) throws IllegalStateException, ExecutionException, FailFastException {
+        connectPhaseTimings.start();
 
         final RiotClientConnectionParameters connectionParameters;
         try {
@@ -134,12 +273,12 @@ public class RiotClientServiceImpl extends RiotClientService {
                     .supplyAsync(
                             () -> {
                                 try {
-                                    return connectionStrategy.connect();
+                                    return parametersSupplier.call();
                                 } catch (Exception e) {
                                     throw new CompletionException(e);
                                 }
                             },
-                            futureExecutorService
+                            blockingExecutor
                     )
                     .orTimeout(
                             config.getConnectionStrategy()
@@ -148,12 +287,14 @@ public class RiotClientServiceImpl extends RiotClientService {
                     )
                     .join();
         } catch (CompletionException | CancellationException e) {
-            this.connectionStateRef.set(ConnectionState.DISCONNECTED);
+            connectPhaseTimings.fail("Failed to connect to process");
+            this.connectionStateRef.set(failureState);
             throw new ExecutionException(
                     "Failed to connect to process",
                     e
             );
         }
+        connectPhaseTimings.mark(ConnectPhaseTimings.Phase.PROCESS_READY);
 
         expectAndSetState(
                 ConnectionState.WAITING_FOR_PROCESS,
@@ -161,49 +302,207 @@ public class RiotClientServiceImpl extends RiotClientService {
         );
 
         try {
-            awaitRestReady(connectionParameters).orTimeout(
-                                                        config.getConnectionInit()
-                                                              .getRestConnectWaitForMaxMs(),
-                                                        TimeUnit.MILLISECONDS
-                                                )
-                                                .join();
+            endpoints.awaitRestReady(
+                             connectionParameters,
+                             connectPhaseTimings
+                     )
+                     .orTimeout(
+                             config.getConnectionInit()
+                                   .getRestConnectWaitForMaxMs(),
+                             TimeUnit.MILLISECONDS
+                     )
+                     .join();
         } catch (CancellationException | CompletionException e) {
+            connectPhaseTimings.fail("Failed to establish REST connection in given timeout");
             log.error(
                     "Failed to establish REST connection in given timeout",
                     e
             );
-            this.connectionStateRef.set(ConnectionState.DISCONNECTED);
+            this.connectionStateRef.set(failureState);
             throw new FailFastException(
                     "Failed to establish REST connection in given timeout",
                     e
             );
         }
 
+        this.parameters = connectionParameters;
+        this.baseUri = URI.create("https://127.0.0.1:" + connectionParameters.getPort());
         expectAndSetState(
                 ConnectionState.WAITING_FOR_REST_READY,
                 ConnectionState.WAITING_FOR_WEBSOCKET_CONNECTION
         );
-        this.parameters = connectionParameters;
 
+        // REST is usable from here on, so the DataManagers fetch their initial state while the handshake is running.
+        // Whatever the socket delivers in the meantime is buffered by them and replayed once their fetch is done.
+        // After a reconnect they still hold their previous state, so the fetch only yields the actual changes.
+        final CompletableFuture<WebSocket> websocketFuture = awaitWebsocketConnection(connectionParameters);
+        eventBus.publish(
+                Channel.RCU_CONNECTION_STATE,
+                new RCUConnectionEvent(
+                        "RCU",
+                        true
+                )
+        );
+
+        final WebSocket openedSocket;
         try {
-            this.socket = awaitWebsocketConnection(connectionParameters).orTimeout(
-                                                                                3,
-                                                                                TimeUnit.SECONDS
-                                                                        )
-                                                                        .get();
+            openedSocket = websocketFuture.orTimeout(
+                                                  3,
+                                                  TimeUnit.SECONDS
+                                          )
+                                          .get();
         } catch (CancellationException | CompletionException | InterruptedException | ExecutionException e) {
+            connectPhaseTimings.fail("Failed to establish Websocket Connection in given timeout");
             log.error(
                     "Failed to establish Websocket Connection in given timeout",
                     e
             );
-            this.connectionStateRef.set(ConnectionState.DISCONNECTED);
+            failEstablish(failureState);
             throw new ExecutionException("Failed to establish Websocket Connection in given timeout", e);
         }
 
-        expectAndSetState(
-                ConnectionState.WAITING_FOR_WEBSOCKET_CONNECTION,
-                ConnectionState.CONNECTED
+        synchronized (this) {
+            // The socket may already have been closed again, its close is only handed to the reconnect supervisor once connected
+            if (this.socket != openedSocket) {
+                connectPhaseTimings.fail("Websocket Connection closed while connecting");
+                failEstablish(failureState);
+                throw new ExecutionException(
+                        "Websocket Connection closed while connecting",
+                        null
+                );
+            }
+            expectAndSetState(
+                    ConnectionState.WAITING_FOR_WEBSOCKET_CONNECTION,
+                    ConnectionState.CONNECTED
+            );
+        }
+    }
+
+    private void failEstablish(ConnectionState failureState) {
+        clearConnection();
+        this.connectionStateRef.set(failureState);
+        if (failureState == ConnectionState.DISCONNECTED) {
+            publishDisconnected();
+        }
+    }
+
+    /**
+     * Schedules the next reconnect attempt with a full jitter backoff, so that a flapping client is not hammered
+     * in lockstep. Gives up and announces the disconnect once the configured attempts are used up.
+     */
+    private void scheduleReconnect(
+            RiotClientConnectionParameters previous,
+            int attempt
+    ) {
+        final RiotClientServiceConfig.ReconnectParameters reconnectConfig = config.getReconnect();
+        if (attempt > reconnectConfig.getMaxAttempts()) {
+            if (connectionStateRef.compareAndSet(
+                    ConnectionState.RECONNECTING,
+                    ConnectionState.DISCONNECTED
+            )) {
+                log.warn(
+                        "Giving up on reconnecting after {} attempts",
+                        reconnectConfig.getMaxAttempts()
+                );
+                publishDisconnected();
+            }
+            return;
+        }
+        final long ceilingMs = Math.min(
+                reconnectConfig.getMaxDelayMs(),
+                (long) reconnectConfig.getInitialDelayMs() << Math.min(
+                        attempt - 1,
+                        20
+                )
         );
+        final long delayMs = ThreadLocalRandom.current()
+                                              .nextLong(Math.max(
+                                                      1,
+                                                      ceilingMs
+                                              ));
+        log.info(
+                "Reconnect attempt {} in {}ms",
+                attempt,
+                delayMs
+        );
+        final ScheduledFuture<?> future = scheduler.schedule(
+                () -> blockingExecutor.execute(() -> attemptReconnect(
+                        previous,
+                        attempt
+                )),
+                delayMs,
+                TimeUnit.MILLISECONDS
+        );
+        pendingReconnect.set(new PendingReconnect(
+                previous,
+                attempt,
+                future
+        ));
+    }
+
+    /**
+     * Skips the backoff of a pending reconnect attempt, for when the Riot Client is known to be back.
+     */
+    private void reconnectNow() {
+        final PendingReconnect pending = pendingReconnect.getAndSet(null);
+        if (pending == null || connectionStateRef.get() != ConnectionState.RECONNECTING) return;
+        if (!pending.future()
+                    .cancel(false)) return;
+        log.info("Riot Client restarted, reconnecting right away");
+        blockingExecutor.execute(() -> attemptReconnect(
+                pending.previous(),
+                pending.attempt()
+        ));
+    }
+
+    private record PendingReconnect(
+            RiotClientConnectionParameters previous,
+            int attempt,
+            ScheduledFuture<?> future
+    ) {
+    }
+
+    private void attemptReconnect(
+            RiotClientConnectionParameters previous,
+            int attempt
+    ) {
+        if (!connectionStateRef.compareAndSet(
+                ConnectionState.RECONNECTING,
+                ConnectionState.WAITING_FOR_PROCESS
+        )) {
+            log.debug("Reconnect was cancelled");
+            return;
+        }
+        try {
+            establish(
+                    () -> connectionStrategy.reconnect(previous),
+                    ConnectionState.RECONNECTING
+            );
+            log.info(
+                    "Reconnected after {} attempts",
+                    attempt
+            );
+        } catch (Exception e) {
+            log.warn(
+                    "Reconnect attempt {} failed: {}",
+                    attempt,
+                    e.toString()
+            );
+            if (connectionStateRef.get() == ConnectionState.RECONNECTING) {
+                scheduleReconnect(
+                        previous,
+                        attempt + 1
+                );
+            }
+        }
+    }
+
+    /**
+     * REST requests are allowed as soon as the readiness probe succeeded, while the websocket handshake may still be running.
+     */
+    private boolean isRestAvailable() {
+        final ConnectionState state = connectionStateRef.get();
+        return state == ConnectionState.WAITING_FOR_WEBSOCKET_CONNECTION || state == ConnectionState.CONNECTED;
     }
 
     private void expectAndSetState(
@@ -230,6 +529,22 @@ public class RiotClientServiceImpl extends RiotClientService {
 
     @Override
     public void disconnect() throws IllegalStateException, UnsupportedOperationException, ExecutionException {
+        if (connectionStateRef.compareAndSet(
+                ConnectionState.RECONNECTING,
+                ConnectionState.DISCONNECTED
+        )) {
+            // There is no socket left to close, the pending reconnect attempt sees the new state and stops
+            publishDisconnected();
+            try {
+                connectionStrategy.disconnect();
+            } catch (Exception e) {
+                throw new ExecutionException(
+                        "Failed to disconnect from process",
+                        e
+                );
+            }
+            return;
+        }
         expectAndSetState(
                 ConnectionState.CONNECTED,
                 ConnectionState.DISCONNECTED
@@ -253,67 +568,69 @@ public class RiotClientServiceImpl extends RiotClientService {
             String relativePath,
             Object body
     ) {
-        if (connectionStateRef.get() != ConnectionState.CONNECTED) {
-            return new InternalApiResponse.InternalException(null);
+        try {
+            return requestAsync(
+                    method,
+                    relativePath,
+                    body
+            ).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread()
+                  .interrupt();
+            return new InternalApiResponse.InternalException(e);
+        } catch (ExecutionException e) {
+            return new InternalApiResponse.InternalException(e);
         }
-        JsonNode bodyNode = mapper.valueToTree(body);
-        HttpRequest.BodyPublisher bodyPublisher = (this.methodAllowsBodyPublishing(method) && !bodyNode.isNull())
-                ? HttpRequest.BodyPublishers.ofString(bodyNode.toString())
-                : HttpRequest.BodyPublishers.noBody();
-        HttpRequest request = HttpRequest.newBuilder()
-                                         .method(
-                                                 method.name(),
-                                                 bodyPublisher
-                                         )
-                                         .uri(URI.create("https://127.0.0.1:" + parameters.getPort() + relativePath))
-                                         .header(
-                                                 HttpHeaders.AUTHORIZATION,
-                                                 parameters.getAuthHeader()
-                                         )
-                                         .header(
-                                                 HttpHeaders.CONTENT_TYPE,
-                                                 "application/json"
-                                         )
-                                         .timeout(Duration.of(
-                                                 5,
-                                                 ChronoUnit.SECONDS
-                                         ))
-                                         .build();
+    }
 
+    @Override
+    public CompletableFuture<InternalApiResponse> requestAsync(
+            HttpMethod method,
+            String relativePath,
+            Object body
+    ) {
+        if (!isRestAvailable()) {
+            return CompletableFuture.completedFuture(new InternalApiResponse.InternalException(null));
+        }
+        final HttpRequest request;
         try {
-            HttpResponse<JsonNode> response = httpClient.send(
-                    request,
-                    (resp) -> HttpResponse.BodySubscribers.mapping(
-                            HttpResponse.BodySubscribers.ofInputStream(),
-                            (is) -> {
-                                try (is) {
-                                    return mapper.readTree(is);
-                                } catch (IOException e) {
-                                    e.printStackTrace();
-                                    return NullNode.instance;
-                                }
-                            }
-                    )
+            request = buildRequest(
+                    method,
+                    relativePath,
+                    body
             );
+        } catch (JsonProcessingException | IllegalStateException e) {
+            return CompletableFuture.completedFuture(new InternalApiResponse.InternalException(e));
+        }
 
-            if (!ServletUtils.isSuccessResponseCode(response.statusCode())) {
-                //We will assume that the Riot Client will return a default Error here then
-                return new InternalApiResponse.ApiError(mapper.treeToValue(
-                        response.body(),
-                        RiotClientError.class
-                ));
-            }
+        return transport.sendAsync(
+                                request,
+                                jsonBodyHandler(JsonNode.class),
+                                routeOf(relativePath)
+                        )
+                        .thenApply(response -> {
+                            final JsonNode responseBody = Optional.ofNullable(response.body())
+                                                                  .orElse(NullNode.instance);
+                            if (!ServletUtils.isSuccessResponseCode(response.statusCode())) {
+                                //We will assume that the Riot Client will return a default Error here then
+                                try {
+                                    return new InternalApiResponse.ApiError(mapper.treeToValue(
+                                            responseBody,
+                                            RiotClientError.class
+                                    ));
+                                } catch (JsonProcessingException e) {
+                                    return new InternalApiResponse.InternalException(e);
+                                }
+                            }
 
-            if ((HttpStatus.NO_CONTENT.value() == response.statusCode()) ||
-                response.body()
-                        .isEmpty()) {
-                return new InternalApiResponse.NoContent();
-            }
+                            if ((HttpStatus.NO_CONTENT.value() == response.statusCode()) ||
+                                responseBody.isEmpty()) {
+                                return new InternalApiResponse.NoContent();
+                            }
 
-            return new InternalApiResponse.Success(response.body());
-        } catch (Exception e) {
-            return new InternalApiResponse.InternalException(e);
-        }
+                            return new InternalApiResponse.Success(responseBody);
+                        })
+                        .exceptionally(e -> new InternalApiResponse.InternalException(new ExecutionException(e instanceof CompletionException ? e.getCause() : e)));
     }
 
     @Override
@@ -323,83 +640,157 @@ public class RiotClientServiceImpl extends RiotClientService {
             Object body,
             Class<T> targetClass
     ) {
-        if (connectionStateRef.get() != ConnectionState.CONNECTED) return Optional.empty();
-        JsonNode bodyNode = mapper.valueToTree(body);
-        HttpRequest.BodyPublisher bodyPublisher = (this.methodAllowsBodyPublishing(method) && !bodyNode.isNull())
-                ? HttpRequest.BodyPublishers.ofString(bodyNode.toString())
-                : HttpRequest.BodyPublishers.noBody();
-        HttpRequest request = HttpRequest.newBuilder()
-                                         .method(
-                                                 method.name(),
-                                                 bodyPublisher
-                                         )
-                                         .uri(URI.create("https://127.0.0.1:" + parameters.getPort() + relativePath))
-                                         .header(
-                                                 HttpHeaders.AUTHORIZATION,
-                                                 parameters.getAuthHeader()
-                                         )
-                                         .header(
-                                                 HttpHeaders.CONTENT_TYPE,
-                                                 "application/json"
-                                         )
-                                         .timeout(Duration.of(
-                                                 5,
-                                                 ChronoUnit.SECONDS
-                                         ))
-                                         .build();
-
-
+        if (!isRestAvailable()) return Optional.empty();
         try {
-            HttpResponse<T> response = httpClient.send(
-                    request,
-                    (resp) -> HttpResponse.BodySubscribers.mapping(
-                            HttpResponse.BodySubscribers.ofInputStream(),
-                            (is) -> {
-                                try (is) {
-                                    return mapper.readValue(
-                                            is,
-                                            targetClass
-                                    );
-                                } catch (IOException e) {
-                                    e.printStackTrace();
-                                    return null;
-                                }
-                            }
-                    )
+            final HttpRequest request = buildRequest(
+                    method,
+                    relativePath,
+                    body
             );
-
-            return Optional.of(response);
+            return Optional.of(transport.send(
+                    request,
+                    jsonBodyHandler(targetClass),
+                    routeOf(relativePath)
+            ));
+        } catch (InterruptedException e) {
+            Thread.currentThread()
+                  .interrupt();
         } catch (Exception e) {
             log.warn(
                     "Exception while requesting proxy access to {} ",
-                    request.uri(),
+                    relativePath,
                     e
             );
         }
         return Optional.empty();
     }
 
+    @Override
+    public <T> CompletableFuture<T> requestAsync(
+            HttpMethod method,
+            String relativePath,
+            Object body,
+            Class<T> targetClass
+    ) {
+        if (!isRestAvailable()) {
+            return CompletableFuture.failedFuture(new IllegalStateException("Not connected to the Riot Client"));
+        }
+        final HttpRequest request;
+        try {
+            request = buildRequest(
+                    method,
+                    relativePath,
+                    body
+            );
+        } catch (JsonProcessingException | IllegalStateException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+
+        return transport.sendAsync(
+                                request,
+                                jsonBodyHandler(targetClass),
+                                routeOf(relativePath)
+                        )
+                        .thenCompose(response -> {
+                            if (!ServletUtils.isSuccessResponseCode(response.statusCode())) {
+                                return CompletableFuture.failedFuture(new ExecutionException(
+                                        "Riot Client responded to " + relativePath + " with status " + response.statusCode(),
+                                        null
+                                ));
+                            }
+                            return CompletableFuture.completedFuture(response.body());
+                        });
+    }
+
+    /**
+     * @throws IllegalStateException If the connection was cleared in the meantime
+     */
+    private HttpRequest buildRequest(
+            HttpMethod method,
+            String relativePath,
+            Object body
+    ) throws JsonProcessingException {
+        // Read once, a concurrent clearConnection() may reset both at any time
+        final URI baseUri = this.baseUri;
+        final RiotClientConnectionParameters parameters = this.parameters;
+        if (baseUri == null || parameters == null) {
+            throw new IllegalStateException("Not connected to the Riot Client");
+        }
+        final HttpRequest.BodyPublisher bodyPublisher = (this.methodAllowsBodyPublishing(method) && body != null)
+                ? HttpRequest.BodyPublishers.ofByteArray(mapper.writeValueAsBytes(body))
+                : HttpRequest.BodyPublishers.noBody();
+        return HttpRequest.newBuilder()
+                          .method(
+                                  method.name(),
+                                  bodyPublisher
+                          )
+                          .uri(URI.create(baseUri + relativePath))
+                          .header(
+                                  HttpHeaders.AUTHORIZATION,
+                                  parameters.getAuthHeader()
+                          )
+                          .header(
+                                  HttpHeaders.CONTENT_TYPE,
+                                  "application/json"
+                          )
+                          .timeout(transport.getRequestTimeout())
+                          .build();
+    }
+
+    /**
+     * Buffers the body and binds it afterwards, so that no {@link java.io.InputStream} is ever read on the
+     * client's own threads when used with {@link RiotClientTransport#sendAsync}. Unreadable bodies become {@code null}.
+     */
+    private <T> HttpResponse.BodyHandler<T> jsonBodyHandler(Class<T> targetClass) {
+        return responseInfo -> HttpResponse.BodySubscribers.mapping(
+                HttpResponse.BodySubscribers.ofByteArray(),
+                bytes -> {
+                    if (bytes.length == 0) return null;
+                    try {
+                        return mapper.readValue(
+                                bytes,
+                                targetClass
+                        );
+                    } catch (IOException e) {
+                        log.debug(
+                                "Failed to parse response body as {}",
+                                targetClass.getSimpleName(),
+                                e
+                        );
+                        return null;
+                    }
+                }
+        );
+    }
+
+    /**
+     * Strips the query, so that the per-route metrics do not grow with every distinct parameter value.
+     */
+    private static String routeOf(String relativePath) {
+        final int queryStart = relativePath.indexOf('?');
+        return queryStart < 0 ? relativePath : relativePath.substring(
+                0,
+                queryStart
+        );
+    }
+
     private boolean methodAllowsBodyPublishing(HttpMethod method) {
         return !method.equals(HttpMethod.GET) && !method.equals(HttpMethod.HEAD);
     }
 
     @Override
-    public Optional<ApiClient> getApiClient() {
-        if (connectionStateRef.get() != ConnectionState.CONNECTED) return Optional.empty();
+    public synchronized Optional<ApiClient> getApiClient() {
+        if (!isRestAvailable()) return Optional.empty();
         if (this.apiClient == null) {
+            final URI baseUri = this.baseUri;
+            final RiotClientConnectionParameters parameters = this.parameters;
+            if (baseUri == null || parameters == null) return Optional.empty();
             final ApiClient apiClient =
                     new ApiClient()
-                            .setBasePath("https://127.0.0.1:" + parameters.getPort())
+                            .setBasePath(baseUri.toString())
                             .setFeignBuilder(
                                     new feign.Feign.Builder()
-                                            .client(new Client.Default(
-                                                    sslContext.getSocketFactory(),
-                                                    (hostname, session) -> HttpsURLConnection.getDefaultHostnameVerifier()
-                                                                                             .verify(
-                                                                                                     hostname,
-                                                                                                     session
-                                                                                             )
-                                            ))
+                                            .client(transport.asFeignClient())
                                             .encoder(new feign.jackson.JacksonEncoder(mapper))
                                             .decoder(new feign.jackson.JacksonDecoder(mapper))
                             );
@@ -426,11 +817,66 @@ public class RiotClientServiceImpl extends RiotClientService {
         );
     }
 
+    @Override
+    public long getLastMessageSequence() {
+        return messageSequence.get();
+    }
+
+    /**
+     * Subscribes to the bus only here, so that no event can reach this service before it is fully constructed.
+     */
     @Override
     public void startup() {
         log.debug("Startup called");
         long start = System.currentTimeMillis();
 
+        this.messageLogSubscription = eventBus.getFlux(Channel.RCU_PROXY)
+                .filter(RCUMessageEvent.class::isInstance)
+                .cast(RCUMessageEvent.class)
+                .filter(event -> log.isDebugEnabled())
+                .doOnNext(event -> {
+                    final RCUWebsocketMessage message = event.getPayload();
+                    log.debug(
+                            "{} - {}: {}",
+                            message.getType(),
+                            message.getUri(),
+                            message.getData()
+                    );
+                })
+                .subscribe();
+        this.lockfileSubscription = eventBus.getFlux(
+                        Channel.RIOT_CLIENT_LOCKFILE,
+                        LockfileChangedEvent.class
+                )
+                .doOnNext(event -> reconnectNow())
+                .subscribe();
+        this.processLifecycleSubscription = eventBus.getFlux(
+                        Channel.PROCESS_LIFECYCLE,
+                        ProcessLifecycleEvent.class
+                )
+                .map(ProcessLifecycleEvent::getPayload)
+                .filter(payload -> payload.target() == ProcessLifecyclePayload.Target.RIOT_CLIENT_SERVICES)
+                .doOnNext(payload -> {
+                    switch (payload.state()) {
+                        case STARTED -> riotClientServicesPid.set(payload.pid());
+                        case EXITED -> {
+                            // An instance that was replaced in the meantime may report its exit late
+                            if (riotClientServicesPid.compareAndSet(
+                                    payload.pid(),
+                                    NO_PID
+                            )) {
+                                blockingExecutor.submit(this::handleRiotClientServicesExited);
+                            } else {
+                                log.debug(
+                                        "Ignoring exit of previous Riot Client Services instance {}",
+                                        payload.pid()
+                                );
+                            }
+                        }
+                    }
+                })
+                .subscribe();
+
         long end = System.currentTimeMillis();
         log.debug(
                 "Startup succeeded after {}ms",
@@ -443,16 +889,19 @@ public class RiotClientServiceImpl extends RiotClientService {
         log.info("Shutdown called");
         long start = System.currentTimeMillis();
 
+        Optional.ofNullable(messageLogSubscription)
+                .ifPresent(Disposable::dispose);
+        Optional.ofNullable(lockfileSubscription)
+                .ifPresent(Disposable::dispose);
+        Optional.ofNullable(processLifecycleSubscription)
+                .ifPresent(Disposable::dispose);
         this.parameters = null;
-        this.futureExecutorService.shutdown();
-        try {
-            this.futureExecutorService.awaitTermination(
-                    800,
-                    TimeUnit.MILLISECONDS
-            );
-        } catch (InterruptedException e) {
-            this.futureExecutorService.shutdownNow();
-        }
+        this.scheduler.shutdownNow();
+        this.messageDispatcher.close();
+        ExecutorUtils.shutdown(
+                this.blockingExecutor,
+                Duration.ofMillis(800)
+        );
 
         long end = System.currentTimeMillis();
         log.info(
@@ -463,199 +912,163 @@ public class RiotClientServiceImpl extends RiotClientService {
 
     public CompletableFuture<WebSocket> awaitWebsocketConnection(RiotClientConnectionParameters parameters) {
         CompletableFuture<WebSocket> future = new CompletableFuture<>();
-        futureExecutorService.submit(() -> {
-            httpClient
-                    .newWebSocketBuilder()
-                    .header(
-                            HttpHeaders.AUTHORIZATION,
-                            parameters.getAuthHeader()
-                    )
-                    .buildAsync(
-                            URI.create("wss://127.0.0.1:" + parameters.getPort()),
-                            new WebSocket.Listener() {
-                                private final StringBuffer stringBuffer = new StringBuffer();
-
-                                @Override
-                                public void onOpen(WebSocket webSocket) {
-                                    future.complete(webSocket);
-                                    log.debug("WebSocket connection opened");
-                                    futureExecutorService.submit(() -> {
-                                        ArrayNode node = mapper.createArrayNode();
-                                        node.add(5);
-                                        node.add("OnJsonApiEvent");
-
-                                        webSocket.sendText(
-                                                node.toString(),
-                                                true
-                                        );
-                                    });
-                                    eventBus.publish(
-                                            Channel.RCU_CONNECTION_STATE,
-                                            new RCUConnectionEvent("RCU",true)
-                                    );
-                                    WebSocket.Listener.super.onOpen(webSocket);
-                                }
-
-                                @Override
-                                public CompletionStage<?> onText(
-                                        WebSocket webSocket,
-                                        CharSequence data,
-                                        boolean last
-                                ) {
-                                    stringBuffer.append(data);
-
-                                    if (last) {
-                                        final String message;
-                                        synchronized (stringBuffer) {
-                                            message = stringBuffer.toString();
-                                            stringBuffer.setLength(0);
-                                        }
-
-                                        messageExecutorService.submit(() -> {
-                                            Thread.currentThread()
-                                                  .setName("Message-Dispatch");
-                                            if (message.isEmpty()) return;
-                                            final RCUWebsocketMessage parsedMessage;
-                                            try {
-                                                ArrayNode messageNode = (ArrayNode) mapper.readTree(message);
-                                                if (messageNode.size() != 3) return;
-                                                parsedMessage = mapper.convertValue(
-                                                        messageNode.get(2),
-                                                        RCUWebsocketMessage.class
-                                                );
-                                            } catch (Exception e) {
-                                                log.warn(
-                                                        "The message \"{}\" could not be parsed",
-                                                        message,
-                                                        e
-                                                );
-                                                return;
-                                            }
-                                            eventBus.publish(
-                                                    Channel.RCU_PROXY,
-                                                    new RCUMessageEvent(
-                                                            "",
-                                                            parsedMessage
-                                                    )
-                                            );
-                                        });
-                                    }
-
-                                    return WebSocket.Listener.super.onText(
-                                            webSocket,
-                                            data,
-                                            last
-                                    );
-                                }
+        final WebSocket.Listener listener = new WebSocket.Listener() {
+            private final RCUMessageStreamParser messageParser = new RCUMessageStreamParser(
+                    mapper,
+                    messageSequence
+            );
 
-                                @Override
-                                public CompletionStage<?> onClose(
-                                        WebSocket webSocket,
-                                        int statusCode,
-                                        String reason
-                                ) {
-                                    log.debug("WebSocket connection closed");
-                                    futureExecutorService.submit(() -> {
-                                        handleWebsocketClosed();
-                                    });
-                                    futureExecutorService.submit(() -> {
-                                        eventBus.publish(
-                                                Channel.RCU_CONNECTION_STATE,
-                                                new RCUConnectionEvent("RCU",false)
-                                        );
-                                    });
-                                    return WebSocket.Listener.super.onClose(
-                                            webSocket,
-                                            statusCode,
-                                            reason
-                                    );
-                                }
+            @Override
+            public void onOpen(WebSocket webSocket) {
+                synchronized (RiotClientServiceImpl.this) {
+                    if (!future.complete(webSocket)) {
+                        log.debug("WebSocket opened after the connect attempt was given up, aborting it");
+                        webSocket.abort();
+                        return;
+                    }
+                    socket = webSocket;
+                }
+                connectPhaseTimings.mark(ConnectPhaseTimings.Phase.WEBSOCKET_OPEN);
+                log.debug("WebSocket connection opened");
+                blockingExecutor.submit(() -> {
+                    ArrayNode node = mapper.createArrayNode();
+                    node.add(5);
+                    node.add("OnJsonApiEvent");
 
-                                ;
-                            }
+                    webSocket.sendText(
+                            node.toString(),
+                            true
                     );
-        });
-        return future;
-    }
+                });
+                WebSocket.Listener.super.onOpen(webSocket);
+            }
 
-    private CompletableFuture<Void> awaitRestReady(RiotClientConnectionParameters parametersToTest) {
-        CompletableFuture<Void> future = new CompletableFuture<>();
-        futureExecutorService.schedule(
-                new Runnable() {
-                    private AtomicInteger attempts = new AtomicInteger(0);
+            @Override
+            public CompletionStage<?> onText(
+                    WebSocket webSocket,
+                    CharSequence data,
+                    boolean last
+            ) {
+                final Optional<RCUWebsocketMessage> parsedMessage;
+                try {
+                    parsedMessage = messageParser.feed(
+                            data,
+                            last
+                    );
+                } catch (Exception e) {
+                    log.warn(
+                            "An RCU message could not be parsed",
+                            e
+                    );
+                    return WebSocket.Listener.super.onText(
+                            webSocket,
+                            data,
+                            last
+                    );
+                }
 
-                    @Override
-                    public void run() {
-                        if (attempts.addAndGet(1) >
-                            config.getConnectionInit()
-                                  .getRestConnectAttempts()) {
-                            future.completeExceptionally(new Exception("Failed to establish within given attempts"));
-                            return;
-                        }
+                if (parsedMessage.isPresent()) {
+                    try {
+                        messageDispatcher.dispatch(parsedMessage.get());
+                    } catch (InterruptedException e) {
+                        Thread.currentThread()
+                              .interrupt();
+                    }
+                }
 
-                        HttpRequest request = HttpRequest.newBuilder()
-                                                         .uri(URI.create("https://127.0.0.1:" +
-                                                                         parametersToTest.getPort() +
-                                                                         "/riotclientapp/v1/command-line-args"))
-                                                         .GET()
-                                                         .header(
-                                                                 HttpHeaders.AUTHORIZATION,
-                                                                 parametersToTest.getAuthHeader()
-                                                         )
-                                                         .build();
-
-                        if (testRestConnection(
-                                request,
-                                parameters
-                        )) {
-                            future.complete(null);
-                            return;
-                        }
+                return WebSocket.Listener.super.onText(
+                        webSocket,
+                        data,
+                        last
+                );
+            }
 
-                        futureExecutorService.schedule(
-                                this,
-                                config.getConnectionInit()
-                                      .getRestConnectDelayMs(),
-                                TimeUnit.MILLISECONDS
-                        );
-                    }
-                },
-                config.getConnectionInit()
-                      .getRestConnectDelayMs(),
-                TimeUnit.MILLISECONDS
-        );
+            @Override
+            public CompletionStage<?> onClose(
+                    WebSocket webSocket,
+                    int statusCode,
+                    String reason
+            ) {
+                log.debug("WebSocket connection closed");
+                blockingExecutor.submit(() -> handleWebsocketClosed(webSocket));
+                return WebSocket.Listener.super.onClose(
+                        webSocket,
+                        statusCode,
+                        reason
+                );
+            }
+        };
+        blockingExecutor.submit(() -> endpoints.openWebsocket(
+                                                       parameters,
+                                                       listener
+                                               )
+                                               .whenComplete((ignored, error) -> {
+                                                   if (error != null) {
+                                                       future.completeExceptionally(error);
+                                                   }
+                                               }));
         return future;
     }
 
-    private boolean testRestConnection(
-            HttpRequest request,
-            RiotClientConnectionParameters parameters
-    ) {
-        try {
-            HttpResponse<String> response = this.httpClient.send(
-                    request,
-                    HttpResponse.BodyHandlers.ofString()
-            );
-            if (response.statusCode() != HttpStatus.OK.value()) return false;
-            Optional<JsonNode> parsedResponse = Utils.parseJson(
-                    mapper,
-                    response.body()
+    /**
+     * An unexpected close of an established connection hands over to the reconnect supervisor,
+     * while the DataManagers keep their state. Any other close is announced as a disconnect.
+     */
+    private synchronized void handleWebsocketClosed(WebSocket webSocket) {
+        if (this.socket != webSocket) {
+            log.debug("Ignoring close of a stale or already handled websocket");
+            return;
+        }
+        final RiotClientConnectionParameters previous = this.parameters;
+        clearConnection();
+        if (config.getReconnect()
+                  .isEnabled() && previous != null && connectionStateRef.compareAndSet(
+                ConnectionState.CONNECTED,
+                ConnectionState.RECONNECTING
+        )) {
+            log.warn("Lost connection to the Riot Client, trying to reconnect");
+            scheduleReconnect(
+                    previous,
+                    1
             );
-            if (parsedResponse.isEmpty()) return false;
-            JsonNode responseNode = parsedResponse.get();
-            return responseNode.isArray();
-        } catch (Exception e) {
-            log.error("Error while trying to test connection");
+            return;
+        }
+        if (connectionStateRef.get() == ConnectionState.WAITING_FOR_WEBSOCKET_CONNECTION) {
+            // Still connecting, establish notices the cleared socket and fails the attempt itself
+            return;
         }
-        return false;
+        connectionStateRef.set(ConnectionState.DISCONNECTED);
+        publishDisconnected();
     }
 
-    private void handleWebsocketClosed() {
-        connectionStateRef.set(ConnectionState.DISCONNECTED);
+    /**
+     * A crashed Riot Client Services does not always close the websocket cleanly, so its exit is treated
+     * like a close instead of waiting for the socket to notice.
+     */
+    private void handleRiotClientServicesExited() {
+        final WebSocket current = this.socket;
+        if (current == null || connectionStateRef.get() != ConnectionState.CONNECTED) return;
+        log.warn("Riot Client Services exited while connected");
+        handleWebsocketClosed(current);
+        current.abort();
+    }
+
+    private void publishDisconnected() {
+        eventBus.publish(
+                Channel.RCU_CONNECTION_STATE,
+                new RCUConnectionEvent(
+                        "RCU",
+                        false
+                )
+        );
+    }
+
+    private void clearConnection() {
         this.socket = null;
         this.apiClient = null;
         this.apiClientMap.clear();
         this.parameters = null;
+        this.baseUri = null;
     }
 
     private RiotClientConnectionParameters generateParameters() {
@@ -669,4 +1082,43 @@ public class RiotClientServiceImpl extends RiotClientService {
                 port
         );
     }
+
+    /**
+     * The actual Riot Client, reached through the shared {@link RiotClientTransport}.
+     */
+    private class LiveEndpoints implements RiotClientEndpoints {
+        private final RestReadinessProbe restReadinessProbe;
+
+        private LiveEndpoints(RestReadinessProbe restReadinessProbe) {
+            this.restReadinessProbe = restReadinessProbe;
+        }
+
+        @Override
+        public CompletableFuture<Void> awaitRestReady(
+                RiotClientConnectionParameters parameters,
+                ConnectPhaseTimings timings
+        ) {
+            return restReadinessProbe.await(
+                    parameters,
+                    timings
+            );
+        }
+
+        @Override
+        public CompletableFuture<WebSocket> openWebsocket(
+                RiotClientConnectionParameters parameters,
+                WebSocket.Listener listener
+        ) {
+            return transport.getHttpClient()
+                            .newWebSocketBuilder()
+                            .header(
+                                    HttpHeaders.AUTHORIZATION,
+                                    parameters.getAuthHeader()
+                            )
+                            .buildAsync(
+                                    URI.create("wss://127.0.0.1:" + parameters.getPort()),
+                                    listener
+                            );
+        }
+    }
 }
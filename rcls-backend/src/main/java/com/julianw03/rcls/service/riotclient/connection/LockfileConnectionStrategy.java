@@ -4,60 +4,74 @@ import com.julianw03.rcls.model.RiotClientConnectionParameters;
 import com.julianw03.rcls.providers.paths.PathProvider;
 import lombok.extern.slf4j.Slf4j;
 
-import java.io.FileInputStream;
-import java.io.InputStreamReader;
-import java.nio.file.Path;
+import java.io.IOException;
 import java.nio.file.Paths;
+import java.util.function.Consumer;
 
 /**
  * This class tries to get the {@link RiotClientConnectionParameters} via the Lockfile that is
  * created once the Riot Client (UX - Process) starts up.
  * This strategy expects the UX Client to be running
+ * <p>
+ * Watching the lockfile is retried on every connect, as its directory may only exist once the Riot Client was
+ * installed or started for the first time. Closing the strategy stops the watcher.
  * */
 @Slf4j
-public class LockfileConnectionStrategy implements RiotClientConnectionStrategy {
-    private final PathProvider pathProvider;
+public class LockfileConnectionStrategy implements RiotClientConnectionStrategy, AutoCloseable {
+    private final LockfileWatcher lockfileWatcher;
+    private       boolean         watchFailureLogged;
 
     public LockfileConnectionStrategy(
             PathProvider pathProvider
     ) {
-        this.pathProvider = pathProvider;
+        this(
+                pathProvider,
+                parameters -> {
+                }
+        );
     }
 
-    @Override
-    public RiotClientConnectionParameters connect() throws Exception {
-
-        Path lockfilePath = Paths.get(pathProvider.get().getRiotClientLockFileLocation());
-        if (!lockfilePath.toFile().exists()) {
-            throw new UnsupportedOperationException("Lockfile not found at " + lockfilePath);
-        }
-
-        try (InputStreamReader reader = new InputStreamReader(new FileInputStream(lockfilePath.toFile()))) {
-            StringBuilder lockfileContent = new StringBuilder();
-            int character;
-            while ((character = reader.read()) != -1) {
-                lockfileContent.append((char) character);
-            }
-
-            String[] parts = lockfileContent.toString().split(":");
-            if (parts.length != 5) {
-                throw new IllegalArgumentException("Invalid lockfile format");
-            }
-
-            String identifier = parts[0];
-            String pid = parts[1];
-            String port = parts[2];
-            String secret = parts[3];
-            String protocol = parts[4];
+    /**
+     * @param onLockfileChanged Called with the new parameters whenever the Riot Client rewrites its lockfile,
+     *                          once {@link #startWatching()} was called
+     */
+    public LockfileConnectionStrategy(
+            PathProvider pathProvider,
+            Consumer<RiotClientConnectionParameters> onLockfileChanged
+    ) {
+        this.lockfileWatcher = new LockfileWatcher(
+                () -> Paths.get(pathProvider.get()
+                                            .getRiotClientLockFileLocation()),
+                onLockfileChanged
+        );
+    }
 
-            if (!"Riot Client".equalsIgnoreCase(identifier)) {
-                throw new IllegalArgumentException("Invalid lockfile identifier: " + identifier);
+    public synchronized void startWatching() {
+        try {
+            lockfileWatcher.start();
+            watchFailureLogged = false;
+        } catch (IOException | RuntimeException e) {
+            if (watchFailureLogged) {
+                log.debug(
+                        "Still unable to watch the lockfile: {}",
+                        e.toString()
+                );
+                return;
             }
-            return new RiotClientConnectionParameters(
-                    secret,
-                    Integer.parseInt(port)
+            watchFailureLogged = true;
+            log.warn(
+                    "Unable to watch the lockfile, Riot Client restarts will not be noticed until the next connect: {}",
+                    e.toString()
             );
-        } catch (IllegalArgumentException e) {
+        }
+    }
+
+    @Override
+    public RiotClientConnectionParameters connect() throws Exception {
+        startWatching();
+        try {
+            return lockfileWatcher.read();
+        } catch (IllegalArgumentException | UnsupportedOperationException e) {
             throw e;
         } catch (Exception e) {
             throw new IllegalStateException(e);
@@ -68,4 +82,9 @@ public class LockfileConnectionStrategy implements RiotClientConnectionStrategy
     @Override
     public void disconnect() {
     }
+
+    @Override
+    public void close() throws IOException {
+        lockfileWatcher.close();
+    }
 }
@@ -0,0 +1,251 @@
+package com.julianw03.rcls.service.riotclient.connection;
+
+import com.julianw03.rcls.model.RiotClientConnectionParameters;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Parses the Riot Client lockfile ({@code name:pid:port:secret:protocol}) and caches the result
+ * together with the modification time and size of the file, so repeated reads only cost a stat call.
+ * <p>
+ * Once {@link #start()} was called, the directory of the lockfile is watched as well. Whenever the file is
+ * (re)written with a different port or secret, which happens each time the Riot Client restarts,
+ * the new parameters are handed to the listener.
+ */
+@Slf4j
+public class LockfileWatcher implements AutoCloseable {
+    private static final String EXPECTED_IDENTIFIER = "Riot Client";
+    private static final int    LOCKFILE_PARTS      = 5;
+
+    private final Supplier<Path>                           lockfilePath;
+    private final Consumer<RiotClientConnectionParameters> onChange;
+    private final AtomicReference<CachedParameters>        cache = new AtomicReference<>();
+    private       WatchService                             watchService;
+
+    public LockfileWatcher(
+            Supplier<Path> lockfilePath,
+            Consumer<RiotClientConnectionParameters> onChange
+    ) {
+        this.lockfilePath = lockfilePath;
+        this.onChange = onChange;
+    }
+
+    /**
+     * @throws UnsupportedOperationException If there is no lockfile, meaning the Riot Client is not running
+     * @throws IllegalArgumentException      If the lockfile is malformed
+     * @throws IOException                   If the lockfile could not be read
+     */
+    public RiotClientConnectionParameters read() throws IOException {
+        final Path path = lockfilePath.get();
+        final BasicFileAttributes attributes;
+        try {
+            attributes = Files.readAttributes(
+                    path,
+                    BasicFileAttributes.class
+            );
+        } catch (NoSuchFileException e) {
+            cache.set(null);
+            throw new UnsupportedOperationException("Lockfile not found at " + path);
+        }
+        if (!attributes.isRegularFile()) {
+            cache.set(null);
+            throw new UnsupportedOperationException("Lockfile not found at " + path);
+        }
+
+        final CachedParameters cached = cache.get();
+        if (cached != null && cached.matches(
+                path,
+                attributes
+        )) {
+            return cached.parameters();
+        }
+
+        final RiotClientConnectionParameters parameters = parse(Files.readString(path));
+        cache.set(new CachedParameters(
+                path,
+                attributes.lastModifiedTime(),
+                attributes.size(),
+                parameters
+        ));
+        return parameters;
+    }
+
+    /**
+     * Starts watching the directory of the lockfile on a virtual thread. Does nothing if already watching, so it can
+     * simply be called again until it succeeds.
+     *
+     * @throws IOException If the directory does not exist or cannot be watched
+     */
+    public synchronized void start() throws IOException {
+        if (watchService != null) return;
+        final Path path = lockfilePath.get()
+                                      .toAbsolutePath();
+        final Path directory = path.getParent();
+        final WatchService service = directory.getFileSystem()
+                                              .newWatchService();
+        try {
+            directory.register(
+                    service,
+                    StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_MODIFY,
+                    StandardWatchEventKinds.ENTRY_DELETE
+            );
+        } catch (IOException | RuntimeException e) {
+            service.close();
+            throw e;
+        }
+        this.watchService = service;
+        Thread.ofVirtual()
+              .name("lockfile-watcher")
+              .start(() -> watch(
+                      service,
+                      path.getFileName()
+              ));
+        log.debug(
+                "Watching {} for lockfile changes",
+                directory
+        );
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (watchService == null) return;
+        watchService.close();
+        watchService = null;
+    }
+
+    private void watch(
+            WatchService service,
+            Path fileName
+    ) {
+        while (true) {
+            final WatchKey key;
+            try {
+                key = service.take();
+            } catch (InterruptedException | ClosedWatchServiceException e) {
+                return;
+            }
+            boolean lockfileTouched = false;
+            for (WatchEvent<?> event : key.pollEvents()) {
+                if (event.kind() == StandardWatchEventKinds.OVERFLOW || fileName.equals(event.context())) {
+                    lockfileTouched = true;
+                }
+            }
+            if (lockfileTouched) {
+                refresh();
+            }
+            if (!key.reset()) {
+                log.warn("Lockfile directory can no longer be watched");
+                stopped(service);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Forgets a watch service that stopped on its own, so that the next {@link #start()} watches again.
+     */
+    private synchronized void stopped(WatchService service) {
+        if (watchService != service) return;
+        watchService = null;
+        try {
+            service.close();
+        } catch (IOException e) {
+            log.debug(
+                    "Failed to close lockfile watch service",
+                    e
+            );
+        }
+    }
+
+    private void refresh() {
+        final CachedParameters previous = cache.get();
+        final RiotClientConnectionParameters current;
+        try {
+            current = read();
+        } catch (UnsupportedOperationException e) {
+            log.debug("Lockfile was removed");
+            return;
+        } catch (IOException | IllegalArgumentException e) {
+            // The Riot Client may still be writing the file, the next modification triggers another attempt
+            log.debug(
+                    "Lockfile is not readable yet: {}",
+                    e.toString()
+            );
+            return;
+        }
+        if (previous != null && isSameConnection(
+                previous.parameters(),
+                current
+        )) {
+            return;
+        }
+        log.info(
+                "Lockfile changed, Riot Client is now listening on port {}",
+                current.getPort()
+        );
+        try {
+            onChange.accept(current);
+        } catch (RuntimeException e) {
+            log.error(
+                    "Lockfile change listener failed",
+                    e
+            );
+        }
+    }
+
+    static RiotClientConnectionParameters parse(String content) {
+        final String[] parts = content.trim()
+                                      .split(":");
+        if (parts.length != LOCKFILE_PARTS) {
+            throw new IllegalArgumentException("Invalid lockfile format");
+        }
+
+        final String identifier = parts[0];
+        final String port = parts[2];
+        final String secret = parts[3];
+
+        if (!EXPECTED_IDENTIFIER.equalsIgnoreCase(identifier)) {
+            throw new IllegalArgumentException("Invalid lockfile identifier: " + identifier);
+        }
+        return new RiotClientConnectionParameters(
+                secret,
+                Integer.parseInt(port)
+        );
+    }
+
+    private static boolean isSameConnection(
+            RiotClientConnectionParameters a,
+            RiotClientConnectionParameters b
+    ) {
+        return Objects.equals(
+                a.getPort(),
+                b.getPort()
+        ) && Objects.equals(
+                a.getAuthSecret(),
+                b.getAuthSecret()
+        );
+    }
+
+    private record CachedParameters(
+            Path path,
+            FileTime lastModified,
+            long size,
+            RiotClientConnectionParameters parameters
+    ) {
+        private boolean matches(
+                Path path,
+                BasicFileAttributes attributes
+        ) {
+            return this.path.equals(path) && this.size == attributes.size() && this.lastModified.equals(attributes.lastModifiedTime());
+        }
+    }
+}
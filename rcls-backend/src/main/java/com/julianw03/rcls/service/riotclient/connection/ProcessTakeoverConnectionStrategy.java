@@ -6,14 +6,16 @@ import com.julianw03.rcls.model.RiotClientConnectionParameters;
 import com.julianw03.rcls.model.SupportedGame;
 import com.julianw03.rcls.service.process.NoSuchProcessException;
 import com.julianw03.rcls.service.process.ProcessService;
+import com.julianw03.rcls.service.riotclient.readiness.ConnectPhaseTimings;
 import lombok.extern.slf4j.Slf4j;
 
 import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Base64;
-import java.util.concurrent.CancellationException;
-import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.CompletionException;
-import java.util.concurrent.ExecutionException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
 
 /**
  * This class will try to kill all Processes that are known to RCLS and are dependent on
@@ -25,15 +27,44 @@ import java.util.concurrent.ExecutionException;
  */
 @Slf4j
 public class ProcessTakeoverConnectionStrategy implements RiotClientConnectionStrategy {
+    private static final Duration DEFAULT_TAKEOVER_DEADLINE = Duration.ofSeconds(5);
+    /**
+     * Every kill waits for its process to exit, so each one gets its own virtual thread.
+     */
+    private static final Executor TAKEOVER_EXECUTOR         = Executors.newVirtualThreadPerTaskExecutor();
 
-    private final ProcessService processService;
+    private final ProcessService      processService;
+    private final ConnectPhaseTimings connectPhaseTimings;
+    private final Duration            takeoverDeadline;
 
     public ProcessTakeoverConnectionStrategy(
             ProcessService processService
+    ) {
+        this(
+                processService,
+                new ConnectPhaseTimings(),
+                DEFAULT_TAKEOVER_DEADLINE
+        );
+    }
+
+    /**
+     * @param takeoverDeadline Shared by all kills
+     */
+    public ProcessTakeoverConnectionStrategy(
+            ProcessService processService,
+            ConnectPhaseTimings connectPhaseTimings,
+            Duration takeoverDeadline
     ) {
         this.processService = processService;
+        this.connectPhaseTimings = connectPhaseTimings;
+        this.takeoverDeadline = takeoverDeadline;
     }
 
+    /**
+     * All games, the Riot Client and Riot Client Services are stopped at the same time, bounded by a single
+     * deadline. The new Riot Client Services instance is only started once every kill succeeded, so a failed
+     * takeover never leaves an instance behind that nobody is connected to.
+     */
     @Override
     public RiotClientConnectionParameters connect() throws Exception {
         RiotClientConnectionParameters parameters = generateParameters();
@@ -41,96 +72,146 @@ public class ProcessTakeoverConnectionStrategy implements RiotClientConnectionSt
                 "Generated parameters: {}",
                 parameters
         );
-        CompletableFuture<?>[] killGameFutures = new CompletableFuture<?>[SupportedGame.values().length];
+        final long startNanos = System.nanoTime();
+        final Map<String, Long> finishedAfterMs = new ConcurrentSkipListMap<>();
 
-        int i = 0;
+        final List<CompletableFuture<Void>> kills = new ArrayList<>();
         for (SupportedGame game : SupportedGame.values()) {
-            killGameFutures[i] = CompletableFuture.runAsync(() -> {
-                                                      try {
-                                                          processService.killGameProcess(game);
-                                                      } catch (NoSuchProcessException ex) {
-                                                          log.debug("No running process found for game {}", game);
-                                                      }
-                                                      catch (FailFastException e) {
-                                                          throw new RuntimeException(e);
-                                                      }
-                                                  })
-                                                  .exceptionally(ex -> {
-                                                      if (ex instanceof CompletionException) {
-                                                          if (ex.getCause() instanceof UnsupportedOperationException) {
-                                                              log.info(
-                                                                      "Game {} is not supported on this OS",
-                                                                      game
-                                                              );
-                                                          }
-                                                          return null;
-                                                      }
-                                                      throw new RuntimeException(
-                                                              "Failed to kill game process",
-                                                              ex
-                                                      );
-                                                  });
-            i++;
+            kills.add(stop(
+                    "game " + game,
+                    () -> processService.killGameProcess(game),
+                    startNanos,
+                    finishedAfterMs
+            ));
         }
+        kills.add(stop(
+                "Riot Client",
+                processService::killRiotClientProcess,
+                startNanos,
+                finishedAfterMs
+        ));
+        kills.add(stop(
+                "Riot Client Services",
+                processService::killRiotClientServices,
+                startNanos,
+                finishedAfterMs
+        ).thenRun(() -> connectPhaseTimings.mark(ConnectPhaseTimings.Phase.PREVIOUS_RCS_EXITED)));
 
         try {
-            CompletableFuture.allOf(killGameFutures)
-                             .join();
-        } catch (CancellationException | CompletionException e) {
+            CompletableFuture.allOf(kills.toArray(new CompletableFuture<?>[0]))
+                             .orTimeout(
+                                     takeoverDeadline.toMillis(),
+                                     TimeUnit.MILLISECONDS
+                             )
+                             .get();
+        } catch (ExecutionException e) {
+            final Throwable cause = e.getCause() instanceof CompletionException && e.getCause()
+                                                                                    .getCause() != null
+                    ? e.getCause()
+                       .getCause()
+                    : e.getCause();
             log.error(
-                    "Failed to kill all running games",
-                    e
+                    "Process takeover failed after {}ms, finished so far: {}",
+                    elapsedMs(startNanos),
+                    finishedAfterMs,
+                    cause
             );
             throw new ExecutionException(
-                    "Failed to kill all running games",
-                    e
+                    cause instanceof TimeoutException
+                            ? "Process takeover did not finish within " + takeoverDeadline.toMillis() + "ms"
+                            : "Process takeover failed",
+                    cause
             );
         }
-        log.debug("Successfully killed all games");
 
         try {
-            processService.killRiotClientProcess();
-            log.debug("Successfully killed previous Riot Client instance");
-        } catch (NoSuchProcessException ex) {
-          log.debug("No running Riot Client process found");
-        } catch (Exception e) {
-            log.error(
-                    "Failed to kill current Riot Client instance",
-                    e
-            );
+            processService.startRiotClientServices(parameters);
+        } catch (FailFastException e) {
             throw new ExecutionException(
-                    "Failed to kill previous Riot Client Instance",
+                    "Failed to start Riot Client Services with own parameters",
                     e
             );
         }
+        connectPhaseTimings.mark(ConnectPhaseTimings.Phase.RCS_STARTED);
+        finishedAfterMs.put(
+                "start of new Riot Client Services",
+                elapsedMs(startNanos)
+        );
+        log.info(
+                "Process takeover finished after {}ms: {}",
+                elapsedMs(startNanos),
+                finishedAfterMs
+        );
+        return parameters;
+    }
 
+    /**
+     * A process that is not running, or not supported on this OS, counts as stopped.
+     */
+    private CompletableFuture<Void> stop(
+            String target,
+            KillAction killAction,
+            long startNanos,
+            Map<String, Long> finishedAfterMs
+    ) {
+        return CompletableFuture.runAsync(
+                () -> {
+                    try {
+                        killAction.kill();
+                    } catch (NoSuchProcessException e) {
+                        log.debug(
+                                "No running process found for {}",
+                                target
+                        );
+                    } catch (UnsupportedOperationException e) {
+                        log.info(
+                                "{} is not supported on this OS",
+                                target
+                        );
+                    } catch (FailFastException e) {
+                        throw new CompletionException(
+                                "Failed to stop " + target,
+                                e
+                        );
+                    }
+                    finishedAfterMs.put(
+                            target,
+                            elapsedMs(startNanos)
+                    );
+                },
+                TAKEOVER_EXECUTOR
+        );
+    }
 
-        try {
-            processService.killRiotClientServices();
-            log.debug("Killed previous Riot Client Services instance");
-        } catch (NoSuchProcessException e) {
-            log.debug("No running Riot Client services found");
-        } catch (FailFastException e) {
-            log.error(
-                    "Failed to kill current Riot Client services instance",
-                    e
-            );
-            throw new ExecutionException(
-                    "Failed to kill previous RiotClientServices Instance",
-                    e
-            );
-        }
+    private static long elapsedMs(long startNanos) {
+        return (System.nanoTime() - startNanos) / 1_000_000;
+    }
 
+    @FunctionalInterface
+    private interface KillAction {
+        void kill() throws NoSuchProcessException, FailFastException;
+    }
+
+    /**
+     * Never kills anything. The Riot Client Services instance started by {@link #connect()} keeps its parameters,
+     * so they are reused, and the instance is only restarted with them if it exited in the meantime.
+     */
+    @Override
+    public RiotClientConnectionParameters reconnect(RiotClientConnectionParameters previous) throws Exception {
+        if (processService.isRiotClientServicesRunning()) {
+            log.debug("Riot Client Services instance is still running, reusing previous parameters");
+            return previous;
+        }
         try {
-            processService.startRiotClientServices(parameters);
+            processService.startRiotClientServices(previous);
         } catch (FailFastException e) {
             throw new ExecutionException(
-                    "Failed to start Riot Client Services with own parameters",
+                    "Failed to restart Riot Client Services with previous parameters",
                     e
             );
         }
-        log.debug("Created new Riot Client Service Instance with current Application as Manager");
-        return parameters;
+        log.info("Restarted Riot Client Services instance with previous parameters");
+        return previous;
     }
 
     @Override
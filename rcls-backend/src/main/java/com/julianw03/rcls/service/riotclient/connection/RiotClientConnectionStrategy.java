@@ -14,6 +14,17 @@ public interface RiotClientConnectionStrategy {
      */
     RiotClientConnectionParameters connect() throws Exception;
 
+    /**
+     * Called when an established connection was lost and RCLS tries to get it back on its own.
+     * Unlike {@link #connect()} this *must not* disturb anything that is still running,
+     * by default the parameters are simply resolved again.
+     *
+     * @param previous The parameters of the lost connection
+     */
+    default RiotClientConnectionParameters reconnect(RiotClientConnectionParameters previous) throws Exception {
+        return connect();
+    }
+
     /**
      * This method *should* not throw and *must* clean up all (maybe during {@link #connect()}) acquired resources
      * */
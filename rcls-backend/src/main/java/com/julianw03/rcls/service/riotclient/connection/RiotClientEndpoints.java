@@ -0,0 +1,31 @@
+package com.julianw03.rcls.service.riotclient.connection;
+
+import com.julianw03.rcls.model.RiotClientConnectionParameters;
+import com.julianw03.rcls.service.riotclient.readiness.ConnectPhaseTimings;
+
+import java.net.http.WebSocket;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * What the connect pipeline talks to once a {@link RiotClientConnectionStrategy} resolved the parameters.
+ * Backed by the actual Riot Client, unless replaced by a stub to run the pipeline without one.
+ */
+public interface RiotClientEndpoints {
+    /**
+     * Completes once the REST API answers. Completing or cancelling the returned future from the outside stops waiting.
+     */
+    CompletableFuture<Void> awaitRestReady(
+            RiotClientConnectionParameters parameters,
+            ConnectPhaseTimings timings
+    );
+
+    /**
+     * Opens the websocket, every event of it is delivered to the given listener.
+     *
+     * @return Completes exceptionally if the handshake failed
+     */
+    CompletableFuture<WebSocket> openWebsocket(
+            RiotClientConnectionParameters parameters,
+            WebSocket.Listener listener
+    );
+}
@@ -0,0 +1,27 @@
+package com.julianw03.rcls.service.riotclient.readiness;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+/**
+ * {@code /actuator/rcuconnect}: the phase breakdown of the most recent connect attempt to the Riot Client.
+ */
+@Component
+@Endpoint(id = "rcuconnect")
+public class ConnectPhaseEndpoint {
+    private final ConnectPhaseTimings timings;
+
+    public ConnectPhaseEndpoint(ConnectPhaseTimings timings) {
+        this.timings = timings;
+    }
+
+    /**
+     * @return {@code null} (rendered as 404) if no connect was attempted yet
+     */
+    @ReadOperation
+    public ConnectPhaseTimings.Snapshot lastAttempt() {
+        return timings.getLastAttempt()
+                      .orElse(null);
+    }
+}
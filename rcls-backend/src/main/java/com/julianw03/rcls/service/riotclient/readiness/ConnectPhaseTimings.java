@@ -0,0 +1,97 @@
+package com.julianw03.rcls.service.riotclient.readiness;
+
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Records how long each phase of the most recent connect attempt to the Riot Client took.
+ * Exposed through the {@link ConnectPhaseEndpoint}.
+ */
+@Component
+public class ConnectPhaseTimings {
+
+    /**
+     * In the order they are passed during a successful connect.
+     */
+    public enum Phase {
+        /**
+         * The Riot Client Services instance that was running before was stopped. Process takeover only.
+         */
+        PREVIOUS_RCS_EXITED,
+        /**
+         * A new Riot Client Services instance was spawned with our parameters. Process takeover only.
+         */
+        RCS_STARTED,
+        /**
+         * The connection strategy returned, i.e. the RCS process was spawned or its lockfile was read.
+         */
+        PROCESS_READY,
+        PORT_OPEN,
+        REST_READY,
+        WEBSOCKET_OPEN
+    }
+
+    /**
+     * @param sincePreviousMs Milliseconds each reached phase took, measured from the previous phase
+     * @param totalMs         Milliseconds from the start of the attempt to the last reached phase
+     * @param failure         Why the attempt was given up, {@code null} if it succeeded or is still running
+     */
+    public record Snapshot(
+            Instant startedAt,
+            Map<Phase, Long> sincePreviousMs,
+            long totalMs,
+            String failure
+    ) {
+    }
+
+    private long             startedAtNanos;
+    private Instant          startedAt;
+    private Map<Phase, Long> reachedAtNanos;
+    private String           failure;
+
+    public synchronized void start() {
+        this.startedAtNanos = System.nanoTime();
+        this.startedAt = Instant.now();
+        this.reachedAtNanos = new EnumMap<>(Phase.class);
+        this.failure = null;
+    }
+
+    public synchronized void mark(Phase phase) {
+        if (reachedAtNanos == null) return;
+        reachedAtNanos.putIfAbsent(
+                phase,
+                System.nanoTime()
+        );
+    }
+
+    public synchronized void fail(String reason) {
+        if (reachedAtNanos == null) return;
+        this.failure = reason;
+    }
+
+    public synchronized Optional<Snapshot> getLastAttempt() {
+        if (reachedAtNanos == null) return Optional.empty();
+
+        final Map<Phase, Long> sincePrevious = new LinkedHashMap<>();
+        long previous = startedAtNanos;
+        for (Map.Entry<Phase, Long> entry : reachedAtNanos.entrySet()) {
+            sincePrevious.put(
+                    entry.getKey(),
+                    (entry.getValue() - previous) / 1_000_000
+            );
+            previous = entry.getValue();
+        }
+        return Optional.of(new Snapshot(
+                startedAt,
+                Collections.unmodifiableMap(sincePrevious),
+                (previous - startedAtNanos) / 1_000_000,
+                failure
+        ));
+    }
+}
@@ -0,0 +1,189 @@
+package com.julianw03.rcls.service.riotclient.readiness;
+
+import com.julianw03.rcls.config.mappings.RiotClientServiceConfig;
+import com.julianw03.rcls.model.RiotClientConnectionParameters;
+import com.julianw03.rcls.service.riotclient.transport.RiotClientTransport;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Waits until a freshly started Riot Client answers REST requests.
+ * <p>
+ * Until the app port accepts TCP connections, only a plain {@link SocketChannel} connect is attempted. Once it does,
+ * a single HTTP probe is sent, and repeated only if the client is not serving yet. Both retry with an exponential
+ * backoff that starts at {@code initialProbeDelayMs} and is capped at {@code restConnectDelayMs}, so a fast start
+ * is noticed within milliseconds instead of the next fixed polling step.
+ */
+@Slf4j
+public class RestReadinessProbe {
+    private static final String PROBE_PATH = "/riotclientapp/v1/command-line-args";
+
+    private final RiotClientTransport                              transport;
+    private final ScheduledExecutorService                         scheduler;
+    private final Executor                                         blockingExecutor;
+    private final RiotClientServiceConfig.ConnectionInitParameters config;
+
+    public RestReadinessProbe(
+            RiotClientTransport transport,
+            ScheduledExecutorService scheduler,
+            Executor blockingExecutor,
+            RiotClientServiceConfig.ConnectionInitParameters config
+    ) {
+        this.transport = transport;
+        this.scheduler = scheduler;
+        this.blockingExecutor = blockingExecutor;
+        this.config = config;
+    }
+
+    /**
+     * The returned future is never timed out by the probe itself, the caller is expected to bound it.
+     * Completing or cancelling it from the outside stops the probe.
+     */
+    public CompletableFuture<Void> await(
+            RiotClientConnectionParameters parameters,
+            ConnectPhaseTimings timings
+    ) {
+        final Attempt attempt = new Attempt(
+                parameters,
+                timings
+        );
+        blockingExecutor.execute(attempt::step);
+        return attempt.future;
+    }
+
+    private class Attempt {
+        private final CompletableFuture<Void>        future = new CompletableFuture<>();
+        private final RiotClientConnectionParameters parameters;
+        private final ConnectPhaseTimings            timings;
+        private final InetSocketAddress              address;
+        private       long                           delayMs;
+        private       boolean                        portOpen;
+        private       int                            restAttempts;
+
+        private Attempt(
+                RiotClientConnectionParameters parameters,
+                ConnectPhaseTimings timings
+        ) {
+            this.parameters = parameters;
+            this.timings = timings;
+            this.address = new InetSocketAddress(
+                    InetAddress.getLoopbackAddress(),
+                    parameters.getPort()
+            );
+            this.delayMs = initialDelayMs();
+        }
+
+        private void step() {
+            if (future.isDone()) return;
+            if (!portOpen) {
+                if (!isPortOpen()) {
+                    retry();
+                    return;
+                }
+                portOpen = true;
+                timings.mark(ConnectPhaseTimings.Phase.PORT_OPEN);
+                delayMs = initialDelayMs();
+            }
+
+            if (isRestReady()) {
+                timings.mark(ConnectPhaseTimings.Phase.REST_READY);
+                future.complete(null);
+                return;
+            }
+            if (++restAttempts >= config.getRestConnectAttempts()) {
+                future.completeExceptionally(new IllegalStateException("REST was not ready after " + restAttempts + " probes"));
+                return;
+            }
+            retry();
+        }
+
+        private void retry() {
+            scheduler.schedule(
+                    () -> blockingExecutor.execute(this::step),
+                    delayMs,
+                    TimeUnit.MILLISECONDS
+            );
+            delayMs = Math.min(
+                    delayMs * 2,
+                    Math.max(
+                            initialDelayMs(),
+                            config.getRestConnectDelayMs()
+                    )
+            );
+        }
+
+        private boolean isPortOpen() {
+            try (SocketChannel channel = SocketChannel.open()) {
+                channel.socket()
+                       .connect(
+                               address,
+                               config.getPortConnectTimeoutMs()
+                       );
+                return true;
+            } catch (IOException e) {
+                return false;
+            }
+        }
+
+        /**
+         * The probe only looks at the status and the first byte of the body, the arguments themselves are not parsed.
+         */
+        private boolean isRestReady() {
+            final HttpRequest request = HttpRequest.newBuilder()
+                                                   .uri(URI.create("https://127.0.0.1:" + parameters.getPort() + PROBE_PATH))
+                                                   .GET()
+                                                   .header(
+                                                           HttpHeaders.AUTHORIZATION,
+                                                           parameters.getAuthHeader()
+                                                   )
+                                                   .timeout(transport.getRequestTimeout())
+                                                   .build();
+            try {
+                final HttpResponse<byte[]> response = transport.send(
+                        request,
+                        HttpResponse.BodyHandlers.ofByteArray(),
+                        PROBE_PATH
+                );
+                return response.statusCode() == HttpStatus.OK.value() && startsWithArray(response.body());
+            } catch (InterruptedException e) {
+                Thread.currentThread()
+                      .interrupt();
+                future.cancel(false);
+            } catch (IOException e) {
+                log.debug(
+                        "REST probe failed: {}",
+                        e.toString()
+                );
+            }
+            return false;
+        }
+    }
+
+    private long initialDelayMs() {
+        return Math.max(
+                1,
+                config.getInitialProbeDelayMs()
+        );
+    }
+
+    private static boolean startsWithArray(byte[] body) {
+        if (body == null) return false;
+        for (byte b : body) {
+            if (!Character.isWhitespace(b)) return b == '[';
+        }
+        return false;
+    }
+}
@@ -0,0 +1,285 @@
+package com.julianw03.rcls.service.riotclient.transport;
+
+import com.julianw03.rcls.config.mappings.RiotClientServiceConfig;
+import com.julianw03.rcls.service.http.BoundedHttpClient;
+import feign.Client;
+import feign.Request;
+import feign.Response;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLSessionContext;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The single HTTP transport to the Riot Client.
+ * <p>
+ * Both the hand-written {@code request(...)} path and the generated Feign {@code ApiClient} go through the same
+ * {@link HttpClient}, so they share its keep-alive connections and TLS sessions to {@code 127.0.0.1:<port>}.
+ * The number of requests in flight, and with it the number of open connections, is bounded by a
+ * {@link BoundedHttpClient}.
+ * <p>
+ * How long idle connections are kept is a JVM-wide setting of the JDK client that is read once, when the first
+ * {@link HttpClient} is created. {@link com.julianw03.rcls.RCLSApplication#main} sets it before anything else runs,
+ * unless it was already passed at launch, e.g. {@code -Djdk.httpclient.keepalive.timeout=60}.
+ */
+public class RiotClientTransport {
+    private static final String METRIC_NAME = "rcls.riotclient.requests";
+
+    private final BoundedHttpClient                           client;
+    private final RiotClientServiceConfig.TransportParameters parameters;
+    private final MeterRegistry                               meterRegistry;
+
+    public RiotClientTransport(
+            SSLContext sslContext,
+            RiotClientServiceConfig.TransportParameters parameters,
+            MeterRegistry meterRegistry
+    ) {
+        this.parameters = parameters;
+        this.meterRegistry = meterRegistry;
+
+        final SSLSessionContext sessionContext = sslContext.getClientSessionContext();
+        if (sessionContext != null) {
+            sessionContext.setSessionCacheSize(parameters.getTlsSessionCacheSize());
+            sessionContext.setSessionTimeout(parameters.getTlsSessionTimeoutSeconds());
+        }
+
+        // The Riot Client does not speak HTTP/2, pinning HTTP/1.1 skips the upgrade attempt on every new connection
+        this.client = new BoundedHttpClient(
+                HttpClient.newBuilder()
+                          .version(HttpClient.Version.HTTP_1_1)
+                          .connectTimeout(Duration.ofMillis(parameters.getConnectTimeoutMs()))
+                          .sslContext(sslContext)
+                          .build(),
+                parameters.getMaxConcurrentRequests(),
+                parameters.getAcquireTimeoutMs(),
+                METRIC_NAME,
+                meterRegistry
+        );
+    }
+
+    public HttpClient getHttpClient() {
+        return client.getHttpClient();
+    }
+
+    public Duration getRequestTimeout() {
+        return Duration.ofMillis(parameters.getRequestTimeoutMs());
+    }
+
+    /**
+     * Sends the request once a connection slot is free and records its duration under the given route.
+     *
+     * @param route A low-cardinality name for the endpoint, used as the metric tag
+     */
+    public <T> HttpResponse<T> send(
+            HttpRequest request,
+            HttpResponse.BodyHandler<T> bodyHandler,
+            String route
+    ) throws IOException, InterruptedException {
+        acquire(
+                request,
+                route
+        );
+
+        final long start = System.nanoTime();
+        String outcome = "IO_ERROR";
+        try {
+            final HttpResponse<T> response = client.getHttpClient()
+                                                   .send(
+                                                           request,
+                                                           bodyHandler
+                                                   );
+            outcome = String.valueOf(response.statusCode());
+            return response;
+        } finally {
+            client.release();
+            record(
+                    request.method(),
+                    route,
+                    outcome,
+                    System.nanoTime() - start
+            );
+        }
+    }
+
+    /**
+     * Like {@link #send}, but never blocks the caller. If no connection slot is free, the wait happens on a virtual thread.
+     */
+    public <T> CompletableFuture<HttpResponse<T>> sendAsync(
+            HttpRequest request,
+            HttpResponse.BodyHandler<T> bodyHandler,
+            String route
+    ) {
+        return client.acquireAsync()
+                     .whenComplete((ignored, err) -> {
+                         if (err != null && err.getCause() instanceof BoundedHttpClient.PoolExhaustedException) {
+                             recordPoolExhausted(
+                                     request,
+                                     route
+                             );
+                         }
+                     })
+                     .thenCompose(ignored -> sendAcquired(
+                             request,
+                             bodyHandler,
+                             route,
+                             System.nanoTime()
+                     ));
+    }
+
+    private <T> CompletableFuture<HttpResponse<T>> sendAcquired(
+            HttpRequest request,
+            HttpResponse.BodyHandler<T> bodyHandler,
+            String route,
+            long start
+    ) {
+        final CompletableFuture<HttpResponse<T>> response;
+        try {
+            response = client.getHttpClient()
+                             .sendAsync(
+                                     request,
+                                     bodyHandler
+                             );
+        } catch (RuntimeException e) {
+            client.release();
+            throw e;
+        }
+        return response.whenComplete((result, err) -> {
+            client.release();
+            record(
+                    request.method(),
+                    route,
+                    result == null ? "IO_ERROR" : String.valueOf(result.statusCode()),
+                    System.nanoTime() - start
+            );
+        });
+    }
+
+    private void acquire(
+            HttpRequest request,
+            String route
+    ) throws BoundedHttpClient.PoolExhaustedException, InterruptedException {
+        try {
+            client.acquire();
+        } catch (BoundedHttpClient.PoolExhaustedException e) {
+            recordPoolExhausted(
+                    request,
+                    route
+            );
+            throw e;
+        }
+    }
+
+    private void recordPoolExhausted(
+            HttpRequest request,
+            String route
+    ) {
+        record(
+                request.method(),
+                route,
+                "POOL_EXHAUSTED",
+                0
+        );
+    }
+
+    /**
+     * @return A Feign client that sends through this transport, tagging metrics with the Feign config key
+     */
+    public Client asFeignClient() {
+        return this::execute;
+    }
+
+    private Response execute(
+            Request request,
+            Request.Options options
+    ) throws IOException {
+        final HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(request.url()))
+                                                       .timeout(Duration.ofMillis(options.readTimeoutMillis()))
+                                                       .method(
+                                                               request.httpMethod()
+                                                                      .name(),
+                                                               request.body() == null
+                                                                       ? HttpRequest.BodyPublishers.noBody()
+                                                                       : HttpRequest.BodyPublishers.ofByteArray(request.body())
+                                                       );
+        BoundedHttpClient.copyHeaders(
+                request.headers(),
+                builder
+        );
+
+        final HttpResponse<byte[]> response;
+        try {
+            response = send(
+                    builder.build(),
+                    HttpResponse.BodyHandlers.ofByteArray(),
+                    feignRoute(request)
+            );
+        } catch (InterruptedException e) {
+            Thread.currentThread()
+                  .interrupt();
+            throw new InterruptedIOException("Interrupted while calling " + request.url());
+        }
+
+        return Response.builder()
+                       .status(response.statusCode())
+                       .reason("")
+                       .headers(toFeignHeaders(response.headers()
+                                                       .map()))
+                       .request(request)
+                       .body(response.body())
+                       .build();
+    }
+
+    private static String feignRoute(Request request) {
+        if (request.requestTemplate() != null && request.requestTemplate()
+                                                        .methodMetadata() != null) {
+            return request.requestTemplate()
+                          .methodMetadata()
+                          .configKey();
+        }
+        return URI.create(request.url())
+                  .getPath();
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Map<String, Collection<String>> toFeignHeaders(Map<String, ? extends Collection<String>> headers) {
+        return (Map) headers;
+    }
+
+    private void record(
+            String method,
+            String route,
+            String outcome,
+            long durationNanos
+    ) {
+        Timer.builder(METRIC_NAME)
+             .tag(
+                     "method",
+                     method
+             )
+             .tag(
+                     "route",
+                     route
+             )
+             .tag(
+                     "outcome",
+                     outcome
+             )
+             .register(meterRegistry)
+             .record(
+                     durationNanos,
+                     TimeUnit.NANOSECONDS
+             );
+    }
+}
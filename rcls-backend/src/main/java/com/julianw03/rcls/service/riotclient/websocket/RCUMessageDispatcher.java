@@ -0,0 +1,142 @@
+package com.julianw03.rcls.service.riotclient.websocket;
+
+import com.julianw03.rcls.model.RCUWebsocketMessage;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Hands parsed RCU messages to a fixed number of lanes, chosen by the hash of the message URI.
+ * <p>
+ * Every lane is a bounded queue with a single consumer thread, so all messages for one URI are dispatched
+ * in the order they were received, while messages for different URIs are dispatched (and their payloads bound)
+ * in parallel. A full lane blocks the caller, which in turn stops reading from the websocket.
+ * <p>
+ * Per lane, the queue depth is exposed as {@code rcls.riotclient.dispatch.depth} and the time a message
+ * waited in the queue as {@code rcls.riotclient.dispatch.lag}.
+ */
+@Slf4j
+public class RCUMessageDispatcher {
+    private static final String METRIC_PREFIX = "rcls.riotclient.dispatch";
+
+    private final Lane[]                        lanes;
+    private final Consumer<RCUWebsocketMessage> handler;
+
+    public RCUMessageDispatcher(
+            int laneCount,
+            int laneCapacity,
+            Consumer<RCUWebsocketMessage> handler,
+            MeterRegistry meterRegistry
+    ) {
+        this.handler = handler;
+        this.lanes = new Lane[Math.max(
+                1,
+                laneCount
+        )];
+        for (int i = 0; i < lanes.length; i++) {
+            lanes[i] = new Lane(
+                    i,
+                    Math.max(
+                            1,
+                            laneCapacity
+                    ),
+                    meterRegistry
+            );
+        }
+    }
+
+    /**
+     * @throws InterruptedException If interrupted while waiting for room in a full lane
+     */
+    public void dispatch(RCUWebsocketMessage message) throws InterruptedException {
+        lanes[laneOf(message.getUri())].queue.put(new Envelope(
+                message,
+                System.nanoTime()
+        ));
+    }
+
+    public void close() {
+        for (Lane lane : lanes) {
+            lane.consumer.interrupt();
+        }
+    }
+
+    private int laneOf(String uri) {
+        return uri == null ? 0 : Math.floorMod(
+                uri.hashCode(),
+                lanes.length
+        );
+    }
+
+    private record Envelope(
+            RCUWebsocketMessage message,
+            long enqueuedAtNanos
+    ) {
+    }
+
+    private class Lane {
+        private final BlockingQueue<Envelope> queue;
+        private final Timer                   lag;
+        private final Thread                  consumer;
+
+        private Lane(
+                int index,
+                int capacity,
+                MeterRegistry meterRegistry
+        ) {
+            this.queue = new ArrayBlockingQueue<>(capacity);
+            final String lane = String.valueOf(index);
+            Gauge.builder(
+                         METRIC_PREFIX + ".depth",
+                         queue,
+                         BlockingQueue::size
+                 )
+                 .tag(
+                         "lane",
+                         lane
+                 )
+                 .register(meterRegistry);
+            this.lag = Timer.builder(METRIC_PREFIX + ".lag")
+                            .tag(
+                                    "lane",
+                                    lane
+                            )
+                            .register(meterRegistry);
+            this.consumer = Thread.ofVirtual()
+                                  .name("rcu-dispatch-" + index)
+                                  .start(this::consume);
+        }
+
+        private void consume() {
+            while (!Thread.currentThread()
+                          .isInterrupted()) {
+                final Envelope envelope;
+                try {
+                    envelope = queue.take();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                lag.record(
+                        System.nanoTime() - envelope.enqueuedAtNanos(),
+                        TimeUnit.NANOSECONDS
+                );
+                try {
+                    handler.accept(envelope.message());
+                } catch (RuntimeException e) {
+                    log.error(
+                            "Failed to dispatch RCU message for {}",
+                            envelope.message()
+                                    .getUri(),
+                            e
+                    );
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,340 @@
+package com.julianw03.rcls.service.riotclient.websocket;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.async.ByteArrayFeeder;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import com.julianw03.rcls.model.RCUWebsocketMessage;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Incrementally parses the WAMP-style frames of the Riot Client websocket
+ * ({@code [8, "OnJsonApiEvent", {"data": ..., "eventType": ..., "uri": ...}]}).
+ * <p>
+ * Fragments are encoded into a reusable byte buffer and handed to Jackson's non-blocking parser
+ * as they arrive, so a complete message never exists as a single {@link String}. The {@code data}
+ * member is only captured into a {@link TokenBuffer}; binding it is left to whoever claims the URI.
+ * <p>
+ * Instances are <b>not</b> thread-safe. The {@link java.net.http.WebSocket.Listener} contract already guarantees
+ * that {@code onText} is never invoked concurrently, so one parser per socket is sufficient.
+ */
+public class RCUMessageStreamParser {
+    private static final int BUFFER_SIZE         = 8 * 1024;
+    private static final int FRAME_ELEMENT_COUNT = 3;
+    private static final int PAYLOAD_INDEX       = 2;
+
+    private final ObjectMapper   mapper;
+    private final AtomicLong     sequence;
+    private final CharsetEncoder encoder;
+    private final ByteBuffer     byteBuffer;
+    private final CharBuffer     surrogateBuffer = CharBuffer.allocate(2);
+
+    private JsonParser      parser;
+    private ByteArrayFeeder feeder;
+    private char            pendingHighSurrogate;
+    private boolean         discardUntilLast;
+
+    // Frame state, reset for every message
+    private int                             depth;
+    private int                             frameElementIndex;
+    private int                             skipDepth;
+    private int                             captureDepth;
+    private boolean                         payloadSeen;
+    private boolean                         invalid;
+    private String                          currentField;
+    private RCUWebsocketMessage.MessageType type;
+    private String                          uri;
+    private TokenBuffer                     data;
+
+    public RCUMessageStreamParser(ObjectMapper mapper) {
+        this(
+                mapper,
+                new AtomicLong()
+        );
+    }
+
+    /**
+     * @param sequence Numbers every emitted message, see {@link RCUWebsocketMessage#getSequence()}.
+     *                 Sharing it between the parsers of consecutive sockets keeps the numbering monotonic.
+     */
+    public RCUMessageStreamParser(
+            ObjectMapper mapper,
+            AtomicLong sequence
+    ) {
+        this.mapper = mapper;
+        this.sequence = sequence;
+        this.encoder = StandardCharsets.UTF_8.newEncoder()
+                                             .onMalformedInput(CodingErrorAction.REPLACE)
+                                             .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        this.byteBuffer = ByteBuffer.allocate(BUFFER_SIZE);
+    }
+
+    /**
+     * Feeds the next fragment of the current message.
+     *
+     * @return The parsed message once {@code last} is {@code true} and the frame was a valid event frame, otherwise empty.
+     * @throws IOException If the frame is not valid JSON. The parser is reset and ready for the next message afterward.
+     */
+    public Optional<RCUWebsocketMessage> feed(
+            CharSequence fragment,
+            boolean last
+    ) throws IOException {
+        if (discardUntilLast) {
+            // The beginning of this message was already rejected, the rest of it is of no use
+            discardUntilLast = !last;
+            return Optional.empty();
+        }
+        try {
+            if (parser == null) {
+                startMessage();
+            }
+            encodeAndFeed(
+                    fragment,
+                    last
+            );
+            if (!last) {
+                return Optional.empty();
+            }
+            feeder.endOfInput();
+            drainTokens();
+            return finishMessage();
+        } catch (IOException | RuntimeException e) {
+            reset();
+            discardUntilLast = !last;
+            throw e;
+        } finally {
+            if (last) {
+                reset();
+            }
+        }
+    }
+
+    /**
+     * Discards everything that was fed for the current message.
+     */
+    public void reset() {
+        if (parser != null) {
+            try {
+                parser.close();
+            } catch (IOException ignored) {
+            }
+        }
+        parser = null;
+        feeder = null;
+        pendingHighSurrogate = 0;
+        encoder.reset();
+        byteBuffer.clear();
+        depth = 0;
+        frameElementIndex = 0;
+        skipDepth = 0;
+        captureDepth = 0;
+        payloadSeen = false;
+        invalid = false;
+        currentField = null;
+        type = null;
+        uri = null;
+        data = null;
+    }
+
+    private void startMessage() throws IOException {
+        parser = mapper.getFactory()
+                       .createNonBlockingByteArrayParser();
+        feeder = (ByteArrayFeeder) parser.getNonBlockingInputFeeder();
+    }
+
+    private void encodeAndFeed(
+            CharSequence fragment,
+            boolean last
+    ) throws IOException {
+        CharBuffer input = CharBuffer.wrap(fragment);
+        if (pendingHighSurrogate != 0 && input.hasRemaining()) {
+            // Complete the surrogate pair that was split across two fragments
+            surrogateBuffer.clear();
+            surrogateBuffer.put(pendingHighSurrogate)
+                           .put(input.get())
+                           .flip();
+            pendingHighSurrogate = 0;
+            encode(
+                    surrogateBuffer,
+                    false
+            );
+        }
+        encode(
+                input,
+                last
+        );
+        if (input.hasRemaining()) {
+            // The encoder only leaves a dangling high surrogate behind, which needs the next fragment
+            pendingHighSurrogate = input.get();
+        }
+        if (last) {
+            if (pendingHighSurrogate != 0) {
+                surrogateBuffer.clear();
+                surrogateBuffer.put(pendingHighSurrogate)
+                               .flip();
+                pendingHighSurrogate = 0;
+                encode(
+                        surrogateBuffer,
+                        true
+                );
+            }
+            CoderResult result;
+            while ((result = encoder.flush(byteBuffer)).isOverflow()) {
+                feedBytes();
+            }
+            if (result.isError()) {
+                result.throwException();
+            }
+            feedBytes();
+        }
+    }
+
+    private void encode(
+            CharBuffer input,
+            boolean endOfInput
+    ) throws IOException {
+        while (true) {
+            CoderResult result = encoder.encode(
+                    input,
+                    byteBuffer,
+                    endOfInput
+            );
+            if (result.isOverflow()) {
+                feedBytes();
+                continue;
+            }
+            if (result.isUnderflow()) {
+                feedBytes();
+                return;
+            }
+            result.throwException();
+        }
+    }
+
+    private void feedBytes() throws IOException {
+        byteBuffer.flip();
+        if (byteBuffer.hasRemaining()) {
+            feeder.feedInput(
+                    byteBuffer.array(),
+                    byteBuffer.position(),
+                    byteBuffer.limit()
+            );
+            // The feeder only reads from our array until it asks for more input, so the buffer can be reused afterward
+            drainTokens();
+        }
+        byteBuffer.clear();
+    }
+
+    private void drainTokens() throws IOException {
+        JsonToken token;
+        while ((token = parser.nextToken()) != null && token != JsonToken.NOT_AVAILABLE) {
+            onToken(token);
+        }
+    }
+
+    private void onToken(JsonToken token) throws IOException {
+        if (captureDepth > 0) {
+            data.copyCurrentEvent(parser);
+            captureDepth += depthDelta(token);
+            return;
+        }
+        if (skipDepth > 0) {
+            skipDepth += depthDelta(token);
+            return;
+        }
+        if (invalid) return;
+
+        switch (depth) {
+            case 0 -> {
+                if (token != JsonToken.START_ARRAY) {
+                    invalid = true;
+                    skipDepth = Math.max(0, depthDelta(token));
+                    return;
+                }
+                depth = 1;
+            }
+            case 1 -> {
+                if (token == JsonToken.END_ARRAY) {
+                    depth = 0;
+                    return;
+                }
+                final int elementIndex = frameElementIndex++;
+                if (elementIndex == PAYLOAD_INDEX && token == JsonToken.START_OBJECT) {
+                    payloadSeen = true;
+                    depth = 2;
+                    return;
+                }
+                if (token.isStructStart()) {
+                    skipDepth = 1;
+                }
+            }
+            case 2 -> onPayloadToken(token);
+            default -> invalid = true;
+        }
+    }
+
+    private void onPayloadToken(JsonToken token) throws IOException {
+        if (token == JsonToken.END_OBJECT) {
+            depth = 1;
+            return;
+        }
+        if (token == JsonToken.FIELD_NAME) {
+            currentField = parser.currentName();
+            return;
+        }
+
+        switch (currentField) {
+            case "uri" -> uri = token == JsonToken.VALUE_STRING ? parser.getText() : null;
+            case "eventType" -> type = token == JsonToken.VALUE_STRING
+                    ? RCUWebsocketMessage.MessageType.fromEventType(parser.getText())
+                                                     .orElse(null)
+                    : null;
+            case "data" -> {
+                data = new TokenBuffer(
+                        parser,
+                        null
+                );
+                // The non-blocking parser carries no codec, without one the buffer could never be read as a tree
+                data.setCodec(mapper);
+                data.copyCurrentEvent(parser);
+                if (token.isStructStart()) {
+                    captureDepth = 1;
+                }
+            }
+            case null, default -> {
+                if (token.isStructStart()) {
+                    skipDepth = 1;
+                }
+            }
+        }
+        currentField = null;
+    }
+
+    private Optional<RCUWebsocketMessage> finishMessage() {
+        if (invalid || !payloadSeen || frameElementIndex != FRAME_ELEMENT_COUNT || uri == null) {
+            return Optional.empty();
+        }
+        return Optional.of(new RCUWebsocketMessage(
+                type,
+                uri,
+                data,
+                sequence.incrementAndGet()
+        ));
+    }
+
+    private static int depthDelta(JsonToken token) {
+        if (token.isStructStart()) return 1;
+        if (token.isStructEnd()) return -1;
+        return 0;
+    }
+}
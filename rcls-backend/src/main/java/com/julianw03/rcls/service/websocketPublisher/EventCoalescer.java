@@ -0,0 +1,123 @@
+package com.julianw03.rcls.service.websocketPublisher;
+
+import com.julianw03.rcls.eventBus.model.events.KeyViewUpdatedEvent;
+import com.julianw03.rcls.eventBus.model.events.MapDiffEvent;
+import com.julianw03.rcls.eventBus.model.events.SimpleEvent;
+import com.julianw03.rcls.eventBus.model.events.ViewUpdatedEvent;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Collapses bursts of data manager events into the latest state per key before they are sent out.
+ * <p>
+ * Within one window only the latest {@link KeyViewUpdatedEvent} per (uri, key) is kept, and a {@link ViewUpdatedEvent}
+ * supersedes every pending key or diff event for its uri. Other events are passed through untouched, in order.
+ */
+public class EventCoalescer implements Function<Flux<SimpleEvent<?>>, Flux<SimpleEvent<?>>> {
+    /**
+     * Upper bound for a single window, so that a flood of events is flushed before the window ends.
+     */
+    private static final int MAX_BATCH_SIZE = 1024;
+
+    private final Duration window;
+
+    public EventCoalescer(Duration window) {
+        this.window = window;
+    }
+
+    @Override
+    public Flux<SimpleEvent<?>> apply(Flux<SimpleEvent<?>> events) {
+        if (window.isZero() || window.isNegative()) return events;
+        // The window only starts with the first event after a flush, so an idle stream schedules nothing
+        return events.bufferTimeout(
+                             MAX_BATCH_SIZE,
+                             window
+                     )
+                     .flatMapIterable(EventCoalescer::coalesce);
+    }
+
+    public static List<SimpleEvent<?>> coalesce(List<SimpleEvent<?>> batch) {
+        if (batch.size() < 2) return batch;
+
+        final Map<Object, SimpleEvent<?>> latest = new LinkedHashMap<>();
+        for (SimpleEvent<?> event : batch) {
+            final Object id = coalescingKey(event).orElseGet(PassThroughId::new);
+            if (id instanceof ViewId viewId) {
+                latest.keySet()
+                      .removeIf(pending -> pending instanceof UriScopedId scoped && Objects.equals(
+                              scoped.uri(),
+                              viewId.uri()
+                      ));
+            }
+            // Remove first so that the entry moves behind a ViewUpdatedEvent that arrived in between
+            latest.remove(id);
+            latest.put(
+                    id,
+                    event
+            );
+        }
+        return new ArrayList<>(latest.values());
+    }
+
+    /**
+     * @return The identity under which later events replace earlier ones, or empty if the event can not be coalesced.
+     */
+    public static Optional<Object> coalescingKey(SimpleEvent<?> event) {
+        return switch (event) {
+            case KeyViewUpdatedEvent<?, ?> keyEvent -> Optional.of(new KeyId(
+                    keyEvent.getSource(),
+                    keyEvent.getPayload() == null ? null : keyEvent.getPayload()
+                                                                   .key()
+            ));
+            case ViewUpdatedEvent<?> viewEvent -> Optional.of(new ViewId(viewEvent.getSource()));
+            // Diffs only make sense in order, so they are never merged, but a full view still supersedes them
+            case MapDiffEvent<?, ?> diffEvent -> Optional.of(new DiffId(diffEvent.getSource()));
+            case null, default -> Optional.empty();
+        };
+    }
+
+    private interface UriScopedId {
+        String uri();
+    }
+
+    private record KeyId(
+            String uri,
+            Object key
+    ) implements UriScopedId {
+    }
+
+    /**
+     * Identity based like {@link PassThroughId}, every diff is kept.
+     */
+    private static final class DiffId implements UriScopedId {
+        private final String uri;
+
+        private DiffId(String uri) {
+            this.uri = uri;
+        }
+
+        @Override
+        public String uri() {
+            return uri;
+        }
+    }
+
+    private record ViewId(
+            String uri
+    ) {
+    }
+
+    /**
+     * Identity based, so that events that can not be coalesced never collide.
+     */
+    private static final class PassThroughId {
+    }
+}
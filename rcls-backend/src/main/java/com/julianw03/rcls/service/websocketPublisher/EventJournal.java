@@ -0,0 +1,67 @@
+package com.julianw03.rcls.service.websocketPublisher;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Bounded in-memory history of the serialized frames that were sent to websocket clients.
+ * Only the bytes are kept, a replay is sent as new messages just like a live frame.
+ * Not thread-safe, guarded by the {@link WebsocketPublisher}.
+ */
+class EventJournal {
+    private final int               capacity;
+    private final ArrayDeque<Entry> entries;
+
+    private record Entry(
+            long seq,
+            byte[] payload
+    ) {
+    }
+
+    EventJournal(int capacity) {
+        this.capacity = Math.max(
+                0,
+                capacity
+        );
+        this.entries = new ArrayDeque<>(this.capacity);
+    }
+
+    void append(
+            long seq,
+            byte[] payload
+    ) {
+        if (capacity == 0) return;
+        if (entries.size() >= capacity) {
+            entries.pollFirst();
+        }
+        entries.addLast(new Entry(
+                seq,
+                payload
+        ));
+    }
+
+    /**
+     * @param since The last sequence number the client has seen
+     * @param head  The sequence number of the latest published frame
+     * @return Every frame after {@code since}, or empty if part of that range was already evicted
+     */
+    Optional<List<byte[]>> since(
+            long since,
+            long head
+    ) {
+        if (since > head) return Optional.empty();
+        if (since == head) return Optional.of(List.of());
+        final Entry oldest = entries.peekFirst();
+        if (oldest == null || oldest.seq() > since + 1) return Optional.empty();
+
+        final List<byte[]> messages = new ArrayList<>();
+        for (Entry entry : entries) {
+            if (entry.seq() > since) {
+                messages.add(entry.payload());
+            }
+        }
+        return Optional.of(messages);
+    }
+}
@@ -0,0 +1,14 @@
+package com.julianw03.rcls.service.websocketPublisher;
+
+import com.fasterxml.jackson.annotation.JsonUnwrapped;
+import com.julianw03.rcls.eventBus.model.events.SimpleEvent;
+
+/**
+ * The frame that is actually sent to websocket clients: the event itself plus the sequence number it was published under.
+ * Clients pass the last sequence number they saw as {@code ?since=} when reconnecting.
+ */
+public record SequencedEvent(
+        long seq,
+        @JsonUnwrapped SimpleEvent<?> event
+) {
+}
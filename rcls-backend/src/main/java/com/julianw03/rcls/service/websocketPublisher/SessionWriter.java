@@ -0,0 +1,221 @@
+package com.julianw03.rcls.service.websocketPublisher;
+
+import com.julianw03.rcls.config.websocketPublisher.SlowConsumerPolicy;
+import com.julianw03.rcls.config.websocketPublisher.WebsocketPublishingFormat;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Owns the outbound side of a single websocket session.
+ * <p>
+ * Messages are queued by the publishing thread and written by a dedicated virtual thread, so a slow client
+ * only ever fills its own queue. Once the queue is full the configured {@link SlowConsumerPolicy} decides
+ * what to give up. {@link WebSocketSession#sendMessage} is only ever called from the writer thread.
+ * <p>
+ * Giving up a message that was not superseded by a newer one for the same key would leave the client with a gap in
+ * its deltas. The queue is dropped as a whole instead and the session is marked for a resync, after which nothing
+ * is queued until the publisher hands it a snapshot through {@link #resync}.
+ * <p>
+ * The serialized frame is shared between all sessions, but every send gets a message of its own: the container
+ * consumes the buffer of a binary message while writing it.
+ */
+@Slf4j
+class SessionWriter {
+    private final WebSocketSession            session;
+    private final WebsocketPublishingFormat   format;
+    private final int                         capacity;
+    private final SlowConsumerPolicy          policy;
+    private final ArrayDeque<OutboundMessage> queue;
+    private final ReentrantLock               lock     = new ReentrantLock();
+    private final Condition                   notEmpty = lock.newCondition();
+    private       boolean                     closed;
+    private       CloseStatus                 closeStatus;
+    private       long                        droppedMessages;
+    private       boolean                     resyncRequired;
+
+    /**
+     * @param coalescingKey Messages with an equal, non-null key supersede each other under {@link SlowConsumerPolicy#COALESCE}
+     */
+    record OutboundMessage(
+            Object coalescingKey,
+            byte[] payload
+    ) {
+    }
+
+    SessionWriter(
+            WebSocketSession session,
+            WebsocketPublishingFormat format,
+            int capacity,
+            SlowConsumerPolicy policy
+    ) {
+        this.session = session;
+        this.format = format;
+        this.capacity = Math.max(
+                1,
+                capacity
+        );
+        this.policy = policy == null ? SlowConsumerPolicy.COALESCE : policy;
+        this.queue = new ArrayDeque<>(this.capacity);
+        Thread.ofVirtual()
+              .name("ws-writer-" + session.getId())
+              .start(this::writeLoop);
+    }
+
+    void offer(OutboundMessage message) {
+        lock.lock();
+        try {
+            if (closed || resyncRequired) return;
+            if (queue.size() >= capacity && !makeRoom(message)) return;
+            queue.addLast(message);
+            notEmpty.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return Whether messages were lost since the last snapshot, see {@link #resync}
+     */
+    boolean isResyncRequired() {
+        lock.lock();
+        try {
+            return resyncRequired;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Replaces whatever is still queued with the snapshot and accepts new messages again.
+     */
+    void resync(OutboundMessage snapshot) {
+        lock.lock();
+        try {
+            if (closed) return;
+            queue.clear();
+            queue.addLast(snapshot);
+            resyncRequired = false;
+            notEmpty.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void close() {
+        close(null);
+    }
+
+    private void close(CloseStatus status) {
+        lock.lock();
+        try {
+            if (closed) return;
+            closed = true;
+            closeStatus = status;
+            queue.clear();
+            notEmpty.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return Whether the message should still be appended to the queue.
+     */
+    private boolean makeRoom(OutboundMessage message) {
+        switch (policy) {
+            case DISCONNECT -> {
+                log.warn(
+                        "WebSocket session {} can not keep up, disconnecting",
+                        session.getId()
+                );
+                close(CloseStatus.SESSION_NOT_RELIABLE);
+                return false;
+            }
+            case COALESCE -> {
+                if (message.coalescingKey() != null) {
+                    final Iterator<OutboundMessage> iterator = queue.iterator();
+                    while (iterator.hasNext()) {
+                        if (Objects.equals(
+                                iterator.next()
+                                        .coalescingKey(),
+                                message.coalescingKey()
+                        )) {
+                            iterator.remove();
+                            droppedMessages++;
+                            return true;
+                        }
+                    }
+                }
+            }
+            case null, default -> {
+            }
+        }
+        droppedMessages += queue.size() + 1;
+        queue.clear();
+        resyncRequired = true;
+        log.warn(
+                "WebSocket session {} can not keep up, {} messages dropped so far, resyncing it with a snapshot",
+                session.getId(),
+                droppedMessages
+        );
+        return false;
+    }
+
+    private OutboundMessage take() throws InterruptedException {
+        lock.lock();
+        try {
+            while (queue.isEmpty() && !closed) {
+                notEmpty.await();
+            }
+            return closed ? null : queue.pollFirst();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void writeLoop() {
+        try {
+            OutboundMessage message;
+            while ((message = take()) != null) {
+                session.sendMessage(format.createMessage(message.payload()));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread()
+                  .interrupt();
+        } catch (IOException | RuntimeException e) {
+            log.warn(
+                    "Failed to write to WebSocket session {}, closing it",
+                    session.getId(),
+                    e
+            );
+            close(CloseStatus.SERVER_ERROR);
+        }
+
+        final CloseStatus status;
+        lock.lock();
+        try {
+            status = closeStatus;
+        } finally {
+            lock.unlock();
+        }
+        if (status != null && session.isOpen()) {
+            try {
+                session.close(status);
+            } catch (IOException e) {
+                log.debug(
+                        "Failed to close WebSocket session {}",
+                        session.getId(),
+                        e
+                );
+            }
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.julianw03.rcls.service.websocketPublisher;
+
+import com.julianw03.rcls.eventBus.model.events.SimpleEvent;
+import com.julianw03.rcls.eventBus.model.events.ViewUpdatedEvent;
+
+import java.util.List;
+
+/**
+ * The full publishing view of every manager, sent once when a client connects without a usable {@code since}.
+ * Every contained event is a regular {@link ViewUpdatedEvent}, so clients can handle them like live updates.
+ */
+public class SnapshotEvent extends SimpleEvent<List<ViewUpdatedEvent<?>>> {
+    public static final String SOURCE = "Snapshot";
+
+    public SnapshotEvent(List<ViewUpdatedEvent<?>> views) {
+        super(
+                SOURCE,
+                views
+        );
+    }
+
+    @Override
+    protected String getPayloadType(List<ViewUpdatedEvent<?>> payload) {
+        return "SnapshotPayload";
+    }
+}
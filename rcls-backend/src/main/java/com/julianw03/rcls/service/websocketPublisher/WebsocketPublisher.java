@@ -1,36 +1,54 @@
 package com.julianw03.rcls.service.websocketPublisher;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.julianw03.rcls.config.websocketPublisher.WebsocketConfig;
 import com.julianw03.rcls.eventBus.model.Channel;
 import com.julianw03.rcls.eventBus.model.MultiChannelBus;
 import com.julianw03.rcls.eventBus.model.events.SimpleEvent;
+import com.julianw03.rcls.eventBus.model.events.ViewUpdatedEvent;
+import com.julianw03.rcls.eventBus.model.events.ViewUpdatedPayload;
+import com.julianw03.rcls.model.data.PublishingViewSource;
 import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.stereotype.Service;
 import org.springframework.web.socket.CloseStatus;
 import org.springframework.web.socket.WebSocketSession;
 import org.springframework.web.socket.handler.TextWebSocketHandler;
+import org.springframework.web.util.UriComponentsBuilder;
 import reactor.core.Disposable;
-import reactor.core.publisher.Mono;
 
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Slf4j
 @Service
 public class WebsocketPublisher extends TextWebSocketHandler {
-    private       AtomicReference<WebSocketSession> sessionRef = new AtomicReference<>(null);
-    private final ObjectMapper                      mapper;
-    private       Disposable                        dataManagerSubscription;
-    private       Disposable                        rcConnectionStatusSubscription;
-    private final WebsocketConfig                   websocketConfig;
+    private final Map<String, SessionWriter>           sessions = new ConcurrentHashMap<>();
+    private final ObjectMapper                         mapper;
+    private       Disposable                           dataManagerSubscription;
+    private       Disposable                           rcConnectionStatusSubscription;
+    private       Disposable                           processLifecycleSubscription;
+    private final WebsocketConfig                      websocketConfig;
+    private final ObjectProvider<PublishingViewSource> viewSources;
+    /**
+     * Guards {@link #sequence}, so that frames reach the journal and every session in sequence order.
+     */
+    private final EventJournal                         journal;
+    private       long                                 sequence = 0;
 
     public WebsocketPublisher(
             MultiChannelBus eventBus,
-            WebsocketConfig websocketConfig
+            WebsocketConfig websocketConfig,
+            ObjectProvider<PublishingViewSource> viewSources
     ) {
         this.websocketConfig = websocketConfig;
+        this.viewSources = viewSources;
+        this.journal = new EventJournal(websocketConfig.getJournalSize());
 //        SimpleModule mapAsEntryModule = new SimpleModule();
 //        mapAsEntryModule.addSerializer((Class<MapEntries<?, ?>>)(Class<?>)MapEntries.class, new MapAsEntryListSerializer());
         this.mapper = websocketConfig.getPublishingFormat()
@@ -39,7 +57,8 @@ public class WebsocketPublisher extends TextWebSocketHandler {
 //        mapper.registerModule(mapAsEntryModule);
 
         dataManagerSubscription = eventBus.getFlux(Channel.DATA_MANAGER)
-                                          .concatMap(this::sendMessage)
+                                          .transform(new EventCoalescer(Duration.ofMillis(websocketConfig.getCoalesceWindowMs())))
+                                          .doOnNext(this::broadcast)
                                           .onErrorContinue((err, obj) -> log.error(
                                                   "Failed to send message: {}",
                                                   obj,
@@ -48,7 +67,7 @@ public class WebsocketPublisher extends TextWebSocketHandler {
                                           .subscribe();
 
         rcConnectionStatusSubscription = eventBus.getFlux(Channel.RCU_CONNECTION_STATE)
-                                                 .concatMap(this::sendMessage)
+                                                 .doOnNext(this::broadcast)
                                                  .onErrorContinue((err, obj) -> log.error(
                                                          "Failed to send message: {}",
                                                          obj,
@@ -56,30 +75,144 @@ public class WebsocketPublisher extends TextWebSocketHandler {
                                                  ))
                                                  .subscribe();
 
+        processLifecycleSubscription = eventBus.getFlux(Channel.PROCESS_LIFECYCLE)
+                                               .doOnNext(this::broadcast)
+                                               .onErrorContinue((err, obj) -> log.error(
+                                                       "Failed to send message: {}",
+                                                       obj,
+                                                       err
+                                               ))
+                                               .subscribe();
     }
 
-    private Mono<Void> sendMessage(SimpleEvent<?> event) {
-        WebSocketSession session = sessionRef.get();
-        if (session == null || !session.isOpen()) {
-            return Mono.empty();
+    /**
+     * Serializes the event once and hands the same bytes to every session. Never blocks on a session.
+     * Frames are journaled even while no session is open, so that a reconnecting client can catch up.
+     */
+    private void broadcast(SimpleEvent<?> event) {
+        synchronized (journal) {
+            final long seq = sequence + 1;
+            final Optional<byte[]> payload = serialize(new SequencedEvent(
+                    seq,
+                    event
+            ));
+            if (payload.isEmpty()) return;
+            sequence = seq;
+            journal.append(
+                    seq,
+                    payload.get()
+            );
+
+            if (sessions.isEmpty()) return;
+            SessionWriter.OutboundMessage outboundMessage = new SessionWriter.OutboundMessage(
+                    EventCoalescer.coalescingKey(event)
+                                  .orElse(null),
+                    payload.get()
+            );
+            // Only built if a session fell behind, and then shared by every session that needs it
+            SessionWriter.OutboundMessage snapshot = null;
+            for (SessionWriter writer : sessions.values()) {
+                writer.offer(outboundMessage);
+                if (!writer.isResyncRequired()) continue;
+                if (snapshot == null) {
+                    snapshot = snapshotMessage().orElse(null);
+                    // Serializing failed, the next broadcast tries again
+                    if (snapshot == null) return;
+                }
+                writer.resync(snapshot);
+            }
         }
+    }
 
-        return Mono.fromCallable(() -> {
-            byte[] bytes = mapper.writeValueAsBytes(event);
-            session.sendMessage(websocketConfig.getPublishingFormat()
-                                               .createMessage(bytes));
-            return null;
-        });
+    private Optional<byte[]> serialize(SequencedEvent event) {
+        try {
+            return Optional.of(mapper.writeValueAsBytes(event));
+        } catch (JsonProcessingException e) {
+            log.error(
+                    "Failed to serialize message: {}",
+                    event,
+                    e
+            );
+            return Optional.empty();
+        }
     }
 
+    /**
+     * Must be called while holding the journal, so that the snapshot is tagged with the current sequence number.
+     */
+    private Optional<SessionWriter.OutboundMessage> snapshotMessage() {
+        return serialize(new SequencedEvent(
+                sequence,
+                createSnapshot()
+        )).map(payload -> new SessionWriter.OutboundMessage(
+                null,
+                payload
+        ));
+    }
+
+    private SnapshotEvent createSnapshot() {
+        final List<ViewUpdatedEvent<?>> views = viewSources.orderedStream()
+                                                           .<ViewUpdatedEvent<?>>map(source -> new ViewUpdatedEvent<>(
+                                                                   source.getUri(),
+                                                                   new ViewUpdatedPayload<>(source.getPublishingView())
+                                                           ))
+                                                           .toList();
+        return new SnapshotEvent(views);
+    }
+
+    private static Optional<Long> parseSince(WebSocketSession session) {
+        return Optional.ofNullable(session.getUri())
+                       .map(uri -> UriComponentsBuilder.fromUri(uri)
+                                                       .build()
+                                                       .getQueryParams()
+                                                       .getFirst("since"))
+                       .flatMap(since -> {
+                           try {
+                               return Optional.of(Long.parseLong(since));
+                           } catch (NumberFormatException e) {
+                               return Optional.empty();
+                           }
+                       });
+    }
 
     @Override
     public void afterConnectionEstablished(WebSocketSession session) {
-        sessionRef.set(session);
-        log.info(
-                "WebSocket connected: {}",
-                session.getId()
+        final SessionWriter writer = new SessionWriter(
+                session,
+                websocketConfig.getPublishingFormat(),
+                websocketConfig.getSessionQueueSize(),
+                websocketConfig.getSlowConsumerPolicy()
         );
+        final Optional<Long> since = parseSince(session);
+
+        synchronized (journal) {
+            // A replay that does not fit into the session queue would be cut short by the slow consumer policy
+            final Optional<List<byte[]>> replay = since.flatMap(seq -> journal.since(
+                                                               seq,
+                                                               sequence
+                                                       ))
+                                                       .filter(payloads -> payloads.size() <= websocketConfig.getSessionQueueSize());
+            if (replay.isPresent()) {
+                replay.get()
+                      .forEach(payload -> writer.offer(new SessionWriter.OutboundMessage(
+                              null,
+                              payload
+                      )));
+            } else {
+                snapshotMessage().ifPresent(writer::offer);
+            }
+            sessions.put(
+                    session.getId(),
+                    writer
+            );
+            log.info(
+                    "WebSocket connected: {} ({} open), {}",
+                    session.getId(),
+                    sessions.size(),
+                    replay.map(payloads -> "replaying " + payloads.size() + " frames since " + since.get())
+                          .orElse("sent snapshot at " + sequence)
+            );
+        }
     }
 
     @Override
@@ -87,10 +220,8 @@ public class WebsocketPublisher extends TextWebSocketHandler {
             WebSocketSession session,
             CloseStatus status
     ) {
-        sessionRef.compareAndSet(
-                session,
-                null
-        );
+        Optional.ofNullable(sessions.remove(session.getId()))
+                .ifPresent(SessionWriter::close);
         log.info(
                 "WebSocket closed: {} with status {}",
                 session.getId(),
@@ -105,5 +236,12 @@ public class WebsocketPublisher extends TextWebSocketHandler {
 
         Optional.ofNullable(rcConnectionStatusSubscription)
                 .ifPresent(Disposable::dispose);
+
+        Optional.ofNullable(processLifecycleSubscription)
+                .ifPresent(Disposable::dispose);
+
+        sessions.values()
+                .forEach(SessionWriter::close);
+        sessions.clear();
     }
 }
@@ -7,11 +7,16 @@ import com.julianw03.rcls.eventBus.model.Channel;
 import com.julianw03.rcls.eventBus.model.MultiChannelBus;
 import com.julianw03.rcls.eventBus.model.events.RCUMessageEvent;
 import com.julianw03.rcls.model.RCUWebsocketMessage;
+import com.julianw03.rcls.model.data.DataManager;
 import com.julianw03.rcls.model.data.ObjectDataManager;
+import com.julianw03.rcls.model.data.routing.RCUMessageRouter;
+import com.julianw03.rcls.model.data.routing.UriTemplate;
+import com.julianw03.rcls.model.data.routing.UriVariables;
 import com.julianw03.rcls.service.riotclient.RiotClientService;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.SpringBootConfiguration;
 import org.springframework.boot.test.context.SpringBootTest;
@@ -19,13 +24,12 @@ import org.springframework.boot.test.context.TestConfiguration;
 import org.springframework.context.annotation.Bean;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 
+import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -41,7 +45,7 @@ public class DataManagerEventBusTest {
     @Autowired
     MultiChannelBus multiChannelBus;
 
-    private static final Pattern examplePattern = Pattern.compile("^/example/v1/data$");
+    private static final UriTemplate exampleTemplate = UriTemplate.of("/example/v1/data");
 
     private static final Function<Integer, Integer> mapper = Function.identity();
 
@@ -58,6 +62,17 @@ public class DataManagerEventBusTest {
             return new MultiChannelBusImpl();
         }
 
+        @Bean
+        RCUMessageRouter rcuMessageRouter(
+                MultiChannelBus multiChannelBus,
+                ObjectProvider<DataManager<?>> dataManagers
+        ) {
+            return new RCUMessageRouter(
+                    multiChannelBus,
+                    dataManagers
+            );
+        }
+
         @Bean
         ObjectDataManager<Integer, Integer> testObjectDataManager(
                 RiotClientService riotClientService,
@@ -80,15 +95,15 @@ public class DataManagerEventBusTest {
                 }
 
                 @Override
-                protected Matcher getUriMatcher(String uri) {
-                    return examplePattern.matcher(uri);
+                public List<UriTemplate> getUriTemplates() {
+                    return List.of(exampleTemplate);
                 }
 
                 @Override
                 protected void handleUpdate(
                         RCUWebsocketMessage.MessageType type,
                         JsonNode data,
-                        Matcher uriMatcher
+                        UriVariables uriVariables
                 ) {
                     if (!data.isInt()) throw new IllegalArgumentException("Data should be an integer for testing");
                     setState(data.intValue());
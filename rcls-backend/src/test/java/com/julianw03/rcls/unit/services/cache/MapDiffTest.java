@@ -0,0 +1,91 @@
+package com.julianw03.rcls.unit.services.cache;
+
+import com.julianw03.rcls.model.data.MapDiff;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MapDiffTest {
+    private final Map<String, Integer> current = Map.of(
+            "a",
+            1,
+            "b",
+            2,
+            "c",
+            3
+    );
+
+    @Test
+    void test_replacingSplitsIntoAddedChangedAndRemoved() {
+        final MapDiff<String, Integer> diff = MapDiff.between(
+                current,
+                Map.of(
+                        "a",
+                        1,
+                        "b",
+                        20,
+                        "d",
+                        4
+                ),
+                true
+        );
+
+        assertEquals(
+                Map.of(
+                        "d",
+                        4
+                ),
+                diff.added()
+        );
+        assertEquals(
+                Map.of(
+                        "b",
+                        20
+                ),
+                diff.changed()
+        );
+        assertEquals(
+                Set.of("c"),
+                diff.removed()
+        );
+        assertFalse(diff.isEmpty());
+    }
+
+    @Test
+    void test_mergingNeverReportsRemovals() {
+        final MapDiff<String, Integer> diff = MapDiff.between(
+                current,
+                Map.of(
+                        "b",
+                        20
+                ),
+                false
+        );
+
+        assertEquals(
+                Map.of(
+                        "b",
+                        20
+                ),
+                diff.changed()
+        );
+        assertTrue(
+                diff.removed()
+                    .isEmpty(),
+                "Keys missing from a merged map must not count as removed"
+        );
+    }
+
+    @Test
+    void test_equalStateGivesAnEmptyDiff() {
+        assertTrue(MapDiff.between(
+                                  current,
+                                  Map.copyOf(current),
+                                  true
+                          )
+                          .isEmpty());
+    }
+}
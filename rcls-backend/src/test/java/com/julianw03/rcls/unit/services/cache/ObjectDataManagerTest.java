@@ -3,9 +3,10 @@ package com.julianw03.rcls.unit.services.cache;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.julianw03.rcls.eventBus.model.MultiChannelBus;
-import com.julianw03.rcls.eventBus.model.events.RCUMessageEvent;
 import com.julianw03.rcls.model.RCUWebsocketMessage;
 import com.julianw03.rcls.model.data.ObjectDataManager;
+import com.julianw03.rcls.model.data.routing.UriTemplate;
+import com.julianw03.rcls.model.data.routing.UriVariables;
 import com.julianw03.rcls.service.riotclient.RiotClientService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -13,11 +14,11 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -31,10 +32,12 @@ public class ObjectDataManagerTest {
     MultiChannelBus eventBus;
 
     private       ObjectDataManager<Integer, Integer> objectDataManager;
-    private final Pattern                             examplePattern = Pattern.compile("^/example/v1/data$");
+    private final UriTemplate                         exampleTemplate = UriTemplate.of("/example/v1/data");
 
     private final Function<Integer, Integer> mapper = state -> state + 1;
 
+    private CompletableFuture<Integer> initialData = CompletableFuture.completedFuture(42);
+
     @BeforeEach
     void setUp() {
         objectDataManager = new ObjectDataManager<>(
@@ -50,19 +53,19 @@ public class ObjectDataManagerTest {
 
             @Override
             protected CompletableFuture<Integer> doFetchInitialData() {
-                return CompletableFuture.completedFuture(42);
+                return initialData;
             }
 
             @Override
-            protected Matcher getUriMatcher(String uri) {
-                return examplePattern.matcher(uri);
+            public List<UriTemplate> getUriTemplates() {
+                return List.of(exampleTemplate);
             }
 
             @Override
             protected void handleUpdate(
                     RCUWebsocketMessage.MessageType type,
                     JsonNode data,
-                    Matcher uriMatcher
+                    UriVariables uriVariables
             ) {
                 if (!data.isInt()) throw new IllegalArgumentException("Data should be an integer for testing");
                 setState(data.intValue());
@@ -106,13 +109,14 @@ public class ObjectDataManagerTest {
         objectDataManager.setState(initialState);
         final int updatedState = 25;
         JsonNode dataNode = new ObjectMapper().valueToTree(updatedState);
-        objectDataManager.onRCUMessage(new RCUMessageEvent("rcu",
+        objectDataManager.onRoutedMessage(
                 new RCUWebsocketMessage(
                         RCUWebsocketMessage.MessageType.UPDATE,
                         "/example/v1/data",
                         dataNode
-                )
-        ));
+                ),
+                UriVariables.empty()
+        );
         Integer viewState = assertDoesNotThrow(
                 () -> objectDataManager.getView(),
                 "Getting view state should not throw"
@@ -124,4 +128,39 @@ public class ObjectDataManagerTest {
                 "View state should be updated state passed through mapper"
         );
     }
+
+    @Test
+    void test_messageDuringInitialFetchIsReplayedOnTopOfFetchedState() {
+        initialData = new CompletableFuture<>();
+        final CompletableFuture<Void> setupFuture = objectDataManager.setupInternalState();
+
+        final int updatedState = 25;
+        objectDataManager.onRoutedMessage(
+                new RCUWebsocketMessage(
+                        RCUWebsocketMessage.MessageType.UPDATE,
+                        "/example/v1/data",
+                        new ObjectMapper().valueToTree(updatedState)
+                ),
+                UriVariables.empty()
+        );
+        assertNull(
+                objectDataManager.getView(),
+                "Message should be buffered while the initial fetch is running"
+        );
+
+        initialData.complete(42);
+        assertDoesNotThrow(
+                () -> setupFuture.get(
+                        1,
+                        TimeUnit.SECONDS
+                ),
+                "Initial fetch should complete"
+        );
+
+        assertEquals(
+                mapper.apply(updatedState),
+                objectDataManager.getView(),
+                "Buffered message should be applied after the fetched state"
+        );
+    }
 }
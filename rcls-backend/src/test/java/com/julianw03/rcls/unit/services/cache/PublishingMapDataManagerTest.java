@@ -0,0 +1,324 @@
+package com.julianw03.rcls.unit.services.cache;
+
+import com.julianw03.rcls.eventBus.model.Channel;
+import com.julianw03.rcls.eventBus.model.MultiChannelBus;
+import com.julianw03.rcls.eventBus.model.events.KeyViewUpdatedEvent;
+import com.julianw03.rcls.eventBus.model.events.KeyViewUpdatedPayload;
+import com.julianw03.rcls.eventBus.model.events.MapDiffEvent;
+import com.julianw03.rcls.eventBus.model.events.MapDiffPayload;
+import com.julianw03.rcls.eventBus.model.events.SimpleEvent;
+import com.julianw03.rcls.eventBus.model.events.ViewUpdatedEvent;
+import com.julianw03.rcls.model.data.PublishingMapDataManager;
+import com.julianw03.rcls.model.data.routing.UriTemplate;
+import com.julianw03.rcls.model.services.ServiceDTO;
+import com.julianw03.rcls.model.services.ServiceSerializable;
+import com.julianw03.rcls.service.riotclient.RiotClientService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class PublishingMapDataManagerTest {
+
+    @Mock
+    RiotClientService riotClientService;
+
+    @Mock
+    MultiChannelBus eventBus;
+
+    private BucketManager manager;
+
+    record Bucket(int bucket) implements ServiceSerializable {
+    }
+
+    record BucketDTO(int bucket) implements ServiceDTO<Bucket> {
+    }
+
+    /**
+     * Publishes values in buckets of ten, so that a value can change without its publishing view changing.
+     */
+    private static class BucketManager extends PublishingMapDataManager<String, Integer, Bucket, BucketDTO> {
+        private final AtomicInteger viewsBuilt = new AtomicInteger(0);
+        private final boolean       fingerprinted;
+
+        private BucketManager(
+                RiotClientService riotClientService,
+                MultiChannelBus eventBus,
+                boolean fingerprinted
+        ) {
+            super(
+                    riotClientService,
+                    eventBus
+            );
+            this.fingerprinted = fingerprinted;
+        }
+
+        @Override
+        protected Bucket mapValueView(Integer value) {
+            return value == null ? null : new Bucket(value / 10);
+        }
+
+        @Override
+        protected BucketDTO mapPublishingValueView(Integer state) {
+            viewsBuilt.incrementAndGet();
+            return state == null ? null : new BucketDTO(state / 10);
+        }
+
+        @Override
+        protected long fingerprint(Integer value) {
+            return fingerprinted ? value / 10 : NO_FINGERPRINT;
+        }
+
+        @Override
+        protected CompletableFuture<Map<String, Integer>> doFetchInitialData() {
+            return CompletableFuture.completedFuture(Map.of(
+                    "a",
+                    11,
+                    "b",
+                    21
+            ));
+        }
+
+        @Override
+        public List<UriTemplate> getUriTemplates() {
+            return List.of();
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        manager = new BucketManager(
+                riotClientService,
+                eventBus,
+                false
+        );
+    }
+
+    @Test
+    void test_keyUpdateIsOnlyPublishedIfItsViewChanged() {
+        manager.put(
+                "a",
+                11
+        );
+        manager.put(
+                "a",
+                12
+        );
+        manager.put(
+                "a",
+                25
+        );
+        manager.remove("a");
+
+        final List<KeyViewUpdatedPayload<?, ?>> published = publishedEvents().stream()
+                                                                              .map(event -> (KeyViewUpdatedEvent<?, ?>) assertInstanceOf(
+                                                                                      KeyViewUpdatedEvent.class,
+                                                                                      event
+                                                                              ))
+                                                                              .<KeyViewUpdatedPayload<?, ?>>map(KeyViewUpdatedEvent::getPayload)
+                                                                              .toList();
+        assertEquals(
+                List.of(
+                        new KeyViewUpdatedPayload<>(
+                                "a",
+                                new BucketDTO(1)
+                        ),
+                        new KeyViewUpdatedPayload<>(
+                                "a",
+                                new BucketDTO(2)
+                        ),
+                        new KeyViewUpdatedPayload<>(
+                                "a",
+                                null
+                        )
+                ),
+                published
+        );
+        assertEquals(
+                Map.of(),
+                manager.getPublishingView()
+        );
+    }
+
+    @Test
+    void test_stateDiffPublishesOnlyTheChangedViews() throws Exception {
+        manager.setupInternalState()
+               .get(
+                       1,
+                       TimeUnit.SECONDS
+               );
+        final ViewUpdatedEvent<?> initial = assertInstanceOf(
+                ViewUpdatedEvent.class,
+                lastPublishedEvent()
+        );
+        assertEquals(
+                Map.of(
+                        "a",
+                        new BucketDTO(1),
+                        "b",
+                        new BucketDTO(2)
+                ),
+                initial.getPayload()
+                       .newState(),
+                "The initial fetch should publish the full view"
+        );
+
+        final Map<String, Integer> replaced = new HashMap<>();
+        replaced.put(
+                "a",
+                12
+        );
+        replaced.put(
+                "b",
+                35
+        );
+        replaced.put(
+                "c",
+                40
+        );
+        manager.setState(replaced);
+        final MapDiffEvent<?, ?> upsertedEvent = assertInstanceOf(
+                MapDiffEvent.class,
+                lastPublishedEvent()
+        );
+        final MapDiffPayload<?, ?> upserted = upsertedEvent.getPayload();
+        assertEquals(
+                Map.of(
+                        "b",
+                        new BucketDTO(3),
+                        "c",
+                        new BucketDTO(4)
+                ),
+                upserted.upserted()
+        );
+        assertTrue(upserted.removed()
+                           .isEmpty());
+
+        manager.setState(Map.of(
+                "b",
+                35
+        ));
+        final MapDiffEvent<?, ?> removedEvent = assertInstanceOf(
+                MapDiffEvent.class,
+                lastPublishedEvent()
+        );
+        final MapDiffPayload<?, ?> removed = removedEvent.getPayload();
+        assertTrue(removed.upserted()
+                          .isEmpty());
+        assertEquals(
+                Set.of(
+                        "a",
+                        "c"
+                ),
+                removed.removed()
+        );
+        assertEquals(
+                Map.of(
+                        "b",
+                        new BucketDTO(3)
+                ),
+                manager.getPublishingView()
+        );
+    }
+
+    @Test
+    void test_stateDiffWithoutViewChangesPublishesNothing() throws Exception {
+        manager.setupInternalState()
+               .get(
+                       1,
+                       TimeUnit.SECONDS
+               );
+        clearInvocations(eventBus);
+
+        manager.setState(Map.of(
+                "a",
+                12,
+                "b",
+                22
+        ));
+
+        verify(
+                eventBus,
+                never()
+        ).publish(
+                any(),
+                any()
+        );
+    }
+
+    @Test
+    void test_unchangedFingerprintSkipsBuildingTheView() {
+        manager = new BucketManager(
+                riotClientService,
+                eventBus,
+                true
+        );
+        manager.put(
+                "a",
+                11
+        );
+        assertEquals(
+                1,
+                manager.viewsBuilt.get()
+        );
+
+        manager.put(
+                "a",
+                12
+        );
+        assertEquals(
+                1,
+                manager.viewsBuilt.get(),
+                "The view should not be rebuilt for a value with the same fingerprint"
+        );
+
+        manager.put(
+                "a",
+                25
+        );
+        assertEquals(
+                2,
+                manager.viewsBuilt.get()
+        );
+        assertEquals(
+                2,
+                publishedEvents().size()
+        );
+    }
+
+    private List<SimpleEvent<?>> publishedEvents() {
+        final ArgumentCaptor<SimpleEvent<?>> captor = ArgumentCaptor.forClass(SimpleEvent.class);
+        verify(
+                eventBus,
+                atLeast(0)
+        ).publish(
+                eq(Channel.DATA_MANAGER),
+                captor.capture()
+        );
+        return captor.getAllValues();
+    }
+
+    private SimpleEvent<?> lastPublishedEvent() {
+        final List<SimpleEvent<?>> events = publishedEvents();
+        assertFalse(
+                events.isEmpty(),
+                "Nothing was published"
+        );
+        return events.getLast();
+    }
+}
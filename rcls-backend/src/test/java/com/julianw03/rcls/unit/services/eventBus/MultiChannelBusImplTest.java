@@ -0,0 +1,427 @@
+package com.julianw03.rcls.unit.services.eventBus;
+
+import com.julianw03.rcls.config.mappings.EventBusConfig;
+import com.julianw03.rcls.eventBus.impl.MultiChannelBusImpl;
+import com.julianw03.rcls.eventBus.model.Channel;
+import com.julianw03.rcls.eventBus.model.OverflowPolicy;
+import com.julianw03.rcls.eventBus.model.events.RCUConnectionEvent;
+import com.julianw03.rcls.eventBus.model.events.SimpleEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.reactivestreams.Subscription;
+import reactor.core.publisher.BaseSubscriber;
+
+import java.lang.ref.WeakReference;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MultiChannelBusImplTest {
+    private static final int RING_SIZE = 4;
+
+    private final SimpleMeterRegistry     meterRegistry = new SimpleMeterRegistry();
+    private final List<BaseSubscriber<?>> subscribers   = new CopyOnWriteArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        subscribers.forEach(BaseSubscriber::dispose);
+    }
+
+    @Test
+    void test_dropOldestSkipsToTheOldestEventStillInTheRing() {
+        final MultiChannelBusImpl eventBus = bus(
+                OverflowPolicy.DROP_OLDEST,
+                100
+        );
+        final RecordingSubscriber subscriber = subscribe(
+                eventBus,
+                Channel.RCU_PROXY
+        );
+
+        publish(
+                eventBus,
+                Channel.RCU_PROXY,
+                10
+        );
+        subscriber.request(Long.MAX_VALUE);
+
+        assertEquals(
+                List.of(
+                        "7",
+                        "8",
+                        "9"
+                ),
+                subscriber.received
+        );
+        assertEquals(
+                7,
+                eventBus.getDroppedEvents(Channel.RCU_PROXY)
+        );
+        assertEquals(
+                7,
+                meterRegistry.get("rcls.eventbus.dropped")
+                             .tag(
+                                     "channel",
+                                     Channel.RCU_PROXY.name()
+                             )
+                             .functionCounter()
+                             .count()
+        );
+    }
+
+    @Test
+    void test_coalesceSkipsStraightToTheNewestEvent() {
+        final MultiChannelBusImpl eventBus = bus(
+                OverflowPolicy.COALESCE,
+                100
+        );
+        final RecordingSubscriber subscriber = subscribe(
+                eventBus,
+                Channel.RCU_PROXY
+        );
+
+        publish(
+                eventBus,
+                Channel.RCU_PROXY,
+                10
+        );
+        subscriber.request(Long.MAX_VALUE);
+
+        assertEquals(
+                List.of("9"),
+                subscriber.received
+        );
+        assertEquals(
+                9,
+                eventBus.getDroppedEvents(Channel.RCU_PROXY)
+        );
+    }
+
+    @Test
+    void test_blockWaitsForTheSlowestSubscriber() throws Exception {
+        final MultiChannelBusImpl eventBus = bus(
+                OverflowPolicy.BLOCK,
+                10_000
+        );
+        final RecordingSubscriber subscriber = subscribe(
+                eventBus,
+                Channel.RCU_PROXY
+        );
+
+        final CompletableFuture<Void> publisher = CompletableFuture.runAsync(() -> publish(
+                eventBus,
+                Channel.RCU_PROXY,
+                6
+        ));
+        assertThrows(
+                TimeoutException.class,
+                () -> publisher.get(
+                        200,
+                        TimeUnit.MILLISECONDS
+                ),
+                "The publisher must wait while the ring is full of unread events"
+        );
+
+        subscriber.request(Long.MAX_VALUE);
+        publisher.get(
+                5,
+                TimeUnit.SECONDS
+        );
+        assertEquals(
+                events(6),
+                subscriber.received
+        );
+        assertEquals(
+                0,
+                eventBus.getDroppedEvents(Channel.RCU_PROXY)
+        );
+    }
+
+    @Test
+    void test_blockDegradesToDropOldestOnceTheTimeoutExpires() throws Exception {
+        final MultiChannelBusImpl eventBus = bus(
+                OverflowPolicy.BLOCK,
+                20
+        );
+        final RecordingSubscriber subscriber = subscribe(
+                eventBus,
+                Channel.RCU_PROXY
+        );
+
+        CompletableFuture.runAsync(() -> publish(
+                                 eventBus,
+                                 Channel.RCU_PROXY,
+                                 10
+                         ))
+                         .get(
+                                 5,
+                                 TimeUnit.SECONDS
+                         );
+        subscriber.request(Long.MAX_VALUE);
+
+        assertEquals(
+                List.of(
+                        "7",
+                        "8",
+                        "9"
+                ),
+                subscriber.received
+        );
+    }
+
+    @Test
+    void test_lappedSubscriberDoesNotHoldBackOthers() {
+        final MultiChannelBusImpl eventBus = bus(
+                OverflowPolicy.DROP_OLDEST,
+                100
+        );
+        final RecordingSubscriber slow = subscribe(
+                eventBus,
+                Channel.RCU_PROXY
+        );
+        final RecordingSubscriber fast = subscribe(
+                eventBus,
+                Channel.RCU_PROXY
+        );
+        fast.request(Long.MAX_VALUE);
+
+        publish(
+                eventBus,
+                Channel.RCU_PROXY,
+                10
+        );
+        assertEquals(
+                events(10),
+                fast.received
+        );
+        assertTrue(slow.received.isEmpty());
+
+        slow.request(Long.MAX_VALUE);
+        assertEquals(
+                List.of(
+                        "7",
+                        "8",
+                        "9"
+                ),
+                slow.received
+        );
+        publish(
+                eventBus,
+                Channel.RCU_PROXY,
+                1
+        );
+        assertEquals(
+                List.of(
+                        "7",
+                        "8",
+                        "9",
+                        "0"
+                ),
+                slow.received
+        );
+    }
+
+    @Test
+    void test_slotIsReleasedOnceEverySubscriberHasReadIt() throws Exception {
+        final MultiChannelBusImpl eventBus = bus(
+                OverflowPolicy.DROP_OLDEST,
+                100
+        );
+        final CountingSubscriber first = new CountingSubscriber();
+        final CountingSubscriber second = new CountingSubscriber();
+        subscribe(
+                eventBus,
+                Channel.RCU_PROXY,
+                first
+        );
+        subscribe(
+                eventBus,
+                Channel.RCU_PROXY,
+                second
+        );
+        first.request(Long.MAX_VALUE);
+
+        final WeakReference<SimpleEvent<?>> event = publishUnreferenced(eventBus);
+        assertEquals(
+                1,
+                first.count.get()
+        );
+        assertFalse(
+                isCollected(event),
+                "The event must stay in the ring while a subscriber has not read it yet"
+        );
+
+        second.request(Long.MAX_VALUE);
+        assertEquals(
+                1,
+                second.count.get()
+        );
+        assertTrue(
+                isCollected(event),
+                "The ring must drop its reference once every subscriber has read the event"
+        );
+    }
+
+    @Test
+    void test_allViewKeepsThePublishingOrderAcrossChannels() {
+        final MultiChannelBusImpl eventBus = bus(
+                OverflowPolicy.DROP_OLDEST,
+                100
+        );
+        final RecordingSubscriber all = subscribe(
+                eventBus,
+                Channel.ALL
+        );
+        all.request(Long.MAX_VALUE);
+
+        final List<Channel> targets = List.of(
+                Channel.RCU_PROXY,
+                Channel.DATA_MANAGER,
+                Channel.RCU_CONNECTION_STATE
+        );
+        final List<String> expected = IntStream.range(
+                                                       0,
+                                                       30
+                                               )
+                                               .mapToObj(String::valueOf)
+                                               .toList();
+        for (String name : expected) {
+            eventBus.publish(
+                    targets.get(Integer.parseInt(name) % targets.size()),
+                    new RCUConnectionEvent(
+                            name,
+                            true
+                    )
+            );
+        }
+
+        assertEquals(
+                expected,
+                all.received
+        );
+    }
+
+    private MultiChannelBusImpl bus(
+            OverflowPolicy overflowPolicy,
+            long blockTimeoutMs
+    ) {
+        final EventBusConfig config = new EventBusConfig();
+        config.getDefaults()
+              .setRingSize(RING_SIZE);
+        config.getDefaults()
+              .setOverflowPolicy(overflowPolicy);
+        config.getDefaults()
+              .setBlockTimeoutMs(blockTimeoutMs);
+        return new MultiChannelBusImpl(
+                config,
+                meterRegistry
+        );
+    }
+
+    private RecordingSubscriber subscribe(
+            MultiChannelBusImpl eventBus,
+            Channel channel
+    ) {
+        final RecordingSubscriber subscriber = new RecordingSubscriber();
+        subscribe(
+                eventBus,
+                channel,
+                subscriber
+        );
+        return subscriber;
+    }
+
+    private void subscribe(
+            MultiChannelBusImpl eventBus,
+            Channel channel,
+            BaseSubscriber<SimpleEvent<?>> subscriber
+    ) {
+        subscribers.add(subscriber);
+        eventBus.getFlux(channel)
+                .subscribe(subscriber);
+    }
+
+    private static void publish(
+            MultiChannelBusImpl eventBus,
+            Channel channel,
+            int count
+    ) {
+        for (String name : events(count)) {
+            eventBus.publish(
+                    channel,
+                    new RCUConnectionEvent(
+                            name,
+                            true
+                    )
+            );
+        }
+    }
+
+    private static WeakReference<SimpleEvent<?>> publishUnreferenced(MultiChannelBusImpl eventBus) {
+        final SimpleEvent<?> event = new RCUConnectionEvent(
+                "released",
+                true
+        );
+        eventBus.publish(
+                Channel.RCU_PROXY,
+                event
+        );
+        return new WeakReference<>(event);
+    }
+
+    private static boolean isCollected(WeakReference<?> reference) throws InterruptedException {
+        for (int i = 0; i < 20 && reference.get() != null; i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        return reference.get() == null;
+    }
+
+    private static List<String> events(int count) {
+        return IntStream.range(
+                                0,
+                                count
+                        )
+                        .mapToObj(String::valueOf)
+                        .toList();
+    }
+
+    /**
+     * Requests nothing by itself, so that the test decides when the subscriber catches up.
+     */
+    private static class RecordingSubscriber extends BaseSubscriber<SimpleEvent<?>> {
+        private final List<String> received = new CopyOnWriteArrayList<>();
+
+        @Override
+        protected void hookOnSubscribe(Subscription subscription) {
+        }
+
+        @Override
+        protected void hookOnNext(SimpleEvent<?> event) {
+            received.add(event.getSource());
+        }
+    }
+
+    /**
+     * Keeps no reference to the events it receives.
+     */
+    private static class CountingSubscriber extends BaseSubscriber<SimpleEvent<?>> {
+        private final AtomicInteger count = new AtomicInteger(0);
+
+        @Override
+        protected void hookOnSubscribe(Subscription subscription) {
+        }
+
+        @Override
+        protected void hookOnNext(SimpleEvent<?> event) {
+            count.incrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.julianw03.rcls.unit.services.http;
+
+import com.julianw03.rcls.service.http.BoundedHttpClient;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.net.http.HttpClient;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BoundedHttpClientTest {
+
+    @Test
+    void test_bodyReleasesItsPermitOnceClosed() throws Exception {
+        final BoundedHttpClient client = new BoundedHttpClient(
+                HttpClient.newHttpClient(),
+                1,
+                50,
+                "test",
+                new SimpleMeterRegistry()
+        );
+        client.acquire();
+        final InputStream body = client.releasingOnClose(new ByteArrayInputStream(new byte[0]));
+
+        final CompletionException exhausted = assertThrows(
+                CompletionException.class,
+                () -> client.acquireAsync()
+                            .join()
+        );
+        assertInstanceOf(
+                BoundedHttpClient.PoolExhaustedException.class,
+                exhausted.getCause()
+        );
+
+        body.close();
+        body.close();
+        client.acquireAsync()
+              .get(
+                      1,
+                      TimeUnit.SECONDS
+              );
+        assertThrows(
+                BoundedHttpClient.PoolExhaustedException.class,
+                client::acquire,
+                "Closing the body twice must only release a single permit"
+        );
+    }
+}
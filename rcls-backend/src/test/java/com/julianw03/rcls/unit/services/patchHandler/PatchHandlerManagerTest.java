@@ -0,0 +1,284 @@
+package com.julianw03.rcls.unit.services.patchHandler;
+
+import com.julianw03.rcls.config.mappings.PatchHandlerConfig;
+import com.julianw03.rcls.eventBus.model.Channel;
+import com.julianw03.rcls.eventBus.model.MultiChannelBus;
+import com.julianw03.rcls.eventBus.model.events.KeyViewUpdatedEvent;
+import com.julianw03.rcls.eventBus.model.events.KeyViewUpdatedPayload;
+import com.julianw03.rcls.eventBus.model.events.SimpleEvent;
+import com.julianw03.rcls.generated.api.PluginPatchProxyApi;
+import com.julianw03.rcls.generated.api.PluginRnetProductRegistryApi;
+import com.julianw03.rcls.generated.model.PatchProxyCombinedPatchState;
+import com.julianw03.rcls.generated.model.PatchProxyPatchStatus;
+import com.julianw03.rcls.generated.model.PatchProxyPatchStatusState;
+import com.julianw03.rcls.generated.model.PatchProxyPatchingResource;
+import com.julianw03.rcls.generated.model.PatchProxyProgress;
+import com.julianw03.rcls.generated.model.PatchProxyUpdateProgress;
+import com.julianw03.rcls.generated.model.RnetProductRegistryPatchline;
+import com.julianw03.rcls.generated.model.RnetProductRegistryProductV4;
+import com.julianw03.rcls.model.SupportedGame;
+import com.julianw03.rcls.service.modules.rclient.patchHandler.PatchHandlerManager;
+import com.julianw03.rcls.service.modules.rclient.patchHandler.model.CompositePatchlineKey;
+import com.julianw03.rcls.service.modules.rclient.patchHandler.model.PatchStateDTO;
+import com.julianw03.rcls.service.modules.rclient.patchHandler.model.PatchlineStateDTO;
+import com.julianw03.rcls.service.riotclient.RiotClientService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class PatchHandlerManagerTest {
+    private static final CompositePatchlineKey KEY = new CompositePatchlineKey(
+            SupportedGame.VALORANT,
+            "live"
+    );
+
+    @Mock
+    RiotClientService riotClientService;
+
+    @Mock
+    MultiChannelBus eventBus;
+
+    @Mock
+    PluginRnetProductRegistryApi productRegistryApi;
+
+    @Mock
+    PluginPatchProxyApi patchProxyApi;
+
+    private final PatchHandlerConfig  config = new PatchHandlerConfig();
+    private       PatchHandlerManager patchHandlerManager;
+
+    @BeforeEach
+    void setUp() {
+        patchHandlerManager = new PatchHandlerManager(
+                riotClientService,
+                eventBus,
+                config
+        );
+    }
+
+    @Test
+    void test_progressTickWithTheSameFingerprintPublishesNothing() {
+        patchHandlerManager.put(
+                KEY,
+                updating(
+                        50.0,
+                        "https://example.com/a"
+                )
+        );
+        // Only the url differs, which is not part of the published state
+        patchHandlerManager.put(
+                KEY,
+                updating(
+                        50.0,
+                        "https://example.com/b"
+                )
+        );
+
+        final List<KeyViewUpdatedPayload<?, ?>> published = publishedPayloads();
+        assertEquals(
+                1,
+                published.size()
+        );
+        final PatchStateDTO view = assertInstanceOf(
+                PatchStateDTO.class,
+                published.getFirst()
+                         .newValue()
+        );
+        assertEquals(
+                50.0,
+                view.updateProgress()
+                    .totalProgressPercentage()
+        );
+    }
+
+    @Test
+    void test_putReplaceAndRemovePublishTheExpectedViews() {
+        patchHandlerManager.put(
+                KEY,
+                updating(
+                        10.0,
+                        null
+                )
+        );
+        patchHandlerManager.put(
+                KEY,
+                updating(
+                        20.0,
+                        null
+                )
+        );
+        patchHandlerManager.put(
+                KEY,
+                new PatchProxyPatchingResource().combinedPatchState(PatchProxyCombinedPatchState.UP_TO_DATE)
+        );
+        patchHandlerManager.remove(KEY);
+
+        final List<PatchlineStateDTO> states = publishedPayloads().stream()
+                                                                  .peek(payload -> assertEquals(
+                                                                          KEY,
+                                                                          payload.key()
+                                                                  ))
+                                                                  .map(payload -> ((PatchStateDTO) payload.newValue()).patchlineState())
+                                                                  .toList();
+        assertEquals(
+                List.of(
+                        PatchlineStateDTO.UPDATE_IN_PROGRESS,
+                        PatchlineStateDTO.UPDATE_IN_PROGRESS,
+                        PatchlineStateDTO.UP_TO_DATE,
+                        PatchlineStateDTO.UNKNOWN
+                ),
+                states
+        );
+    }
+
+    @Test
+    void test_initialFetchKeepsThePatchlinesThatArrivedInTime() throws Exception {
+        config.setPatchlineTimeoutMs(200);
+        stubProducts(
+                "live",
+                "pbe",
+                "esports"
+        );
+        when(patchProxyApi.patchProxyV1PatchStatesProductsProductIdPatchlinesPatchlineIdGet(
+                eq(SupportedGame.VALORANT.getRiotInternalName()),
+                anyString()
+        )).thenAnswer(invocation -> switch (invocation.<String>getArgument(1)) {
+            case "live" -> updating(
+                    10.0,
+                    null
+            );
+            case "pbe" -> throw new IllegalStateException("Patchline is not available");
+            default -> {
+                Thread.sleep(10_000);
+                yield updating(
+                        20.0,
+                        null
+                );
+            }
+        });
+
+        final long startedAt = System.nanoTime();
+        patchHandlerManager.setupInternalState()
+                           .get(
+                                   5,
+                                   TimeUnit.SECONDS
+                           );
+
+        assertTrue(
+                System.nanoTime() - startedAt < TimeUnit.SECONDS.toNanos(5),
+                "A hanging patchline must not hold up the fetch past its timeout"
+        );
+        assertEquals(
+                Set.of(KEY),
+                patchHandlerManager.keySet()
+        );
+    }
+
+    @Test
+    void test_initialFetchRespectsTheConcurrencyLimit() throws Exception {
+        config.setMaxConcurrentFetches(2);
+        final List<String> patchlines = List.of(
+                "a",
+                "b",
+                "c",
+                "d",
+                "e",
+                "f"
+        );
+        stubProducts(patchlines.toArray(String[]::new));
+        final AtomicInteger running = new AtomicInteger(0);
+        final AtomicInteger maxRunning = new AtomicInteger(0);
+        when(patchProxyApi.patchProxyV1PatchStatesProductsProductIdPatchlinesPatchlineIdGet(
+                anyString(),
+                anyString()
+        )).thenAnswer(invocation -> {
+            maxRunning.accumulateAndGet(
+                    running.incrementAndGet(),
+                    Math::max
+            );
+            try {
+                Thread.sleep(50);
+                return updating(
+                        10.0,
+                        null
+                );
+            } finally {
+                running.decrementAndGet();
+            }
+        });
+
+        patchHandlerManager.setupInternalState()
+                           .get(
+                                   5,
+                                   TimeUnit.SECONDS
+                           );
+
+        assertEquals(
+                patchlines.size(),
+                patchHandlerManager.size()
+        );
+        assertTrue(
+                maxRunning.get() <= 2,
+                "At most two patchlines may be requested at once, saw " + maxRunning.get()
+        );
+    }
+
+    private void stubProducts(String... patchlineIds) {
+        when(riotClientService.getApi(PluginRnetProductRegistryApi.class)).thenReturn(Optional.of(productRegistryApi));
+        when(riotClientService.getApi(PluginPatchProxyApi.class)).thenReturn(Optional.of(patchProxyApi));
+        final RnetProductRegistryProductV4 product = new RnetProductRegistryProductV4().id(SupportedGame.VALORANT.getRiotInternalName());
+        for (String patchlineId : patchlineIds) {
+            product.addPatchlinesItem(new RnetProductRegistryPatchline().id(patchlineId)
+                                                                        .platform("win")
+                                                                        .addAvailablePlatformsItem("win"));
+        }
+        when(productRegistryApi.rnetProductRegistryV4ProductsGet()).thenReturn(List.of(product));
+    }
+
+    private static PatchProxyPatchingResource updating(
+            double percent,
+            String url
+    ) {
+        return new PatchProxyPatchingResource().combinedPatchState(PatchProxyCombinedPatchState.UPDATING)
+                                               .patchStatus(new PatchProxyPatchStatus().state(PatchProxyPatchStatusState.UPDATING)
+                                                                                       .url(url)
+                                                                                       .progress(new PatchProxyProgress().progress(percent)
+                                                                                                                         .update(new PatchProxyUpdateProgress().bytesToDownload(BigDecimal.TEN)
+                                                                                                                                                               .downloadedBytes(BigDecimal.ONE))));
+    }
+
+    private List<KeyViewUpdatedPayload<?, ?>> publishedPayloads() {
+        final ArgumentCaptor<SimpleEvent<?>> captor = ArgumentCaptor.forClass(SimpleEvent.class);
+        verify(
+                eventBus,
+                atLeast(0)
+        ).publish(
+                eq(Channel.DATA_MANAGER),
+                captor.capture()
+        );
+        return captor.getAllValues()
+                     .stream()
+                     .map(event -> (KeyViewUpdatedEvent<?, ?>) assertInstanceOf(
+                             KeyViewUpdatedEvent.class,
+                             event
+                     ))
+                     .<KeyViewUpdatedPayload<?, ?>>map(KeyViewUpdatedEvent::getPayload)
+                     .toList();
+    }
+}
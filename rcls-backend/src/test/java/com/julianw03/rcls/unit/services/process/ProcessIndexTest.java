@@ -0,0 +1,90 @@
+package com.julianw03.rcls.unit.services.process;
+
+import com.julianw03.rcls.service.process.ProcessIndex;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class ProcessIndexTest {
+    private static final List<String> EXECUTABLES = List.of(
+            "LeagueClient.exe",
+            "RiotClientServices.exe"
+    );
+
+    @Test
+    void test_lookupsWithinTtlShareOneScan() {
+        final AtomicInteger scans = new AtomicInteger();
+        final ProcessHandle league = mockProcess("C:\\Riot Games\\League of Legends\\LeagueClient.exe");
+        final ProcessHandle rcs = mockProcess("C:\\Riot Games\\Riot Client\\RiotClientServices.exe");
+        final ProcessIndex index = new ProcessIndex(
+                () -> {
+                    scans.incrementAndGet();
+                    return Stream.of(
+                            league,
+                            rcs
+                    );
+                },
+                () -> EXECUTABLES,
+                Duration.ofMinutes(1)
+        );
+
+        assertEquals(
+                List.of(league),
+                index.find("LeagueClient.exe")
+        );
+        assertEquals(
+                List.of(rcs),
+                index.find("RiotClientServices.exe")
+        );
+        assertEquals(
+                1,
+                scans.get(),
+                "Both lookups should be answered by a single scan"
+        );
+
+        index.invalidate();
+        index.find("LeagueClient.exe");
+        assertEquals(
+                2,
+                scans.get(),
+                "Invalidating should force a new scan"
+        );
+    }
+
+    @Test
+    void test_zeroTtlScansForEveryLookup() {
+        final AtomicInteger scans = new AtomicInteger();
+        final ProcessIndex index = new ProcessIndex(
+                () -> {
+                    scans.incrementAndGet();
+                    return Stream.empty();
+                },
+                () -> EXECUTABLES,
+                Duration.ZERO
+        );
+
+        index.find("LeagueClient.exe");
+        index.find("LeagueClient.exe");
+        assertEquals(
+                2,
+                scans.get()
+        );
+    }
+
+    private static ProcessHandle mockProcess(String command) {
+        final ProcessHandle processHandle = mock(ProcessHandle.class);
+        final ProcessHandle.Info info = mock(ProcessHandle.Info.class);
+        doReturn(Optional.of(command)).when(info)
+                                      .command();
+        when(processHandle.info()).thenReturn(info);
+        when(processHandle.isAlive()).thenReturn(true);
+        return processHandle;
+    }
+}
@@ -0,0 +1,83 @@
+package com.julianw03.rcls.unit.services.process;
+
+import com.julianw03.rcls.service.process.ProcessOutputLog;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ProcessOutputLogTest {
+
+    @Test
+    void test_keepsOnlyTheMostRecentLines() {
+        final ProcessOutputLog outputLog = new ProcessOutputLog(3);
+        for (int i = 0; i < 5; i++) {
+            outputLog.append(new ProcessOutputLog.Line(
+                    Instant.now(),
+                    ProcessOutputLog.Stream.STDOUT,
+                    "line-" + i
+            ));
+        }
+
+        assertEquals(
+                List.of(
+                        "line-2",
+                        "line-3",
+                        "line-4"
+                ),
+                outputLog.tail(10)
+                         .stream()
+                         .map(ProcessOutputLog.Line::text)
+                         .toList()
+        );
+        assertEquals(
+                List.of("line-4"),
+                outputLog.tail(1)
+                         .stream()
+                         .map(ProcessOutputLog.Line::text)
+                         .toList()
+        );
+
+        outputLog.clear();
+        assertTrue(outputLog.tail(10)
+                            .isEmpty());
+    }
+
+    @Test
+    void test_dropsLinesOfPreviousProcesses() {
+        final ProcessOutputLog outputLog = new ProcessOutputLog(3);
+        outputLog.reset(1);
+        outputLog.append(
+                1,
+                line("first")
+        );
+
+        outputLog.reset(2);
+        outputLog.append(
+                1,
+                line("stale")
+        );
+        outputLog.append(
+                2,
+                line("second")
+        );
+
+        assertEquals(
+                List.of("second"),
+                outputLog.tail(10)
+                         .stream()
+                         .map(ProcessOutputLog.Line::text)
+                         .toList()
+        );
+    }
+
+    private static ProcessOutputLog.Line line(String text) {
+        return new ProcessOutputLog.Line(
+                Instant.now(),
+                ProcessOutputLog.Stream.STDOUT,
+                text
+        );
+    }
+}
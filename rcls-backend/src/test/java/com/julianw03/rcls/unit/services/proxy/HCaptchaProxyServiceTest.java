@@ -0,0 +1,238 @@
+package com.julianw03.rcls.unit.services.proxy;
+
+import com.julianw03.rcls.config.mappings.HCaptchaProxyConfig;
+import com.julianw03.rcls.service.proxy.HCaptchaProxyService;
+import com.julianw03.rcls.service.proxy.ProxyRequest;
+import com.julianw03.rcls.service.proxy.ProxyUpstreamClient;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the proxy against a local stub server instead of hCaptcha.
+ */
+public class HCaptchaProxyServiceTest {
+    private HttpServer           stub;
+    private ExecutorService      stubExecutor;
+    private HCaptchaProxyService proxyService;
+    private final AtomicInteger  apiJsRequests = new AtomicInteger();
+    private final AtomicInteger  inFlight      = new AtomicInteger();
+    private final AtomicInteger  maxInFlight   = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() throws IOException {
+        stub = HttpServer.create(
+                new InetSocketAddress(
+                        "127.0.0.1",
+                        0
+                ),
+                0
+        );
+        stub.createContext(
+                "/" + ProxyRequest.SUBDOMAIN_NONE + "/1/api.js",
+                exchange -> {
+                    apiJsRequests.incrementAndGet();
+                    exchange.getResponseHeaders()
+                            .add(
+                                    HttpHeaders.CACHE_CONTROL,
+                                    "public, max-age=60"
+                            );
+                    respond(
+                            exchange,
+                            "load(\"https://js.hcaptcha.com/1/hsw.js\")"
+                    );
+                }
+        );
+        stub.createContext(
+                "/imgs/",
+                exchange -> {
+                    maxInFlight.accumulateAndGet(
+                            inFlight.incrementAndGet(),
+                            Math::max
+                    );
+                    try {
+                        Thread.sleep(50);
+                        respond(
+                                exchange,
+                                "image"
+                        );
+                    } catch (InterruptedException e) {
+                        Thread.currentThread()
+                              .interrupt();
+                    } finally {
+                        inFlight.decrementAndGet();
+                    }
+                }
+        );
+        stubExecutor = Executors.newCachedThreadPool();
+        stub.setExecutor(stubExecutor);
+        stub.start();
+
+        final HCaptchaProxyConfig config = new HCaptchaProxyConfig();
+        config.getTarget()
+              .setOverrideUrl("http://127.0.0.1:" + stub.getAddress()
+                                                        .getPort());
+        config.getOverrides()
+              .setUserAgent("RCLS-Test");
+        config.getUpstream()
+              .setMaxConcurrentRequests(2);
+        proxyService = new HCaptchaProxyService(
+                config,
+                new ProxyUpstreamClient(
+                        config.getUpstream(),
+                        new SimpleMeterRegistry()
+                ),
+                "8080"
+        );
+    }
+
+    @AfterEach
+    void tearDown() {
+        stub.stop(0);
+        stubExecutor.shutdownNow();
+    }
+
+    @Test
+    void test_rewrittenAssetIsServedFromCacheAndRevalidatedByClient() throws Exception {
+        final ResponseEntity<StreamingResponseBody> first = proxy(
+                ProxyRequest.SUBDOMAIN_NONE,
+                "/1/api.js",
+                new HttpHeaders()
+        );
+        assertEquals(
+                "load(\"https://127.0.0.1:8080/hcaptcha-proxy/js/1/hsw.js\")",
+                bodyOf(first)
+        );
+
+        final ResponseEntity<StreamingResponseBody> second = proxy(
+                ProxyRequest.SUBDOMAIN_NONE,
+                "/1/api.js",
+                new HttpHeaders()
+        );
+        assertEquals(
+                bodyOf(first),
+                bodyOf(second)
+        );
+        assertEquals(
+                1,
+                apiJsRequests.get(),
+                "The second request should have been a cache hit"
+        );
+
+        final HttpHeaders conditional = new HttpHeaders();
+        conditional.setIfNoneMatch(first.getHeaders()
+                                        .getETag());
+        assertEquals(
+                HttpStatus.NOT_MODIFIED,
+                proxy(
+                        ProxyRequest.SUBDOMAIN_NONE,
+                        "/1/api.js",
+                        conditional
+                ).getStatusCode()
+        );
+    }
+
+    @Test
+    void test_upstreamConcurrencyIsLimited() throws Exception {
+        final List<CompletableFuture<String>> responses = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            responses.add(proxyService.proxy(
+                                              new ProxyRequest(
+                                                      "imgs",
+                                                      "/" + i + ".png",
+                                                      Map.of()
+                                              ),
+                                              new HttpHeaders(),
+                                              HttpMethod.GET,
+                                              new MockHttpServletRequest()
+                                      )
+                                      .thenApply(response -> {
+                                          try {
+                                              return bodyOf(response);
+                                          } catch (IOException e) {
+                                              throw new RuntimeException(e);
+                                          }
+                                      }));
+        }
+        for (CompletableFuture<String> response : responses) {
+            assertEquals(
+                    "image",
+                    response.get(
+                            5,
+                            TimeUnit.SECONDS
+                    )
+            );
+        }
+        assertTrue(
+                maxInFlight.get() <= 2,
+                "At most two requests should have reached upstream at once, saw " + maxInFlight.get()
+        );
+    }
+
+    private ResponseEntity<StreamingResponseBody> proxy(
+            String subdomain,
+            String path,
+            HttpHeaders headers
+    ) throws Exception {
+        return proxyService.proxy(
+                                   new ProxyRequest(
+                                           subdomain,
+                                           path,
+                                           Map.of()
+                                   ),
+                                   headers,
+                                   HttpMethod.GET,
+                                   new MockHttpServletRequest()
+                           )
+                           .get(
+                                   5,
+                                   TimeUnit.SECONDS
+                           );
+    }
+
+    private static String bodyOf(ResponseEntity<StreamingResponseBody> response) throws IOException {
+        final ByteArrayOutputStream body = new ByteArrayOutputStream();
+        response.getBody()
+                .writeTo(body);
+        return body.toString(StandardCharsets.UTF_8);
+    }
+
+    private static void respond(
+            HttpExchange exchange,
+            String body
+    ) throws IOException {
+        final byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.sendResponseHeaders(
+                200,
+                bytes.length
+        );
+        try (OutputStream outputStream = exchange.getResponseBody()) {
+            outputStream.write(bytes);
+        }
+    }
+}
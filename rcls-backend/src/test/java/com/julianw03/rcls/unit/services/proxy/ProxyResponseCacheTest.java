@@ -0,0 +1,147 @@
+package com.julianw03.rcls.unit.services.proxy;
+
+import com.julianw03.rcls.service.proxy.ProxyResponseCache;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ProxyResponseCacheTest {
+    private static final ProxyResponseCache.Key HSW  = new ProxyResponseCache.Key(
+            "newassets",
+            "/c/1/hsw.js",
+            "{}"
+    );
+    private static final ProxyResponseCache.Key HTML = new ProxyResponseCache.Key(
+            "newassets",
+            "/c/1/hcaptcha.html",
+            "{}"
+    );
+
+    @Test
+    void test_servesStoredBodyAndEvictsLeastRecentlyUsed() throws IOException {
+        final ProxyResponseCache cache = new ProxyResponseCache(
+                8,
+                8
+        );
+        cache.put(
+                HSW,
+                200,
+                new HttpHeaders(),
+                "\"upstream\"",
+                "hsw!".getBytes(),
+                Duration.ofMinutes(1)
+        );
+        final ProxyResponseCache.Entry entry = cache.get(HSW)
+                                                    .orElseThrow();
+        assertTrue(entry.isFresh());
+
+        final ByteArrayOutputStream body = new ByteArrayOutputStream();
+        entry.writeTo(body);
+        assertEquals(
+                "hsw!",
+                body.toString()
+        );
+
+        cache.put(
+                HTML,
+                200,
+                new HttpHeaders(),
+                null,
+                "html!".getBytes(),
+                Duration.ofMinutes(1)
+        );
+        assertTrue(
+                cache.get(HSW)
+                     .isEmpty(),
+                "The older entry should have been evicted to stay within the byte limit"
+        );
+        assertEquals(
+                5,
+                cache.getUsedBytes()
+        );
+    }
+
+    @Test
+    void test_keepsStaleEntriesOnlyIfTheyCanBeRevalidated() {
+        final ProxyResponseCache cache = new ProxyResponseCache(
+                1_024,
+                1_024
+        );
+        cache.put(
+                HSW,
+                200,
+                new HttpHeaders(),
+                "\"upstream\"",
+                "hsw".getBytes(),
+                Duration.ZERO
+        );
+        cache.put(
+                HTML,
+                200,
+                new HttpHeaders(),
+                null,
+                "html".getBytes(),
+                Duration.ZERO
+        );
+
+        final ProxyResponseCache.Entry stale = cache.get(HSW)
+                                                    .orElseThrow();
+        assertFalse(stale.isFresh());
+        assertTrue(cache.get(HTML)
+                        .isEmpty());
+
+        assertTrue(cache.revalidated(
+                                HSW,
+                                stale,
+                                Duration.ofMinutes(1)
+                        )
+                        .isFresh());
+        assertEquals(
+                stale.etag(),
+                cache.get(HSW)
+                     .orElseThrow()
+                     .etag()
+        );
+    }
+
+    @Test
+    void test_servesOversizeBodiesWithoutStoringThem() throws IOException {
+        final ProxyResponseCache cache = new ProxyResponseCache(
+                1_024,
+                4
+        );
+        assertFalse(cache.fits(5));
+
+        final ProxyResponseCache.Entry entry = cache.put(
+                HSW,
+                200,
+                new HttpHeaders(),
+                null,
+                "hsw.js".getBytes(),
+                Duration.ofMinutes(1)
+        );
+        assertFalse(
+                entry.body()
+                     .isDirect(),
+                "Bodies that are not cached should be served from the heap"
+        );
+        final ByteArrayOutputStream body = new ByteArrayOutputStream();
+        entry.writeTo(body);
+        assertEquals(
+                "hsw.js",
+                body.toString()
+        );
+
+        assertTrue(cache.get(HSW)
+                        .isEmpty());
+        assertEquals(
+                0,
+                cache.getUsedBytes()
+        );
+    }
+}
@@ -0,0 +1,94 @@
+package com.julianw03.rcls.unit.services.proxy;
+
+import com.julianw03.rcls.service.proxy.rewrite.StreamingAssetRewriter;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StreamingAssetRewriterTest {
+    private static final String  REPLACEMENT  = "127.0.0.1:8080/hcaptcha-proxy/";
+    private static final Pattern HOST_PATTERN = Pattern.compile("((\\w{1,20})\\.)hcaptcha\\.com");
+
+    private final StreamingAssetRewriter rewriter = new StreamingAssetRewriter(
+            REPLACEMENT,
+            true
+    );
+
+    @Test
+    void test_rewritesHostsAndStripsCspMeta() {
+        assertEquals(
+                "<head></head><script src=\"https://127.0.0.1:8080/hcaptcha-proxy/newassets/hsw.js\"></script>",
+                rewrite("<head><meta http-equiv=\"Content-Security-Policy\" content=\"script-src https://*.hcaptcha.com\"></head>" +
+                        "<script src=\"https://newassets.hcaptcha.com/hsw.js\"></script>")
+        );
+        assertEquals(
+                "https://hcaptcha.com",
+                rewrite("https://hcaptcha.com"),
+                "Hosts without a subdomain are not rewritten"
+        );
+    }
+
+    @Test
+    void test_matchesTheRegexPipelineOnRandomInput() throws IOException {
+        final String[] tokens = {"a", "_", ".", "hcaptcha.com", "hcaptcha", ".com", ">", " ", "\u00e9", "\"",
+                "xxxxxxxxxxxxxxxxxxxxxxxxx", "<meta http-equiv=\"Content-Security-Policy\""};
+        final Random random = new Random(7);
+        for (int iteration = 0; iteration < 2_000; iteration++) {
+            final StringBuilder sb = new StringBuilder();
+            final int count = random.nextInt(iteration % 100 == 0
+                    ? 3_000
+                    : 30);
+            for (int i = 0; i < count; i++) {
+                sb.append(tokens[random.nextInt(tokens.length)]);
+            }
+            final String input = sb.toString();
+            final String expected = HOST_PATTERN.matcher(input)
+                                                .replaceAll(REPLACEMENT + "$2")
+                                                .replaceAll(
+                                                        "<meta http-equiv=\"Content-Security-Policy\"[^>]+>",
+                                                        ""
+                                                );
+
+            assertEquals(
+                    expected,
+                    rewrite(input),
+                    input
+            );
+
+            // Tiny reads, so that matches span chunk boundaries
+            final ByteArrayOutputStream output = new ByteArrayOutputStream();
+            rewriter.rewrite(
+                    new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8)) {
+                        @Override
+                        public int read(byte[] b) {
+                            return super.read(
+                                    b,
+                                    0,
+                                    1 + random.nextInt(7)
+                            );
+                        }
+                    },
+                    output
+            );
+            assertEquals(
+                    expected,
+                    output.toString(StandardCharsets.UTF_8),
+                    input
+            );
+        }
+    }
+
+    private String rewrite(String input) {
+        return new String(
+                rewriter.rewrite(input.getBytes(StandardCharsets.UTF_8)),
+                StandardCharsets.UTF_8
+        );
+    }
+}
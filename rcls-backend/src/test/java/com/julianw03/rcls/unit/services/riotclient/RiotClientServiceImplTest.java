@@ -0,0 +1,465 @@
+package com.julianw03.rcls.unit.services.riotclient;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.julianw03.rcls.config.mappings.ExecutionConfig;
+import com.julianw03.rcls.config.mappings.RiotClientServiceConfig;
+import com.julianw03.rcls.eventBus.impl.MultiChannelBusImpl;
+import com.julianw03.rcls.eventBus.model.Channel;
+import com.julianw03.rcls.eventBus.model.events.LockfileChangedEvent;
+import com.julianw03.rcls.eventBus.model.events.ProcessLifecycleEvent;
+import com.julianw03.rcls.eventBus.model.events.ProcessLifecyclePayload;
+import com.julianw03.rcls.eventBus.model.events.RCUConnectionEvent;
+import com.julianw03.rcls.model.RiotClientConnectionParameters;
+import com.julianw03.rcls.service.riotclient.RiotClientServiceImpl;
+import com.julianw03.rcls.service.riotclient.api.InternalApiResponse;
+import com.julianw03.rcls.service.riotclient.connection.RiotClientConnectionStrategy;
+import com.julianw03.rcls.service.riotclient.connection.RiotClientEndpoints;
+import com.julianw03.rcls.service.riotclient.readiness.ConnectPhaseTimings;
+import com.julianw03.rcls.service.riotclient.transport.RiotClientTransport;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+
+import java.io.IOException;
+import java.net.http.HttpResponse;
+import java.net.http.WebSocket;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Runs the connect pipeline and the reconnect supervisor against a stub Riot Client.
+ */
+public class RiotClientServiceImplTest {
+    private static final RiotClientConnectionParameters PARAMETERS = new RiotClientConnectionParameters(
+            "secret",
+            12345
+    );
+
+    private RiotClientConnectionStrategy connectionStrategy;
+    private RiotClientTransport          transport;
+    private StubEndpoints                endpoints;
+    private MultiChannelBusImpl          eventBus;
+    private RiotClientServiceConfig      config;
+    private RiotClientServiceImpl        riotClientService;
+    private final List<Boolean>          connectionStates = new CopyOnWriteArrayList<>();
+
+    @BeforeEach
+    void setUp() throws Exception {
+        connectionStrategy = mock(RiotClientConnectionStrategy.class);
+        when(connectionStrategy.connect()).thenReturn(PARAMETERS);
+        when(connectionStrategy.reconnect(any())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        final RiotClientServiceConfig.ConnectionInitParameters connectionInit = new RiotClientServiceConfig.ConnectionInitParameters();
+        connectionInit.setRestConnectWaitForMaxMs(1_000);
+        final RiotClientServiceConfig.ConnectionStrategyParams connectionStrategyParams = new RiotClientServiceConfig.ConnectionStrategyParams();
+        connectionStrategyParams.setConnectTimeoutMs(1_000);
+        config = new RiotClientServiceConfig();
+        config.setConnectionInit(connectionInit);
+        config.setConnectionStrategy(connectionStrategyParams);
+        config.getReconnect()
+              .setInitialDelayMs(1);
+        config.getReconnect()
+              .setMaxDelayMs(5);
+        config.getReconnect()
+              .setMaxAttempts(3);
+
+        transport = mock(RiotClientTransport.class);
+        when(transport.getRequestTimeout()).thenReturn(Duration.ofSeconds(1));
+        endpoints = new StubEndpoints();
+        eventBus = new MultiChannelBusImpl();
+        eventBus.getFlux(
+                        Channel.RCU_CONNECTION_STATE,
+                        RCUConnectionEvent.class
+                )
+                .subscribe(event -> connectionStates.add(event.getPayload()));
+    }
+
+    private void createService() {
+        riotClientService = new RiotClientServiceImpl(
+                connectionStrategy,
+                eventBus,
+                config,
+                new ExecutionConfig(),
+                new SimpleMeterRegistry(),
+                new ConnectPhaseTimings(),
+                endpoints,
+                transport
+        );
+        riotClientService.startup();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (riotClientService != null) {
+            riotClientService.shutdown();
+        }
+    }
+
+    @Test
+    void test_reconnectsAfterUnexpectedClose() throws Exception {
+        createService();
+        riotClientService.connect();
+        assertTrue(riotClientService.isConnectionEstablished());
+
+        endpoints.close(0);
+
+        waitUntil(() -> endpoints.sockets.size() == 2 && riotClientService.isConnectionEstablished());
+        verify(connectionStrategy).reconnect(PARAMETERS);
+        // The DataManagers are told to resynchronize, but never that the connection was lost
+        waitUntil(() -> connectionStates.equals(List.of(true, true)));
+    }
+
+    @Test
+    void test_closeRightAfterOpenIsNeverLost() throws Exception {
+        endpoints.closeFirstSocketRightAfterOpen = true;
+        createService();
+
+        boolean connectFailed = false;
+        try {
+            riotClientService.connect();
+        } catch (ExecutionException e) {
+            connectFailed = true;
+        }
+
+        if (connectFailed) {
+            // The close was seen before the connect finished
+            assertFalse(riotClientService.isConnectionEstablished());
+            waitUntil(() -> !connectionStates.isEmpty() && !connectionStates.getLast());
+        } else {
+            // The close was seen after the connect finished, so it must have been handed to the reconnect supervisor
+            waitUntil(() -> endpoints.sockets.size() == 2 && riotClientService.isConnectionEstablished());
+        }
+    }
+
+    @Test
+    void test_givesUpAfterMaxAttempts() throws Exception {
+        createService();
+        riotClientService.connect();
+        when(connectionStrategy.reconnect(any())).thenThrow(new IllegalStateException("Riot Client is gone"));
+
+        endpoints.close(0);
+
+        waitUntil(() -> connectionStates.contains(false));
+        assertFalse(riotClientService.isConnectionEstablished());
+        verify(connectionStrategy, times(3)).reconnect(PARAMETERS);
+        assertEquals(List.of(true, false), connectionStates);
+    }
+
+    @Test
+    void test_lockfileChangeSkipsBackoff() throws Exception {
+        config.getReconnect()
+              .setInitialDelayMs(60_000);
+        config.getReconnect()
+              .setMaxDelayMs(60_000);
+        createService();
+        riotClientService.connect();
+
+        endpoints.close(0);
+        waitUntil(() -> !riotClientService.isConnectionEstablished());
+
+        // Until the reconnect is scheduled there is no backoff to skip yet
+        waitUntil(() -> {
+            eventBus.publish(
+                    Channel.RIOT_CLIENT_LOCKFILE,
+                    new LockfileChangedEvent(
+                            "test",
+                            PARAMETERS
+                    )
+            );
+            return endpoints.sockets.size() == 2 && riotClientService.isConnectionEstablished();
+        });
+    }
+
+    @Test
+    void test_disconnectWhileReconnectingStopsReconnecting() throws Exception {
+        config.getReconnect()
+              .setInitialDelayMs(60_000);
+        config.getReconnect()
+              .setMaxDelayMs(60_000);
+        createService();
+        riotClientService.connect();
+
+        endpoints.close(0);
+        waitUntil(() -> !riotClientService.isConnectionEstablished());
+        riotClientService.disconnect();
+        eventBus.publish(
+                Channel.RIOT_CLIENT_LOCKFILE,
+                new LockfileChangedEvent(
+                        "test",
+                        PARAMETERS
+                )
+        );
+
+        waitUntil(() -> connectionStates.contains(false));
+        Thread.sleep(200);
+        verify(connectionStrategy).disconnect();
+        verify(connectionStrategy, never()).reconnect(any());
+        assertEquals(1, endpoints.sockets.size());
+        assertFalse(riotClientService.isConnectionEstablished());
+    }
+
+    @Test
+    void test_ignoresExitOfPreviousRiotClientServices() throws Exception {
+        createService();
+        publishRiotClientServices(1, ProcessLifecyclePayload.State.STARTED);
+        publishRiotClientServices(2, ProcessLifecyclePayload.State.STARTED);
+        riotClientService.connect();
+
+        publishRiotClientServices(1, ProcessLifecyclePayload.State.EXITED);
+        Thread.sleep(200);
+        assertTrue(riotClientService.isConnectionEstablished());
+        assertEquals(1, endpoints.sockets.size());
+
+        publishRiotClientServices(2, ProcessLifecyclePayload.State.EXITED);
+        waitUntil(() -> endpoints.sockets.size() == 2 && riotClientService.isConnectionEstablished());
+    }
+
+    @Test
+    void test_requestBeforeRestIsReadyIsRefused() {
+        createService();
+
+        final InternalApiResponse response = riotClientService.requestAsync(
+                                                                      HttpMethod.GET,
+                                                                      "/riotclient/region-locale",
+                                                                      null
+                                                              )
+                                                              .join();
+
+        assertInstanceOf(
+                InternalApiResponse.InternalException.class,
+                response
+        );
+        final CompletableFuture<JsonNode> typed = riotClientService.requestAsync(
+                HttpMethod.GET,
+                "/riotclient/region-locale",
+                null,
+                JsonNode.class
+        );
+        final ExecutionException exception = assertThrows(
+                ExecutionException.class,
+                typed::get
+        );
+        assertInstanceOf(
+                IllegalStateException.class,
+                exception.getCause()
+        );
+        verify(
+                transport,
+                never()
+        ).sendAsync(
+                any(),
+                any(),
+                any()
+        );
+    }
+
+    @Test
+    void test_errorResponseIsMappedToApiError() throws Exception {
+        createService();
+        riotClientService.connect();
+        respondWith(
+                404,
+                "{\"errorCode\":\"RESOURCE_NOT_FOUND\",\"httpStatus\":404,\"message\":\"Not found\"}"
+        );
+
+        final InternalApiResponse response = riotClientService.requestAsync(
+                                                                      HttpMethod.GET,
+                                                                      "/product-session/v1/sessions?product=valorant",
+                                                                      null
+                                                              )
+                                                              .join();
+
+        final InternalApiResponse.ApiError apiError = assertInstanceOf(
+                InternalApiResponse.ApiError.class,
+                response
+        );
+        assertEquals(
+                "RESOURCE_NOT_FOUND",
+                apiError.getError()
+                        .getErrorCode()
+        );
+        assertEquals(
+                404,
+                apiError.getError()
+                        .getHttpStatus()
+        );
+        // The query is not part of the route the request is recorded under
+        verify(transport).sendAsync(
+                any(),
+                any(),
+                eq("/product-session/v1/sessions")
+        );
+    }
+
+    @Test
+    void test_emptyResponseIsMappedToNoContent() throws Exception {
+        createService();
+        riotClientService.connect();
+
+        respondWith(
+                204,
+                null
+        );
+        assertInstanceOf(
+                InternalApiResponse.NoContent.class,
+                requestAsync()
+        );
+
+        respondWith(
+                200,
+                "{}"
+        );
+        assertInstanceOf(
+                InternalApiResponse.NoContent.class,
+                requestAsync()
+        );
+
+        respondWith(
+                200,
+                "{\"region\":\"EUW\"}"
+        );
+        final InternalApiResponse.Success success = assertInstanceOf(
+                InternalApiResponse.Success.class,
+                requestAsync()
+        );
+        assertEquals(
+                "EUW",
+                success.getData()
+                       .get("region")
+                       .asText()
+        );
+    }
+
+    @Test
+    void test_transportFailureIsMappedToInternalException() throws Exception {
+        createService();
+        riotClientService.connect();
+        doReturn(CompletableFuture.failedFuture(new IOException("Connection refused"))).when(transport)
+                                                                                       .sendAsync(
+                                                                                               any(),
+                                                                                               any(),
+                                                                                               any()
+                                                                                       );
+
+        final InternalApiResponse.InternalException failure = assertInstanceOf(
+                InternalApiResponse.InternalException.class,
+                requestAsync()
+        );
+        assertInstanceOf(
+                IOException.class,
+                failure.getException()
+                       .getCause()
+        );
+    }
+
+    private InternalApiResponse requestAsync() {
+        return riotClientService.requestAsync(
+                                        HttpMethod.GET,
+                                        "/riotclient/region-locale",
+                                        null
+                                )
+                                .join();
+    }
+
+    @SuppressWarnings("unchecked")
+    private void respondWith(
+            int status,
+            String body
+    ) throws IOException {
+        final HttpResponse<JsonNode> response = mock(HttpResponse.class);
+        when(response.statusCode()).thenReturn(status);
+        when(response.body()).thenReturn(body == null ? null : new ObjectMapper().readTree(body));
+        doReturn(CompletableFuture.completedFuture(response)).when(transport)
+                                                             .sendAsync(
+                                                                     any(),
+                                                                     any(),
+                                                                     any()
+                                                             );
+    }
+
+    private void publishRiotClientServices(
+            long pid,
+            ProcessLifecyclePayload.State state
+    ) {
+        eventBus.publish(
+                Channel.PROCESS_LIFECYCLE,
+                new ProcessLifecycleEvent(
+                        "test",
+                        new ProcessLifecyclePayload(
+                                ProcessLifecyclePayload.Target.RIOT_CLIENT_SERVICES,
+                                null,
+                                pid,
+                                state,
+                                null
+                        )
+                )
+        );
+    }
+
+    private static void waitUntil(BooleanSupplier condition) throws InterruptedException {
+        final long deadline = System.nanoTime() + 2_000_000_000L;
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) fail("Condition was not met in time");
+            Thread.sleep(10);
+        }
+    }
+
+    /**
+     * A Riot Client whose REST API is always ready and whose websocket opens right away.
+     */
+    private static class StubEndpoints implements RiotClientEndpoints {
+        private final List<WebSocket>          sockets   = new CopyOnWriteArrayList<>();
+        private final List<WebSocket.Listener> listeners = new CopyOnWriteArrayList<>();
+        private final AtomicInteger            opened    = new AtomicInteger();
+        private volatile boolean               closeFirstSocketRightAfterOpen;
+
+        @Override
+        public CompletableFuture<Void> awaitRestReady(
+                RiotClientConnectionParameters parameters,
+                ConnectPhaseTimings timings
+        ) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        @Override
+        public CompletableFuture<WebSocket> openWebsocket(
+                RiotClientConnectionParameters parameters,
+                WebSocket.Listener listener
+        ) {
+            final WebSocket socket = mock(WebSocket.class);
+            sockets.add(socket);
+            listeners.add(listener);
+            listener.onOpen(socket);
+            if (opened.getAndIncrement() == 0 && closeFirstSocketRightAfterOpen) {
+                listener.onClose(
+                        socket,
+                        WebSocket.NORMAL_CLOSURE,
+                        "gone"
+                );
+            }
+            return CompletableFuture.completedFuture(socket);
+        }
+
+        private void close(int index) {
+            listeners.get(index)
+                     .onClose(
+                             sockets.get(index),
+                             WebSocket.NORMAL_CLOSURE,
+                             "gone"
+                     );
+        }
+    }
+}
@@ -4,6 +4,7 @@ import com.julianw03.rcls.config.mappings.PathProviderConfig;
 import com.julianw03.rcls.model.RiotClientConnectionParameters;
 import com.julianw03.rcls.providers.paths.PathProvider;
 import com.julianw03.rcls.service.riotclient.connection.LockfileConnectionStrategy;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -13,6 +14,9 @@ import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.when;
@@ -35,6 +39,11 @@ class LockfileConnectionStrategyTest {
         strategy = new LockfileConnectionStrategy(pathProvider);
     }
 
+    @AfterEach
+    void tearDown() throws Exception {
+        strategy.close();
+    }
+
     @Test
     void connect_readsCorrectValuesFromLockfile() {
         setupFileContents(String.format("Riot Client:0:%d:%s:https",
@@ -62,6 +71,23 @@ class LockfileConnectionStrategyTest {
         assertThrowsExactly(IllegalArgumentException.class, strategy::connect);
     }
 
+    @Test
+    void connect_picksUpRewrittenLockfile() {
+        setupFileContents(String.format("Riot Client:0:%d:%s:https",
+                exampleParameters.getPort(), exampleParameters.getAuthSecret()));
+        assertEquals(exampleParameters.getPort(), assertDoesNotThrow(strategy::connect).getPort());
+
+        Path lockfile = tempDir.resolve("lockfile");
+        assertDoesNotThrow(() -> {
+            Files.write(lockfile, "Riot Client:0:54321:OTHER_SECRET:https".getBytes());
+            Files.setLastModifiedTime(lockfile, FileTime.fromMillis(System.currentTimeMillis() + 1_000));
+        });
+
+        RiotClientConnectionParameters params = assertDoesNotThrow(strategy::connect);
+        assertEquals(54321, params.getPort());
+        assertEquals("OTHER_SECRET", params.getAuthSecret());
+    }
+
    @Test
    void connect_throwsWhenFileIsNotFound() {
        PathProviderConfig.PathEntries entries = new PathProviderConfig.PathEntries();
@@ -71,6 +97,32 @@ class LockfileConnectionStrategyTest {
        assertThrows(Exception.class, strategy::connect);
    }
 
+    @Test
+    void connect_startsWatchingOnceTheLockfileDirectoryExists() throws Exception {
+        final Path lockfile = tempDir.resolve("Riot Games")
+                                     .resolve("lockfile");
+        PathProviderConfig.PathEntries entries = new PathProviderConfig.PathEntries();
+        entries.setRiotClientLockFileLocation(lockfile.toString());
+        when(pathProvider.get()).thenReturn(entries);
+        final CompletableFuture<RiotClientConnectionParameters> changed = new CompletableFuture<>();
+        strategy.close();
+        strategy = new LockfileConnectionStrategy(
+                pathProvider,
+                changed::complete
+        );
+
+        // The Riot Client was never started, so there is no directory to watch yet
+        strategy.startWatching();
+
+        Files.createDirectories(lockfile.getParent());
+        Files.write(lockfile, String.format("Riot Client:0:%d:%s:https",
+                exampleParameters.getPort(), exampleParameters.getAuthSecret()).getBytes());
+        assertEquals(exampleParameters.getPort(), assertDoesNotThrow(strategy::connect).getPort());
+
+        Files.write(lockfile, "Riot Client:0:54321:OTHER_SECRET:https".getBytes());
+        assertEquals(54321, changed.get(10, TimeUnit.SECONDS).getPort());
+    }
+
     private void setupFileContents(String contents) {
         Path lockfile = tempDir.resolve("lockfile");
         PathProviderConfig.PathEntries entries = new PathProviderConfig.PathEntries();
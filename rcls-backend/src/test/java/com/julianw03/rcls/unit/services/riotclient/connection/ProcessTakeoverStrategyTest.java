@@ -6,19 +6,27 @@ import com.julianw03.rcls.model.SupportedGame;
 import com.julianw03.rcls.service.process.NoSuchProcessException;
 import com.julianw03.rcls.service.process.ProcessService;
 import com.julianw03.rcls.service.riotclient.connection.ProcessTakeoverConnectionStrategy;
+import com.julianw03.rcls.service.riotclient.readiness.ConnectPhaseTimings;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.stubbing.Answer;
 
+import java.time.Duration;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -147,6 +155,7 @@ class ProcessTakeoverStrategyTest {
         }
 
         assertThrowsExactly(ExecutionException.class, processTakeoverConnectionStrategy::connect);
+        assertDoesNotThrow(() -> verify(processService, never()).startRiotClientServices(any()));
     }
 
     @Test
@@ -161,5 +170,81 @@ class ProcessTakeoverStrategyTest {
         }
 
         assertThrowsExactly(ExecutionException.class, processTakeoverConnectionStrategy::connect);
+        assertDoesNotThrow(() -> verify(processService, never()).startRiotClientServices(any()));
+    }
+
+    @Test
+    void killsRunInParallelAndStartWaitsForAllOfThem() throws Exception {
+        final int killCount = SupportedGame.values().length + 2;
+        final CountDownLatch allKillsRunning = new CountDownLatch(killCount);
+        final AtomicInteger finishedKills = new AtomicInteger();
+        final AtomicBoolean killsOverlapped = new AtomicBoolean(true);
+        final Answer<Void> kill = invocation -> {
+            allKillsRunning.countDown();
+            // Only returns true if every kill is running at the same time
+            if (!allKillsRunning.await(2, TimeUnit.SECONDS)) {
+                killsOverlapped.set(false);
+            }
+            finishedKills.incrementAndGet();
+            return null;
+        };
+        doAnswer(kill).when(processService).killGameProcess(any());
+        doAnswer(kill).when(processService).killRiotClientProcess();
+        doAnswer(kill).when(processService).killRiotClientServices();
+        final AtomicInteger finishedKillsAtStart = new AtomicInteger(-1);
+        doAnswer(invocation -> {
+            finishedKillsAtStart.set(finishedKills.get());
+            return null;
+        }).when(processService).startRiotClientServices(any());
+
+        assertDoesNotThrow(processTakeoverConnectionStrategy::connect);
+
+        assertTrue(killsOverlapped.get(), "All kills should have been running at the same time");
+        assertEquals(killCount, finishedKillsAtStart.get());
+    }
+
+    @Test
+    void throwsWithoutStartingWhenDeadlineExpires() throws Exception {
+        final ProcessTakeoverConnectionStrategy strategy = new ProcessTakeoverConnectionStrategy(
+                processService,
+                new ConnectPhaseTimings(),
+                Duration.ofMillis(200)
+        );
+        doAnswer(invocation -> {
+            Thread.sleep(2_000);
+            return null;
+        }).when(processService).killGameProcess(any());
+
+        final long start = System.nanoTime();
+        final ExecutionException exception = assertThrowsExactly(ExecutionException.class, strategy::connect);
+
+        assertInstanceOf(TimeoutException.class, exception.getCause());
+        assertTrue(Duration.ofNanos(System.nanoTime() - start).toMillis() < 2_000, "connect should give up at the deadline");
+        verify(processService, never()).startRiotClientServices(any());
+    }
+
+    @Test
+    void reconnect_should_not_kill_anything() throws Exception {
+        final RiotClientConnectionParameters previous = new RiotClientConnectionParameters(
+                "secret",
+                12345
+        );
+        when(processService.isRiotClientServicesRunning()).thenReturn(false);
+
+        final RiotClientConnectionParameters parameters = assertDoesNotThrow(() -> processTakeoverConnectionStrategy.reconnect(previous));
+
+        assertSame(
+                previous,
+                parameters
+        );
+        verify(processService).startRiotClientServices(previous);
+        verify(
+                processService,
+                never()
+        ).killGameProcess(any());
+        verify(
+                processService,
+                never()
+        ).killRiotClientServices();
     }
 }
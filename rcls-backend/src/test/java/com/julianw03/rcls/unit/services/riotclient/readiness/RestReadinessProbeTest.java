@@ -0,0 +1,281 @@
+package com.julianw03.rcls.unit.services.riotclient.readiness;
+
+import com.julianw03.rcls.config.mappings.RiotClientServiceConfig;
+import com.julianw03.rcls.model.RiotClientConnectionParameters;
+import com.julianw03.rcls.service.riotclient.readiness.ConnectPhaseTimings;
+import com.julianw03.rcls.service.riotclient.readiness.RestReadinessProbe;
+import com.julianw03.rcls.service.riotclient.transport.RiotClientTransport;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+/**
+ * Runs the probe on a manual scheduler, so that every backoff delay it asks for can be inspected.
+ */
+public class RestReadinessProbeTest {
+    private final Deque<Runnable>                                  scheduled   = new ArrayDeque<>();
+    private final List<Long>                                       delays      = new ArrayList<>();
+    private final List<ServerSocket>                               openSockets = new ArrayList<>();
+    private final ConnectPhaseTimings                              timings     = new ConnectPhaseTimings();
+    private       RiotClientServiceConfig.ConnectionInitParameters config;
+    private       RiotClientTransport                              transport;
+    private       ScheduledExecutorService                         scheduler;
+    private       Runnable                                         onSchedule  = () -> {
+    };
+
+    @BeforeEach
+    void setUp() {
+        config = new RiotClientServiceConfig.ConnectionInitParameters();
+        config.setRestConnectAttempts(10);
+        config.setRestConnectDelayMs(40);
+        config.setInitialProbeDelayMs(10);
+
+        transport = mock(RiotClientTransport.class);
+        when(transport.getRequestTimeout()).thenReturn(Duration.ofSeconds(1));
+
+        scheduler = mock(ScheduledExecutorService.class);
+        when(scheduler.schedule(
+                any(Runnable.class),
+                anyLong(),
+                any(TimeUnit.class)
+        )).thenAnswer(invocation -> {
+            delays.add(invocation.<Long>getArgument(1));
+            scheduled.add(invocation.getArgument(0));
+            onSchedule.run();
+            return null;
+        });
+
+        timings.start();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        for (ServerSocket socket : openSockets) {
+            socket.close();
+        }
+    }
+
+    @Test
+    void test_backoffDoublesUpToTheCapAndRestartsOnceThePortIsOpen() throws Exception {
+        final int port = freePort();
+        final AtomicInteger portProbes = new AtomicInteger(0);
+        onSchedule = () -> {
+            if (portProbes.incrementAndGet() == 3) {
+                listen(port);
+            }
+        };
+        respondWith(
+                "[]",
+                503,
+                503,
+                503,
+                503,
+                200
+        );
+
+        final CompletableFuture<Void> ready = probe(port);
+        drain();
+
+        assertTrue(ready.isDone() && !ready.isCompletedExceptionally());
+        assertEquals(
+                List.of(
+                        10L,
+                        20L,
+                        40L,
+                        10L,
+                        20L,
+                        40L,
+                        40L
+                ),
+                delays
+        );
+        verify(
+                transport,
+                times(5)
+        ).send(
+                any(),
+                any(),
+                any()
+        );
+        assertEquals(
+                Set.of(
+                        ConnectPhaseTimings.Phase.PORT_OPEN,
+                        ConnectPhaseTimings.Phase.REST_READY
+                ),
+                reachedPhases()
+        );
+    }
+
+    @Test
+    void test_givesUpAfterTheConfiguredAttempts() throws Exception {
+        config.setRestConnectAttempts(3);
+        final int port = freePort();
+        listen(port);
+        respondWith(
+                "[]",
+                503
+        );
+
+        final CompletableFuture<Void> ready = probe(port);
+        drain();
+
+        final ExecutionException exception = assertThrows(
+                ExecutionException.class,
+                ready::get
+        );
+        assertInstanceOf(
+                IllegalStateException.class,
+                exception.getCause()
+        );
+        verify(
+                transport,
+                times(3)
+        ).send(
+                any(),
+                any(),
+                any()
+        );
+        assertEquals(
+                Set.of(ConnectPhaseTimings.Phase.PORT_OPEN),
+                reachedPhases()
+        );
+    }
+
+    @Test
+    void test_bodyThatIsNoArgumentListIsNotReady() throws Exception {
+        config.setRestConnectAttempts(2);
+        final int port = freePort();
+        listen(port);
+        respondWith(
+                "{\"httpStatus\":503}",
+                200
+        );
+
+        final CompletableFuture<Void> ready = probe(port);
+        drain();
+
+        assertTrue(ready.isCompletedExceptionally());
+        assertFalse(reachedPhases().contains(ConnectPhaseTimings.Phase.REST_READY));
+    }
+
+    @Test
+    void test_cancellingTheFutureStopsTheProbe() throws Exception {
+        final int port = freePort();
+        listen(port);
+        respondWith(
+                "[]",
+                503
+        );
+
+        final CompletableFuture<Void> ready = probe(port);
+        ready.cancel(false);
+        drain();
+
+        verify(
+                transport,
+                times(1)
+        ).send(
+                any(),
+                any(),
+                any()
+        );
+    }
+
+    private CompletableFuture<Void> probe(int port) {
+        return new RestReadinessProbe(
+                transport,
+                scheduler,
+                Runnable::run,
+                config
+        ).await(
+                new RiotClientConnectionParameters(
+                        "secret",
+                        port
+                ),
+                timings
+        );
+    }
+
+    private void drain() {
+        Runnable task;
+        while ((task = scheduled.poll()) != null) {
+            task.run();
+        }
+    }
+
+    /**
+     * Answers with the given statuses in order, the last one is repeated.
+     */
+    @SuppressWarnings("unchecked")
+    private void respondWith(
+            String body,
+            Integer status,
+            Integer... statuses
+    ) throws Exception {
+        final HttpResponse<byte[]> response = mock(HttpResponse.class);
+        when(response.statusCode()).thenReturn(
+                status,
+                statuses
+        );
+        when(response.body()).thenReturn(body.getBytes(StandardCharsets.UTF_8));
+        doReturn(response).when(transport)
+                          .send(
+                                  any(),
+                                  any(),
+                                  any()
+                          );
+    }
+
+    private Set<ConnectPhaseTimings.Phase> reachedPhases() {
+        return timings.getLastAttempt()
+                      .orElseThrow()
+                      .sincePreviousMs()
+                      .keySet();
+    }
+
+    private void listen(int port) {
+        try {
+            final ServerSocket socket = new ServerSocket();
+            socket.bind(new InetSocketAddress(
+                    InetAddress.getLoopbackAddress(),
+                    port
+            ));
+            openSockets.add(socket);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(
+                0,
+                1,
+                InetAddress.getLoopbackAddress()
+        )) {
+            return socket.getLocalPort();
+        }
+    }
+}
@@ -0,0 +1,242 @@
+package com.julianw03.rcls.unit.services.riotclient.transport;
+
+import com.julianw03.rcls.config.mappings.RiotClientServiceConfig;
+import com.julianw03.rcls.service.http.BoundedHttpClient;
+import com.julianw03.rcls.service.riotclient.transport.RiotClientTransport;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.net.ssl.SSLContext;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RiotClientTransportTest {
+    private static final String METRIC_NAME = "rcls.riotclient.requests";
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final CountDownLatch      slowReleased  = new CountDownLatch(1);
+    private final CountDownLatch      slowReceived  = new CountDownLatch(1);
+    private       HttpServer          stub;
+    private       ExecutorService     stubExecutor;
+    private       RiotClientTransport transport;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        stub = HttpServer.create(
+                new InetSocketAddress(
+                        "127.0.0.1",
+                        0
+                ),
+                0
+        );
+        stub.createContext(
+                "/ok",
+                exchange -> respond(
+                        exchange,
+                        200
+                )
+        );
+        stub.createContext(
+                "/missing",
+                exchange -> respond(
+                        exchange,
+                        404
+                )
+        );
+        stub.createContext(
+                "/slow",
+                exchange -> {
+                    slowReceived.countDown();
+                    try {
+                        slowReleased.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread()
+                              .interrupt();
+                    }
+                    respond(
+                            exchange,
+                            200
+                    );
+                }
+        );
+        stubExecutor = Executors.newCachedThreadPool();
+        stub.setExecutor(stubExecutor);
+        stub.start();
+
+        final RiotClientServiceConfig.TransportParameters parameters = new RiotClientServiceConfig.TransportParameters();
+        parameters.setMaxConcurrentRequests(1);
+        parameters.setAcquireTimeoutMs(50);
+        final SSLContext sslContext = SSLContext.getInstance("TLS");
+        sslContext.init(
+                null,
+                null,
+                null
+        );
+        transport = new RiotClientTransport(
+                sslContext,
+                parameters,
+                meterRegistry
+        );
+    }
+
+    @AfterEach
+    void tearDown() {
+        slowReleased.countDown();
+        stub.stop(0);
+        stubExecutor.shutdownNow();
+    }
+
+    @Test
+    void test_requestsAreRecordedPerRouteAndOutcome() throws Exception {
+        send(
+                "/ok",
+                "ok"
+        );
+        send(
+                "/ok",
+                "ok"
+        );
+        send(
+                "/missing",
+                "missing"
+        );
+
+        assertEquals(
+                2,
+                requestCount(
+                        "ok",
+                        "200"
+                )
+        );
+        assertEquals(
+                1,
+                requestCount(
+                        "missing",
+                        "404"
+                )
+        );
+    }
+
+    @Test
+    void test_requestBeyondTheBoundFailsOnceTheAcquireTimeoutExpires() throws Exception {
+        final CompletableFuture<HttpResponse<Void>> slow = transport.sendAsync(
+                request("/slow"),
+                HttpResponse.BodyHandlers.discarding(),
+                "slow"
+        );
+        assertTrue(slowReceived.await(
+                5,
+                TimeUnit.SECONDS
+        ));
+        assertEquals(
+                1,
+                inFlight()
+        );
+
+        assertThrows(
+                BoundedHttpClient.PoolExhaustedException.class,
+                () -> send(
+                        "/ok",
+                        "ok"
+                )
+        );
+        assertEquals(
+                1,
+                requestCount(
+                        "ok",
+                        "POOL_EXHAUSTED"
+                )
+        );
+
+        slowReleased.countDown();
+        assertEquals(
+                200,
+                slow.get(
+                            5,
+                            TimeUnit.SECONDS
+                    )
+                    .statusCode()
+        );
+        assertEquals(
+                0,
+                inFlight()
+        );
+        send(
+                "/ok",
+                "ok"
+        );
+        assertEquals(
+                1,
+                requestCount(
+                        "ok",
+                        "200"
+                )
+        );
+    }
+
+    private void send(
+            String path,
+            String route
+    ) throws IOException, InterruptedException {
+        transport.send(
+                request(path),
+                HttpResponse.BodyHandlers.discarding(),
+                route
+        );
+    }
+
+    private HttpRequest request(String path) {
+        return HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + stub.getAddress()
+                                                                         .getPort() + path))
+                          .GET()
+                          .build();
+    }
+
+    private long requestCount(
+            String route,
+            String outcome
+    ) {
+        return meterRegistry.get(METRIC_NAME)
+                            .tag(
+                                    "route",
+                                    route
+                            )
+                            .tag(
+                                    "outcome",
+                                    outcome
+                            )
+                            .timer()
+                            .count();
+    }
+
+    private double inFlight() {
+        return meterRegistry.get(METRIC_NAME + ".in-flight")
+                            .gauge()
+                            .value();
+    }
+
+    private static void respond(
+            HttpExchange exchange,
+            int status
+    ) throws IOException {
+        exchange.sendResponseHeaders(
+                status,
+                -1
+        );
+        exchange.close();
+    }
+}
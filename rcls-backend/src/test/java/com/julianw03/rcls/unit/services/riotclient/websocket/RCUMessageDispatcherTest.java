@@ -0,0 +1,75 @@
+package com.julianw03.rcls.unit.services.riotclient.websocket;
+
+import com.fasterxml.jackson.databind.node.IntNode;
+import com.julianw03.rcls.model.RCUWebsocketMessage;
+import com.julianw03.rcls.service.riotclient.websocket.RCUMessageDispatcher;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RCUMessageDispatcherTest {
+    private static final int MESSAGES_PER_URI = 500;
+
+    @Test
+    void test_messagesForSameUriKeepTheirOrder() throws InterruptedException {
+        final List<String> uris = List.of(
+                "/patch-proxy/v1/patch-states/products/league_of_legends/patchlines/live",
+                "/patch-proxy/v1/patch-states/products/valorant/patchlines/live",
+                "/rso-auth/v1/authorization",
+                "/product-session/v1/sessions"
+        );
+        final Map<String, List<Integer>> received = new ConcurrentHashMap<>();
+        final CountDownLatch done = new CountDownLatch(uris.size() * MESSAGES_PER_URI);
+        final RCUMessageDispatcher dispatcher = new RCUMessageDispatcher(
+                3,
+                16,
+                message -> {
+                    received.computeIfAbsent(
+                                    message.getUri(),
+                                    uri -> new ArrayList<>()
+                            )
+                            .add(message.getData()
+                                        .intValue());
+                    done.countDown();
+                },
+                new SimpleMeterRegistry()
+        );
+
+        for (int i = 0; i < MESSAGES_PER_URI; i++) {
+            for (String uri : uris) {
+                dispatcher.dispatch(new RCUWebsocketMessage(
+                        RCUWebsocketMessage.MessageType.UPDATE,
+                        uri,
+                        IntNode.valueOf(i)
+                ));
+            }
+        }
+
+        assertTrue(done.await(
+                5,
+                TimeUnit.SECONDS
+        ));
+        dispatcher.close();
+        for (String uri : uris) {
+            final List<Integer> values = received.get(uri);
+            assertEquals(
+                    MESSAGES_PER_URI,
+                    values.size()
+            );
+            for (int i = 0; i < MESSAGES_PER_URI; i++) {
+                assertEquals(
+                        i,
+                        values.get(i)
+                );
+            }
+        }
+    }
+}
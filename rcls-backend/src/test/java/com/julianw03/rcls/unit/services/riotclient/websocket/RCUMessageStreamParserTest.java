@@ -0,0 +1,79 @@
+package com.julianw03.rcls.unit.services.riotclient.websocket;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.julianw03.rcls.model.RCUWebsocketMessage;
+import com.julianw03.rcls.service.riotclient.websocket.RCUMessageStreamParser;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RCUMessageStreamParserTest {
+    private static final String FRAME = "[8,\"OnJsonApiEvent\",{\"data\":{\"state\":\"up_to_date\",\"progress\":{\"percent\":100}}," +
+                                        "\"eventType\":\"Update\",\"uri\":\"/patch-proxy/v1/patch-states/products/valorant/patchlines/live\"}]";
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @Test
+    void test_parsedDataCanBeReadAsTree() throws Exception {
+        final RCUWebsocketMessage message = new RCUMessageStreamParser(mapper).feed(
+                                                                                  FRAME,
+                                                                                  true
+                                                                          )
+                                                                          .orElseThrow();
+
+        assertEquals(
+                RCUWebsocketMessage.MessageType.UPDATE,
+                message.getType()
+        );
+        assertEquals(
+                "/patch-proxy/v1/patch-states/products/valorant/patchlines/live",
+                message.getUri()
+        );
+        assertEquals(
+                1,
+                message.getSequence()
+        );
+        final JsonNode data = message.getData();
+        assertEquals(
+                "up_to_date",
+                data.get("state")
+                    .asText()
+        );
+        assertEquals(
+                100,
+                data.at("/progress/percent")
+                    .asInt()
+        );
+    }
+
+    @Test
+    void test_fragmentedFrameIsBoundStraightIntoTheTargetType() throws Exception {
+        final RCUMessageStreamParser parser = new RCUMessageStreamParser(mapper);
+        final int split = FRAME.indexOf("progress");
+        assertTrue(parser.feed(
+                                 FRAME.substring(
+                                         0,
+                                         split
+                                 ),
+                                 false
+                         )
+                         .isEmpty());
+        final RCUWebsocketMessage message = parser.feed(
+                                                          FRAME.substring(split),
+                                                          true
+                                                  )
+                                                  .orElseThrow();
+
+        final Map<?, ?> data = message.readData(
+                mapper,
+                Map.class
+        );
+        assertEquals(
+                "up_to_date",
+                data.get("state")
+        );
+    }
+}
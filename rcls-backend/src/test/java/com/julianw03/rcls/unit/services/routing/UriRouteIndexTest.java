@@ -0,0 +1,104 @@
+package com.julianw03.rcls.unit.services.routing;
+
+import com.julianw03.rcls.model.data.routing.UriRouteIndex;
+import com.julianw03.rcls.model.data.routing.UriTemplate;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class UriRouteIndexTest {
+
+    private UriRouteIndex<String> routeIndex;
+
+    @BeforeEach
+    void setUp() {
+        routeIndex = new UriRouteIndex<>();
+        routeIndex.register(
+                UriTemplate.of("/patch-proxy/v1/patch-states/products/{productId}/patchlines/{patchlineId}"),
+                "patch"
+        );
+        routeIndex.register(
+                UriTemplate.of("/product-session/v1/sessions/{sessionId}"),
+                "sessions"
+        );
+        routeIndex.register(
+                UriTemplate.of("/rso-authenticator/v1/authentication"),
+                "rso"
+        );
+    }
+
+    @Test
+    void test_variablesAreCaptured() {
+        List<UriRouteIndex.Match<String>> matches = routeIndex.match("/patch-proxy/v1/patch-states/products/valorant/patchlines/live");
+
+        assertEquals(
+                1,
+                matches.size()
+        );
+        UriRouteIndex.Match<String> match = matches.getFirst();
+        assertEquals(
+                "patch",
+                match.handler()
+        );
+        assertEquals(
+                "valorant",
+                match.variables()
+                     .get(0)
+        );
+        assertEquals(
+                Optional.of("live"),
+                match.variables()
+                     .get("patchlineId")
+        );
+    }
+
+    @Test
+    void test_staticTemplateMatchesExactly() {
+        assertEquals(
+                1,
+                routeIndex.match("/rso-authenticator/v1/authentication")
+                          .size()
+        );
+        assertTrue(routeIndex.match("/rso-authenticator/v1/authentication/extra")
+                             .isEmpty());
+        assertTrue(routeIndex.match("/rso-authenticator/v1")
+                             .isEmpty());
+    }
+
+    @Test
+    void test_unknownOrIncompleteUrisAreDropped() {
+        assertTrue(routeIndex.match("/riot-client-lifecycle/v1/state")
+                             .isEmpty());
+        assertTrue(routeIndex.match("/product-session/v1/sessions/")
+                             .isEmpty());
+        assertTrue(routeIndex.match("product-session/v1/sessions/abc")
+                             .isEmpty());
+        assertTrue(routeIndex.match(null)
+                             .isEmpty());
+    }
+
+    @Test
+    void test_literalAndVariableBranchesBothMatch() {
+        routeIndex.register(
+                UriTemplate.of("/product-session/v1/sessions/host_app"),
+                "hostApp"
+        );
+
+        List<String> handlers = routeIndex.match("/product-session/v1/sessions/host_app")
+                                          .stream()
+                                          .map(UriRouteIndex.Match::handler)
+                                          .toList();
+
+        assertEquals(
+                List.of(
+                        "hostApp",
+                        "sessions"
+                ),
+                handlers
+        );
+    }
+}
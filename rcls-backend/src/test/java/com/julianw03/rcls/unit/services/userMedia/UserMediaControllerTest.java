@@ -0,0 +1,114 @@
+package com.julianw03.rcls.unit.services.userMedia;
+
+import com.julianw03.rcls.service.modules.standalone.userMedia.UserMediaController;
+import com.julianw03.rcls.service.modules.standalone.userMedia.UserMediaRessource;
+import com.julianw03.rcls.service.modules.standalone.userMedia.UserMediaServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@ExtendWith(MockitoExtension.class)
+public class UserMediaControllerTest {
+    private static final String BACKGROUND_URL = "/api/rcls/media/v1/background";
+    private static final String VERSION        = "0123456789abcdef";
+
+    @Mock
+    UserMediaServiceImpl userMediaService;
+
+    @TempDir
+    Path tempDir;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.standaloneSetup(new UserMediaController(userMediaService))
+                                 .build();
+    }
+
+    @Test
+    void test_backgroundIsServedWithItsVersionAsETag() throws Exception {
+        when(userMediaService.loadCurrentBackground()).thenReturn(background("0123456789"));
+
+        mockMvc.perform(get(BACKGROUND_URL))
+               .andExpect(status().isOk())
+               .andExpect(header().string(
+                       HttpHeaders.ETAG,
+                       "\"" + VERSION + "\""
+               ))
+               .andExpect(header().string(
+                       HttpHeaders.CACHE_CONTROL,
+                       "no-cache, private"
+               ))
+               .andExpect(content().contentType("video/mp4"))
+               .andExpect(content().string("0123456789"));
+    }
+
+    @Test
+    void test_rangeRequestIsAnsweredWithPartialContent() throws Exception {
+        when(userMediaService.loadCurrentBackground()).thenReturn(background("0123456789"));
+
+        mockMvc.perform(get(BACKGROUND_URL).header(
+                       HttpHeaders.RANGE,
+                       "bytes=2-5"
+               ))
+               .andExpect(status().isPartialContent())
+               .andExpect(header().string(
+                       HttpHeaders.CONTENT_RANGE,
+                       "bytes 2-5/10"
+               ))
+               .andExpect(content().string("2345"));
+    }
+
+    @Test
+    void test_matchingETagIsAnsweredWithNotModified() throws Exception {
+        when(userMediaService.loadCurrentBackground()).thenReturn(background("0123456789"));
+
+        mockMvc.perform(get(BACKGROUND_URL).header(
+                       HttpHeaders.IF_NONE_MATCH,
+                       "\"" + VERSION + "\""
+               ))
+               .andExpect(status().isNotModified())
+               .andExpect(content().string(""));
+    }
+
+    @Test
+    void test_missingConfigIsAnsweredWithNotFound() throws Exception {
+        when(userMediaService.loadCurrentBackground()).thenReturn(null);
+
+        mockMvc.perform(get(BACKGROUND_URL))
+               .andExpect(status().isNotFound());
+    }
+
+    private UserMediaRessource background(String content) throws Exception {
+        final Path file = Files.writeString(
+                tempDir.resolve("background-" + VERSION + ".mp4"),
+                content,
+                StandardCharsets.US_ASCII
+        );
+        final UserMediaRessource resource = new UserMediaRessource();
+        resource.setResource(new FileSystemResource(file));
+        resource.setContentType("video/mp4");
+        resource.setVersion(VERSION);
+        resource.setLastModified(Instant.now()
+                                        .truncatedTo(ChronoUnit.SECONDS));
+        return resource;
+    }
+}
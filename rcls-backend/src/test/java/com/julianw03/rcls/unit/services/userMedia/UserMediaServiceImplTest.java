@@ -0,0 +1,279 @@
+package com.julianw03.rcls.unit.services.userMedia;
+
+import com.julianw03.rcls.config.mappings.PathProviderConfig;
+import com.julianw03.rcls.model.PluginModuleType;
+import com.julianw03.rcls.providers.paths.PathProvider;
+import com.julianw03.rcls.service.modules.standalone.userMedia.UserMediaController;
+import com.julianw03.rcls.service.modules.standalone.userMedia.UserMediaRessource;
+import com.julianw03.rcls.service.modules.standalone.userMedia.UserMediaServiceImpl;
+import com.julianw03.rcls.service.process.OperatingSystem;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class UserMediaServiceImplTest {
+    private static final String APPLICATION_FOLDER = "RCLS";
+    private static final String MODULE_FOLDER      = "userMedia";
+
+    @TempDir
+    Path tempDir;
+
+    private Path                basePath;
+    private StartedMediaService userMediaService;
+    private UserMediaController userMediaController;
+
+    /**
+     * Exposes the startup hook, which the container would otherwise call.
+     */
+    private static class StartedMediaService extends UserMediaServiceImpl {
+        private StartedMediaService(PathProvider pathProvider) {
+            super(pathProvider);
+        }
+
+        private void start() {
+            startup();
+        }
+    }
+
+    @BeforeEach
+    void setUp() throws IOException {
+        final PathProviderConfig.PathEntries pathEntries = new PathProviderConfig.PathEntries();
+        pathEntries.setConfigBasePath(tempDir.toString());
+        final PathProviderConfig.SharedEntries sharedEntries = new PathProviderConfig.SharedEntries();
+        sharedEntries.setApplicationFolderName(APPLICATION_FOLDER);
+        sharedEntries.setPluginFolderNames(Map.of(
+                PluginModuleType.USER_BACKGROUND_MODULE,
+                MODULE_FOLDER
+        ));
+        final PathProviderConfig config = new PathProviderConfig();
+        config.setPathEntries(Map.of(
+                OperatingSystem.LINUX,
+                pathEntries
+        ));
+        config.setSharedEntries(sharedEntries);
+
+        basePath = Files.createDirectories(tempDir.resolve(APPLICATION_FOLDER)
+                                                  .resolve(MODULE_FOLDER));
+        userMediaService = new StartedMediaService(new PathProvider(
+                config,
+                OperatingSystem.LINUX
+        ));
+        userMediaController = new UserMediaController(userMediaService);
+    }
+
+    @Test
+    void test_uploadIsStoredUnderItsContentHash() throws Exception {
+        userMediaService.start();
+        upload(
+                "first",
+                "video/mp4"
+        );
+
+        final String hash = sha256("first");
+        final String fileName = "background-" + hash.substring(
+                0,
+                16
+        ) + ".mp4";
+        assertEquals(
+                Set.of(
+                        "config.json",
+                        fileName
+                ),
+                fileNames()
+        );
+        final UserMediaRessource background = userMediaService.loadCurrentBackground();
+        assertEquals(
+                hash,
+                background.getVersion()
+        );
+        assertEquals(
+                "video/mp4",
+                background.getContentType()
+        );
+        assertEquals(
+                "first",
+                background.getResource()
+                          .getContentAsString(StandardCharsets.UTF_8)
+        );
+    }
+
+    @Test
+    void test_interruptedUploadLeavesTheCurrentBackgroundInPlace() throws Exception {
+        userMediaService.start();
+        upload(
+                "first",
+                "video/mp4"
+        );
+        final Set<String> committed = fileNames();
+
+        final MockMultipartFile interrupted = new MockMultipartFile(
+                "file",
+                "second.mp4",
+                "video/mp4",
+                new byte[0]
+        ) {
+            @Override
+            public InputStream getInputStream() {
+                return new SequenceInputStream(
+                        new ByteArrayInputStream("sec".getBytes(StandardCharsets.UTF_8)),
+                        new InputStream() {
+                            @Override
+                            public int read() throws IOException {
+                                throw new IOException("Connection reset");
+                            }
+                        }
+                );
+            }
+        };
+        assertThrows(
+                IOException.class,
+                () -> userMediaController.uploadNewBackground(List.of(interrupted))
+        );
+
+        assertEquals(
+                committed,
+                fileNames(),
+                "The config must only be replaced once the new background has been written completely"
+        );
+        assertEquals(
+                sha256("first"),
+                userMediaService.loadCurrentBackground()
+                                .getVersion()
+        );
+    }
+
+    @Test
+    void test_identicalUploadReusesTheStoredFile() throws Exception {
+        userMediaService.start();
+        upload(
+                "same",
+                "video/mp4"
+        );
+        final Path stored = userMediaService.loadCurrentBackground()
+                                            .getResource()
+                                            .getFile()
+                                            .toPath();
+        final FileTime storedAt = FileTime.from(Instant.parse("2020-01-01T00:00:00Z"));
+        Files.setLastModifiedTime(
+                stored,
+                storedAt
+        );
+
+        upload(
+                "same",
+                "video/mp4"
+        );
+
+        assertEquals(
+                storedAt,
+                Files.getLastModifiedTime(stored),
+                "An identical upload must not replace the stored file"
+        );
+        assertEquals(
+                Set.of(
+                        "config.json",
+                        stored.getFileName()
+                              .toString()
+                ),
+                fileNames()
+        );
+    }
+
+    @Test
+    void test_uploadRemovesPreviousBackgrounds() throws Exception {
+        Files.writeString(
+                basePath.resolve("background.mp4"),
+                "legacy"
+        );
+        userMediaService.start();
+        upload(
+                "first",
+                "video/mp4"
+        );
+        upload(
+                "second",
+                "image/png"
+        );
+
+        final String hash = sha256("second");
+        assertEquals(
+                Set.of(
+                        "config.json",
+                        "background-" + hash.substring(
+                                0,
+                                16
+                        ) + ".png"
+                ),
+                fileNames()
+        );
+    }
+
+    @Test
+    void test_leftoverUploadsAreRemovedAtStartup() throws Exception {
+        Files.writeString(
+                basePath.resolve("upload-123.tmp"),
+                "partial"
+        );
+        Files.writeString(
+                basePath.resolve("config-456.tmp"),
+                "{}"
+        );
+        Files.writeString(
+                basePath.resolve("notes.tmp"),
+                "unrelated"
+        );
+
+        userMediaService.start();
+
+        assertEquals(
+                Set.of("notes.tmp"),
+                fileNames()
+        );
+    }
+
+    private void upload(
+            String content,
+            String contentType
+    ) throws Exception {
+        userMediaController.uploadNewBackground(List.of(new MockMultipartFile(
+                "file",
+                "background",
+                contentType,
+                content.getBytes(StandardCharsets.UTF_8)
+        )));
+    }
+
+    private Set<String> fileNames() throws IOException {
+        try (Stream<Path> files = Files.list(basePath)) {
+            return files.map(path -> path.getFileName()
+                                         .toString())
+                        .collect(Collectors.toSet());
+        }
+    }
+
+    private static String sha256(String content) throws Exception {
+        return HexFormat.of()
+                        .formatHex(MessageDigest.getInstance("SHA-256")
+                                                .digest(content.getBytes(StandardCharsets.UTF_8)));
+    }
+}
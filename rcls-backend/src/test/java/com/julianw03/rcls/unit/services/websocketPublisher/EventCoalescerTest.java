@@ -0,0 +1,113 @@
+package com.julianw03.rcls.unit.services.websocketPublisher;
+
+import com.julianw03.rcls.eventBus.model.events.KeyViewUpdatedEvent;
+import com.julianw03.rcls.eventBus.model.events.KeyViewUpdatedPayload;
+import com.julianw03.rcls.eventBus.model.events.RCUConnectionEvent;
+import com.julianw03.rcls.eventBus.model.events.SimpleEvent;
+import com.julianw03.rcls.eventBus.model.events.ViewUpdatedEvent;
+import com.julianw03.rcls.eventBus.model.events.ViewUpdatedPayload;
+import com.julianw03.rcls.service.websocketPublisher.EventCoalescer;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EventCoalescerTest {
+
+    private static KeyViewUpdatedEvent<String, Integer> keyEvent(
+            String uri,
+            String key,
+            int value
+    ) {
+        return new KeyViewUpdatedEvent<>(
+                uri,
+                new KeyViewUpdatedPayload<>(
+                        key,
+                        value
+                )
+        );
+    }
+
+    @Test
+    void test_latestValuePerKeyIsKept() {
+        final SimpleEvent<?> latestA = keyEvent("PatchHandlerManager", "a", 3);
+        final SimpleEvent<?> latestB = keyEvent("PatchHandlerManager", "b", 2);
+        final SimpleEvent<?> otherUri = keyEvent("SessionsManager", "a", 1);
+
+        List<SimpleEvent<?>> result = EventCoalescer.coalesce(List.of(
+                keyEvent("PatchHandlerManager", "a", 1),
+                keyEvent("PatchHandlerManager", "b", 1),
+                keyEvent("PatchHandlerManager", "a", 2),
+                otherUri,
+                latestB,
+                latestA
+        ));
+
+        assertEquals(
+                List.of(
+                        otherUri,
+                        latestB,
+                        latestA
+                ),
+                result
+        );
+    }
+
+    @Test
+    void test_viewUpdateSupersedesPendingKeyEvents() {
+        final SimpleEvent<?> view = new ViewUpdatedEvent<>(
+                "PatchHandlerManager",
+                new ViewUpdatedPayload<>(Map.of())
+        );
+        final SimpleEvent<?> afterView = keyEvent("PatchHandlerManager", "a", 2);
+        final SimpleEvent<?> connection = new RCUConnectionEvent("RCU", true);
+
+        List<SimpleEvent<?>> result = EventCoalescer.coalesce(List.of(
+                keyEvent("PatchHandlerManager", "a", 1),
+                connection,
+                view,
+                afterView
+        ));
+
+        assertEquals(
+                List.of(
+                        connection,
+                        view,
+                        afterView
+                ),
+                result
+        );
+    }
+
+    @Test
+    void test_eventsWithinOneWindowAreCoalesced() {
+        final SimpleEvent<?> latestA = keyEvent("PatchHandlerManager", "a", 2);
+        final SimpleEvent<?> late = keyEvent("PatchHandlerManager", "a", 3);
+
+        final Flux<SimpleEvent<?>> events = Flux.concat(
+                Flux.just(
+                        keyEvent("PatchHandlerManager", "a", 1),
+                        latestA
+                ),
+                // Arrives after the first window was flushed, so it starts a window of its own
+                Flux.just(late)
+                    .delaySubscription(Duration.ofMillis(200))
+        );
+
+        List<SimpleEvent<?>> result = events.transform(new EventCoalescer(Duration.ofMillis(20)))
+                                            .collectList()
+                                            .block(Duration.ofSeconds(2));
+
+        assertEquals(
+                List.of(
+                        latestA,
+                        late
+                ),
+                result
+        );
+    }
+}
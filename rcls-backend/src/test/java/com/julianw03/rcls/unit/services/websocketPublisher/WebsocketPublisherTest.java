@@ -0,0 +1,180 @@
+package com.julianw03.rcls.unit.services.websocketPublisher;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.julianw03.rcls.config.websocketPublisher.SlowConsumerPolicy;
+import com.julianw03.rcls.config.websocketPublisher.WebsocketConfig;
+import com.julianw03.rcls.config.websocketPublisher.WebsocketPublishingFormat;
+import com.julianw03.rcls.eventBus.impl.MultiChannelBusImpl;
+import com.julianw03.rcls.eventBus.model.Channel;
+import com.julianw03.rcls.eventBus.model.events.RCUConnectionEvent;
+import com.julianw03.rcls.model.data.PublishingViewSource;
+import com.julianw03.rcls.service.websocketPublisher.WebsocketPublisher;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+public class WebsocketPublisherTest {
+    private static final ObjectMapper MSGPACK_MAPPER = WebsocketPublishingFormat.MSGPACK.getMapperFactory()
+                                                                                        .get();
+
+    private MultiChannelBusImpl eventBus;
+    private WebsocketPublisher  publisher;
+
+    @BeforeEach
+    void setUp() {
+        final WebsocketConfig config = new WebsocketConfig();
+        config.setPublishingFormat(WebsocketPublishingFormat.MSGPACK);
+
+        @SuppressWarnings("unchecked")
+        final ObjectProvider<PublishingViewSource> viewSources = mock(ObjectProvider.class);
+        when(viewSources.orderedStream()).thenAnswer(invocation -> Stream.empty());
+
+        eventBus = new MultiChannelBusImpl();
+        publisher = new WebsocketPublisher(
+                eventBus,
+                config,
+                viewSources
+        );
+    }
+
+    @AfterEach
+    void tearDown() {
+        publisher.destroy();
+    }
+
+    @Test
+    void test_everySessionAndEveryReplayReceivesTheFullFrame() throws Exception {
+        final List<byte[]> framesA = new CopyOnWriteArrayList<>();
+        final List<byte[]> framesB = new CopyOnWriteArrayList<>();
+        final WebSocketSession sessionA = session("a", null, framesA);
+        final WebSocketSession sessionB = session("b", null, framesB);
+        publisher.afterConnectionEstablished(sessionA);
+        publisher.afterConnectionEstablished(sessionB);
+
+        eventBus.publish(Channel.RCU_CONNECTION_STATE, new RCUConnectionEvent("test", true));
+        eventBus.publish(Channel.RCU_CONNECTION_STATE, new RCUConnectionEvent("test", false));
+
+        // Snapshot plus both events
+        verify(sessionA, timeout(2_000).times(3)).sendMessage(any());
+        verify(sessionB, timeout(2_000).times(3)).sendMessage(any());
+        assertEquals(List.of(1L, 2L), sequenceNumbers(framesA.subList(1, 3)));
+        assertEquals(List.of(1L, 2L), sequenceNumbers(framesB.subList(1, 3)));
+
+        // Replaying the same journal entries twice must not hand out consumed buffers either
+        for (String id : List.of("c", "d")) {
+            final List<byte[]> replayed = new CopyOnWriteArrayList<>();
+            final WebSocketSession resumed = session(id, "ws://localhost/ws?since=0", replayed);
+            publisher.afterConnectionEstablished(resumed);
+
+            verify(resumed, timeout(2_000).times(2)).sendMessage(any());
+            assertEquals(List.of(1L, 2L), sequenceNumbers(replayed));
+            assertArrayEquals(framesA.get(1), replayed.get(0));
+            assertArrayEquals(framesA.get(2), replayed.get(1));
+            publisher.afterConnectionClosed(resumed, CloseStatus.NORMAL);
+        }
+    }
+
+    @Test
+    void test_sessionThatFallsBehindIsResyncedWithASnapshot() throws Exception {
+        final WebsocketConfig config = new WebsocketConfig();
+        config.setPublishingFormat(WebsocketPublishingFormat.MSGPACK);
+        config.setSessionQueueSize(2);
+        config.setSlowConsumerPolicy(SlowConsumerPolicy.DROP);
+        @SuppressWarnings("unchecked")
+        final ObjectProvider<PublishingViewSource> viewSources = mock(ObjectProvider.class);
+        when(viewSources.orderedStream()).thenAnswer(invocation -> Stream.empty());
+        final WebsocketPublisher slowPublisher = new WebsocketPublisher(eventBus, config, viewSources);
+
+        try {
+            final List<byte[]> frames = new CopyOnWriteArrayList<>();
+            final CountDownLatch stalled = new CountDownLatch(1);
+            final WebSocketSession session = session("slow", null, frames, stalled);
+            slowPublisher.afterConnectionEstablished(session);
+            // The writer is now stuck on the initial snapshot, everything else has to wait in the queue
+            verify(session, timeout(2_000)).sendMessage(any());
+
+            for (int i = 0; i < 6; i++) {
+                eventBus.publish(Channel.RCU_CONNECTION_STATE, new RCUConnectionEvent("test", i % 2 == 0));
+            }
+            stalled.countDown();
+
+            // 1 and 2 fill the queue, 3 and 5 overflow it and each time replace it with a snapshot
+            verify(session, timeout(2_000).times(3)).sendMessage(any());
+            assertEquals(List.of(0L, 5L, 6L), sequenceNumbers(frames));
+            assertEquals("SnapshotPayload", MSGPACK_MAPPER.readTree(frames.get(1))
+                                                          .get("payloadType")
+                                                          .asText());
+        } finally {
+            slowPublisher.destroy();
+        }
+    }
+
+    private static WebSocketSession session(
+            String id,
+            String uri,
+            List<byte[]> frames
+    ) throws IOException {
+        return session(
+                id,
+                uri,
+                frames,
+                new CountDownLatch(0)
+        );
+    }
+
+    /**
+     * Drains every binary message it is sent, just like the container does while writing the frame.
+     *
+     * @param sendGate Every send waits for it first
+     */
+    private static WebSocketSession session(
+            String id,
+            String uri,
+            List<byte[]> frames,
+            CountDownLatch sendGate
+    ) throws IOException {
+        final WebSocketSession session = mock(WebSocketSession.class);
+        when(session.getId()).thenReturn(id);
+        when(session.getUri()).thenReturn(uri == null ? null : URI.create(uri));
+        when(session.isOpen()).thenReturn(true);
+        doAnswer(invocation -> {
+            sendGate.await();
+            final ByteBuffer payload = invocation.<BinaryMessage>getArgument(0)
+                                                 .getPayload();
+            final byte[] frame = new byte[payload.remaining()];
+            payload.get(frame);
+            frames.add(frame);
+            return null;
+        }).when(session)
+          .sendMessage(any());
+        return session;
+    }
+
+    private static List<Long> sequenceNumbers(List<byte[]> frames) throws IOException {
+        final List<Long> sequenceNumbers = new ArrayList<>();
+        for (byte[] frame : frames) {
+            assertTrue(frame.length > 0, "Received an empty frame");
+            sequenceNumbers.add(MSGPACK_MAPPER.readTree(frame)
+                                              .get("seq")
+                                              .asLong());
+        }
+        return sequenceNumbers;
+    }
+}
@@ -21,6 +21,14 @@ interface GenericMessage<T> {
     payload: T;
 }
 
+interface SequencedMessage<T> extends GenericMessage<T> {
+    seq: number;
+}
+
+interface SnapshotPayload extends GenericMessage<GenericMessage<unknown>[]> {
+    payloadType: "SnapshotPayload",
+}
+
 interface KeyViewUpdatedPayload<K, V> extends GenericMessage<MapKeyData<K, V>> {
     payloadType: "KeyViewUpdatedPayload",
 }
@@ -106,13 +114,16 @@ const WSHandler = () => {
     const dispatch = useDispatch();
 
     const websocketRef = useRef<WebSocket | null>(null);
+    const lastSeqRef = useRef<number | null>(null);
 
     useEffect(() => {
         let rcTimeout = null as NodeJS.Timeout | null;
         if (websocketRef.current !== null) return;
 
         const crateNewWebSocket = () => {
-            const ws = new WebSocket(LocalLinkResolver.resolve("/ws" as LocalLink, "wss"));
+            // Resume from the last frame we saw, the backend either replays the gap or sends a fresh snapshot
+            const since = lastSeqRef.current === null ? "" : `?since=${lastSeqRef.current}`;
+            const ws = new WebSocket(LocalLinkResolver.resolve(`/ws${since}` as LocalLink, "wss"));
             dispatch(ACTION_SET_BACKEND_CONNECTION_STATE(BackendConnectionState.CONNECTING))
             websocketRef.current = ws;
             ws.binaryType = "arraybuffer";
@@ -125,7 +136,9 @@ const WSHandler = () => {
                 console.log("WebSocket opened");
             };
             ws.onmessage = (messageEvent) => {
-                const message = decode(messageEvent.data) as GenericMessage<unknown>;
+                const message = decode(messageEvent.data) as SequencedMessage<unknown>;
+                // Gaps in seq are fine, the backend only skips superseded frames or follows a loss up with a snapshot
+                lastSeqRef.current = message.seq;
                 handleMessage(message);
             };
             ws.onerror = (errorEvent) => {
@@ -156,6 +169,10 @@ const WSHandler = () => {
 
     const handleMessage = (msg: GenericMessage<unknown>) => {
         console.log(msg);
+        if (msg.payloadType === "SnapshotPayload") {
+            (msg as SnapshotPayload).payload.forEach(handleMessage);
+            return;
+        }
         sourceHandlers.get(msg.source)?.(msg, dispatch);
     }
 